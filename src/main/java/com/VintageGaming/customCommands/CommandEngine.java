@@ -0,0 +1,175 @@
+package com.VintageGaming.customCommands;
+
+import com.VintageGaming.customCommands.audit.AuditLog;
+import com.VintageGaming.customCommands.execution.ActionExecutor;
+import com.VintageGaming.customCommands.execution.BroadcastCoalescer;
+import com.VintageGaming.customCommands.execution.BulkExecutor;
+import com.VintageGaming.customCommands.execution.PendingCountdowns;
+import com.VintageGaming.customCommands.execution.PlayerChunkIndex;
+import com.VintageGaming.customCommands.guard.GuardPipeline;
+import com.VintageGaming.customCommands.lang.MessageCatalog;
+import com.VintageGaming.customCommands.lang.PlayerLocales;
+import com.VintageGaming.customCommands.monitoring.SlowActionLog;
+import com.VintageGaming.customCommands.placeholder.PlaceholderService;
+import com.VintageGaming.customCommands.platform.CommandSink;
+import com.VintageGaming.customCommands.platform.Platform;
+import com.VintageGaming.customCommands.platform.PlayerLookup;
+import com.VintageGaming.customCommands.scheduler.TaskScheduler;
+import com.VintageGaming.customCommands.trace.TraceRecorder;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.File;
+import java.util.logging.Logger;
+
+/**
+ * The parts of the plugin that run commands: guards, action execution, countdowns, broadcasts, messages, logs and traces.
+ * Everything they need from the server goes through the {@link Platform}, so the engine runs the
+ * same inside the plugin and in the headless runner.
+ */
+public class CommandEngine {
+
+    private final Platform platform;
+    private final MessageCatalog messageCatalog;
+    private final PlayerLocales playerLocales;
+    private final SlowActionLog slowActionLog;
+    private final AuditLog auditLog;
+    private final BroadcastCoalescer broadcastCoalescer;
+    private final PlayerChunkIndex playerIndex;
+    private final ActionExecutor actionExecutor;
+    private final PendingCountdowns pendingCountdowns;
+    private final GuardPipeline guardPipeline;
+    private final TraceRecorder traceRecorder;
+    private final BulkExecutor bulkExecutor;
+    private volatile PlaceholderService placeholderService;
+
+    public CommandEngine(Platform platform) {
+        this.platform = platform;
+        this.messageCatalog = new MessageCatalog(platform.getLogger());
+        this.playerLocales = new PlayerLocales(messageCatalog);
+        this.slowActionLog = new SlowActionLog(this);
+        this.auditLog = new AuditLog(this);
+        this.broadcastCoalescer = new BroadcastCoalescer(platform.getTaskScheduler(), platform.getCommandSink());
+        this.playerIndex = new PlayerChunkIndex(platform.getTaskScheduler());
+        this.actionExecutor = new ActionExecutor(this);
+        this.pendingCountdowns = new PendingCountdowns(actionExecutor);
+        this.guardPipeline = new GuardPipeline(this);
+        this.traceRecorder = new TraceRecorder(this);
+        this.bulkExecutor = new BulkExecutor(this);
+    }
+
+    /**
+     * Applies the engine's settings of config.yml. Messages are loaded separately.
+     * @param config The root of the config.
+     */
+    public void configure(ConfigurationSection config) {
+        slowActionLog.configure(config.getConfigurationSection("monitoring"));
+        actionExecutor.setDirectCommands(!"events".equalsIgnoreCase(config.getString("command-actions", "direct")));
+        pendingCountdowns.configure(config.getConfigurationSection("delay"));
+        auditLog.configure(config.getConfigurationSection("audit"));
+        broadcastCoalescer.configure(config.getConfigurationSection("broadcast"));
+        playerIndex.configure(config.getConfigurationSection("effects"));
+        guardPipeline.configure(config.getConfigurationSection("guards"));
+        traceRecorder.configure(config.getConfigurationSection("trace"));
+        bulkExecutor.configure(config.getConfigurationSection("bulk"));
+    }
+
+    /**
+     * Stops the countdowns and writes out the logs.
+     */
+    public void close() {
+        bulkExecutor.cancelAll();
+        pendingCountdowns.cancelAll();
+        broadcastCoalescer.close();
+        slowActionLog.close();
+        auditLog.close();
+        traceRecorder.stop();
+        playerIndex.clear();
+    }
+
+    public Platform getPlatform() {
+        return platform;
+    }
+
+    public Logger getLogger() {
+        return platform.getLogger();
+    }
+
+    public File getDataFolder() {
+        return platform.getDataFolder();
+    }
+
+    public TaskScheduler getTaskScheduler() {
+        return platform.getTaskScheduler();
+    }
+
+    public PlayerLookup getPlayers() {
+        return platform.getPlayers();
+    }
+
+    public CommandSink getCommandSink() {
+        return platform.getCommandSink();
+    }
+
+    public Economy getEconomy() {
+        return platform.getEconomy();
+    }
+
+    public MessageCatalog getMessageCatalog() {
+        return messageCatalog;
+    }
+
+    public PlayerLocales getPlayerLocales() {
+        return playerLocales;
+    }
+
+    public SlowActionLog getSlowActionLog() {
+        return slowActionLog;
+    }
+
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    public BroadcastCoalescer getBroadcastCoalescer() {
+        return broadcastCoalescer;
+    }
+
+    /**
+     * @return The online players by chunk, for finding who sees an effect.
+     */
+    public PlayerChunkIndex getPlayerIndex() {
+        return playerIndex;
+    }
+
+    public ActionExecutor getActionExecutor() {
+        return actionExecutor;
+    }
+
+    public PendingCountdowns getPendingCountdowns() {
+        return pendingCountdowns;
+    }
+
+    public GuardPipeline getGuardPipeline() {
+        return guardPipeline;
+    }
+
+    public TraceRecorder getTraceRecorder() {
+        return traceRecorder;
+    }
+
+    /**
+     * @return The service dynamic placeholders are bound through, null until it was set.
+     */
+    public PlaceholderService getPlaceholderService() {
+        return placeholderService;
+    }
+
+    public void setPlaceholderService(PlaceholderService placeholderService) {
+        this.placeholderService = placeholderService;
+    }
+
+    public BulkExecutor getBulkExecutor() {
+        return bulkExecutor;
+    }
+}
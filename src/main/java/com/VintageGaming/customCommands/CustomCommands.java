@@ -1,17 +1,25 @@
 package com.VintageGaming.customCommands;
 
+import com.VintageGaming.customCommands.audit.AuditLog;
 import com.VintageGaming.customCommands.command.AdminCommand;
-import com.VintageGaming.customCommands.execution.ActionExecutor;
+import com.VintageGaming.customCommands.execution.PendingCountdowns;
+import com.VintageGaming.customCommands.guard.GuardPipeline;
+import com.VintageGaming.customCommands.lang.MessageCatalog;
+import com.VintageGaming.customCommands.lang.PlayerLocales;
 import com.VintageGaming.customCommands.management.CommandManager;
+import com.VintageGaming.customCommands.monitoring.SlowActionLog;
+import com.VintageGaming.customCommands.placeholder.BuiltinPlaceholders;
+import com.VintageGaming.customCommands.placeholder.PlaceholderService;
+import com.VintageGaming.customCommands.platform.BukkitPlatform;
+import com.VintageGaming.customCommands.scheduler.TaskScheduler;
+import com.VintageGaming.customCommands.scheduler.TaskSchedulers;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import net.milkbowl.vault.economy.Economy;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
-import org.bukkit.entity.Player;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -23,21 +31,44 @@ import java.util.UUID;
 public final class CustomCommands extends JavaPlugin {
 
     private CommandManager commandManager;
-    private ActionExecutor actionExecutor;
     private Economy economy;
+    private PlaceholderService placeholderService;
+    private TaskScheduler taskScheduler;
+    private CommandEngine engine;
 
     @Override
     public void onEnable() {
+        saveDefaultConfig();
+        this.taskScheduler = TaskSchedulers.create(this);
+        if (taskScheduler.isFolia()) {
+            getLogger().info("Folia detected, scheduling actions on region threads.");
+        }
+        this.engine = new CommandEngine(new BukkitPlatform(this, taskScheduler));
+        reloadSettings();
+
         if (!setupEconomy()) {
             getLogger().info("Vault not found! Commands with Cost will not work.");
         }
 
-        this.actionExecutor = new ActionExecutor(this);
-        this.commandManager = new CommandManager(this, actionExecutor);
+        getServer().getPluginManager().registerEvents(engine.getPendingCountdowns(), this);
+        getServer().getPluginManager().registerEvents(engine.getGuardPipeline(), this);
+        getServer().getPluginManager().registerEvents(engine.getPlayerLocales(), this);
+        getServer().getPluginManager().registerEvents(engine.getActionExecutor().getCommandTargets(), this);
+        getServer().getPluginManager().registerEvents(engine.getPlayerIndex(), this);
+        // Players already online after a reload have no join event.
+        engine.getPlayerIndex().addAll(getServer().getOnlinePlayers());
+
+        this.placeholderService = new PlaceholderService(engine, getServer().getServicesManager());
+        engine.setPlaceholderService(placeholderService);
+        getServer().getPluginManager().registerEvents(placeholderService, this);
+        placeholderService.start();
+
+        this.commandManager = new CommandManager(this, engine.getActionExecutor());
+        getServer().getPluginManager().registerEvents(commandManager.getCommandListFilter(), this);
         commandManager.loadCommands();
 
 
-        AdminCommand adminCommand = new AdminCommand(commandManager);
+        AdminCommand adminCommand = new AdminCommand(this);
         getCommand("customcommands").setExecutor(adminCommand);
         getCommand("customcommands").setTabCompleter(adminCommand);
         getLogger().info("CustomCommands has been enabled!");
@@ -48,6 +79,13 @@ public final class CustomCommands extends JavaPlugin {
         if (commandManager != null) {
             commandManager.unregisterAllCommands();
         }
+        if (placeholderService != null) {
+            placeholderService.stop();
+        }
+        getServer().getServicesManager().unregisterAll(this);
+        if (engine != null) {
+            engine.close();
+        }
         getLogger().info("CustomCommands has been disabled.");
     }
 
@@ -59,6 +97,63 @@ public final class CustomCommands extends JavaPlugin {
         return economy;
     }
 
+    public CommandEngine getEngine() {
+        return engine;
+    }
+
+    public SlowActionLog getSlowActionLog() {
+        return engine.getSlowActionLog();
+    }
+
+    public PendingCountdowns getPendingCountdowns() {
+        return engine.getPendingCountdowns();
+    }
+
+    public PlaceholderService getPlaceholderService() {
+        return placeholderService;
+    }
+
+    public AuditLog getAuditLog() {
+        return engine.getAuditLog();
+    }
+
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+
+    public GuardPipeline getGuardPipeline() {
+        return engine.getGuardPipeline();
+    }
+
+    public MessageCatalog getMessageCatalog() {
+        return engine.getMessageCatalog();
+    }
+
+    public PlayerLocales getPlayerLocales() {
+        return engine.getPlayerLocales();
+    }
+
+    /**
+     * Reloads config.yml and applies it to the plugin's subsystems.
+     */
+    public void reloadSettings() {
+        reloadConfig();
+        engine.configure(getConfig());
+        // Replacing the providers fires service events, the PlaceholderService rebinds its handles on them.
+        BuiltinPlaceholders.register(this, getConfig().getConfigurationSection("placeholders"));
+        loadMessages();
+    }
+
+    private void loadMessages() {
+        File langFolder = new File(getDataFolder(), "lang");
+        if (!langFolder.exists()) {
+            saveResource("lang/en_us.yml", false);
+            saveResource("lang/de_de.yml", false);
+        }
+        engine.getMessageCatalog().load(langFolder, getConfig().getString("default-locale", "en_us"));
+        engine.getPlayerLocales().clear();
+    }
+
     private boolean setupEconomy() {
         if (getServer().getPluginManager().getPlugin("Vault") == null) {
             return false;
@@ -71,16 +166,15 @@ public final class CustomCommands extends JavaPlugin {
         return economy != null;
     }
 
+    /**
+     * Looks a name up through the running plugin's players, then the server's usercache.json.
+     * Kept static for the plugins calling it.
+     */
     public static UUID getUUIDFromName(String name) {
-        Player onlinePlayer = Bukkit.getPlayerExact(name);
-        if (onlinePlayer != null) {
-            return onlinePlayer.getUniqueId();
-        }
-
-        @SuppressWarnings("deprecation")
-        OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(name);
-        if (offlinePlayer.hasPlayedBefore()) {
-            return offlinePlayer.getUniqueId();
+        CommandEngine engine = getPlugin(CustomCommands.class).engine;
+        UUID known = engine != null ? engine.getPlayers().getUniqueId(name) : null;
+        if (known != null) {
+            return known;
         }
 
         Path userCachePath = Paths.get("usercache.json");
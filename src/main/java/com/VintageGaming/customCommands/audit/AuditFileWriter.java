@@ -0,0 +1,202 @@
+package com.VintageGaming.customCommands.audit;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * Appends audit records to one file per day, named audit-yyyy-MM-dd.jsonl or .bin.
+ * Only used from the audit writer thread.
+ * <p>
+ * The binary format starts with the magic "CCAUDIT" and a version byte, followed by
+ * records of: long time millis, boolean has UUID, [long most, long least significant bits],
+ * UTF sender, UTF command, UTF path, short argument count, UTF arguments,
+ * byte outcome ordinal and double cost.
+ */
+final class AuditFileWriter {
+
+    enum Format {
+        JSON(".jsonl"),
+        BINARY(".bin");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    private static final byte[] MAGIC = "CCAUDIT".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+
+    private final File directory;
+    private final Format format;
+    private final int keepDays;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final StringBuilder line = new StringBuilder(256);
+
+    private LocalDate currentDay;
+    private OutputStream out;
+    private DataOutputStream data;
+
+    AuditFileWriter(File directory, Format format, int keepDays) {
+        this.directory = directory;
+        this.format = format;
+        this.keepDays = keepDays;
+    }
+
+    void write(AuditRecord record) throws IOException {
+        LocalDate day = Instant.ofEpochMilli(record.time).atZone(zone).toLocalDate();
+        if (!day.equals(currentDay)) {
+            rotate(day);
+        }
+        if (format == Format.BINARY) {
+            writeBinary(record);
+        } else {
+            writeJson(record);
+        }
+    }
+
+    void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    void close() throws IOException {
+        if (out != null) {
+            try {
+                out.close();
+            } finally {
+                out = null;
+                data = null;
+                currentDay = null;
+            }
+        }
+    }
+
+    private void rotate(LocalDate day) throws IOException {
+        close();
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        File file = new File(directory, "audit-" + day + format.extension);
+        boolean isNew = !file.exists() || file.length() == 0;
+        out = new BufferedOutputStream(new FileOutputStream(file, true), 64 * 1024);
+        data = new DataOutputStream(out);
+        currentDay = day;
+        if (format == Format.BINARY && isNew) {
+            data.write(MAGIC);
+            data.writeByte(VERSION);
+        }
+        deleteExpired(day);
+    }
+
+    private void deleteExpired(LocalDate today) {
+        if (keepDays <= 0) return;
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("audit-") && name.length() >= 16);
+        if (files == null) return;
+        LocalDate oldest = today.minusDays(keepDays);
+        for (File file : files) {
+            try {
+                LocalDate day = LocalDate.parse(file.getName().substring(6, 16));
+                if (day.isBefore(oldest)) {
+                    file.delete();
+                }
+            } catch (RuntimeException ignored) {
+                // Not one of ours.
+            }
+        }
+    }
+
+    private void writeBinary(AuditRecord record) throws IOException {
+        data.writeLong(record.time);
+        data.writeBoolean(record.senderId != null);
+        if (record.senderId != null) {
+            data.writeLong(record.senderId.getMostSignificantBits());
+            data.writeLong(record.senderId.getLeastSignificantBits());
+        }
+        data.writeUTF(nonNull(record.senderName));
+        data.writeUTF(nonNull(record.command));
+        data.writeUTF(nonNull(record.path));
+        String[] args = record.args != null ? record.args : new String[0];
+        data.writeShort(args.length);
+        for (String arg : args) {
+            data.writeUTF(nonNull(arg));
+        }
+        data.writeByte(record.outcome != null ? record.outcome.ordinal() : -1);
+        data.writeDouble(record.cost);
+    }
+
+    private void writeJson(AuditRecord record) throws IOException {
+        line.setLength(0);
+        line.append("{\"time\":\"").append(Instant.ofEpochMilli(record.time)).append('"');
+        line.append(",\"sender\":");
+        appendString(record.senderName);
+        UUID senderId = record.senderId;
+        if (senderId != null) {
+            line.append(",\"uuid\":\"").append(senderId).append('"');
+        }
+        line.append(",\"command\":");
+        appendString(record.command);
+        line.append(",\"path\":");
+        appendString(record.path);
+        line.append(",\"args\":[");
+        if (record.args != null) {
+            for (int i = 0; i < record.args.length; i++) {
+                if (i > 0) line.append(',');
+                appendString(record.args[i]);
+            }
+        }
+        line.append("],\"outcome\":\"").append(record.outcome).append('"');
+        line.append(",\"cost\":").append(record.cost).append("}\n");
+        out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void appendString(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    private static String nonNull(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,161 @@
+package com.VintageGaming.customCommands.audit;
+
+import com.VintageGaming.customCommands.CommandEngine;
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records who ran which custom command, with its arguments, outcome and the cost charged.
+ * The calling thread only copies a few references into a preallocated ring buffer slot.
+ * A background thread drains the buffer in batches to daily files in the "audit" folder.
+ * If the writer falls behind and the buffer fills up, records are dropped and counted.
+ * Queuing a record costs the calling thread well under a microsecond, see AuditLogBenchmark.
+ */
+public class AuditLog {
+
+    private final CommandEngine engine;
+
+    private volatile AuditRingBuffer buffer;
+    private Thread writerThread;
+    private volatile boolean running;
+    private long reportedDropped;
+
+    public AuditLog(CommandEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * (Re)applies the "audit" section of the config. Records still in the buffer
+     * are written out before the new settings take effect.
+     * @param config The audit section, may be null.
+     */
+    public void configure(ConfigurationSection config) {
+        close();
+        if (config == null || !config.getBoolean("enabled", false)) {
+            return;
+        }
+
+        AuditFileWriter.Format format = "binary".equalsIgnoreCase(config.getString("format", "json")) ?
+                AuditFileWriter.Format.BINARY : AuditFileWriter.Format.JSON;
+        AuditFileWriter fileWriter = new AuditFileWriter(new File(engine.getDataFolder(), "audit"), format, config.getInt("keep-days", 30));
+        AuditRingBuffer ringBuffer = new AuditRingBuffer(Math.max(64, config.getInt("buffer-size", 8192)));
+        int batchSize = Math.max(1, config.getInt("batch-size", 256));
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(10, config.getLong("flush-interval-ms", 1000)));
+
+        running = true;
+        reportedDropped = 0;
+        writerThread = new Thread(() -> drainLoop(ringBuffer, fileWriter, batchSize, flushIntervalNanos), "CustomCommands-Audit");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        buffer = ringBuffer;
+    }
+
+    public boolean isEnabled() {
+        return buffer != null;
+    }
+
+    /**
+     * Queues an invocation for the audit log. Never blocks.
+     * @param sender The sender of the command.
+     * @param command The name of the command.
+     * @param path The matched command path.
+     * @param args The arguments as given, the array must not be modified afterwards.
+     * @param outcome The outcome of the invocation.
+     * @param cost The amount charged, 0 if nothing was.
+     */
+    public void record(CommandSender sender, String command, String path, String[] args, ExecutionOutcome outcome, double cost) {
+        AuditRingBuffer ringBuffer = buffer;
+        if (ringBuffer == null) return;
+        UUID senderId = sender instanceof Player ? ((Player) sender).getUniqueId() : null;
+        ringBuffer.offer(System.currentTimeMillis(), senderId, sender.getName(), command, path, args, outcome, cost);
+    }
+
+    /**
+     * @return The number of records dropped because the buffer was full, since the log was (re)configured.
+     */
+    public long getDropped() {
+        AuditRingBuffer ringBuffer = buffer;
+        return ringBuffer != null ? ringBuffer.getDropped() : 0;
+    }
+
+    /**
+     * Stops the writer thread after it has written everything still buffered.
+     */
+    public void close() {
+        buffer = null;
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writerThread = null;
+        }
+    }
+
+    private void drainLoop(AuditRingBuffer ringBuffer, AuditFileWriter fileWriter, int batchSize, long flushIntervalNanos) {
+        AuditRecord record = new AuditRecord();
+        while (true) {
+            // Read the flag before draining, so nothing queued before close() is left behind.
+            boolean stopping = !running;
+            int written = 0;
+            try {
+                while (written < batchSize && ringBuffer.poll(record)) {
+                    written++;
+                    writeRecord(fileWriter, record);
+                }
+                if (written > 0) {
+                    fileWriter.flush();
+                }
+            } catch (IOException e) {
+                engine.getLogger().warning("Could not write the audit log: " + e.getMessage());
+                // Reopen the file with the next record.
+                closeQuietly(fileWriter);
+            }
+            reportDrops(ringBuffer);
+            if (written == batchSize) {
+                continue;
+            }
+            if (stopping) {
+                break;
+            }
+            LockSupport.parkNanos(this, flushIntervalNanos);
+        }
+        closeQuietly(fileWriter);
+    }
+
+    private void closeQuietly(AuditFileWriter fileWriter) {
+        try {
+            fileWriter.close();
+        } catch (IOException e) {
+            engine.getLogger().warning("Could not close the audit log: " + e.getMessage());
+        }
+    }
+
+    private void writeRecord(AuditFileWriter fileWriter, AuditRecord record) throws IOException {
+        try {
+            fileWriter.write(record);
+        } finally {
+            record.clear();
+        }
+    }
+
+    private void reportDrops(AuditRingBuffer ringBuffer) {
+        long dropped = ringBuffer.getDropped();
+        if (dropped > reportedDropped) {
+            engine.getLogger().warning("The audit buffer overflowed, " + (dropped - reportedDropped)
+                    + " records were dropped. Consider raising audit.buffer-size.");
+            reportedDropped = dropped;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.VintageGaming.customCommands.audit;
+
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+
+import java.util.UUID;
+
+/**
+ * One audited command invocation. Records are preallocated in the ring buffer
+ * and overwritten in place, so logging a command doesn't allocate.
+ */
+public final class AuditRecord {
+
+    long time;
+    UUID senderId;
+    String senderName;
+    String command;
+    String path;
+    String[] args;
+    ExecutionOutcome outcome;
+    double cost;
+
+    void set(long time, UUID senderId, String senderName, String command, String path, String[] args, ExecutionOutcome outcome, double cost) {
+        this.time = time;
+        this.senderId = senderId;
+        this.senderName = senderName;
+        this.command = command;
+        this.path = path;
+        this.args = args;
+        this.outcome = outcome;
+        this.cost = cost;
+    }
+
+    void copyFrom(AuditRecord other) {
+        set(other.time, other.senderId, other.senderName, other.command, other.path, other.args, other.outcome, other.cost);
+    }
+
+    /**
+     * Drops the references held by the record so a free slot doesn't keep them alive.
+     */
+    void clear() {
+        set(0, null, null, null, null, null, null, 0);
+    }
+
+    // --- Getters ---
+
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return The UUID of the sender, or null if it wasn't a player.
+     */
+    public UUID getSenderId() {
+        return senderId;
+    }
+
+    public String getSenderName() {
+        return senderName;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String[] getArgs() {
+        return args;
+    }
+
+    public ExecutionOutcome getOutcome() {
+        return outcome;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+}
@@ -0,0 +1,89 @@
+package com.VintageGaming.customCommands.audit;
+
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free ring buffer of preallocated audit records with any number of
+ * producers and a single consumer. Every slot carries a sequence number telling whether
+ * it is free for the producer at that position or filled for the consumer. When the
+ * buffer is full, new records are dropped and counted instead of blocking the caller.
+ */
+final class AuditRingBuffer {
+
+    private final AuditRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    // Only touched by the consumer.
+    private long head;
+
+    /**
+     * @param capacity The minimum number of records the buffer holds, rounded up to a power of two.
+     */
+    AuditRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AuditRecord[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new AuditRecord();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return False if the buffer was full and the record was dropped.
+     */
+    boolean offer(long time, UUID senderId, String senderName, String command, String path, String[] args, ExecutionOutcome outcome, double cost) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                // The consumer hasn't freed this slot yet, the buffer is full.
+                dropped.incrementAndGet();
+                return false;
+            }
+            // Another producer claimed this position first, try the next one.
+        }
+        slots[index].set(time, senderId, senderName, command, path, args, outcome, cost);
+        sequences.lazySet(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Moves the oldest record into the given one. Must only be called by the consumer.
+     * @return False if the buffer is empty.
+     */
+    boolean poll(AuditRecord into) {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return false;
+        }
+        AuditRecord slot = slots[index];
+        into.copyFrom(slot);
+        slot.clear();
+        sequences.lazySet(index, head + slots.length);
+        head++;
+        return true;
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
@@ -1,26 +1,48 @@
 package com.VintageGaming.customCommands.command;
 
+import com.VintageGaming.customCommands.CustomCommands;
+import com.VintageGaming.customCommands.execution.BroadcastCoalescer;
+import com.VintageGaming.customCommands.execution.BulkExecution;
+import com.VintageGaming.customCommands.execution.BulkExecutor;
+import com.VintageGaming.customCommands.execution.PendingCountdowns;
+import com.VintageGaming.customCommands.guard.CircuitBreaker;
+import com.VintageGaming.customCommands.guard.CircuitBreakerGuard;
+import com.VintageGaming.customCommands.guard.GuardPipeline;
+import com.VintageGaming.customCommands.guard.GuardStats;
+import com.VintageGaming.customCommands.lint.LintFinding;
+import com.VintageGaming.customCommands.lint.LintReport;
+import com.VintageGaming.customCommands.lint.PathCost;
 import com.VintageGaming.customCommands.management.CommandManager;
+import com.VintageGaming.customCommands.platform.PlayerLookup;
+import com.VintageGaming.customCommands.trace.TraceRecorder;
 import org.bukkit.ChatColor;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
 import org.bukkit.util.StringUtil;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 public class AdminCommand implements CommandExecutor, TabCompleter {
 
     // This Class is for Reloading the Plugin
 
+    private final CustomCommands plugin;
     private final CommandManager commandManager;
 
 
-    public AdminCommand(CommandManager commandManager) {
-        this.commandManager = commandManager;
+    public AdminCommand(CustomCommands plugin) {
+        this.plugin = plugin;
+        this.commandManager = plugin.getCommandManager();
     }
 
     @Override
@@ -32,8 +54,42 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
 
         // Handle Reload subcommand
         if (args[0].equalsIgnoreCase("reload")) {
-            commandManager.reloadCommands();
-            sender.sendMessage(ChatColor.GREEN + "CustomCommands configuration and commands have been reloaded!");
+            // The command map is global state, on Folia it may only be changed from the global region.
+            plugin.getTaskScheduler().runGlobal(() -> {
+                plugin.reloadSettings();
+                commandManager.reloadCommands();
+                sender.sendMessage(ChatColor.GREEN + "CustomCommands configuration and commands have been reloaded!");
+            });
+            return true;
+        }
+
+        // Handle Pending subcommand
+        if (args[0].equalsIgnoreCase("pending")) {
+            handlePending(sender, args);
+            return true;
+        }
+
+        // Handle Stats subcommand
+        if (args[0].equalsIgnoreCase("stats")) {
+            handleStats(sender, args);
+            return true;
+        }
+
+        // Handle Lint subcommand
+        if (args[0].equalsIgnoreCase("lint")) {
+            handleLint(sender, args);
+            return true;
+        }
+
+        // Handle Trace subcommand
+        if (args[0].equalsIgnoreCase("trace")) {
+            handleTrace(sender, args);
+            return true;
+        }
+
+        // Handle Bulk subcommand
+        if (args[0].equalsIgnoreCase("bulk")) {
+            handleBulk(sender, args);
             return true;
         }
 
@@ -41,9 +97,259 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private void handleBulk(CommandSender sender, String[] args) {
+        BulkExecutor bulkExecutor = plugin.getEngine().getBulkExecutor();
+        if (args.length == 2 && args[1].equalsIgnoreCase("cancel")) {
+            List<BulkExecution> running = bulkExecutor.getRunning();
+            for (BulkExecution execution : running) {
+                execution.cancel();
+            }
+            sender.sendMessage(ChatColor.GREEN + "Cancelled " + running.size() + " bulk run(s).");
+            return;
+        }
+        if (args.length < 3) {
+            List<BulkExecution> running = bulkExecutor.getRunning();
+            if (running.isEmpty()) {
+                sender.sendMessage(ChatColor.GRAY + "Usage: /customcommands bulk <online|world:<name>|name1,name2,...> <command> [args...]");
+                return;
+            }
+            sender.sendMessage(ChatColor.GOLD + "--- Running Bulk Runs (" + running.size() + ") ---");
+            for (BulkExecution execution : running) {
+                sender.sendMessage(ChatColor.YELLOW + "/" + execution.getPath() + ChatColor.GRAY + " - "
+                        + execution.getProcessed() + "/" + execution.getTotal() + " targets, " + execution.getElapsedMillis() + "ms");
+            }
+            return;
+        }
+
+        DynamicCommand command = commandManager.getCommand(args[2]);
+        if (command == null) {
+            sender.sendMessage(ChatColor.RED + "/" + args[2] + " is not a custom command.");
+            return;
+        }
+        String[] commandArgs = Arrays.copyOfRange(args, 3, args.length);
+        // Resolving the targets and the path reads the player list and the command map, both global state.
+        plugin.getTaskScheduler().runGlobal(() -> {
+            List<Player> targets = resolveTargets(sender, args[1]);
+            if (targets == null) {
+                return;
+            }
+            long[] nextReport = {1000};
+            BulkExecution execution;
+            try {
+                execution = command.executeBulk(commandArgs, targets, progress -> {
+                    // Once a second for long runs, the summary covers the last slice.
+                    if (progress.getProcessed() < progress.getTotal() && progress.getElapsedMillis() >= nextReport[0]) {
+                        nextReport[0] = progress.getElapsedMillis() + 1000;
+                        plugin.getTaskScheduler().runFor(sender, () -> sender.sendMessage(ChatColor.GRAY + "/" + progress.getPath() + ": "
+                                + progress.getProcessed() + "/" + progress.getTotal() + " targets..."));
+                    }
+                });
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                sender.sendMessage(ChatColor.RED + e.getMessage());
+                return;
+            }
+            sender.sendMessage(ChatColor.GREEN + "Running /" + execution.getPath() + " for " + execution.getTotal() + " target(s).");
+            execution.getFuture().thenAccept(done -> plugin.getTaskScheduler().runFor(sender, () -> sender.sendMessage(
+                    (done.isCancelled() ? ChatColor.YELLOW + "Cancelled /" : ChatColor.GREEN + "Finished /") + done.getPath()
+                            + ChatColor.GRAY + " - completed: " + done.getCompleted() + ", skipped: " + done.getSkipped()
+                            + ", failed: " + done.getFailed() + " of " + done.getTotal() + " in " + done.getElapsedMillis() + "ms")));
+        });
+    }
+
+    /**
+     * @param selector "online", "world:&lt;name&gt;" or a comma separated list of player names.
+     * @return The online players selected, or null after telling the sender what's wrong.
+     */
+    private List<Player> resolveTargets(CommandSender sender, String selector) {
+        PlayerLookup players = plugin.getEngine().getPlayers();
+        List<Player> targets = new ArrayList<>();
+        if (selector.equalsIgnoreCase("online")) {
+            targets.addAll(players.getOnlinePlayers());
+        } else if (selector.regionMatches(true, 0, "world:", 0, 6)) {
+            World world = players.getWorld(selector.substring(6));
+            if (world == null) {
+                sender.sendMessage(ChatColor.RED + "There is no world called " + selector.substring(6) + ".");
+                return null;
+            }
+            targets.addAll(world.getPlayers());
+        } else {
+            for (String name : selector.split(",")) {
+                Player player = players.getPlayerExact(name);
+                if (player == null) {
+                    sender.sendMessage(ChatColor.RED + name + " is not online.");
+                    return null;
+                }
+                if (!targets.contains(player)) {
+                    targets.add(player);
+                }
+            }
+        }
+        if (targets.isEmpty()) {
+            sender.sendMessage(ChatColor.GRAY + "No players match " + selector + ".");
+            return null;
+        }
+        return targets;
+    }
+
+    private void handleLint(CommandSender sender, String[] args) {
+        String command = args.length >= 2 ? args[1].toLowerCase(Locale.ROOT) : null;
+        sender.sendMessage(ChatColor.GRAY + "Checking the command files...");
+        // Reading and checking every file can take a while with large packs.
+        plugin.getTaskScheduler().runAsync(() -> {
+            LintReport report = commandManager.lint();
+            plugin.getTaskScheduler().runFor(sender, () -> sendLintReport(sender, report, command));
+        });
+    }
+
+    private void sendLintReport(CommandSender sender, LintReport report, String command) {
+        List<LintFinding> findings = new ArrayList<>();
+        for (LintFinding finding : report.getFindings()) {
+            if (command == null || finding.getFile().equalsIgnoreCase(command + ".yml")) {
+                findings.add(finding);
+            }
+        }
+        sender.sendMessage(ChatColor.GOLD + "--- Lint (" + (command != null ? command + ".yml" : report.getFiles() + " files") + ") ---");
+        if (findings.isEmpty()) {
+            sender.sendMessage(ChatColor.GREEN + "No problems found.");
+        }
+        for (LintFinding finding : findings.subList(0, Math.min(50, findings.size()))) {
+            ChatColor color = finding.getSeverity() == LintFinding.Severity.WARNING ? ChatColor.YELLOW : ChatColor.GRAY;
+            sender.sendMessage(color + finding.toString());
+        }
+        if (findings.size() > 50) {
+            sender.sendMessage(ChatColor.GRAY + "... and " + (findings.size() - 50) + " more.");
+        }
+
+        List<PathCost> costs;
+        if (command != null) {
+            costs = new ArrayList<>();
+            for (PathCost cost : report.getCosts()) {
+                if (cost.getPath().equals(command) || cost.getPath().startsWith(command + " ")) {
+                    costs.add(cost);
+                }
+            }
+            costs.sort(PathCost::compareCost);
+        } else {
+            costs = report.getMostExpensive(10);
+        }
+        if (!costs.isEmpty()) {
+            sender.sendMessage(ChatColor.GOLD + (command != null ? "--- Paths, most expensive first ---" : "--- Most expensive paths ---"));
+            for (PathCost cost : costs) {
+                sender.sendMessage(ChatColor.YELLOW + "/" + cost.getPath() + ChatColor.WHITE + " - lookups: " + cost.getLookups()
+                        + ", checks: " + cost.getChecks() + ", actions: " + cost.getActions()
+                        + ChatColor.GRAY + " (" + cost.getFile() + ":" + cost.getLine() + ")");
+            }
+        }
+    }
+
+    private void handleTrace(CommandSender sender, String[] args) {
+        TraceRecorder recorder = plugin.getEngine().getTraceRecorder();
+        if (args.length >= 2 && args[1].equalsIgnoreCase("start")) {
+            int minutes = 0;
+            if (args.length >= 3) {
+                try {
+                    minutes = Integer.parseInt(args[2]);
+                } catch (NumberFormatException e) {
+                    sender.sendMessage(ChatColor.RED + args[2] + " is not a number of minutes.");
+                    return;
+                }
+            }
+            try {
+                TraceRecorder.Recording recording = recorder.start(minutes);
+                sender.sendMessage(ChatColor.GREEN + "Recording custom commands to traces/" + recording.getFile().getName()
+                        + (minutes > 0 ? " for " + minutes + " minute(s)." : " until stopped."));
+            } catch (IllegalStateException e) {
+                sender.sendMessage(ChatColor.RED + e.getMessage());
+            } catch (IOException e) {
+                sender.sendMessage(ChatColor.RED + "Could not create the trace file: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length >= 2 && args[1].equalsIgnoreCase("stop")) {
+            TraceRecorder.Recording recording = recorder.stop();
+            if (recording == null) {
+                sender.sendMessage(ChatColor.GRAY + "No trace is being recorded.");
+                return;
+            }
+            sender.sendMessage(ChatColor.GREEN + "Recorded " + recording.getRecorded() + " invocations of " + recording.getPlayers()
+                    + " players to traces/" + recording.getFile().getName() + ", dropped: " + recording.getDropped());
+            return;
+        }
+        TraceRecorder.Recording recording = recorder.getRecording();
+        if (recording == null) {
+            sender.sendMessage(ChatColor.GRAY + "No trace is being recorded.");
+        } else {
+            sender.sendMessage(ChatColor.YELLOW + "Recording to traces/" + recording.getFile().getName() + ChatColor.WHITE
+                    + " - " + recording.getRecorded() + " invocations written, dropped: " + recording.getDropped());
+        }
+    }
+
+    private void handleStats(CommandSender sender, String[] args) {
+        GuardPipeline pipeline = plugin.getGuardPipeline();
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            pipeline.resetStats();
+            sender.sendMessage(ChatColor.GREEN + "Guard statistics have been reset.");
+            return;
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "--- Guard Pipeline ---");
+        for (GuardStats stats : pipeline.getStats()) {
+            sender.sendMessage(ChatColor.YELLOW + stats.getName() + ChatColor.GRAY + " (" + stats.getOrder() + ")"
+                    + ChatColor.WHITE + " - checks: " + stats.getChecks()
+                    + ", rejected: " + stats.getRejections()
+                    + ", avg: " + String.format("%.2f", stats.getAverageMicros()) + "\u00b5s");
+        }
+        CircuitBreakerGuard circuitBreaker = pipeline.getCircuitBreaker();
+        if (circuitBreaker.isEnabled()) {
+            sender.sendMessage(ChatColor.GOLD + "--- Circuit Breakers ---");
+            for (CircuitBreaker breaker : circuitBreaker.getBreakers()) {
+                CircuitBreaker.State state = breaker.getState();
+                ChatColor color = state == CircuitBreaker.State.CLOSED ? ChatColor.GREEN : state == CircuitBreaker.State.OPEN ? ChatColor.RED : ChatColor.YELLOW;
+                sender.sendMessage(ChatColor.YELLOW + "/" + breaker.getCommand() + " " + color + state
+                        + ChatColor.WHITE + " - p95: " + String.format("%.2f", breaker.percentile95() / 1_000_000.0) + "ms"
+                        + " over " + breaker.getSamples() + " runs, tripped: " + breaker.getTrips());
+            }
+        }
+        BroadcastCoalescer broadcasts = plugin.getEngine().getBroadcastCoalescer();
+        if (broadcasts.isEnabled()) {
+            sender.sendMessage(ChatColor.GRAY + "Broadcasts merged: " + broadcasts.getMerged() + ", dropped by the cap: " + broadcasts.getDropped());
+        }
+        if (plugin.getAuditLog().isEnabled()) {
+            sender.sendMessage(ChatColor.GRAY + "Audit records dropped: " + plugin.getAuditLog().getDropped());
+        }
+    }
+
+    private void handlePending(CommandSender sender, String[] args) {
+        PendingCountdowns countdowns = plugin.getPendingCountdowns();
+
+        if (args.length >= 3 && args[1].equalsIgnoreCase("cancel")) {
+            String commandName = args.length >= 4 ? args[3] : null;
+            int cancelled = countdowns.cancel(args[2], commandName);
+            sender.sendMessage(ChatColor.GREEN + "Cancelled " + cancelled + " countdown(s) of " + args[2] + ".");
+            return;
+        }
+
+        Collection<PendingCountdowns.Countdown> running = countdowns.getRunning();
+        if (running.isEmpty()) {
+            sender.sendMessage(ChatColor.GRAY + "No countdowns are running.");
+            return;
+        }
+        sender.sendMessage(ChatColor.GOLD + "--- Running Countdowns (" + running.size() + ") ---");
+        for (PendingCountdowns.Countdown countdown : running) {
+            String queued = countdown.getQueued() > 0 ? ChatColor.GRAY + " (+" + countdown.getQueued() + " queued)" : "";
+            sender.sendMessage(ChatColor.YELLOW + countdown.getSenderName() + ChatColor.GRAY + " /" + countdown.getPath()
+                    + ChatColor.WHITE + " - " + countdown.getSecondsRemaining() + "s" + queued);
+        }
+    }
+
     private void sendUsage(CommandSender sender, String label) {
         sender.sendMessage(ChatColor.GOLD + "--- CustomCommands Help ---");
         sender.sendMessage(ChatColor.YELLOW + "/" + label + " reload" + ChatColor.GRAY + " - Reloads all custom commands from files.");
+        sender.sendMessage(ChatColor.YELLOW + "/" + label + " pending [cancel <player> [command]]" + ChatColor.GRAY + " - Lists or cancels running countdowns.");
+        sender.sendMessage(ChatColor.YELLOW + "/" + label + " stats [reset]" + ChatColor.GRAY + " - Shows checks, rejections and timings of the command guards and circuit breakers.");
+        sender.sendMessage(ChatColor.YELLOW + "/" + label + " lint [command]" + ChatColor.GRAY + " - Checks the command files for problems and estimates what each command path costs.");
+        sender.sendMessage(ChatColor.YELLOW + "/" + label + " bulk [cancel|<online|world:<name>|names> <command> [args...]]" + ChatColor.GRAY + " - Runs a command path for many players, spread over ticks.");
+        sender.sendMessage(ChatColor.YELLOW + "/" + label + " trace [start [minutes]|stop]" + ChatColor.GRAY + " - Records the custom commands run to a trace for replaying.");
     }
 
     @Override
@@ -53,7 +359,43 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
         }
 
         if (args.length == 1) {
-            return StringUtil.copyPartialMatches(args[0], Collections.singletonList("reload"), new ArrayList<>());
+            return StringUtil.copyPartialMatches(args[0], Arrays.asList("reload", "pending", "stats", "lint", "trace", "bulk"), new ArrayList<>());
+        }
+        if (args[0].equalsIgnoreCase("stats") && args.length == 2) {
+            return StringUtil.copyPartialMatches(args[1], Collections.singletonList("reset"), new ArrayList<>());
+        }
+        if (args[0].equalsIgnoreCase("lint") && args.length == 2) {
+            return StringUtil.copyPartialMatches(args[1], commandManager.getRegistry().current().getCommands().keySet(), new ArrayList<>());
+        }
+        if (args[0].equalsIgnoreCase("trace") && args.length == 2) {
+            return StringUtil.copyPartialMatches(args[1], Arrays.asList("start", "stop"), new ArrayList<>());
+        }
+        if (args[0].equalsIgnoreCase("bulk")) {
+            if (args.length == 2) {
+                List<String> selectors = new ArrayList<>(Arrays.asList("cancel", "online"));
+                for (World world : plugin.getEngine().getPlayers().getWorlds()) {
+                    selectors.add("world:" + world.getName());
+                }
+                for (Player player : plugin.getEngine().getPlayers().getOnlinePlayers()) {
+                    selectors.add(player.getName());
+                }
+                return StringUtil.copyPartialMatches(args[1], selectors, new ArrayList<>());
+            }
+            if (args.length == 3 && !args[1].equalsIgnoreCase("cancel")) {
+                return StringUtil.copyPartialMatches(args[2], commandManager.getRegistry().current().getCommands().keySet(), new ArrayList<>());
+            }
+        }
+        if (args[0].equalsIgnoreCase("pending")) {
+            if (args.length == 2) {
+                return StringUtil.copyPartialMatches(args[1], Collections.singletonList("cancel"), new ArrayList<>());
+            }
+            if (args.length == 3 && args[1].equalsIgnoreCase("cancel")) {
+                List<String> names = new ArrayList<>();
+                for (PendingCountdowns.Countdown countdown : plugin.getPendingCountdowns().getRunning()) {
+                    names.add(countdown.getSenderName());
+                }
+                return StringUtil.copyPartialMatches(args[2], names, new ArrayList<>());
+            }
         }
         return Collections.emptyList();
     }
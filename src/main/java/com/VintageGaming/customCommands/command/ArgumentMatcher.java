@@ -0,0 +1,65 @@
+package com.VintageGaming.customCommands.command;
+
+import com.VintageGaming.customCommands.model.ArgumentDispatcher;
+import com.VintageGaming.customCommands.model.ArgumentNode;
+import com.VintageGaming.customCommands.model.ArgumentType;
+import com.VintageGaming.customCommands.platform.PlayerLookup;
+
+import java.util.Map;
+
+/**
+ * Matches command arguments against the argument nodes of a command tree.
+ * This is the interpreted path, {@link ArgumentDispatcher} does the same with precompiled nodes.
+ */
+public final class ArgumentMatcher {
+
+    private ArgumentMatcher() {
+    }
+
+    /**
+     * Finds a matching argument node from a map of possible children.
+     * It prioritizes direct matches over placeholders.
+     * @param arg The command argument string.
+     * @param children The map of possible child nodes.
+     * @param players Where player and world arguments are looked up.
+     * @return The matched ArgumentNode, or null if no match is found.
+     */
+    public static ArgumentNode findMatchingNode(String arg, Map<String, ArgumentNode> children, PlayerLookup players) {
+        // Priority 1: Direct match (e.g., "reload")
+        if (children.containsKey(arg)) {
+            return children.get(arg);
+        }
+
+        // Priority 2: Static placeholder match (e.g., "{some_value}")
+        for (ArgumentNode node : children.values()) {
+            if (node.isStaticPlaceholder()) {
+                String staticName = node.getName().substring(1, node.getName().length() - 1);
+                if (staticName.equalsIgnoreCase(arg)) {
+                    return node;
+                }
+            }
+        }
+
+        // Priority 3: Dynamic placeholder with type validation (e.g., [online_player] )
+        for (ArgumentNode node : children.values()) {
+            if (node.isPlaceholder()) {
+                if (validateType(arg, node.getType(), players)) {
+                    return node;
+                }
+            }
+        }
+
+        return null; // No match found
+    }
+
+    /**
+     * Validates if the given input string matches the expected argument type.
+     * @param input The user's input.
+     * @param type The expected type (e.g., "integer", "online_player").
+     * @param players Where player and world arguments are looked up.
+     * @return True if the input is valid for the type, otherwise false.
+     */
+    public static boolean validateType(String input, String type, PlayerLookup players) {
+        return ArgumentType.of(type).matches(input, players);
+    }
+}
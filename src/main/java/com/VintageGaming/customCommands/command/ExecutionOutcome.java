@@ -0,0 +1,28 @@
+package com.VintageGaming.customCommands.command;
+
+/**
+ * The result of a single custom command invocation.
+ */
+public enum ExecutionOutcome {
+    EXECUTED,
+    SCHEDULED,
+    QUEUED,
+    ALREADY_PENDING,
+    NO_PERMISSION,
+    RATE_LIMITED,
+    UNAVAILABLE,
+    USAGE,
+    INVALID_ARGUMENT,
+    COOLDOWN,
+    COST_DISABLED,
+    INSUFFICIENT_FUNDS,
+    // Rejected by a guard registered by another plugin.
+    REJECTED;
+
+    /**
+     * @return True if the command got past all checks, so a player was charged its cost.
+     */
+    public boolean isCharged() {
+        return this == EXECUTED || this == SCHEDULED || this == QUEUED;
+    }
+}
@@ -0,0 +1,16 @@
+package com.VintageGaming.customCommands.condition;
+
+import com.VintageGaming.customCommands.template.BoundContext;
+
+/**
+ * A compiled condition of an 'if' action. Conditions are parsed once when the
+ * command is loaded and evaluated against the placeholders bound for an invocation.
+ */
+public interface Condition {
+
+    /**
+     * @param context The bound placeholders of the invocation.
+     * @return True if the condition holds.
+     */
+    boolean test(BoundContext context);
+}
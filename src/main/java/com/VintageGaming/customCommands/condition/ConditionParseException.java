@@ -0,0 +1,22 @@
+package com.VintageGaming.customCommands.condition;
+
+/**
+ * Thrown when a condition expression can't be parsed, with the position of the problem.
+ */
+public class ConditionParseException extends Exception {
+
+    private final int position;
+
+    /**
+     * @param problem A description of the problem.
+     * @param position The 0-based index in the expression the problem was found at.
+     */
+    public ConditionParseException(String problem, int position) {
+        super(problem + " (at column " + (position + 1) + ")");
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,206 @@
+package com.VintageGaming.customCommands.condition;
+
+import com.VintageGaming.customCommands.placeholder.PlaceholderService;
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
+import com.VintageGaming.customCommands.template.Template;
+
+/**
+ * Parses the condition of an 'if' action, e.g.
+ * <pre>
+ * [amount] >= 10 && (has_permission('shop.vip') || {world} == world_nether)
+ * </pre>
+ * Operands are numbers, quoted text, bare words and [argument] or {placeholder}
+ * references, compiled into templates against the layout of the command path.
+ * Supported are the comparisons == != &lt; &lt;= &gt; &gt;=, the logical operators
+ * && || ! (or and, or, not), parentheses, true, false and the functions
+ * has_permission(node), is_player() and is_op().
+ */
+public class ConditionParser {
+
+    private final String source;
+    private final PlaceholderLayout layout;
+    private final PlaceholderService placeholders;
+    private int position;
+
+    /**
+     * @param source The condition expression.
+     * @param layout The placeholder layout of the command path the condition belongs to.
+     * @param placeholders The service dynamic placeholders are resolved through, may be null.
+     */
+    public ConditionParser(String source, PlaceholderLayout layout, PlaceholderService placeholders) {
+        this.source = source;
+        this.layout = layout;
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * @return The compiled condition.
+     * @throws ConditionParseException If the expression isn't valid.
+     */
+    public Condition parse() throws ConditionParseException {
+        position = 0;
+        Condition condition = parseOr();
+        skipWhitespace();
+        if (position < source.length()) {
+            throw new ConditionParseException("Unexpected '" + source.substring(position) + "'", position);
+        }
+        return condition;
+    }
+
+    private Condition parseOr() throws ConditionParseException {
+        Condition condition = parseAnd();
+        while (acceptSymbol("||") || acceptKeyword("or")) {
+            condition = Conditions.or(condition, parseAnd());
+        }
+        return condition;
+    }
+
+    private Condition parseAnd() throws ConditionParseException {
+        Condition condition = parseNot();
+        while (acceptSymbol("&&") || acceptKeyword("and")) {
+            condition = Conditions.and(condition, parseNot());
+        }
+        return condition;
+    }
+
+    private Condition parseNot() throws ConditionParseException {
+        skipWhitespace();
+        if (peek() == '!' && peek(1) != '=') {
+            position++;
+            return Conditions.not(parseNot());
+        }
+        if (acceptKeyword("not")) {
+            return Conditions.not(parseNot());
+        }
+        return parsePrimary();
+    }
+
+    private Condition parsePrimary() throws ConditionParseException {
+        skipWhitespace();
+        if (acceptSymbol("(")) {
+            Condition condition = parseOr();
+            expect(")");
+            return condition;
+        }
+        if (acceptKeyword("true")) return Conditions.TRUE;
+        if (acceptKeyword("false")) return Conditions.FALSE;
+
+        int start = position;
+        if (acceptKeyword("has_permission")) {
+            expect("(");
+            Template permission = parseOperand();
+            expect(")");
+            return Conditions.hasPermission(permission);
+        }
+        if (acceptKeyword("is_player")) {
+            expect("(");
+            expect(")");
+            return Conditions.isPlayer();
+        }
+        if (acceptKeyword("is_op")) {
+            expect("(");
+            expect(")");
+            return Conditions.isOp();
+        }
+
+        Template left = parseOperand();
+        skipWhitespace();
+        Conditions.Operator operator = parseOperator();
+        if (operator == null) {
+            throw new ConditionParseException("Expected a comparison after '" + source.substring(start, position).trim() + "'", position);
+        }
+        Template right = parseOperand();
+        return Conditions.compare(left, operator, right);
+    }
+
+    private Conditions.Operator parseOperator() {
+        for (String symbol : new String[]{"==", "!=", "<=", ">=", "<", ">"}) {
+            if (source.startsWith(symbol, position)) {
+                position += symbol.length();
+                return Conditions.Operator.of(symbol);
+            }
+        }
+        return null;
+    }
+
+    private Template parseOperand() throws ConditionParseException {
+        skipWhitespace();
+        if (position >= source.length()) {
+            throw new ConditionParseException("Expected a value", position);
+        }
+
+        char c = peek();
+        String text;
+        if (c == '\'' || c == '"') {
+            int end = source.indexOf(c, position + 1);
+            if (end < 0) {
+                throw new ConditionParseException("Unclosed quote", position);
+            }
+            text = source.substring(position + 1, end);
+            position = end + 1;
+        } else {
+            int start = position;
+            while (position < source.length() && isWordChar(source.charAt(position))) {
+                char current = source.charAt(position);
+                // Keep [argument] and {placeholder} names together, they may contain anything but their closing bracket.
+                if (current == '[' || current == '{') {
+                    int end = source.indexOf(current == '[' ? ']' : '}', position);
+                    if (end > 0) {
+                        position = end + 1;
+                        continue;
+                    }
+                }
+                position++;
+            }
+            if (position == start) {
+                throw new ConditionParseException("Expected a value but found '" + c + "'", position);
+            }
+            text = source.substring(start, position);
+        }
+        return Template.compile(text, layout, placeholders);
+    }
+
+    private static boolean isWordChar(char c) {
+        return !Character.isWhitespace(c) && "()!=<>&|'\"".indexOf(c) < 0;
+    }
+
+    private boolean acceptSymbol(String symbol) {
+        skipWhitespace();
+        if (source.startsWith(symbol, position)) {
+            position += symbol.length();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        skipWhitespace();
+        int end = position + keyword.length();
+        if (source.regionMatches(true, position, keyword, 0, keyword.length())
+                && (end >= source.length() || !Character.isLetterOrDigit(source.charAt(end)) && source.charAt(end) != '_')) {
+            position = end;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String symbol) throws ConditionParseException {
+        if (!acceptSymbol(symbol)) {
+            throw new ConditionParseException("Expected '" + symbol + "'", position);
+        }
+    }
+
+    private char peek() {
+        return peek(0);
+    }
+
+    private char peek(int offset) {
+        return position + offset < source.length() ? source.charAt(position + offset) : '\0';
+    }
+
+    private void skipWhitespace() {
+        while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+            position++;
+        }
+    }
+}
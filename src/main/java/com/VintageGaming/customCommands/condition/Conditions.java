@@ -0,0 +1,369 @@
+package com.VintageGaming.customCommands.condition;
+
+import com.VintageGaming.customCommands.template.BoundContext;
+import com.VintageGaming.customCommands.template.Template;
+import org.bukkit.entity.Player;
+
+/**
+ * Builds the evaluator objects a condition is compiled into. Every factory folds
+ * what it can at load time, so a condition like "true && [amount] > 5" ends up as
+ * a single comparison and "1 > 2 || x" as whatever x compiled to.
+ */
+public final class Conditions {
+
+    public static final Condition TRUE = new Constant(true);
+    public static final Condition FALSE = new Constant(false);
+
+    /**
+     * The comparison operators of the condition language.
+     */
+    public enum Operator {
+        EQUAL("=="),
+        NOT_EQUAL("!="),
+        LESS("<"),
+        LESS_OR_EQUAL("<="),
+        GREATER(">"),
+        GREATER_OR_EQUAL(">=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        /**
+         * @return The operator written as the given symbol, or null if there is none.
+         */
+        public static Operator of(String symbol) {
+            for (Operator operator : values()) {
+                if (operator.symbol.equals(symbol)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        private boolean apply(int comparison) {
+            switch (this) {
+                case EQUAL:
+                    return comparison == 0;
+                case NOT_EQUAL:
+                    return comparison != 0;
+                case LESS:
+                    return comparison < 0;
+                case LESS_OR_EQUAL:
+                    return comparison <= 0;
+                case GREATER:
+                    return comparison > 0;
+                case GREATER_OR_EQUAL:
+                default:
+                    return comparison >= 0;
+            }
+        }
+    }
+
+    private Conditions() {
+    }
+
+    public static Condition constant(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    /**
+     * @return True if the condition always evaluates to the same value.
+     */
+    public static boolean isConstant(Condition condition) {
+        return condition instanceof Constant;
+    }
+
+    public static Condition and(Condition left, Condition right) {
+        if (left == FALSE || right == FALSE) return FALSE;
+        if (left == TRUE) return right;
+        if (right == TRUE) return left;
+        return new And(left, right);
+    }
+
+    public static Condition or(Condition left, Condition right) {
+        if (left == TRUE || right == TRUE) return TRUE;
+        if (left == FALSE) return right;
+        if (right == FALSE) return left;
+        return new Or(left, right);
+    }
+
+    public static Condition not(Condition condition) {
+        if (condition instanceof Constant) {
+            return constant(!((Constant) condition).value);
+        }
+        if (condition instanceof Not) {
+            return ((Not) condition).condition;
+        }
+        return new Not(condition);
+    }
+
+    /**
+     * Compares two operands. If both sides are numbers they are compared as numbers,
+     * otherwise as text ignoring case, where only == and != can be true.
+     */
+    public static Condition compare(Template left, Operator operator, Template right) {
+        if (left.isConstant() && right.isConstant()) {
+            return constant(evaluate(left.getSource(), operator, right.getSource()));
+        }
+        if (right.isConstant()) {
+            return compareToConstant(new Operand(left), operator, right.getSource());
+        }
+        if (left.isConstant()) {
+            return compareToConstant(new Operand(right), mirror(operator), left.getSource());
+        }
+        return new Compare(new Operand(left), operator, new Operand(right));
+    }
+
+    private static Condition compareToConstant(Operand operand, Operator operator, String constant) {
+        double number = parseNumber(constant);
+        if (!Double.isNaN(number)) {
+            return new CompareToNumber(operand, operator, number);
+        }
+        // Text is only ever equal or not equal, never less or greater.
+        if (operator != Operator.EQUAL && operator != Operator.NOT_EQUAL) {
+            return FALSE;
+        }
+        return new CompareToText(operand, operator == Operator.EQUAL, constant);
+    }
+
+    /**
+     * @param permission The permission node, may contain placeholders.
+     * @return A condition that holds if the sender has the permission.
+     */
+    public static Condition hasPermission(Template permission) {
+        if (permission.isConstant()) {
+            String node = permission.getSource();
+            return context -> context.getSender().hasPermission(node);
+        }
+        return context -> context.getSender().hasPermission(permission.render(context));
+    }
+
+    /**
+     * @return A condition that holds if the command was run by a player.
+     */
+    public static Condition isPlayer() {
+        return context -> context.getSender() instanceof Player;
+    }
+
+    /**
+     * @return A condition that holds if the sender is an operator.
+     */
+    public static Condition isOp() {
+        return context -> context.getSender().isOp();
+    }
+
+    private static boolean evaluate(String left, Operator operator, String right) {
+        double leftNumber = parseNumber(left);
+        double rightNumber = parseNumber(right);
+        if (!Double.isNaN(leftNumber) && !Double.isNaN(rightNumber)) {
+            return operator.apply(Double.compare(leftNumber, rightNumber));
+        }
+        if (left == null || right == null) {
+            return false;
+        }
+        boolean equal = left.equalsIgnoreCase(right);
+        if (operator == Operator.EQUAL) return equal;
+        if (operator == Operator.NOT_EQUAL) return !equal;
+        return false;
+    }
+
+    private static Operator mirror(Operator operator) {
+        switch (operator) {
+            case LESS:
+                return Operator.GREATER;
+            case LESS_OR_EQUAL:
+                return Operator.GREATER_OR_EQUAL;
+            case GREATER:
+                return Operator.LESS;
+            case GREATER_OR_EQUAL:
+                return Operator.LESS_OR_EQUAL;
+            default:
+                return operator;
+        }
+    }
+
+    /**
+     * Parses a plain decimal number like "-12" or "3.5" without allocating or throwing.
+     * @return The number, or NaN if the text isn't one.
+     */
+    static double parseNumber(String text) {
+        if (text == null) return Double.NaN;
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        if (i == length) return Double.NaN;
+
+        double value = 0;
+        int digits = 0;
+        while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            value = value * 10 + (text.charAt(i) - '0');
+            digits++;
+            i++;
+        }
+        if (i < length && text.charAt(i) == '.') {
+            i++;
+            double scale = 0.1;
+            while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                value += (text.charAt(i) - '0') * scale;
+                scale /= 10;
+                digits++;
+                i++;
+            }
+        }
+        if (i != length || digits == 0) return Double.NaN;
+        return negative ? -value : value;
+    }
+
+    private static final class Constant implements Condition {
+        private final boolean value;
+
+        private Constant(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(BoundContext context) {
+            return value;
+        }
+    }
+
+    private static final class And implements Condition {
+        private final Condition left;
+        private final Condition right;
+
+        private And(Condition left, Condition right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(BoundContext context) {
+            return left.test(context) && right.test(context);
+        }
+    }
+
+    private static final class Or implements Condition {
+        private final Condition left;
+        private final Condition right;
+
+        private Or(Condition left, Condition right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(BoundContext context) {
+            return left.test(context) || right.test(context);
+        }
+    }
+
+    private static final class Not implements Condition {
+        private final Condition condition;
+
+        private Not(Condition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public boolean test(BoundContext context) {
+            return !condition.test(context);
+        }
+    }
+
+    /**
+     * One side of a comparison. A side that is a single [argument] is read straight
+     * from the bound values, anything else is rendered.
+     */
+    private static final class Operand {
+        private final Template template;
+        private final int slot;
+
+        private Operand(Template template) {
+            this.template = template;
+            this.slot = template.getBareSlot();
+        }
+
+        private String value(BoundContext context) {
+            if (slot < 0) {
+                return template.render(context);
+            }
+            String value = context.getValues()[slot];
+            // Unbound slots compare as their name, like they render.
+            return value != null ? value : template.getSource();
+        }
+    }
+
+    private static final class Compare implements Condition {
+        private final Operand left;
+        private final Operator operator;
+        private final Operand right;
+
+        private Compare(Operand left, Operator operator, Operand right) {
+            this.left = left;
+            this.operator = operator;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(BoundContext context) {
+            return evaluate(left.value(context), operator, right.value(context));
+        }
+    }
+
+    /**
+     * The common case of comparing a placeholder against a number written in the file,
+     * e.g. "[amount] >= 10". The number is parsed once at load time.
+     */
+    private static final class CompareToNumber implements Condition {
+        private final Operand operand;
+        private final Operator operator;
+        private final double number;
+
+        private CompareToNumber(Operand operand, Operator operator, double number) {
+            this.operand = operand;
+            this.operator = operator;
+            this.number = number;
+        }
+
+        @Override
+        public boolean test(BoundContext context) {
+            double value = parseNumber(operand.value(context));
+            if (Double.isNaN(value)) {
+                return operator == Operator.NOT_EQUAL;
+            }
+            return operator.apply(Double.compare(value, number));
+        }
+    }
+
+    /**
+     * Comparing a placeholder against text written in the file, e.g. "{world} == world_nether".
+     */
+    private static final class CompareToText implements Condition {
+        private final Operand operand;
+        private final boolean equal;
+        private final String text;
+
+        private CompareToText(Operand operand, boolean equal, String text) {
+            this.operand = operand;
+            this.equal = equal;
+            this.text = text;
+        }
+
+        @Override
+        public boolean test(BoundContext context) {
+            String value = operand.value(context);
+            return value != null && value.equalsIgnoreCase(text) == equal;
+        }
+    }
+}
@@ -1,243 +1,510 @@
 package com.VintageGaming.customCommands.execution;
 
-import com.VintageGaming.customCommands.CustomCommands;
+import com.VintageGaming.customCommands.CommandEngine;
+import com.VintageGaming.customCommands.model.ActionBlock;
+import com.VintageGaming.customCommands.model.ActionType;
+import com.VintageGaming.customCommands.model.CommandLine;
+import com.VintageGaming.customCommands.model.CompiledAction;
+import com.VintageGaming.customCommands.model.CompiledBranch;
+import com.VintageGaming.customCommands.model.CompiledDelay;
+import com.VintageGaming.customCommands.model.CompiledEffect;
+import com.VintageGaming.customCommands.monitoring.ActionExecutionEvent;
+import com.VintageGaming.customCommands.monitoring.DelayedActionEvent;
+import com.VintageGaming.customCommands.platform.CommandSink;
+import com.VintageGaming.customCommands.scheduler.ScheduledTask;
+import com.VintageGaming.customCommands.scheduler.TaskScheduler;
+import com.VintageGaming.customCommands.template.BoundContext;
+import com.VintageGaming.customCommands.template.Template;
 import org.bukkit.*;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
+import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
-import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
 
 public class ActionExecutor {
 
-    private final CustomCommands plugin;
+    private final CommandEngine engine;
+    private final CommandTargets commandTargets;
+    private volatile boolean directCommands = true;
 
-    public ActionExecutor(CustomCommands plugin) {
-        this.plugin = plugin;
+    public ActionExecutor(CommandEngine engine) {
+        this.engine = engine;
+        this.commandTargets = new CommandTargets(engine.getCommandSink());
     }
 
-    private Map<String, Object> ensureIsMap(Object value) {
-        if (value instanceof Map) {
-            return (Map<String, Object>) value;
-        } else if (value instanceof ConfigurationSection) {
-            return ((ConfigurationSection) value).getValues(false);
-        }
-        return new HashMap<>();
+    public CommandTargets getCommandTargets() {
+        return commandTargets;
     }
 
-    private Object replacePlaceholdersInObject(Object obj, Map<String, String> placeholders) {
-        if (obj instanceof String) {
-            return replacePlaceholders((String) obj, placeholders);
-        }
-        if (obj instanceof List) {
-            List<Object> newList = new ArrayList<>();
-            for (Object item : (List<?>) obj) {
-                newList.add(replacePlaceholdersInObject(item, placeholders));
-            }
-            return newList;
-        }
-        if (obj instanceof ConfigurationSection) {
-            Map<String, Object> map = ((ConfigurationSection) obj).getValues(false);
-            return replacePlaceholdersInObject(map, placeholders);
-        }
-        if (obj instanceof Map) {
-            Map<String, Object> newMap = new HashMap<>();
-            for (Map.Entry<?, ?> entry : ((Map<?, ?>) obj).entrySet()) {
-                newMap.put((String) entry.getKey(), replacePlaceholdersInObject(entry.getValue(), placeholders));
+    /**
+     * @param directCommands True to run 'console' and 'player' commands straight through their
+     *                       Command, false to go through the server and fire the command events.
+     */
+    public void setDirectCommands(boolean directCommands) {
+        this.directCommands = directCommands;
+    }
+
+    /**
+     * Runs the actions of a command path and reports how long they took to the circuit breaker,
+     * one sample per invocation. A delayed command reports its main actions when they run, the
+     * actions of every second of the countdown aren't reported.
+     * Work the actions hand to other threads, like console commands on Folia, isn't included.
+     * Those also run out of order: a console command queued to Folia's global region usually
+     * runs a tick later, after the messages of the actions that follow it reached the sender.
+     * With a single main thread every action runs in the order of the file.
+     * @param context The bound placeholders of the invocation.
+     * @param actions The actions to run.
+     */
+    public void executeActions(BoundContext context, List<CompiledAction> actions) {
+        if (actions == null) return;
+
+        long start = System.nanoTime();
+        runActions(context, actions);
+        engine.getGuardPipeline().getCircuitBreaker().record(context.getPath(), System.nanoTime() - start);
+    }
+
+    private void runActions(BoundContext context, List<CompiledAction> actions) {
+        if (actions == null) return;
+
+        for (CompiledAction action : actions) {
+            if (action.getActionType() == ActionType.IF) {
+                runBranches(context, action);
+                continue;
             }
-            return newMap;
+            ActionExecutionEvent event = new ActionExecutionEvent();
+            event.begin();
+            long start = System.nanoTime();
+
+            execute(context, action);
+
+            recordAction(context, action, event, System.nanoTime() - start);
         }
-        return obj;
     }
 
-    public void executeActions(CommandSender sender, Map<String, Object> actions, Map<String, String> placeholders) {
-        if (actions == null) return;
+    /**
+     * Runs the branches of an 'if' action. Only the evaluation of each condition is timed as the
+     * 'if', the actions of the branch it selects report their own time.
+     */
+    private void runBranches(BoundContext context, CompiledAction action) {
+        for (CompiledBranch branch : action.getBranches()) {
+            ActionExecutionEvent event = new ActionExecutionEvent();
+            event.begin();
+            long start = System.nanoTime();
+
+            List<CompiledAction> selected = branch.select(context);
+
+            recordAction(context, action, event, System.nanoTime() - start);
+            runActions(context, selected);
+        }
+    }
 
-        for (Map.Entry<String, Object> entry : actions.entrySet()) {
-            String actionType = entry.getKey();
-            Object processedValue = replacePlaceholdersInObject(entry.getValue(), placeholders);
-            execute(sender, actionType, processedValue);
+    private void recordAction(BoundContext context, CompiledAction action, ActionExecutionEvent event, long elapsed) {
+        String sender = context.getSender().getName();
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = context.getPath();
+            event.actionType = action.getType();
+            event.target = sender;
+            event.commit();
         }
+        engine.getSlowActionLog().recordAction(context.getPath(), action.getType(), sender, elapsed);
     }
 
-    private void execute(CommandSender sender, String type, Object value) {
-        switch (type.toLowerCase()) {
-            case "console":
-            case "player":
-            case "broadcast":
-            case "message":
-            case "sound":
-                if (value instanceof List) {
-                    executeStringListAction(sender, type.toLowerCase(), (List<String>) value);
+    private void execute(BoundContext context, CompiledAction action) {
+        CommandSender sender = context.getSender();
+        ActionType type = action.getActionType();
+        if (type == null) {
+            engine.getLogger().warning("Unknown action type: " + action.getType());
+            return;
+        }
+        switch (type) {
+            case CONSOLE:
+            case PLAYER:
+                if (action.getCommandLines() != null && directCommands) {
+                    executeCommandLines(context, type == ActionType.CONSOLE, action.getCommandLines());
+                    break;
+                }
+                // Fall through
+            case BROADCAST:
+            case MESSAGE:
+            case SOUND:
+                if (action.getLines() != null) {
+                    executeStringListAction(context, type, action.getLines());
                 } else {
-                    plugin.getLogger().warning("Invalid value type for action '" + type + "'. Expected a List.");
+                    engine.getLogger().warning("Invalid value type for action '" + type.getKey() + "'. Expected a List.");
                 }
                 break;
-            case "teleport":
-                executeTeleport(sender, ensureIsMap(value));
+            case IF:
+                runBranches(context, action);
                 break;
-            case "big_text":
-                executeBigText(sender, ensureIsMap(value));
+            case TELEPORT:
+                executeTeleport(context, action);
                 break;
-            case "small_text":
-                if (value instanceof String) {
-                    executeSmallText(sender, (String) value);
+            case BIG_TEXT:
+                executeBigText(context, action);
+                break;
+            case AREA_SOUND:
+            case PARTICLE:
+                if (action.getFields() != null) {
+                    executeEffect(context, action);
+                } else {
+                    engine.getLogger().warning("Invalid value type for action '" + type.getKey() + "'. Expected fields.");
+                }
+                break;
+            case SMALL_TEXT:
+                if (action.getText() != null) {
+                    executeSmallText(sender, action.getText().render(context));
                 } else {
-                    plugin.getLogger().warning("Invalid value type for action 'small_text'. Expected a String.");
+                    engine.getLogger().warning("Invalid value type for action 'small_text'. Expected a String.");
                 }
                 break;
-            default:
-                plugin.getLogger().warning("Unknown action type: " + type);
         }
     }
 
-    private void executeStringListAction(CommandSender sender, String type, List<String> values) {
-        if (!(sender instanceof Player) && (type.equals("player") || type.equals("sound"))) {
+    private void executeStringListAction(BoundContext context, ActionType type, List<Template> values) {
+        CommandSender sender = context.getSender();
+        if (!(sender instanceof Player) && type.isPlayerOnly()) {
             sender.sendMessage(ChatColor.RED + "This command action can only be run by a player.");
             return;
         }
 
-        for (String value : values) {
-            value = ChatColor.translateAlternateColorCodes('&', value);
+        TaskScheduler scheduler = engine.getTaskScheduler();
+        CommandSink commandSink = engine.getCommandSink();
+        for (Template template : values) {
+            if (type == ActionType.BROADCAST) {
+                // Rendered by the coalescer, which may merge it with the same broadcast of other players.
+                engine.getBroadcastCoalescer().broadcast(template, context);
+                continue;
+            }
+            String value = template.render(context);
             switch (type) {
-                case "console":
-                    Bukkit.dispatchCommand(Bukkit.getConsoleSender(), value);
-                    break;
-                case "player":
-                    ((Player) sender).chat(value);
+                case CONSOLE:
+                    scheduler.runGlobal(() -> commandSink.dispatch(commandSink.getConsoleSender(), value));
                     break;
-                case "broadcast":
-                    Bukkit.broadcastMessage(value);
+                case PLAYER:
+                    scheduler.runForEntity((Player) sender, () -> ((Player) sender).chat(value));
                     break;
-                case "message":
+                case MESSAGE:
                     sender.sendMessage(value);
                     break;
-                case "sound":
+                case SOUND:
+                    Sound sound;
                     try {
-                        ((Player) sender).playSound(((Player) sender).getLocation(), Sound.valueOf(value.toUpperCase()), 1.0f, 1.0f);
+                        sound = Sound.valueOf(value.toUpperCase());
                     } catch (IllegalArgumentException e) {
-                        plugin.getLogger().warning("Invalid sound name: " + value);
+                        engine.getLogger().warning("Invalid sound name: " + value);
+                        break;
                     }
+                    Player player = (Player) sender;
+                    scheduler.runForEntity(player, () -> player.playSound(player.getLocation(), sound, 1.0f, 1.0f));
                     break;
             }
         }
     }
 
-    private void executeTeleport(CommandSender sender, Map<String, Object> teleportData) {
-        String whoName = (String) teleportData.get("who");
+    private void executeCommandLines(BoundContext context, boolean console, List<CommandLine> lines) {
+        CommandSender sender = context.getSender();
+        if (!console && !(sender instanceof Player)) {
+            sender.sendMessage(ChatColor.RED + "This command action can only be run by a player.");
+            return;
+        }
+
+        TaskScheduler scheduler = engine.getTaskScheduler();
+        CommandSink commandSink = engine.getCommandSink();
+        for (CommandLine line : lines) {
+            if (!line.isCommand()) {
+                String value = line.getLine().render(context);
+                if (console) {
+                    scheduler.runGlobal(() -> commandSink.dispatch(commandSink.getConsoleSender(), value));
+                } else {
+                    scheduler.runForEntity((Player) sender, () -> ((Player) sender).chat(value));
+                }
+                continue;
+            }
+
+            String label = line.renderLabel(context);
+            String[] args = line.renderArgs(context);
+            if (console) {
+                scheduler.runGlobal(() -> dispatch(commandSink.getConsoleSender(), label, args));
+            } else {
+                scheduler.runForEntity((Player) sender, () -> dispatch(sender, label, args));
+            }
+        }
+    }
+
+    /**
+     * Runs a command like the command map would, without splitting the line and looking up the command again.
+     */
+    private void dispatch(CommandSender sender, String label, String[] args) {
+        Command command = label.isEmpty() || label.indexOf(' ') >= 0 ? null : commandTargets.resolve(label);
+        if (command == null) {
+            // Let the server handle unknown commands, including its "unknown command" reply.
+            String commandLine = args.length == 0 ? label : label + " " + String.join(" ", args);
+            engine.getCommandSink().dispatch(sender, commandLine);
+            return;
+        }
+        try {
+            command.execute(sender, label, args);
+        } catch (RuntimeException e) {
+            engine.getLogger().log(Level.SEVERE, "Unhandled exception executing '" + label + "' in " + command, e);
+        }
+    }
+
+    private void executeTeleport(BoundContext context, CompiledAction teleportData) {
+        String whoName = render(teleportData.getField("who"), context);
         if (whoName == null) {
-            plugin.getLogger().warning("Teleport action is missing the 'who' field.");
+            engine.getLogger().warning("Teleport action is missing the 'who' field.");
             return;
         }
 
-        Player target = Bukkit.getPlayer(whoName);
+        Player target = engine.getPlayers().getPlayer(whoName);
         if (target == null) {
-            plugin.getLogger().warning("Teleport target not found: " + whoName);
+            engine.getLogger().warning("Teleport target not found: " + whoName);
             return;
         }
 
-        String toPlayerName = (String) teleportData.get("toPlayer");
+        String toPlayerName = render(teleportData.getField("toPlayer"), context);
         if (toPlayerName != null) {
-            Player destinationPlayer = Bukkit.getPlayer(toPlayerName);
+            Player destinationPlayer = engine.getPlayers().getPlayer(toPlayerName);
             if (destinationPlayer != null) {
-                target.teleport(destinationPlayer);
+                engine.getTaskScheduler().teleport(target, destinationPlayer.getLocation());
             } else {
-                plugin.getLogger().warning("Teleport destination player not found: " + toPlayerName);
+                engine.getLogger().warning("Teleport destination player not found: " + toPlayerName);
             }
             return;
         }
 
-        String worldName = (String) teleportData.get("world") != null ? (String) teleportData.get("world") : target.getWorld().getName();
-        Object xObj = teleportData.get("x");
-        Object yObj = teleportData.get("y");
-        Object zObj = teleportData.get("z");
+        String worldName = teleportData.getField("world") != null ? render(teleportData.getField("world"), context) : target.getWorld().getName();
+        String xObj = render(teleportData.getField("x"), context);
+        String yObj = render(teleportData.getField("y"), context);
+        String zObj = render(teleportData.getField("z"), context);
 
         if (worldName != null && xObj != null && yObj != null && zObj != null) {
             try {
-                double x = Double.parseDouble(String.valueOf(xObj));
-                double y = Double.parseDouble(String.valueOf(yObj));
-                double z = Double.parseDouble(String.valueOf(zObj));
-                World world = Bukkit.getWorld(worldName);
+                double x = Double.parseDouble(xObj);
+                double y = Double.parseDouble(yObj);
+                double z = Double.parseDouble(zObj);
+                World world = engine.getPlayers().getWorld(worldName);
                 if (world == null) {
-                    plugin.getLogger().warning("Invalid world for teleport: " + worldName);
+                    engine.getLogger().warning("Invalid world for teleport: " + worldName);
                     return;
                 }
-                Location location = new Location(world, x, y, z);
-                if (!isSafeLocation(location) && target.getGameMode() != GameMode.CREATIVE && target.getGameMode() != GameMode.SPECTATOR) {
-                    location = world.getHighestBlockAt(location).getLocation().add(0, 1, 0);
-                }
-                target.teleport(location);
+                Location requested = new Location(world, x, y, z);
+                boolean checkSafety = target.getGameMode() != GameMode.CREATIVE && target.getGameMode() != GameMode.SPECTATOR;
+                // The blocks may belong to another region than the player, so they are read on that region's thread.
+                engine.getTaskScheduler().runAtLocation(requested, () -> {
+                    Location location = requested;
+                    if (checkSafety && !isSafeLocation(location)) {
+                        location = world.getHighestBlockAt(location).getLocation().add(0, 1, 0);
+                    }
+                    engine.getTaskScheduler().teleport(target, location);
+                });
             } catch (Exception e) {
-                plugin.getLogger().warning("Invalid teleport coordinates.");
+                engine.getLogger().warning("Invalid teleport coordinates.");
             }
         }
     }
 
-    private void executeBigText(CommandSender sender, Map<String, Object> textData) {
-        if (!(sender instanceof Player)) return;
-        Player player = (Player) sender;
-        String title = ChatColor.translateAlternateColorCodes('&', (String) textData.getOrDefault("title", ""));
-        String subtitle = ChatColor.translateAlternateColorCodes('&', (String) textData.getOrDefault("subtitle", ""));
-        player.sendTitle(title, subtitle, 10, 70, 20);
+    /**
+     * Plays an 'area_sound' or spawns a 'particle' pattern for every player near the center.
+     * The players are looked up once for the whole action, then each gets all of it on its own thread.
+     */
+    private void executeEffect(BoundContext context, CompiledAction effectData) {
+        CompiledEffect effect = effectData.getEffect();
+        if (effect == null) {
+            // The problem was reported when the command was loaded.
+            return;
+        }
+        Location center = effectCenter(context, effectData);
+        if (center == null) return;
+
+        TaskScheduler scheduler = engine.getTaskScheduler();
+        for (Player viewer : engine.getPlayerIndex().getNearby(center, effect.getRadius())) {
+            scheduler.runForEntity(viewer, () -> {
+                if (effect.getSound() != null) {
+                    viewer.playSound(soundLocation(center, viewer, effect), effect.getSound(), effect.getVolume(), effect.getPitch());
+                    return;
+                }
+                for (int i = 0; i < effect.getPointCount(); i++) {
+                    viewer.spawnParticle(effect.getParticle(), center.getX() + effect.getPointOffset(i, 0),
+                            center.getY() + effect.getPointOffset(i, 1), center.getZ() + effect.getPointOffset(i, 2),
+                            effect.getCount(), effect.getOffsetX(), effect.getOffsetY(), effect.getOffsetZ(), effect.getSpeed(), effect.getData());
+                }
+            });
+        }
+    }
+
+    /**
+     * The client doesn't play sounds further away than {@link CompiledEffect#getAudibleRange()}. For a larger
+     * radius the sound is moved towards the viewer in the same direction, so it fades out over the whole radius.
+     */
+    private static Location soundLocation(Location center, Player viewer, CompiledEffect effect) {
+        double scale = effect.getAudibleRange() / effect.getRadius();
+        Location at = viewer.getLocation();
+        if (scale >= 1 || at.getWorld() != center.getWorld()) return center;
+        return at.add((center.getX() - at.getX()) * scale, (center.getY() - at.getY()) * scale,
+                (center.getZ() - at.getZ()) * scale);
+    }
+
+    /**
+     * @return The location of the 'at' player, the 'x', 'y', 'z' coordinates in 'world' or the sender's,
+     *         or the sender's own location. Null if there is none.
+     */
+    private Location effectCenter(BoundContext context, CompiledAction effectData) {
+        CommandSender sender = context.getSender();
+        String atName = render(effectData.getField("at"), context);
+        if (atName != null) {
+            Player at = engine.getPlayers().getPlayer(atName);
+            if (at == null) {
+                engine.getLogger().warning("Player for '" + effectData.getType() + "' not found: " + atName);
+                return null;
+            }
+            return at.getLocation();
+        }
+
+        String xObj = render(effectData.getField("x"), context);
+        String yObj = render(effectData.getField("y"), context);
+        String zObj = render(effectData.getField("z"), context);
+        if (xObj == null || yObj == null || zObj == null) {
+            if (sender instanceof Player) {
+                return ((Player) sender).getLocation();
+            }
+            engine.getLogger().warning("'" + effectData.getType() + "' run by " + sender.getName() + " needs an 'at' player or 'x', 'y' and 'z'.");
+            return null;
+        }
+
+        String worldName = render(effectData.getField("world"), context);
+        World world = worldName != null ? engine.getPlayers().getWorld(worldName) : sender instanceof Player ? ((Player) sender).getWorld() : null;
+        if (world == null) {
+            engine.getLogger().warning("Invalid world for '" + effectData.getType() + "': " + worldName);
+            return null;
+        }
+        try {
+            return new Location(world, Double.parseDouble(xObj), Double.parseDouble(yObj), Double.parseDouble(zObj));
+        } catch (NumberFormatException e) {
+            engine.getLogger().warning("Invalid '" + effectData.getType() + "' coordinates.");
+            return null;
+        }
+    }
+
+    private void executeBigText(BoundContext context, CompiledAction textData) {
+        if (!(context.getSender() instanceof Player)) return;
+        Player player = (Player) context.getSender();
+        String title = render(textData.getField("title"), context, "");
+        String subtitle = render(textData.getField("subtitle"), context, "");
+        engine.getTaskScheduler().runForEntity(player, () -> player.sendTitle(title, subtitle, 10, 70, 20));
     }
 
     private void executeSmallText(CommandSender sender, String message) {
         if (!(sender instanceof Player)) return;
         Player player = (Player) sender;
-        player.spigot().sendMessage(net.md_5.bungee.api.ChatMessageType.ACTION_BAR, new net.md_5.bungee.api.chat.TextComponent(ChatColor.translateAlternateColorCodes('&', message)));
+        net.md_5.bungee.api.chat.TextComponent component = new net.md_5.bungee.api.chat.TextComponent(message);
+        engine.getTaskScheduler().runForEntity(player, () -> player.spigot().sendMessage(net.md_5.bungee.api.ChatMessageType.ACTION_BAR, component));
     }
 
-    public void executeDelayedActions(CommandSender sender, Map<String, Object> delayData, Map<String, Object> mainActions, Map<String, String> placeholders) {
-        String length = (String) delayData.get("length");
-        long ticks = parseTime(length);
+    /**
+     * Counts down the delay of a block, running its per-second actions every second
+     * and its main actions once the delay is over. All steps share the given context.
+     * The countdown runs on the sender's own thread, which on Folia follows a player across regions.
+     * @param context The bound placeholders of the invocation.
+     * @param block The block to run, must have a delay.
+     * @param onFinish Run after the main actions, not when the task is cancelled.
+     * @param interrupted Asked before every step whether the countdown has to stop, may be null.
+     * @return The scheduled countdown task.
+     */
+    public ScheduledTask executeDelayedActions(BoundContext context, ActionBlock block, Runnable onFinish, BooleanSupplier interrupted) {
+        CompiledDelay delay = block.getDelay();
+        List<CompiledAction> mainActions = block.getActions();
+        List<CompiledAction> perSecondActions = delay.getPerSecondActions();
+        CommandSender sender = context.getSender();
 
-        Map<String, Object> perSecondActions = ensureIsMap(delayData.get("per_second-actions"));
+        CountdownStep step = new CountdownStep(context, delay, mainActions, perSecondActions, onFinish, interrupted);
+        TaskScheduler scheduler = engine.getTaskScheduler();
+        ScheduledTask task = sender instanceof Entity ?
+                scheduler.runEntityTimer((Entity) sender, step, null, 0L, 20L) :
+                scheduler.runGlobalTimer(step, 0L, 20L);
+        step.attach(task);
+        return task;
+    }
 
-        new BukkitRunnable() {
-            long remainingTicks = ticks;
+    /**
+     * One step per second of a delayed block's countdown.
+     */
+    private final class CountdownStep implements Runnable {
+        private final BoundContext context;
+        private final CompiledDelay delay;
+        private final List<CompiledAction> mainActions;
+        private final List<CompiledAction> perSecondActions;
+        private final Runnable onFinish;
+        private final BooleanSupplier interrupted;
+        private long remainingTicks;
+        private volatile boolean finished;
+        private volatile ScheduledTask task;
 
-            @Override
-            public void run() {
-                if (remainingTicks <= 0) {
-                    if (mainActions != null) {
-                        executeActions(sender, mainActions, placeholders);
-                    }
-                    this.cancel();
-                    return;
-                }
+        private CountdownStep(BoundContext context, CompiledDelay delay, List<CompiledAction> mainActions, List<CompiledAction> perSecondActions, Runnable onFinish, BooleanSupplier interrupted) {
+            this.context = context;
+            this.delay = delay;
+            this.mainActions = mainActions;
+            this.perSecondActions = perSecondActions;
+            this.onFinish = onFinish;
+            this.interrupted = interrupted;
+            this.remainingTicks = delay.getTicks();
+        }
 
-                if (!perSecondActions.isEmpty()) {
-                    Map<String, String> delayPlaceholders = new HashMap<>(placeholders);
-                    delayPlaceholders.put("{seconds_remaining}", String.valueOf(remainingTicks / 20));
-                    executeActions(sender, perSecondActions, delayPlaceholders);
-                }
+        /**
+         * Hands the step its own task, so it can stop repeating once the countdown is over.
+         */
+        private void attach(ScheduledTask task) {
+            this.task = task;
+            if (finished) task.cancel();
+        }
 
-                remainingTicks -= 20;
+        @Override
+        public void run() {
+            if (finished) return;
+            if (interrupted != null && interrupted.getAsBoolean()) {
+                finished = true;
+                if (task != null) task.cancel();
+                return;
             }
-        }.runTaskTimer(plugin, 0L, 20L);
+            CommandSender sender = context.getSender();
+            DelayedActionEvent event = new DelayedActionEvent();
+            event.begin();
+
+            if (remainingTicks <= 0) {
+                finished = true;
+                if (task != null) task.cancel();
+                executeActions(context, mainActions);
+                onFinish.run();
+                commitDelayEvent(event, sender, context.getPath(), 0, true);
+                return;
+            }
+
+            if (!perSecondActions.isEmpty()) {
+                context.bind(delay.getSecondsSlot(), String.valueOf(remainingTicks / 20));
+                // Only the main actions count as the invocation for the circuit breaker.
+                runActions(context, perSecondActions);
+            }
+            commitDelayEvent(event, sender, context.getPath(), remainingTicks / 20, false);
+
+            remainingTicks -= 20;
+        }
     }
 
-    private long parseTime(String timeString) {
-        if (timeString == null || timeString.isEmpty()) return 0;
-        String[] parts = timeString.split(" ");
-        if (parts.length != 2) return 0;
-        try {
-            long amount = Long.parseLong(parts[0]);
-            String unit = parts[1].toLowerCase();
-            if (unit.startsWith("second")) return amount * 20;
-            if (unit.startsWith("minute")) return amount * 1200;
-            if (unit.startsWith("hour")) return amount * 72000;
-            return 0;
-        } catch (NumberFormatException e) {
-            return 0;
+    private void commitDelayEvent(DelayedActionEvent event, CommandSender sender, String commandPath, long secondsRemaining, boolean finalStep) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = commandPath;
+            event.target = sender.getName();
+            event.secondsRemaining = secondsRemaining;
+            event.finalStep = finalStep;
+            event.commit();
         }
     }
 
@@ -261,11 +528,11 @@ public class ActionExecutor {
         return false;
     }
 
-    private String replacePlaceholders(String text, Map<String, String> placeholders) {
-        String result = text;
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            result = result.replaceAll(Pattern.quote(entry.getKey()), Matcher.quoteReplacement(entry.getValue()));
-        }
-        return result;
+    private String render(Template template, BoundContext context) {
+        return render(template, context, null);
+    }
+
+    private String render(Template template, BoundContext context, String fallback) {
+        return template != null ? template.render(context) : fallback;
     }
 }
@@ -0,0 +1,221 @@
+package com.VintageGaming.customCommands.execution;
+
+import com.VintageGaming.customCommands.platform.CommandSink;
+import com.VintageGaming.customCommands.scheduler.ScheduledTask;
+import com.VintageGaming.customCommands.scheduler.TaskScheduler;
+import com.VintageGaming.customCommands.template.BoundContext;
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
+import com.VintageGaming.customCommands.template.Template;
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Merges 'broadcast' actions that render the same message within a few ticks, so fifty players
+ * running /join at once send "A, B, C and 47 others joined!" once instead of fifty lines to everyone.
+ * Broadcasts are grouped by their template and the text they render to with {sender} left out;
+ * templates without {sender} are simply sent once per window. Optionally caps how many broadcasts
+ * go out per tick, merged groups over the cap wait for the next tick, direct broadcasts are dropped.
+ * Both are off by default, then broadcasts are sent right away like before.
+ */
+public class BroadcastCoalescer {
+
+    // Stands in for {sender} while grouping, replaced by the names of the group when it is sent.
+    private static final String SENDER_MARK = "\u0000";
+
+    private final TaskScheduler scheduler;
+    private final CommandSink commandSink;
+
+    private final Map<Key, Group> pending = new ConcurrentHashMap<>();
+    private final Queue<Group> due = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger sentThisTick = new AtomicInteger();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile int windowTicks;
+    private volatile int maxPerTick;
+    private volatile int namesShown = 3;
+    private volatile String separator = ", ";
+    private volatile String lastSeparator = " and ";
+    private volatile String othersFormat = "%names% and %count% others";
+    // Only written by the timer on the global thread.
+    private volatile long tick;
+    private ScheduledTask timer;
+
+    public BroadcastCoalescer(TaskScheduler scheduler, CommandSink commandSink) {
+        this.scheduler = scheduler;
+        this.commandSink = commandSink;
+    }
+
+    /**
+     * Applies the "broadcast" section of the config. Broadcasts still waiting are sent first.
+     * @param config The section, may be null.
+     */
+    public synchronized void configure(ConfigurationSection config) {
+        close();
+        if (config != null) {
+            windowTicks = Math.max(0, config.getInt("coalesce-ticks", 0));
+            maxPerTick = Math.max(0, config.getInt("max-per-tick", 0));
+            namesShown = Math.max(1, config.getInt("names-shown", 3));
+            separator = ChatColor.translateAlternateColorCodes('&', config.getString("separator", ", "));
+            lastSeparator = ChatColor.translateAlternateColorCodes('&', config.getString("last-separator", " and "));
+            othersFormat = ChatColor.translateAlternateColorCodes('&', config.getString("others-format", "%names% and %count% others"));
+        } else {
+            windowTicks = 0;
+            maxPerTick = 0;
+        }
+        if (windowTicks > 0 || maxPerTick > 0) {
+            timer = scheduler.runGlobalTimer(this::tick, 1, 1);
+        }
+    }
+
+    /**
+     * Sends everything still waiting and stops the timer.
+     */
+    public synchronized void close() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        Group group;
+        while ((group = due.poll()) != null) {
+            send(group);
+        }
+    }
+
+    /**
+     * @return True if broadcasts are merged or capped.
+     */
+    public boolean isEnabled() {
+        return windowTicks > 0 || maxPerTick > 0;
+    }
+
+    /**
+     * @return How many broadcasts were folded into another one.
+     */
+    public long getMerged() {
+        return merged.get();
+    }
+
+    /**
+     * @return How many broadcasts were dropped because of the cap.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Broadcasts a rendered template, merged with the same broadcast of other senders if enabled. Thread-safe.
+     */
+    public void broadcast(Template template, BoundContext context) {
+        if (windowTicks <= 0) {
+            if (maxPerTick > 0 && sentThisTick.incrementAndGet() > maxPerTick) {
+                dropped.incrementAndGet();
+                return;
+            }
+            commandSink.broadcast(template.render(context));
+            return;
+        }
+
+        boolean perSender = template.references(PlaceholderLayout.SENDER_SLOT);
+        String text;
+        if (perSender) {
+            String[] values = context.getValues().clone();
+            values[PlaceholderLayout.SENDER_SLOT] = SENDER_MARK;
+            text = template.render(new BoundContext(context.getSender(), values, context.getPath(), context.getLocale()));
+        } else {
+            text = template.render(context);
+        }
+        String name = context.getSender().getName();
+        pending.compute(new Key(template, text), (key, group) -> {
+            if (group == null) {
+                group = new Group(key, perSender, tick + windowTicks);
+                due.add(group);
+            } else {
+                merged.incrementAndGet();
+            }
+            group.names.add(name);
+            return group;
+        });
+    }
+
+    private void tick() {
+        long now = ++tick;
+        sentThisTick.set(0);
+        int limit = maxPerTick > 0 ? maxPerTick : Integer.MAX_VALUE;
+        int sent = 0;
+        Group group;
+        // Groups are queued in the order they were opened, so the first one not due ends the flush.
+        while (sent < limit && (group = due.peek()) != null && group.dueTick <= now) {
+            due.poll();
+            send(group);
+            sent++;
+        }
+    }
+
+    private void send(Group group) {
+        // Removing the group under the map's lock means no name can be added to it any more.
+        pending.remove(group.key, group);
+        String text = group.key.text;
+        if (group.perSender) {
+            text = text.replace(SENDER_MARK, joinNames(new ArrayList<>(group.names)));
+        }
+        commandSink.broadcast(text);
+    }
+
+    private String joinNames(List<String> names) {
+        if (names.size() == 1) return names.get(0);
+        if (names.size() <= namesShown) {
+            return String.join(separator, names.subList(0, names.size() - 1)) + lastSeparator + names.get(names.size() - 1);
+        }
+        return othersFormat
+                .replace("%names%", String.join(separator, names.subList(0, namesShown)))
+                .replace("%count%", String.valueOf(names.size() - namesShown));
+    }
+
+    private static final class Key {
+        private final Template template;
+        private final String text;
+
+        private Key(Template template, String text) {
+            this.template = template;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return template == other.template && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(template) + text.hashCode();
+        }
+    }
+
+    private static final class Group {
+        private final Key key;
+        private final boolean perSender;
+        private final long dueTick;
+        // Only touched under the map's lock for the key, or after the group was removed.
+        private final Set<String> names = new LinkedHashSet<>();
+
+        private Group(Key key, boolean perSender, long dueTick) {
+            this.key = key;
+            this.perSender = perSender;
+            this.dueTick = dueTick;
+        }
+    }
+}
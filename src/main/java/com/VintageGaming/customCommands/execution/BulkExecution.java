@@ -0,0 +1,177 @@
+package com.VintageGaming.customCommands.execution;
+
+import com.VintageGaming.customCommands.model.ActionBlock;
+import com.VintageGaming.customCommands.scheduler.ScheduledTask;
+import com.VintageGaming.customCommands.template.RenderCache;
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * One command path run for many targets by the {@link BulkExecutor}. The path is matched once,
+ * then every target runs its actions as the sender, a few each tick. Poll the counts or wait for
+ * {@link #getFuture()}, which completes on the global thread once every target had its turn.
+ */
+public final class BulkExecution {
+
+    private final String command;
+    private final String path;
+    private final String[] args;
+    private final ActionBlock block;
+    private final String[] values;
+    private final List<CommandSender> targets;
+    private final Consumer<BulkExecution> progress;
+    private final RenderCache renderCache = new RenderCache();
+    private final CompletableFuture<BulkExecution> future = new CompletableFuture<>();
+    private final long startNanos = System.nanoTime();
+
+    // Only written on the global thread.
+    private volatile int next;
+    private volatile int completed;
+    private volatile int skipped;
+    private volatile int failed;
+    private volatile boolean cancelled;
+    private volatile long elapsedNanos = -1;
+    ScheduledTask task;
+
+    BulkExecution(String command, String path, String[] args, ActionBlock block, String[] values, List<CommandSender> targets, Consumer<BulkExecution> progress) {
+        this.command = command;
+        this.path = path;
+        this.args = args;
+        this.block = block;
+        this.values = values;
+        this.targets = targets;
+        this.progress = progress;
+    }
+
+    /**
+     * @return The name of the command.
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * @return The matched command path, e.g. "reward daily".
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public int getTotal() {
+        return targets.size();
+    }
+
+    /**
+     * @return The targets whose actions ran or whose countdown started.
+     */
+    public int getCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return The targets passed over because they went offline or already had a countdown of the command running.
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return The targets whose actions threw an exception.
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return The targets that had their turn, whatever the result.
+     */
+    public int getProcessed() {
+        return next;
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return The time from the start to the last target, or until now if still running, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        long elapsed = elapsedNanos;
+        return (elapsed >= 0 ? elapsed : System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * @return Completed with this execution after the last target, also when cancelled.
+     */
+    public CompletableFuture<BulkExecution> getFuture() {
+        return future;
+    }
+
+    /**
+     * Stops before the next target. Targets already run aren't undone.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    String[] getArgs() {
+        return args;
+    }
+
+    ActionBlock getBlock() {
+        return block;
+    }
+
+    RenderCache getRenderCache() {
+        return renderCache;
+    }
+
+    /**
+     * @return A copy of the values bound by the arguments, with {sender} still to be bound.
+     */
+    String[] copyValues() {
+        return values.clone();
+    }
+
+    boolean hasNext() {
+        return !cancelled && next < targets.size();
+    }
+
+    CommandSender next() {
+        return targets.get(next++);
+    }
+
+    void completed() {
+        completed++;
+    }
+
+    void skipped() {
+        skipped++;
+    }
+
+    void failed() {
+        failed++;
+    }
+
+    void reportProgress() {
+        if (progress != null) {
+            progress.accept(this);
+        }
+    }
+
+    void finish() {
+        elapsedNanos = System.nanoTime() - startNanos;
+        if (task != null) {
+            task.cancel();
+        }
+        future.complete(this);
+    }
+}
@@ -0,0 +1,160 @@
+package com.VintageGaming.customCommands.execution;
+
+import com.VintageGaming.customCommands.CommandEngine;
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import com.VintageGaming.customCommands.guard.ArgumentGuard;
+import com.VintageGaming.customCommands.model.ActionBlock;
+import com.VintageGaming.customCommands.model.ArgumentNode;
+import com.VintageGaming.customCommands.model.CustomCommandData;
+import com.VintageGaming.customCommands.template.BoundContext;
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Runs one command path for many targets, like rewarding every online player, without going
+ * through the command map once per target. The arguments are matched against the command tree
+ * once, in the dispatch mode invocations use, then each target runs the path's compiled actions
+ * as its sender. Strings that don't depend on the sender are rendered once for all of them.
+ * <p>
+ * The targets are worked through on the global thread in slices, each tick only until the
+ * configured time budget is used up, so a large run doesn't stall the server.
+ * The command's guards don't apply: nobody is charged, and permissions, cooldowns and rate
+ * limits aren't checked, the caller decides who the path runs for.
+ */
+public class BulkExecutor {
+
+    private final CommandEngine engine;
+    private final List<BulkExecution> running = new CopyOnWriteArrayList<>();
+    private volatile long tickBudgetNanos = TimeUnit.MILLISECONDS.toNanos(5);
+
+    public BulkExecutor(CommandEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Applies the "bulk" section of the config.
+     * @param config The section, may be null.
+     */
+    public void configure(ConfigurationSection config) {
+        double budgetMillis = config != null ? config.getDouble("tick-budget-ms", 5) : 5;
+        tickBudgetNanos = Math.max(1, (long) (budgetMillis * 1_000_000));
+    }
+
+    /**
+     * Starts running a command path for every target, beginning with the next tick.
+     * @param commandData The command, from the current registry snapshot.
+     * @param args The arguments selecting the path, matched once for all targets.
+     * @param targets Who to run the path for, each one is the {sender} of its run.
+     * @param progress Told after every tick's slice, on the global thread, may be null.
+     * @return The running execution.
+     * @throws IllegalArgumentException If the arguments don't lead to a path with actions.
+     */
+    public BulkExecution start(CustomCommandData commandData, String[] args, Collection<? extends CommandSender> targets, Consumer<BulkExecution> progress) {
+        String[] values = new String[commandData.getSlotCount()];
+        ActionBlock block;
+        String path = commandData.getName();
+        if (args.length == 0) {
+            block = commandData.hasRootActions() || commandData.hasRootDelay() ? commandData.getRootBlock() : null;
+        } else {
+            ArgumentGuard matcher = engine.getGuardPipeline().getArgumentGuard();
+            ArgumentNode node = null;
+            for (String arg : args) {
+                node = matcher.match(arg, commandData, node);
+                if (node == null) {
+                    throw new IllegalArgumentException("'" + arg + "' doesn't match any argument of /" + path + ".");
+                }
+                if (node.isPlaceholder()) {
+                    values[node.getSlot()] = arg;
+                }
+                path = node.getPath();
+            }
+            block = node.hasActions() || node.hasDelay() ? node.getActionBlock() : null;
+        }
+        if (block == null) {
+            throw new IllegalArgumentException("/" + path + " has no actions to run.");
+        }
+
+        BulkExecution execution = new BulkExecution(commandData.getName(), path, args, block, values, new ArrayList<>(targets), progress);
+        running.add(execution);
+        execution.task = engine.getTaskScheduler().runGlobalTimer(() -> runSlice(execution), 1, 1);
+        return execution;
+    }
+
+    /**
+     * @return The executions that haven't finished yet.
+     */
+    public List<BulkExecution> getRunning() {
+        return new ArrayList<>(running);
+    }
+
+    /**
+     * Cancels every running execution, for example when the plugin is disabled.
+     */
+    public void cancelAll() {
+        for (BulkExecution execution : running) {
+            execution.cancel();
+            finish(execution);
+        }
+    }
+
+    private void runSlice(BulkExecution execution) {
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        // At least one target per tick, however slow its actions are.
+        do {
+            if (!execution.hasNext()) break;
+            run(execution, execution.next());
+        } while (System.nanoTime() < deadline);
+
+        execution.reportProgress();
+        if (!execution.hasNext()) {
+            finish(execution);
+        }
+    }
+
+    private void run(BulkExecution execution, CommandSender target) {
+        if (target instanceof Player && !((Player) target).isOnline()) {
+            execution.skipped();
+            return;
+        }
+        ActionBlock block = execution.getBlock();
+        String[] values = execution.copyValues();
+        values[PlaceholderLayout.SENDER_SLOT] = target.getName();
+        int locale = engine.getPlayerLocales().of(target);
+        try {
+            ExecutionOutcome outcome = ExecutionOutcome.EXECUTED;
+            if (block.hasDelay()) {
+                if (!engine.getPendingCountdowns().canStart(target, execution.getCommand())) {
+                    execution.skipped();
+                    return;
+                }
+                // The countdown binds the remaining seconds into the values, so they can't share renders.
+                BoundContext context = new BoundContext(target, values, execution.getPath(), locale);
+                outcome = engine.getPendingCountdowns().start(target, execution.getCommand(), context, block);
+            } else {
+                BoundContext context = new BoundContext(target, values, execution.getPath(), locale, execution.getRenderCache());
+                engine.getActionExecutor().executeActions(context, block.getActions());
+            }
+            execution.completed();
+            engine.getAuditLog().record(target, execution.getCommand(), execution.getPath(), execution.getArgs(), outcome, 0);
+        } catch (RuntimeException e) {
+            execution.failed();
+            engine.getLogger().log(Level.WARNING, "Bulk run of /" + execution.getPath() + " failed for " + target.getName() + ": " + e, e);
+        }
+    }
+
+    private void finish(BulkExecution execution) {
+        if (running.remove(execution)) {
+            execution.finish();
+        }
+    }
+}
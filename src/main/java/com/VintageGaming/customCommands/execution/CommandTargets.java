@@ -0,0 +1,62 @@
+package com.VintageGaming.customCommands.execution;
+
+import com.VintageGaming.customCommands.platform.CommandSink;
+import org.bukkit.command.Command;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the Command every label run by 'console' and 'player' actions resolves to.
+ * Plugins can register, replace or drop commands at any time without an event telling,
+ * so a cached command is only used while the command map still holds that same command
+ * for the label. The cache is also cleared when a plugin is enabled or disabled and on
+ * reload, so labels that are gone don't stay in it.
+ */
+public class CommandTargets implements Listener {
+
+    private final CommandSink commandSink;
+    // Only labels that resolved are cached, so arguments typed into a dynamic label can't grow it.
+    private final Map<String, Command> resolved = new ConcurrentHashMap<>();
+
+    public CommandTargets(CommandSink commandSink) {
+        this.commandSink = commandSink;
+    }
+
+    /**
+     * Must be called on a thread that may read the command map.
+     * @param label The lower case command label.
+     * @return The command, or null if the label isn't known to the command map.
+     */
+    public Command resolve(String label) {
+        Command command = resolved.get(label);
+        if (command != null && commandSink.isCurrent(label, command)) {
+            return command;
+        }
+        command = commandSink.getCommand(label);
+        if (command != null) {
+            resolved.put(label, command);
+        } else {
+            resolved.remove(label);
+        }
+        return command;
+    }
+
+    public void invalidate() {
+        resolved.clear();
+    }
+
+    @EventHandler
+    public void onPluginEnable(PluginEnableEvent event) {
+        invalidate();
+    }
+
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent event) {
+        invalidate();
+    }
+}
@@ -0,0 +1,335 @@
+package com.VintageGaming.customCommands.execution;
+
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import com.VintageGaming.customCommands.model.ActionBlock;
+import com.VintageGaming.customCommands.model.CompiledDelay;
+import com.VintageGaming.customCommands.scheduler.ScheduledTask;
+import com.VintageGaming.customCommands.template.BoundContext;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps at most one running countdown per sender and command. What happens when a
+ * delayed command is run again while its countdown is still going is decided by the
+ * configured ReinvokePolicy, so the number of timers is bounded by the number of
+ * online players times the number of delayed commands.
+ * On Folia countdowns run on their sender's thread, so the bookkeeping is thread-safe.
+ * <p>
+ * Countdowns of players can be cancelled when the player moves away or takes damage.
+ * Instead of listening to every movement on the server, the position of the player is
+ * sampled once per countdown step, and the damage listener returns right away for
+ * anyone who isn't counting down.
+ */
+public class PendingCountdowns implements Listener {
+
+    public enum ReinvokePolicy {
+        REJECT,
+        RESTART,
+        QUEUE
+    }
+
+    private final ActionExecutor actionExecutor;
+    private final Map<String, Countdown> running = new ConcurrentHashMap<>();
+    // How many running countdowns of each player are cancelled by damage.
+    private final Map<UUID, Integer> damageWatched = new ConcurrentHashMap<>();
+
+    private ReinvokePolicy policy = ReinvokePolicy.REJECT;
+    private int maxQueued = 3;
+    private String rejectMessage = "&cThat command is already counting down.";
+    private String queuedMessage = "&eQueued, it will run after the current countdown.";
+    private double cancelDistance;
+    private boolean cancelOnDamage;
+    private String moveCancelMessage = "&cCountdown cancelled, you moved.";
+    private String damageCancelMessage = "&cCountdown cancelled, you took damage.";
+
+    public PendingCountdowns(ActionExecutor actionExecutor) {
+        this.actionExecutor = actionExecutor;
+    }
+
+    /**
+     * Applies the "delay" section of the config.
+     * @param config The delay section, may be null.
+     */
+    public void configure(ConfigurationSection config) {
+        if (config == null) return;
+        try {
+            policy = ReinvokePolicy.valueOf(config.getString("reinvoke-policy", "reject").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            policy = ReinvokePolicy.REJECT;
+        }
+        maxQueued = Math.max(0, config.getInt("max-queued", 3));
+        rejectMessage = config.getString("reject-message", rejectMessage);
+        queuedMessage = config.getString("queued-message", queuedMessage);
+        cancelDistance = Math.max(0, config.getDouble("cancel-on-move", 0));
+        cancelOnDamage = config.getBoolean("cancel-on-damage", false);
+        moveCancelMessage = config.getString("move-cancel-message", moveCancelMessage);
+        damageCancelMessage = config.getString("damage-cancel-message", damageCancelMessage);
+    }
+
+    /**
+     * @param sender The sender about to run a delayed command.
+     * @param commandName The name of the command.
+     * @return False if the invocation has to be refused under the current policy.
+     */
+    public boolean canStart(CommandSender sender, String commandName) {
+        Countdown countdown = running.get(keyOf(sender, commandName));
+        if (countdown == null) {
+            return true;
+        }
+        switch (policy) {
+            case RESTART:
+                return true;
+            case QUEUE:
+                return countdown.getQueued() < maxQueued;
+            case REJECT:
+            default:
+                return false;
+        }
+    }
+
+    public void sendRejectMessage(CommandSender sender) {
+        sender.sendMessage(ChatColor.translateAlternateColorCodes('&', rejectMessage));
+    }
+
+    /**
+     * Starts, restarts or queues the countdown of a delayed block.
+     * Callers are expected to have checked {@link #canStart(CommandSender, String)} first.
+     * @return SCHEDULED if a countdown was started, QUEUED if it waits for the running one.
+     */
+    public ExecutionOutcome start(CommandSender sender, String commandName, BoundContext context, ActionBlock block) {
+        String key = keyOf(sender, commandName);
+        Countdown existing = running.get(key);
+
+        if (existing != null) {
+            if (policy == ReinvokePolicy.QUEUE) {
+                synchronized (existing.queue) {
+                    existing.queue.add(new Invocation(context, block));
+                }
+                sender.sendMessage(ChatColor.translateAlternateColorCodes('&', queuedMessage));
+                return ExecutionOutcome.QUEUED;
+            }
+            if (policy == ReinvokePolicy.REJECT) {
+                sendRejectMessage(sender);
+                return ExecutionOutcome.ALREADY_PENDING;
+            }
+            // RESTART: drop the running countdown and start over with the new arguments.
+            existing.cancelTask();
+            remove(key, existing);
+        }
+
+        launch(key, sender, commandName, new Invocation(context, block), null);
+        return ExecutionOutcome.SCHEDULED;
+    }
+
+    private void launch(String key, CommandSender sender, String commandName, Invocation invocation, Deque<Invocation> queue) {
+        Countdown countdown = new Countdown(sender, commandName, invocation, queue);
+        CompiledDelay delay = invocation.block.getDelay();
+        if (sender instanceof Player) {
+            Player player = (Player) sender;
+            double distance = delay.getCancelDistance() >= 0 ? delay.getCancelDistance() : cancelDistance;
+            if (distance > 0) {
+                countdown.origin = player.getLocation();
+                countdown.maxDistanceSquared = distance * distance;
+            }
+            countdown.cancelOnDamage = delay.getCancelOnDamage() != null ? delay.getCancelOnDamage() : cancelOnDamage;
+            if (countdown.cancelOnDamage) {
+                damageWatched.merge(player.getUniqueId(), 1, Integer::sum);
+            }
+        }
+        running.put(key, countdown);
+        countdown.setTask(actionExecutor.executeDelayedActions(invocation.context, invocation.block, () -> finish(key, countdown),
+                countdown.origin != null ? () -> hasMoved(key, countdown) : null));
+    }
+
+    /**
+     * Samples the position of a countdown's player, called once per countdown step on the player's thread.
+     * @return True if the player moved too far and the countdown was cancelled.
+     */
+    private boolean hasMoved(String key, Countdown countdown) {
+        Location location = ((Player) countdown.sender).getLocation();
+        if (location.getWorld() == countdown.origin.getWorld()
+                && location.distanceSquared(countdown.origin) <= countdown.maxDistanceSquared) {
+            return false;
+        }
+        if (remove(key, countdown)) {
+            countdown.cancelTask();
+            countdown.sender.sendMessage(ChatColor.translateAlternateColorCodes('&', moveCancelMessage));
+        }
+        return true;
+    }
+
+    /**
+     * Removes a countdown from the running ones.
+     * @return False if it had already been removed.
+     */
+    private boolean remove(String key, Countdown countdown) {
+        if (!running.remove(key, countdown)) {
+            return false;
+        }
+        if (countdown.cancelOnDamage) {
+            damageWatched.computeIfPresent(((Player) countdown.sender).getUniqueId(), (id, count) -> count > 1 ? count - 1 : null);
+        }
+        return true;
+    }
+
+    private void finish(String key, Countdown countdown) {
+        if (!remove(key, countdown)) {
+            return;
+        }
+        Invocation next;
+        synchronized (countdown.queue) {
+            next = countdown.queue.poll();
+        }
+        if (next != null) {
+            launch(key, countdown.sender, countdown.commandName, next, countdown.queue);
+        }
+    }
+
+    /**
+     * Cancels the running countdowns of a sender, including anything queued behind them.
+     * @param senderName The name of the sender.
+     * @param commandName The command to cancel, or null for all of them.
+     * @return The number of countdowns cancelled.
+     */
+    public int cancel(String senderName, String commandName) {
+        int cancelled = 0;
+        for (Map.Entry<String, Countdown> entry : running.entrySet()) {
+            Countdown countdown = entry.getValue();
+            if (!countdown.sender.getName().equalsIgnoreCase(senderName)) continue;
+            if (commandName != null && !countdown.commandName.equalsIgnoreCase(commandName)) continue;
+            if (remove(entry.getKey(), countdown)) {
+                countdown.cancelTask();
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    public void cancelAll() {
+        for (Countdown countdown : running.values()) {
+            countdown.cancelTask();
+        }
+        running.clear();
+        damageWatched.clear();
+    }
+
+    public Collection<Countdown> getRunning() {
+        return new ArrayList<>(running.values());
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        if (!running.isEmpty()) {
+            cancel(event.getPlayer().getName(), null);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDamage(EntityDamageEvent event) {
+        if (damageWatched.isEmpty() || !(event.getEntity() instanceof Player)) return;
+        Player player = (Player) event.getEntity();
+        if (!damageWatched.containsKey(player.getUniqueId())) return;
+
+        boolean cancelled = false;
+        for (Map.Entry<String, Countdown> entry : running.entrySet()) {
+            Countdown countdown = entry.getValue();
+            if (countdown.cancelOnDamage && countdown.sender == player && remove(entry.getKey(), countdown)) {
+                countdown.cancelTask();
+                cancelled = true;
+            }
+        }
+        if (cancelled) {
+            player.sendMessage(ChatColor.translateAlternateColorCodes('&', damageCancelMessage));
+        }
+    }
+
+    private static String keyOf(CommandSender sender, String commandName) {
+        String senderKey = sender instanceof Player ? ((Player) sender).getUniqueId().toString() : sender.getName();
+        return senderKey + ":" + commandName;
+    }
+
+    private static final class Invocation {
+        private final BoundContext context;
+        private final ActionBlock block;
+
+        private Invocation(BoundContext context, ActionBlock block) {
+            this.context = context;
+            this.block = block;
+        }
+    }
+
+    /**
+     * A running countdown, as listed by "/customcommands pending".
+     */
+    public static final class Countdown {
+        private final CommandSender sender;
+        private final String commandName;
+        private final String path;
+        private final long endsAt;
+        private final Deque<Invocation> queue;
+        private volatile ScheduledTask task;
+        private volatile boolean cancelled;
+        // Set before the countdown is published, only read afterwards.
+        private Location origin;
+        private double maxDistanceSquared;
+        private boolean cancelOnDamage;
+
+        private Countdown(CommandSender sender, String commandName, Invocation invocation, Deque<Invocation> queue) {
+            this.sender = sender;
+            this.commandName = commandName;
+            this.path = invocation.context.getPath();
+            this.endsAt = System.currentTimeMillis() + invocation.block.getDelay().getTicks() * 50;
+            this.queue = queue != null ? queue : new ArrayDeque<>();
+        }
+
+        private void setTask(ScheduledTask task) {
+            this.task = task;
+            // Cancelled from another thread before the task existed.
+            if (cancelled) task.cancel();
+        }
+
+        private void cancelTask() {
+            cancelled = true;
+            ScheduledTask current = task;
+            if (current != null) current.cancel();
+        }
+
+        public String getSenderName() {
+            return sender.getName();
+        }
+
+        public String getCommandName() {
+            return commandName;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public long getSecondsRemaining() {
+            return Math.max(0, (endsAt - System.currentTimeMillis()) / 1000);
+        }
+
+        public int getQueued() {
+            synchronized (queue) {
+                return queue.size();
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.VintageGaming.customCommands.execution;
+
+import com.VintageGaming.customCommands.scheduler.TaskScheduler;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDismountEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleExitEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the online players in buckets by world and chunk, so the players near a location are
+ * found by looking at the few chunks around it instead of every player on the server.
+ * The buckets are updated from the move events, which on Folia fire on many region threads
+ * at once, and may be read from any thread. Players carried by a vehicle get no move events,
+ * they follow the vehicle's moves instead and are looked up again on their own thread the tick
+ * after they get off, once the server has put them where they dismounted.
+ */
+public class PlayerChunkIndex implements Listener {
+
+    private final TaskScheduler scheduler;
+    private final Map<UUID, Map<Long, Set<Player>>> worlds = new ConcurrentHashMap<>();
+    private final Map<UUID, Position> positions = new ConcurrentHashMap<>();
+    private volatile double maxRadius = 64;
+
+    public PlayerChunkIndex(TaskScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Applies the "effects" section of the config.
+     * @param config The section, may be null.
+     */
+    public void configure(ConfigurationSection config) {
+        maxRadius = Math.max(1, config != null ? config.getDouble("max-radius", 64) : 64);
+    }
+
+    /**
+     * Puts players in the buckets of where they are now, for players who were online before the index was.
+     */
+    public void addAll(Collection<? extends Player> players) {
+        for (Player player : players) {
+            update(player, player.getLocation());
+        }
+    }
+
+    /**
+     * Moves a player to the bucket of a location, if that is another chunk than the player's current one.
+     * The whole move happens under the lock of the player's position, so two threads moving the same
+     * player at once can't leave them in two buckets.
+     */
+    public void update(Player player, Location location) {
+        World world = location != null ? location.getWorld() : null;
+        if (world == null) return;
+        UUID worldId = world.getUID();
+        long chunk = chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+
+        positions.compute(player.getUniqueId(), (id, previous) -> {
+            if (previous != null && previous.chunk == chunk && previous.world.equals(worldId)) return previous;
+            if (previous != null) {
+                removeFromBucket(player, previous);
+            }
+            worlds.computeIfAbsent(worldId, key -> new ConcurrentHashMap<>()).compute(chunk, (key, bucket) -> {
+                Set<Player> players = bucket != null ? bucket : ConcurrentHashMap.newKeySet();
+                players.add(player);
+                return players;
+            });
+            return new Position(worldId, chunk);
+        });
+    }
+
+    public void remove(Player player) {
+        positions.computeIfPresent(player.getUniqueId(), (id, previous) -> {
+            removeFromBucket(player, previous);
+            return null;
+        });
+    }
+
+    public void clear() {
+        worlds.clear();
+        positions.clear();
+    }
+
+    /**
+     * Finds the players within a radius of a location. Only the chunks the radius touches are
+     * looked at, then the players in them are checked by their exact distance.
+     * @param center The center, with its world.
+     * @param radius The radius in blocks, at most the configured 'max-radius'.
+     * @return The players in range, in no particular order.
+     */
+    public List<Player> getNearby(Location center, double radius) {
+        List<Player> nearby = new ArrayList<>();
+        World world = center.getWorld();
+        Map<Long, Set<Player>> chunks = world != null ? worlds.get(world.getUID()) : null;
+        if (chunks == null || chunks.isEmpty()) {
+            return nearby;
+        }
+
+        double range = Math.min(radius, maxRadius);
+        double rangeSquared = range * range;
+        int minX = (int) Math.floor(center.getX() - range) >> 4;
+        int maxX = (int) Math.floor(center.getX() + range) >> 4;
+        int minZ = (int) Math.floor(center.getZ() - range) >> 4;
+        int maxZ = (int) Math.floor(center.getZ() + range) >> 4;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                Set<Player> bucket = chunks.get(chunkKey(x, z));
+                if (bucket == null) continue;
+                for (Player player : bucket) {
+                    // The bucket may lag behind a player who just moved, the location is what counts.
+                    Location location = player.getLocation();
+                    if (location.getWorld() == world && location.distanceSquared(center) <= rangeSquared) {
+                        nearby.add(player);
+                    }
+                }
+            }
+        }
+        return nearby;
+    }
+
+    /**
+     * @return The number of players in the buckets.
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        remove(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        if (sameChunk(event.getFrom(), event.getTo())) return;
+        update(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(VehicleMoveEvent event) {
+        // Passengers get no move events of their own while they ride.
+        if (sameChunk(event.getFrom(), event.getTo())) return;
+        for (Entity passenger : event.getVehicle().getPassengers()) {
+            if (passenger instanceof Player) {
+                update((Player) passenger, event.getTo());
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onVehicleExit(VehicleExitEvent event) {
+        followDismount(event.getExited());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDismount(EntityDismountEvent event) {
+        followDismount(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        update(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        update(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    /**
+     * The events fire before the server puts the entity where it gets off, so it is looked up the tick after.
+     * Both events fire for most dismounts, the second lookup finds the player in the right chunk already.
+     */
+    private void followDismount(Entity entity) {
+        if (!(entity instanceof Player)) return;
+        Player player = (Player) entity;
+        scheduler.runForEntityLater(player, () -> update(player, player.getLocation()), 1);
+    }
+
+    private void removeFromBucket(Player player, Position position) {
+        Map<Long, Set<Player>> chunks = worlds.get(position.world);
+        if (chunks == null) return;
+        chunks.computeIfPresent(position.chunk, (key, bucket) -> {
+            bucket.remove(player);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    /**
+     * Most moves stay in the same chunk, those don't need a lookup at all.
+     */
+    private static boolean sameChunk(Location from, Location to) {
+        return to == null || (to.getBlockX() >> 4 == from.getBlockX() >> 4 && to.getBlockZ() >> 4 == from.getBlockZ() >> 4
+                && to.getWorld() == from.getWorld());
+    }
+
+    private static long chunkKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    private static final class Position {
+        private final UUID world;
+        private final long chunk;
+
+        private Position(UUID world, long chunk) {
+            this.world = world;
+            this.chunk = chunk;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.VintageGaming.customCommands.guard;
+
+import com.VintageGaming.customCommands.command.ArgumentMatcher;
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import com.VintageGaming.customCommands.model.ActionBlock;
+import com.VintageGaming.customCommands.model.ArgumentDispatcher;
+import com.VintageGaming.customCommands.model.ArgumentNode;
+import com.VintageGaming.customCommands.model.CustomCommandData;
+import com.VintageGaming.customCommands.platform.PlayerLookup;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Map;
+
+/**
+ * Resolves the arguments against the command tree: finds the matched nodes, binds
+ * the placeholder values and picks the action block to run. This is the most expensive
+ * stage, type validation may have to look up players, so the cheap checks run before it.
+ * <p>
+ * By default the nodes are matched through the {@link ArgumentDispatcher} precompiled with
+ * each node. The "interpreted" dispatch mode walks the plain child maps instead.
+ */
+public class ArgumentGuard implements CommandGuard {
+
+    private final PlayerLookup players;
+    private volatile boolean compiled = true;
+
+    public ArgumentGuard(PlayerLookup players) {
+        this.players = players;
+    }
+
+    /**
+     * Applies the "guards.arguments" section of the config.
+     * @param config The section, may be null.
+     */
+    public void configure(ConfigurationSection config) {
+        compiled = config == null || !"interpreted".equalsIgnoreCase(config.getString("dispatch", "compiled"));
+    }
+
+    @Override
+    public String getName() {
+        return "arguments";
+    }
+
+    @Override
+    public int getOrder() {
+        return ARGUMENTS;
+    }
+
+    @Override
+    public ExecutionOutcome check(GuardContext context) {
+        CommandSender sender = context.getSender();
+        CustomCommandData commandData = context.getCommandData();
+        String[] args = context.getArgs();
+        String[] placeholders = context.getPlaceholders();
+
+        ActionBlock block = null;
+
+        // Determine the correct actions and node based on arguments
+        if (args.length == 0) {
+            // No arguments provided, check for root-level actions
+            if (commandData.hasRootActions() || commandData.hasRootDelay()) {
+                block = commandData.getRootBlock();
+            } else if (!commandData.getArguments().isEmpty()) {
+                // No root actions, but sub-arguments exist, so usage is incorrect.
+                return usage(context);
+            }
+        } else {
+            // Arguments provided, traverse the argument tree
+            boolean compiled = this.compiled;
+            ArgumentNode parent = null;
+
+            for (String arg : args) {
+                ArgumentNode matchedNode = match(arg, compiled, commandData, parent);
+
+                if (matchedNode == null) {
+                    // Don't tell senders about arguments below a node they aren't allowed to use.
+                    ExecutionOutcome denied = NodePermissionGuard.checkMatched(context);
+                    if (denied != null) {
+                        return denied;
+                    }
+
+                    // Check if a placeholder was expected and provide a specific error.
+                    ArgumentNode expectedNode = compiled
+                            ? (parent != null ? parent.getDispatcher() : commandData.getDispatcher()).getSinglePlaceholder()
+                            : singlePlaceholder(parent != null ? parent.getChildren() : commandData.getArguments());
+                    if (expectedNode != null) {
+                        String errorMsg = expectedNode.getTypeError() != null ? expectedNode.getTypeError() : "&cInvalid input for <" + expectedNode.getType() + ">.";
+                        sender.sendMessage(context.localize(errorMsg).replace("%input%", arg));
+                        return ExecutionOutcome.INVALID_ARGUMENT;
+                    }
+                    return usage(context);
+                }
+
+                // If the node is a placeholder (e.g., [player] ), store the provided value.
+                if (matchedNode.isPlaceholder()) {
+                    placeholders[matchedNode.getSlot()] = arg;
+                }
+
+                context.addNode(matchedNode);
+                parent = matchedNode;
+            }
+
+            // After iterating through all args, the final node is the target.
+            ArgumentNode currentNode = context.getNode();
+            if (currentNode != null) {
+                if (currentNode.hasActions() || currentNode.hasDelay()) {
+                    block = currentNode.getActionBlock();
+                } else if (!currentNode.getChildren().isEmpty()) {
+                    return usage(context);
+                }
+            }
+        }
+
+        // If no valid actions were found after parsing, it's an invalid command.
+        // This can happen if the root command is executed without args and has no root actions.
+        if (block == null) {
+            return usage(context);
+        }
+        context.setBlock(block);
+        return null;
+    }
+
+    /**
+     * Matches one argument the way invocations do, following the configured dispatch mode.
+     * @param arg The argument.
+     * @param commandData The command.
+     * @param parent The node the previous argument matched, null for the first argument.
+     * @return The matching child node, or null if none matches.
+     */
+    public ArgumentNode match(String arg, CustomCommandData commandData, ArgumentNode parent) {
+        return match(arg, compiled, commandData, parent);
+    }
+
+    private ArgumentNode match(String arg, boolean compiled, CustomCommandData commandData, ArgumentNode parent) {
+        if (compiled) {
+            return (parent != null ? parent.getDispatcher() : commandData.getDispatcher()).match(arg, players);
+        }
+        return ArgumentMatcher.findMatchingNode(arg, parent != null ? parent.getChildren() : commandData.getArguments(), players);
+    }
+
+    private ExecutionOutcome usage(GuardContext context) {
+        ExecutionOutcome denied = NodePermissionGuard.checkMatched(context);
+        if (denied != null) {
+            return denied;
+        }
+        context.getSender().sendMessage(context.localize(context.getCommand().getUsage()));
+        return ExecutionOutcome.USAGE;
+    }
+
+    /**
+     * @return The only [placeholder] child, or null if there are none or several.
+     */
+    private static ArgumentNode singlePlaceholder(Map<String, ArgumentNode> children) {
+        ArgumentNode found = null;
+        for (ArgumentNode node : children.values()) {
+            if (node.isPlaceholder()) {
+                if (found != null) return null;
+                found = node;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,188 @@
+package com.VintageGaming.customCommands.guard;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Tracks how long the actions of one custom command take and switches the command
+ * off while the 95th percentile of its recent runs is over budget.
+ * <p>
+ * CLOSED: the command runs normally and every run is added to a rolling window.<br>
+ * OPEN: the window's p95 went over budget, the command is refused until the open time is over.<br>
+ * HALF_OPEN: single probe runs are let through. Enough fast probes close the breaker again,
+ * a slow one opens it again for twice as long, up to the configured maximum.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * The configured limits, shared by every breaker.
+     */
+    static final class Settings {
+        final long budgetNanos;
+        final int window;
+        final int minSamples;
+        final long openNanos;
+        final long maxOpenNanos;
+        final int probes;
+
+        Settings(long budgetNanos, int window, int minSamples, long openNanos, long maxOpenNanos, int probes) {
+            this.budgetNanos = budgetNanos;
+            this.window = window;
+            this.minSamples = minSamples;
+            this.openNanos = openNanos;
+            this.maxOpenNanos = maxOpenNanos;
+            this.probes = probes;
+        }
+    }
+
+    private final String command;
+    private final Settings settings;
+    private final Logger logger;
+
+    private final long[] samples;
+    private int next;
+    private int count;
+    // How many samples in the window are over budget, so the p95 check doesn't need to sort.
+    private int overBudget;
+
+    private State state = State.CLOSED;
+    private long openUntil;
+    private long openNanos;
+    private boolean probing;
+    private long probeStarted;
+    private int probeSuccesses;
+    private long trips;
+
+    CircuitBreaker(String command, Settings settings, Logger logger) {
+        this.command = command;
+        this.settings = settings;
+        this.logger = logger;
+        this.samples = new long[settings.window];
+        this.openNanos = settings.openNanos;
+    }
+
+    /**
+     * @param now The current System.nanoTime().
+     * @return -1 if the command may run, otherwise the nanoseconds until it may be tried again.
+     */
+    synchronized long check(long now) {
+        if (state == State.CLOSED) return -1;
+        if (state == State.OPEN && now < openUntil) return openUntil - now;
+        // Half open, one probe at a time. A probe that never reports back (a cancelled countdown) expires.
+        if (probing && now - probeStarted < openNanos) return openNanos - (now - probeStarted);
+        return -1;
+    }
+
+    synchronized void onPass(long now) {
+        if (state == State.OPEN && now >= openUntil) {
+            state = State.HALF_OPEN;
+            probeSuccesses = 0;
+            logger.info("Probing command '" + command + "' again after it was switched off for being slow.");
+        }
+        if (state == State.HALF_OPEN) {
+            probing = true;
+            probeStarted = now;
+        }
+    }
+
+    /**
+     * @param elapsedNanos How long one run of the command's actions took.
+     * @param now The current System.nanoTime().
+     */
+    synchronized void record(long elapsedNanos, long now) {
+        switch (state) {
+            case CLOSED:
+                add(elapsedNanos);
+                if (count >= settings.minSamples && overBudget > count - (int) Math.ceil(count * 0.95)) {
+                    openNanos = settings.openNanos;
+                    trip(now, "p95 " + formatMillis(percentile95()));
+                }
+                break;
+            case HALF_OPEN:
+                probing = false;
+                if (elapsedNanos > settings.budgetNanos) {
+                    openNanos = Math.min(openNanos * 2, settings.maxOpenNanos);
+                    trip(now, "probe took " + formatMillis(elapsedNanos));
+                } else if (++probeSuccesses >= settings.probes) {
+                    state = State.CLOSED;
+                    clear();
+                    openNanos = settings.openNanos;
+                    logger.info("Command '" + command + "' is fast again and has been switched back on.");
+                }
+                break;
+            case OPEN:
+                // A run that started before the breaker opened.
+                break;
+        }
+    }
+
+    private void trip(long now, String reason) {
+        state = State.OPEN;
+        openUntil = now + openNanos;
+        probing = false;
+        trips++;
+        clear();
+        logger.warning("Command '" + command + "' is too slow (" + reason + " ms, budget "
+                + formatMillis(settings.budgetNanos) + " ms), switching it off for "
+                + TimeUnit.NANOSECONDS.toSeconds(openNanos) + "s.");
+    }
+
+    private void add(long elapsedNanos) {
+        if (count == samples.length) {
+            if (samples[next] > settings.budgetNanos) overBudget--;
+        } else {
+            count++;
+        }
+        samples[next] = elapsedNanos;
+        if (elapsedNanos > settings.budgetNanos) overBudget++;
+        next = (next + 1) % samples.length;
+    }
+
+    private void clear() {
+        next = 0;
+        count = 0;
+        overBudget = 0;
+    }
+
+    // --- Getters ---
+
+    public String getCommand() {
+        return command;
+    }
+
+    public synchronized State getState() {
+        return state == State.OPEN && System.nanoTime() >= openUntil ? State.HALF_OPEN : state;
+    }
+
+    public synchronized int getSamples() {
+        return count;
+    }
+
+    /**
+     * @return The 95th percentile of the runs in the window in nanoseconds, 0 without any.
+     */
+    public synchronized long percentile95() {
+        if (count == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(count * 0.95) - 1];
+    }
+
+    /**
+     * @return How often the breaker opened.
+     */
+    public synchronized long getTrips() {
+        return trips;
+    }
+
+    static String formatMillis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,117 @@
+package com.VintageGaming.customCommands.guard;
+
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Refuses custom commands whose circuit breaker is open, see {@link CircuitBreaker}.
+ * The ActionExecutor reports how long the actions of every command path took.
+ * Disabled unless a budget is configured.
+ */
+public class CircuitBreakerGuard implements CommandGuard {
+
+    private final Logger logger;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    // Command paths mapped to the breaker of their command, so recording doesn't have to cut up the path.
+    private final Map<String, CircuitBreaker> byPath = new ConcurrentHashMap<>();
+
+    private volatile CircuitBreaker.Settings settings;
+    private volatile String message = "&cThis command is temporarily unavailable, try again in %seconds%s.";
+
+    public CircuitBreakerGuard(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Applies the "guards.circuit-breaker" section of the config. Every breaker starts over closed.
+     * @param config The section, may be null.
+     */
+    public void configure(ConfigurationSection config) {
+        breakers.clear();
+        byPath.clear();
+        long budgetMillis = config != null ? config.getLong("budget-ms", 0) : 0;
+        if (budgetMillis <= 0) {
+            settings = null;
+            return;
+        }
+        int window = Math.max(1, config.getInt("window", 50));
+        long openSeconds = Math.max(1, config.getLong("open-seconds", 30));
+        settings = new CircuitBreaker.Settings(
+                TimeUnit.MILLISECONDS.toNanos(budgetMillis),
+                window,
+                Math.min(window, Math.max(1, config.getInt("min-samples", 20))),
+                TimeUnit.SECONDS.toNanos(openSeconds),
+                TimeUnit.SECONDS.toNanos(Math.max(openSeconds, config.getLong("max-open-seconds", 600))),
+                Math.max(1, config.getInt("probes", 3)));
+        message = config.getString("message", message);
+    }
+
+    @Override
+    public String getName() {
+        return "circuit-breaker";
+    }
+
+    @Override
+    public int getOrder() {
+        return CIRCUIT_BREAKER;
+    }
+
+    @Override
+    public ExecutionOutcome check(GuardContext context) {
+        if (settings == null) return null;
+        CircuitBreaker breaker = breakers.get(context.getCommandData().getName());
+        if (breaker == null) return null;
+
+        long wait = breaker.check(System.nanoTime());
+        if (wait < 0) return null;
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+        context.getSender().sendMessage(ChatColor.translateAlternateColorCodes('&', message.replace("%seconds%", String.valueOf(seconds))));
+        return ExecutionOutcome.UNAVAILABLE;
+    }
+
+    @Override
+    public void onPass(GuardContext context) {
+        if (settings == null) return;
+        CircuitBreaker breaker = breakers.get(context.getCommandData().getName());
+        if (breaker != null) {
+            breaker.onPass(System.nanoTime());
+        }
+    }
+
+    /**
+     * Adds one run of a command's actions to the breaker of the command.
+     * @param path The command path the actions belong to, starting with the command name.
+     * @param elapsedNanos How long the actions took.
+     */
+    public void record(String path, long elapsedNanos) {
+        CircuitBreaker.Settings current = settings;
+        if (current == null || path == null) return;
+        CircuitBreaker breaker = byPath.get(path);
+        if (breaker == null) {
+            int space = path.indexOf(' ');
+            String command = space < 0 ? path : path.substring(0, space);
+            breaker = breakers.computeIfAbsent(command, name -> new CircuitBreaker(name, current, logger));
+            byPath.put(path, breaker);
+        }
+        breaker.record(elapsedNanos, System.nanoTime());
+    }
+
+    public boolean isEnabled() {
+        return settings != null;
+    }
+
+    /**
+     * @return The breakers of every command that ran since the last (re)configuration.
+     */
+    public List<CircuitBreaker> getBreakers() {
+        return new ArrayList<>(breakers.values());
+    }
+}
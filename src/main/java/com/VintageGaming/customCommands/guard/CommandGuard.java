@@ -0,0 +1,51 @@
+package com.VintageGaming.customCommands.guard;
+
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+
+/**
+ * A check every custom command invocation has to pass before its actions run.
+ * Guards run ordered by {@link #getOrder()}, cheap ones first, and the first guard
+ * that rejects an invocation stops it. Other plugins can add their own through
+ * {@link GuardPipeline#register(org.bukkit.plugin.Plugin, CommandGuard)}.
+ * <p>
+ * Guards ordered before {@link #ARGUMENTS} run before the arguments are matched
+ * against the command tree, so the matched node and action block aren't known yet.
+ */
+public interface CommandGuard {
+
+    int ROOT_PERMISSION = 100;
+    int RATE_LIMIT = 200;
+    int CIRCUIT_BREAKER = 250;
+    int COOLDOWN = 300;
+    int ARGUMENTS = 400;
+    int NODE_PERMISSION = 500;
+    int PENDING = 600;
+    int COST = 700;
+
+    /**
+     * @return The name shown in "/customcommands stats".
+     */
+    String getName();
+
+    /**
+     * @return The position of the guard in the pipeline, see the constants of this interface.
+     */
+    int getOrder();
+
+    /**
+     * Checks an invocation without changing any state. A guard that rejects
+     * the invocation is expected to tell the sender why.
+     * @param context The invocation.
+     * @return Null to let the invocation through, otherwise the outcome it is rejected with.
+     */
+    ExecutionOutcome check(GuardContext context);
+
+    /**
+     * Called on every guard once all of them let the invocation through, right before
+     * its actions run. This is where guards apply side effects like charging a cost or
+     * counting the invocation. An exception is logged and the other guards are still called.
+     * @param context The invocation.
+     */
+    default void onPass(GuardContext context) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.VintageGaming.customCommands.guard;
+
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import com.VintageGaming.customCommands.model.CustomCommandData;
+import com.VintageGaming.customCommands.scheduler.TaskScheduler;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps players from running a command again before its cooldown has passed.
+ * The cooldown starts once every guard has let the invocation through.
+ */
+public class CooldownGuard implements CommandGuard {
+
+    private final TaskScheduler scheduler;
+
+    // Cooldowns per command and player. They aren't part of a registry snapshot, so they survive reloads.
+    private final Map<String, Map<UUID, Long>> commandCooldowns = new ConcurrentHashMap<>();
+
+    public CooldownGuard(TaskScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public String getName() {
+        return "cooldown";
+    }
+
+    @Override
+    public int getOrder() {
+        return COOLDOWN;
+    }
+
+    @Override
+    public ExecutionOutcome check(GuardContext context) {
+        Player player = context.getPlayer();
+        CustomCommandData commandData = context.getCommandData();
+        if (player == null || commandData.getCooldown() == null || commandData.getCooldown().isEmpty()) {
+            return null;
+        }
+        if (isOnCooldown(player.getUniqueId(), commandData.getName())) {
+            player.sendMessage(ChatColor.RED + "You are on cooldown for this command.");
+            return ExecutionOutcome.COOLDOWN;
+        }
+        return null;
+    }
+
+    @Override
+    public void onPass(GuardContext context) {
+        Player player = context.getPlayer();
+        if (player != null) {
+            setCooldown(player.getUniqueId(), context.getCommandData());
+        }
+    }
+
+    /**
+     * Checks if a player is currently on cooldown for a command.
+     * @param playerUUID The UUID of the player to check.
+     * @param commandName The name of the command.
+     * @return True if the player is on cooldown, otherwise false.
+     */
+    public boolean isOnCooldown(UUID playerUUID, String commandName) {
+        Map<UUID, Long> cooldowns = commandCooldowns.get(commandName);
+        if (cooldowns == null) {
+            return false;
+        }
+        return cooldowns.getOrDefault(playerUUID, 0L) > System.currentTimeMillis();
+    }
+
+    private void setCooldown(UUID playerUUID, CustomCommandData commandData) {
+        long cooldownMillis = parseTime(commandData.getCooldown());
+        if (cooldownMillis <= 0) return;
+
+        String commandName = commandData.getName();
+        long expirationTime = System.currentTimeMillis() + cooldownMillis;
+        commandCooldowns.computeIfAbsent(commandName, k -> new ConcurrentHashMap<>()).put(playerUUID, expirationTime);
+
+        // Schedule a task to remove the player from the cooldown map when it expires.
+        // This is a cleanup to prevent the map from growing indefinitely over time.
+        long cooldownTicks = cooldownMillis / 50;
+        scheduler.runGlobalLater(() -> {
+            Map<UUID, Long> cooldowns = commandCooldowns.get(commandName);
+            if (cooldowns != null) {
+                // Only remove if the expiration time matches, to avoid race conditions if the command is run again.
+                cooldowns.remove(playerUUID, expirationTime);
+                commandCooldowns.computeIfPresent(commandName, (name, map) -> map.isEmpty() ? null : map);
+            }
+        }, cooldownTicks);
+    }
+
+    /**
+     * Parses a time string (e.g., "10 seconds") into milliseconds.
+     * @param timeString The string to parse.
+     * @return The time in milliseconds, or 0 if parsing fails.
+     */
+    private long parseTime(String timeString) {
+        if (timeString == null || timeString.isEmpty()) {
+            return 0;
+        }
+        // Expects format like "10 seconds", "5 minutes", etc.
+        String[] parts = timeString.split(" ");
+        if (parts.length != 2) {
+            return 0;
+        }
+        try {
+            long amount = Long.parseLong(parts[0]);
+            switch (parts[1].toLowerCase()) {
+                case "second":
+                case "seconds":
+                    return TimeUnit.SECONDS.toMillis(amount);
+                case "minute":
+                case "minutes":
+                    return TimeUnit.MINUTES.toMillis(amount);
+                case "hour":
+                case "hours":
+                    return TimeUnit.HOURS.toMillis(amount);
+                default:
+                    return 0; // Unsupported time unit
+            }
+        } catch (NumberFormatException e) {
+            return 0; // Invalid number
+        }
+    }
+}
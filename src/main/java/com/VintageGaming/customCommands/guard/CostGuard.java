@@ -0,0 +1,67 @@
+package com.VintageGaming.customCommands.guard;
+
+import com.VintageGaming.customCommands.CommandEngine;
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import com.VintageGaming.customCommands.placeholder.BuiltinPlaceholders;
+import com.VintageGaming.customCommands.placeholder.PlaceholderService;
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+
+/**
+ * Makes sure a player can pay for a command, and charges them once every guard let it through.
+ */
+public class CostGuard implements CommandGuard {
+
+    private final CommandEngine engine;
+
+    public CostGuard(CommandEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public String getName() {
+        return "cost";
+    }
+
+    @Override
+    public int getOrder() {
+        return COST;
+    }
+
+    @Override
+    public ExecutionOutcome check(GuardContext context) {
+        Player player = context.getPlayer();
+        double cost = context.getCommandData().getCost();
+        if (player == null || cost <= 0) {
+            return null;
+        }
+        Economy economy = engine.getEconomy();
+        if (economy == null) {
+            player.sendMessage(ChatColor.RED + "Commands with a cost are currently disabled.");
+            return ExecutionOutcome.COST_DISABLED;
+        }
+        if (!economy.has(player, cost)) {
+            player.sendMessage(ChatColor.RED + "You do not have enough money to use this command.");
+            return ExecutionOutcome.INSUFFICIENT_FUNDS;
+        }
+        return null;
+    }
+
+    @Override
+    public void onPass(GuardContext context) {
+        Player player = context.getPlayer();
+        double cost = context.getCommandData().getCost();
+        if (player == null || cost <= 0) {
+            return;
+        }
+        EconomyResponse response = engine.getEconomy().withdrawPlayer(player, cost);
+        PlaceholderService placeholders = engine.getPlaceholderService();
+        if (response.transactionSuccess() && placeholders != null) {
+            // The actions of the command may show the balance, it mustn't be the one from before the charge.
+            placeholders.invalidate(BuiltinPlaceholders.BALANCE, player);
+            placeholders.invalidate(BuiltinPlaceholders.BALANCE_FORMATTED, player);
+        }
+    }
+}
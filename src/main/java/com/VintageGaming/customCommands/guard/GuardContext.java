@@ -0,0 +1,138 @@
+package com.VintageGaming.customCommands.guard;
+
+import com.VintageGaming.customCommands.command.DynamicCommand;
+import com.VintageGaming.customCommands.lang.MessageCatalog;
+import com.VintageGaming.customCommands.model.ActionBlock;
+import com.VintageGaming.customCommands.model.ArgumentNode;
+import com.VintageGaming.customCommands.model.CustomCommandData;
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+/**
+ * One custom command invocation on its way through the guard pipeline.
+ * The argument guard fills in the matched nodes, placeholder values and action block.
+ */
+public final class GuardContext {
+
+    private final DynamicCommand command;
+    private final CommandSender sender;
+    private final String[] args;
+    private final CustomCommandData commandData;
+    private final String[] placeholders;
+    private final ArgumentNode[] nodes;
+    private final int locale;
+    private final MessageCatalog messages;
+    private int depth;
+    private ActionBlock block;
+    private String path;
+
+    /**
+     * @param locale The MessageCatalog locale index of the sender.
+     * @param messages The catalog messages are localized with, may be null.
+     */
+    public GuardContext(DynamicCommand command, CommandSender sender, String[] args, CustomCommandData commandData, int locale, MessageCatalog messages) {
+        this.command = command;
+        this.sender = sender;
+        this.args = args;
+        this.commandData = commandData;
+        this.placeholders = new String[commandData.getSlotCount()];
+        this.placeholders[PlaceholderLayout.SENDER_SLOT] = sender.getName();
+        this.nodes = new ArgumentNode[args.length];
+        this.path = commandData.getName();
+        this.locale = locale;
+        this.messages = messages;
+    }
+
+    void addNode(ArgumentNode node) {
+        nodes[depth++] = node;
+        path = node.getPath();
+    }
+
+    void setBlock(ActionBlock block) {
+        this.block = block;
+    }
+
+    // --- Getters ---
+
+    public DynamicCommand getCommand() {
+        return command;
+    }
+
+    public CommandSender getSender() {
+        return sender;
+    }
+
+    /**
+     * @return The sender if it is a player, otherwise null.
+     */
+    public Player getPlayer() {
+        return sender instanceof Player ? (Player) sender : null;
+    }
+
+    public String[] getArgs() {
+        return args;
+    }
+
+    public CustomCommandData getCommandData() {
+        return commandData;
+    }
+
+    /**
+     * @return The placeholder values bound so far, indexed by slot.
+     */
+    public String[] getPlaceholders() {
+        return placeholders;
+    }
+
+    /**
+     * @return The number of argument nodes matched so far.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public ArgumentNode getNode(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * @return The deepest matched node, or null for the root of the command.
+     */
+    public ArgumentNode getNode() {
+        return depth > 0 ? nodes[depth - 1] : null;
+    }
+
+    /**
+     * @return The action block that will run, or null before the arguments are resolved.
+     */
+    public ActionBlock getBlock() {
+        return block;
+    }
+
+    /**
+     * @return The MessageCatalog locale index of the sender.
+     */
+    public int getLocale() {
+        return locale;
+    }
+
+    /**
+     * @param message A message from a command file, may contain {lang:key} references and '&' color codes.
+     * @return The message colorized and in the sender's locale, or null if message is null.
+     */
+    public String localize(String message) {
+        if (messages != null) {
+            return messages.text(message, locale);
+        }
+        return message != null ? ChatColor.translateAlternateColorCodes('&', message) : null;
+    }
+
+    /**
+     * @return The path of the deepest matched node, e.g. "example tp [player_to_move]".
+     */
+    public String getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,169 @@
+package com.VintageGaming.customCommands.guard;
+
+import com.VintageGaming.customCommands.CommandEngine;
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * The ordered guards every custom command invocation passes before its actions run.
+ * <p>
+ * Other plugins can add their own guards:
+ * <pre>
+ * CustomCommands customCommands = (CustomCommands) Bukkit.getPluginManager().getPlugin("CustomCommands");
+ * customCommands.getGuardPipeline().register(this, new MyGuard());
+ * </pre>
+ * Guards are removed again when the plugin that registered them is disabled.
+ */
+public class GuardPipeline implements Listener {
+
+    private final CommandEngine engine;
+    private final RateLimitGuard rateLimitGuard = new RateLimitGuard();
+    private final ArgumentGuard argumentGuard;
+    private final CircuitBreakerGuard circuitBreakerGuard;
+
+    // Sorted by order, replaced as a whole so invocations never see a half-updated pipeline.
+    private volatile Stage[] stages = new Stage[0];
+
+    public GuardPipeline(CommandEngine engine) {
+        this.engine = engine;
+        this.argumentGuard = new ArgumentGuard(engine.getPlayers());
+        this.circuitBreakerGuard = new CircuitBreakerGuard(engine.getLogger());
+        // The built-in guards have no owner, they stay for as long as the engine does.
+        register(null, new RootPermissionGuard());
+        register(null, rateLimitGuard);
+        register(null, circuitBreakerGuard);
+        register(null, new CooldownGuard(engine.getTaskScheduler()));
+        register(null, argumentGuard);
+        register(null, new NodePermissionGuard());
+        register(null, new PendingCountdownGuard(engine.getPendingCountdowns()));
+        register(null, new CostGuard(engine));
+    }
+
+    /**
+     * Applies the "guards" section of the config.
+     * @param config The section, may be null.
+     */
+    public void configure(ConfigurationSection config) {
+        rateLimitGuard.configure(config != null ? config.getConfigurationSection("rate-limit") : null);
+        argumentGuard.configure(config != null ? config.getConfigurationSection("arguments") : null);
+        circuitBreakerGuard.configure(config != null ? config.getConfigurationSection("circuit-breaker") : null);
+    }
+
+    public ArgumentGuard getArgumentGuard() {
+        return argumentGuard;
+    }
+
+    public CircuitBreakerGuard getCircuitBreaker() {
+        return circuitBreakerGuard;
+    }
+
+    /**
+     * Adds a guard to the pipeline. Guards with the same order run in the order they were registered.
+     * @param owner The plugin registering the guard.
+     * @param guard The guard.
+     */
+    public synchronized void register(Plugin owner, CommandGuard guard) {
+        Stage[] updated = Arrays.copyOf(stages, stages.length + 1);
+        updated[stages.length] = new Stage(owner, guard);
+        // Arrays.sort is stable, so equal orders keep their registration order.
+        Arrays.sort(updated, Comparator.comparingInt(stage -> stage.guard.getOrder()));
+        stages = updated;
+    }
+
+    public synchronized void unregister(CommandGuard guard) {
+        stages = Arrays.stream(stages).filter(stage -> stage.guard != guard).toArray(Stage[]::new);
+    }
+
+    /**
+     * Runs the guards in order until one rejects the invocation. If none does,
+     * every guard's {@link CommandGuard#onPass(GuardContext)} is called.
+     * @param context The invocation.
+     * @return Null if the invocation may run, otherwise the outcome it was rejected with.
+     */
+    public ExecutionOutcome check(GuardContext context) {
+        Stage[] current = stages;
+        for (Stage stage : current) {
+            long start = System.nanoTime();
+            ExecutionOutcome outcome;
+            try {
+                outcome = stage.guard.check(context);
+            } catch (RuntimeException e) {
+                // A broken guard must not let invocations through.
+                engine.getLogger().log(Level.SEVERE, "Guard '" + stage.guard.getName() + "' of " + stage.getOwnerName() + " failed", e);
+                context.getSender().sendMessage(ChatColor.RED + "An internal error occurred while checking this command.");
+                outcome = ExecutionOutcome.REJECTED;
+            }
+            stage.stats.record(System.nanoTime() - start, outcome != null);
+            if (outcome != null) {
+                return outcome;
+            }
+        }
+        for (Stage stage : current) {
+            try {
+                stage.guard.onPass(context);
+            } catch (RuntimeException e) {
+                // The invocation passed, a broken guard must not keep the others from recording it.
+                engine.getLogger().log(Level.SEVERE, "Guard '" + stage.guard.getName() + "' of " + stage.getOwnerName() + " failed after the checks", e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The counters of every guard, in pipeline order.
+     */
+    public List<GuardStats> getStats() {
+        List<GuardStats> stats = new ArrayList<>();
+        for (Stage stage : stages) {
+            stats.add(stage.stats);
+        }
+        return stats;
+    }
+
+    public void resetStats() {
+        for (Stage stage : stages) {
+            stage.stats.reset();
+        }
+    }
+
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent event) {
+        Plugin disabled = event.getPlugin();
+        synchronized (this) {
+            stages = Arrays.stream(stages).filter(stage -> stage.owner != disabled).toArray(Stage[]::new);
+        }
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        rateLimitGuard.forget(event.getPlayer().getUniqueId());
+    }
+
+    private static final class Stage {
+        private final Plugin owner;
+        private final CommandGuard guard;
+        private final GuardStats stats;
+
+        private Stage(Plugin owner, CommandGuard guard) {
+            this.owner = owner;
+            this.guard = guard;
+            this.stats = new GuardStats(guard.getName(), guard.getOrder());
+        }
+
+        private String getOwnerName() {
+            return owner != null ? owner.getName() : "CustomCommands";
+        }
+    }
+}
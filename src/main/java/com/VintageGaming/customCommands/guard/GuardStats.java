@@ -0,0 +1,58 @@
+package com.VintageGaming.customCommands.guard;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How often a guard ran, how often it rejected an invocation and how long it took.
+ */
+public final class GuardStats {
+
+    private final String name;
+    private final int order;
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    GuardStats(String name, int order) {
+        this.name = name;
+        this.order = order;
+    }
+
+    void record(long elapsedNanos, boolean rejected) {
+        checks.increment();
+        nanos.add(elapsedNanos);
+        if (rejected) {
+            rejections.increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    public long getChecks() {
+        return checks.sum();
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * @return The average time of a check in microseconds.
+     */
+    public double getAverageMicros() {
+        long count = checks.sum();
+        return count > 0 ? nanos.sum() / 1000.0 / count : 0;
+    }
+
+    void reset() {
+        checks.reset();
+        rejections.reset();
+        nanos.reset();
+    }
+}
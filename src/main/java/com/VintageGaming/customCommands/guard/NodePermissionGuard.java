@@ -0,0 +1,45 @@
+package com.VintageGaming.customCommands.guard;
+
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import com.VintageGaming.customCommands.model.ArgumentNode;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Checks the permissions of every argument node along the matched path.
+ */
+public class NodePermissionGuard implements CommandGuard {
+
+    @Override
+    public String getName() {
+        return "node-permission";
+    }
+
+    @Override
+    public int getOrder() {
+        return NODE_PERMISSION;
+    }
+
+    @Override
+    public ExecutionOutcome check(GuardContext context) {
+        return checkMatched(context);
+    }
+
+    /**
+     * Checks the nodes matched so far, shallowest first.
+     * @return NO_PERMISSION if the sender lacks the permission of one of them, otherwise null.
+     */
+    static ExecutionOutcome checkMatched(GuardContext context) {
+        CommandSender sender = context.getSender();
+        for (int i = 0; i < context.getDepth(); i++) {
+            ArgumentNode node = context.getNode(i);
+            if (node.getPermission() != null && !sender.hasPermission(node.getPermission())) {
+                String permMsg = node.getPermissionMessage() != null ?
+                        context.localize(node.getPermissionMessage()) :
+                        context.localize(context.getCommand().getPermissionMessage()); // Fallback to main permission message
+                sender.sendMessage(permMsg);
+                return ExecutionOutcome.NO_PERMISSION;
+            }
+        }
+        return null;
+    }
+}
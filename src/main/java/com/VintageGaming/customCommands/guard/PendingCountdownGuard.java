@@ -0,0 +1,36 @@
+package com.VintageGaming.customCommands.guard;
+
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import com.VintageGaming.customCommands.execution.PendingCountdowns;
+
+/**
+ * Refuses a delayed command while the sender's countdown for it is still running,
+ * as far as the configured reinvoke policy says so. Runs before anything is charged.
+ */
+public class PendingCountdownGuard implements CommandGuard {
+
+    private final PendingCountdowns countdowns;
+
+    public PendingCountdownGuard(PendingCountdowns countdowns) {
+        this.countdowns = countdowns;
+    }
+
+    @Override
+    public String getName() {
+        return "pending-countdown";
+    }
+
+    @Override
+    public int getOrder() {
+        return PENDING;
+    }
+
+    @Override
+    public ExecutionOutcome check(GuardContext context) {
+        if (context.getBlock().hasDelay() && !countdowns.canStart(context.getSender(), context.getCommandData().getName())) {
+            countdowns.sendRejectMessage(context.getSender());
+            return ExecutionOutcome.ALREADY_PENDING;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+package com.VintageGaming.customCommands.guard;
+
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits how many custom commands a player may run within a time window,
+ * across all custom commands. Disabled unless configured.
+ */
+public class RateLimitGuard implements CommandGuard {
+
+    private final Map<UUID, Window> windows = new ConcurrentHashMap<>();
+
+    private volatile int maxCommands;
+    private volatile long windowMillis = 1000;
+    private volatile String message = "&cYou are running commands too fast.";
+
+    /**
+     * Applies the "guards.rate-limit" section of the config.
+     * @param config The section, may be null.
+     */
+    public void configure(ConfigurationSection config) {
+        windows.clear();
+        if (config == null) {
+            maxCommands = 0;
+            return;
+        }
+        maxCommands = Math.max(0, config.getInt("max-commands", 0));
+        windowMillis = Math.max(50, config.getLong("window-ms", 1000));
+        message = config.getString("message", message);
+    }
+
+    @Override
+    public String getName() {
+        return "rate-limit";
+    }
+
+    @Override
+    public int getOrder() {
+        return RATE_LIMIT;
+    }
+
+    @Override
+    public ExecutionOutcome check(GuardContext context) {
+        int limit = maxCommands;
+        Player player = context.getPlayer();
+        if (limit <= 0 || player == null) {
+            return null;
+        }
+
+        Window window = windows.get(player.getUniqueId());
+        if (window == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (window) {
+            if (now - window.start < windowMillis && window.count >= limit) {
+                player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+                return ExecutionOutcome.RATE_LIMITED;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the invocation once every guard let it through, so attempts that were
+     * rejected, by this or any other guard, don't use up the limit.
+     */
+    @Override
+    public void onPass(GuardContext context) {
+        Player player = context.getPlayer();
+        if (maxCommands <= 0 || player == null) {
+            return;
+        }
+
+        Window window = windows.computeIfAbsent(player.getUniqueId(), uuid -> new Window());
+        long now = System.currentTimeMillis();
+        synchronized (window) {
+            if (now - window.start >= windowMillis) {
+                window.start = now;
+                window.count = 0;
+            }
+            window.count++;
+        }
+    }
+
+    /**
+     * Forgets the window of a player who left.
+     */
+    public void forget(UUID playerId) {
+        windows.remove(playerId);
+    }
+
+    private static final class Window {
+        private long start;
+        private int count;
+    }
+}
@@ -0,0 +1,30 @@
+package com.VintageGaming.customCommands.guard;
+
+import com.VintageGaming.customCommands.command.DynamicCommand;
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+
+/**
+ * Checks the top-level permission of a command.
+ */
+public class RootPermissionGuard implements CommandGuard {
+
+    @Override
+    public String getName() {
+        return "root-permission";
+    }
+
+    @Override
+    public int getOrder() {
+        return ROOT_PERMISSION;
+    }
+
+    @Override
+    public ExecutionOutcome check(GuardContext context) {
+        DynamicCommand command = context.getCommand();
+        if (command.getPermission() != null && !context.getSender().hasPermission(command.getPermission())) {
+            context.getSender().sendMessage(context.localize(command.getPermissionMessage()));
+            return ExecutionOutcome.NO_PERMISSION;
+        }
+        return null;
+    }
+}
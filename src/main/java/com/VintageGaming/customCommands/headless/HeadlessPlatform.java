@@ -0,0 +1,275 @@
+package com.VintageGaming.customCommands.headless;
+
+import com.VintageGaming.customCommands.platform.CommandSink;
+import com.VintageGaming.customCommands.platform.Platform;
+import com.VintageGaming.customCommands.platform.PlayerLookup;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.World;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.Permission;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * An in-memory platform: players exist only as names and permissions, commands are the ones
+ * registered here, and messages are counted instead of sent. Senders are dynamic proxies of
+ * the Bukkit interfaces, every method the engine has no use for returns a default value.
+ * Everything runs on one thread, see {@link HeadlessScheduler}.
+ */
+public class HeadlessPlatform implements Platform, PlayerLookup, CommandSink {
+
+    private final File dataFolder;
+    private final Logger logger;
+    private final HeadlessScheduler scheduler = new HeadlessScheduler();
+    private final Map<String, Player> players = new LinkedHashMap<>();
+    private final Map<String, Command> commands = new LinkedHashMap<>();
+    private final ConsoleCommandSender console;
+
+    private long messages;
+    private long broadcasts;
+    private long dispatched;
+    private long unknownCommands;
+
+    public HeadlessPlatform(File dataFolder, Logger logger) {
+        this.dataFolder = dataFolder;
+        this.logger = logger;
+        this.console = (ConsoleCommandSender) createSender(ConsoleCommandSender.class, "CONSOLE", null);
+    }
+
+    /**
+     * Adds an online player.
+     * @param name The name of the player.
+     * @param permissions The permissions the player has, null for every permission.
+     * @return The player.
+     */
+    public Player addPlayer(String name, Set<String> permissions) {
+        Player player = (Player) createSender(Player.class, name, permissions);
+        players.put(name.toLowerCase(Locale.ENGLISH), player);
+        return player;
+    }
+
+    /**
+     * Makes a command available to actions and {@link #dispatch(CommandSender, String)}, under its name and aliases.
+     */
+    public void register(Command command) {
+        commands.put(command.getName().toLowerCase(Locale.ENGLISH), command);
+        for (String alias : command.getAliases()) {
+            commands.putIfAbsent(alias.toLowerCase(Locale.ENGLISH), command);
+        }
+    }
+
+    public long getMessages() {
+        return messages;
+    }
+
+    public long getBroadcasts() {
+        return broadcasts;
+    }
+
+    public long getDispatched() {
+        return dispatched;
+    }
+
+    public long getUnknownCommands() {
+        return unknownCommands;
+    }
+
+    @Override
+    public Logger getLogger() {
+        return logger;
+    }
+
+    @Override
+    public File getDataFolder() {
+        return dataFolder;
+    }
+
+    @Override
+    public HeadlessScheduler getTaskScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public PlayerLookup getPlayers() {
+        return this;
+    }
+
+    @Override
+    public CommandSink getCommandSink() {
+        return this;
+    }
+
+    @Override
+    public Economy getEconomy() {
+        return null;
+    }
+
+    @Override
+    public Player getPlayerExact(String name) {
+        return players.get(name.toLowerCase(Locale.ENGLISH));
+    }
+
+    @Override
+    public Player getPlayer(String name) {
+        String lowerName = name.toLowerCase(Locale.ENGLISH);
+        Player found = players.get(lowerName);
+        if (found != null) return found;
+        // Like Bukkit, the closest name the input is a prefix of.
+        int bestDelta = Integer.MAX_VALUE;
+        for (Map.Entry<String, Player> entry : players.entrySet()) {
+            if (entry.getKey().startsWith(lowerName) && entry.getKey().length() - lowerName.length() < bestDelta) {
+                found = entry.getValue();
+                bestDelta = entry.getKey().length() - lowerName.length();
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Collection<? extends Player> getOnlinePlayers() {
+        return Collections.unmodifiableCollection(players.values());
+    }
+
+    @Override
+    public boolean hasPlayedBefore(String name) {
+        return players.containsKey(name.toLowerCase(Locale.ENGLISH));
+    }
+
+    @Override
+    public World getWorld(String name) {
+        return null;
+    }
+
+    @Override
+    public List<World> getWorlds() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public CommandSender getConsoleSender() {
+        return console;
+    }
+
+    @Override
+    public Command getCommand(String label) {
+        return commands.get(label);
+    }
+
+    @Override
+    public boolean dispatch(CommandSender sender, String commandLine) {
+        String[] parts = commandLine.split(" ", -1);
+        Command command = commands.get(parts[0].toLowerCase(Locale.ENGLISH));
+        if (command == null) {
+            unknownCommands++;
+            return false;
+        }
+        dispatched++;
+        command.execute(sender, parts[0], Arrays.copyOfRange(parts, 1, parts.length));
+        return true;
+    }
+
+    @Override
+    public void broadcast(String message) {
+        broadcasts++;
+    }
+
+    private CommandSender createSender(Class<? extends CommandSender> type, String name, Set<String> permissions) {
+        return (CommandSender) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new SenderHandler(name, permissions));
+    }
+
+    /**
+     * Answers the few sender methods the engine calls, everything else returns a default value.
+     */
+    private final class SenderHandler implements InvocationHandler {
+        private final String name;
+        private final UUID uniqueId;
+        private final Set<String> permissions;
+
+        private SenderHandler(String name, Set<String> permissions) {
+            this.name = name;
+            this.uniqueId = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+            this.permissions = permissions;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "getName":
+                case "getDisplayName":
+                case "getPlayerListName":
+                    return name;
+                case "getUniqueId":
+                    return uniqueId;
+                case "hasPermission":
+                case "isPermissionSet":
+                    return hasPermission(args[0]);
+                case "isOp":
+                    return permissions == null;
+                case "isOnline":
+                case "isValid":
+                case "hasPlayedBefore":
+                    return true;
+                case "getLocale":
+                    return "en_us";
+                case "sendMessage":
+                case "sendRawMessage":
+                    messages++;
+                    return null;
+                case "performCommand":
+                    return dispatch((CommandSender) proxy, (String) args[0]);
+                case "chat":
+                    String message = (String) args[0];
+                    if (message.startsWith("/")) {
+                        dispatch((CommandSender) proxy, message.substring(1));
+                    } else {
+                        broadcasts++;
+                    }
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "HeadlessSender{name=" + name + "}";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+
+        private boolean hasPermission(Object permission) {
+            if (permissions == null) return true;
+            String permissionName = permission instanceof Permission ? ((Permission) permission).getName() : String.valueOf(permission);
+            return permissions.contains(permissionName);
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        return 0d;
+    }
+}
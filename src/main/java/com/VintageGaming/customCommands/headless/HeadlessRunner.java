@@ -0,0 +1,231 @@
+package com.VintageGaming.customCommands.headless;
+
+import com.VintageGaming.customCommands.CommandEngine;
+import com.VintageGaming.customCommands.command.DynamicCommand;
+import com.VintageGaming.customCommands.management.CommandRegistry;
+import com.VintageGaming.customCommands.management.RegistrySnapshot;
+import com.VintageGaming.customCommands.model.CustomCommandData;
+import com.VintageGaming.customCommands.parser.ActionCompiler;
+import com.VintageGaming.customCommands.parser.CommandPackLoader;
+import com.VintageGaming.customCommands.placeholder.PlaceholderService;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a command pack through the command engine without a Minecraft server, for profiling.
+ * The pack folder is laid out like the plugin's data folder: "commands/*.yml", and optionally
+ * "config.yml" and "lang/". The Bukkit API and its dependencies have to be on the class path,
+ * the server itself isn't needed:
+ * <pre>
+ * java -cp CustomCommands.jar:spigot-api.jar:... com.VintageGaming.customCommands.headless.HeadlessRunner pack \
+ *     --players 50 --script invocations.txt --rounds 10000 --wait
+ * </pre>
+ * Every line of the script is one invocation, the name of the sender followed by the command line,
+ * for example "player1 heal" or "console broadcast Hello". A sender of "*" runs the line as every player.
+ * Without a script every command is run without arguments by every player.
+ * Each round runs the whole script once and advances the clock by one tick.
+ */
+public final class HeadlessRunner {
+
+    private final HeadlessPlatform platform;
+    private final CommandEngine engine;
+    private final CommandRegistry registry = new CommandRegistry();
+    private final List<Invocation> invocations = new ArrayList<>();
+    private long errors;
+
+    public HeadlessRunner(File packFolder, Logger logger) {
+        this.platform = new HeadlessPlatform(packFolder, logger);
+        this.engine = new CommandEngine(platform);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: HeadlessRunner <pack folder> [--players <count>] [--script <file>]"
+                    + " [--rounds <count>] [--warmup <rounds>] [--wait]");
+            return;
+        }
+        File packFolder = new File(args[0]);
+        Map<String, String> options = parseOptions(Arrays.copyOfRange(args, 1, args.length));
+
+        HeadlessRunner runner = new HeadlessRunner(packFolder, createLogger());
+        runner.load();
+        runner.addPlayers(Integer.parseInt(options.getOrDefault("players", "10")));
+        if (options.containsKey("script")) {
+            runner.readScript(new File(options.get("script")));
+        } else {
+            runner.invokeEveryCommand();
+        }
+
+        System.out.println("Loaded " + runner.registry.current().getCommands().size() + " commands, "
+                + runner.invocations.size() + " invocations per round.");
+        runner.run("warmup", Integer.parseInt(options.getOrDefault("warmup", "1000")));
+        if (options.containsKey("wait")) {
+            System.out.println("Attach the profiler to " + ProcessHandle.current().pid() + " and press enter.");
+            new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).readLine();
+        }
+        runner.run("measured", Integer.parseInt(options.getOrDefault("rounds", "10000")));
+        runner.engine.close();
+    }
+
+    public HeadlessPlatform getPlatform() {
+        return platform;
+    }
+
+    public CommandEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Applies the pack's config and messages, then loads and registers its commands.
+     */
+    public void load() {
+        File folder = platform.getDataFolder();
+        File configFile = new File(folder, "config.yml");
+        YamlConfiguration config = configFile.isFile() ? YamlConfiguration.loadConfiguration(configFile) : new YamlConfiguration();
+        engine.configure(config);
+        engine.getMessageCatalog().load(new File(folder, "lang"), config.getString("default-locale", "en_us"));
+
+        PlaceholderService placeholderService = new PlaceholderService(engine, null);
+        placeholderService.start();
+        engine.setPlaceholderService(placeholderService);
+        CommandPackLoader loader = new CommandPackLoader(new ActionCompiler(placeholderService, engine.getMessageCatalog(), platform.getLogger()), platform.getLogger());
+        boolean streaming = !"bukkit".equalsIgnoreCase(config.getString("loader", "streaming"));
+        Map<String, CustomCommandData> definitions = loader.load(new File(folder, "commands"), streaming);
+
+        RegistrySnapshot snapshot = registry.publish(definitions);
+        for (CustomCommandData commandData : snapshot.getCommands().values()) {
+            DynamicCommand command = new DynamicCommand(commandData.getName(), registry, engine);
+            command.applyProperties(commandData);
+            platform.register(command);
+        }
+    }
+
+    /**
+     * Adds players named player1 to player&lt;count&gt;, with every permission.
+     */
+    public void addPlayers(int count) {
+        for (int i = 1; i <= count; i++) {
+            platform.addPlayer("player" + i, null);
+        }
+    }
+
+    public void readScript(File script) throws IOException {
+        for (String line : Files.readAllLines(script.toPath(), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            int space = line.indexOf(' ');
+            if (space < 0) {
+                platform.getLogger().warning("Skipping script line without a command: " + line);
+                continue;
+            }
+            addInvocation(line.substring(0, space), line.substring(space + 1).trim());
+        }
+    }
+
+    public void invokeEveryCommand() {
+        for (String name : registry.current().getCommands().keySet()) {
+            addInvocation("*", name);
+        }
+    }
+
+    private void addInvocation(String senderName, String commandLine) {
+        if (commandLine.startsWith("/")) {
+            commandLine = commandLine.substring(1);
+        }
+        if (senderName.equals("*")) {
+            for (Player player : platform.getOnlinePlayers()) {
+                invocations.add(new Invocation(player, commandLine));
+            }
+        } else if (senderName.equalsIgnoreCase("console")) {
+            invocations.add(new Invocation(platform.getConsoleSender(), commandLine));
+        } else {
+            Player player = platform.getPlayerExact(senderName);
+            if (player == null) {
+                player = platform.addPlayer(senderName, null);
+            }
+            invocations.add(new Invocation(player, commandLine));
+        }
+    }
+
+    /**
+     * Runs the invocations for a number of rounds and prints what they cost.
+     */
+    public void run(String phase, int rounds) {
+        long messages = platform.getMessages();
+        long dispatched = platform.getDispatched();
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (Invocation invocation : invocations) {
+                try {
+                    platform.dispatch(invocation.sender, invocation.commandLine);
+                } catch (RuntimeException e) {
+                    errors++;
+                    platform.getLogger().log(Level.WARNING, "'" + invocation.commandLine + "' failed: " + e, e);
+                }
+            }
+            platform.getTaskScheduler().tick();
+        }
+        long elapsed = System.nanoTime() - start;
+        long count = (long) rounds * invocations.size();
+        System.out.printf("%s: %d invocations in %.1f ms, %.0f ns each, %d messages, %d commands run by actions, %d errors, %d tasks pending%n",
+                phase, count, elapsed / 1_000_000.0, count > 0 ? (double) elapsed / count : 0,
+                platform.getMessages() - messages, platform.getDispatched() - dispatched - count, errors,
+                platform.getTaskScheduler().getPending());
+    }
+
+    /**
+     * Reads "--name value" pairs, an option without a value is "true". Anything else is skipped.
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) continue;
+            String name = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(name, args[++i]);
+            } else {
+                options.put(name, "true");
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Creates a logger that reports each distinct message once, so a warning
+     * raised by every invocation doesn't drown the results.
+     */
+    static Logger createLogger() {
+        Logger logger = Logger.getLogger("CustomCommands");
+        Set<String> reported = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        logger.setFilter(record -> reported.add(record.getLevel() + record.getMessage()));
+        return logger;
+    }
+
+    private static final class Invocation {
+        private final CommandSender sender;
+        private final String commandLine;
+
+        private Invocation(CommandSender sender, String commandLine) {
+            this.sender = sender;
+            this.commandLine = commandLine;
+        }
+    }
+}
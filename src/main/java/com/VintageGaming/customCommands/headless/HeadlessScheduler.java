@@ -0,0 +1,149 @@
+package com.VintageGaming.customCommands.headless;
+
+import com.VintageGaming.customCommands.scheduler.ScheduledTask;
+import com.VintageGaming.customCommands.scheduler.TaskScheduler;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A TaskScheduler without a server: everything runs on the thread driving it. Work that
+ * would be handed to another thread runs right away, delayed and repeating tasks run
+ * when {@link #tick()} reaches them. Not thread-safe.
+ */
+public class HeadlessScheduler implements TaskScheduler {
+
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private long currentTick;
+    private long sequence;
+
+    /**
+     * Advances the clock by one tick and runs every task due by then.
+     */
+    public void tick() {
+        currentTick++;
+        List<Task> repeating = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().dueTick <= currentTick) {
+            Task task = queue.poll();
+            if (task.cancelled) continue;
+            task.runnable.run();
+            if (task.periodTicks > 0 && !task.cancelled) {
+                repeating.add(task);
+            }
+        }
+        // Rescheduled after the loop, so a task never runs twice in one tick.
+        for (Task task : repeating) {
+            schedule(task, task.periodTicks);
+        }
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return The number of delayed and repeating tasks waiting to run.
+     */
+    public int getPending() {
+        return queue.size();
+    }
+
+    @Override
+    public boolean isFolia() {
+        return false;
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        task.run();
+    }
+
+    @Override
+    public ScheduledTask runGlobalLater(Runnable task, long delayTicks) {
+        return schedule(new Task(task, 0), delayTicks);
+    }
+
+    @Override
+    public ScheduledTask runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return schedule(new Task(task, Math.max(1, periodTicks)), delayTicks);
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task) {
+        task.run();
+    }
+
+    @Override
+    public void runForEntityLater(Entity entity, Runnable task, long delayTicks) {
+        schedule(new Task(task, 0), delayTicks);
+    }
+
+    @Override
+    public ScheduledTask runEntityTimer(Entity entity, Runnable task, Runnable retired, long delayTicks, long periodTicks) {
+        return schedule(new Task(task, Math.max(1, periodTicks)), delayTicks);
+    }
+
+    @Override
+    public void runAtLocation(Location location, Runnable task) {
+        task.run();
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        task.run();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> teleport(Entity entity, Location location) {
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public void cancelAll() {
+        for (Task task : queue) {
+            task.cancelled = true;
+        }
+        queue.clear();
+    }
+
+    private Task schedule(Task task, long delayTicks) {
+        // Like the Bukkit scheduler, a delay of 0 runs with the next tick.
+        task.dueTick = currentTick + Math.max(1, delayTicks);
+        task.order = sequence++;
+        queue.add(task);
+        return task;
+    }
+
+    private static final class Task implements ScheduledTask, Comparable<Task> {
+        private final Runnable runnable;
+        private final long periodTicks;
+        private long dueTick;
+        private long order;
+        private boolean cancelled;
+
+        private Task(Runnable runnable, long periodTicks) {
+            this.runnable = runnable;
+            this.periodTicks = periodTicks;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byTick = Long.compare(dueTick, other.dueTick);
+            return byTick != 0 ? byTick : Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.VintageGaming.customCommands.headless;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Writes synthetic command packs shaped like the bundled example.yml and pexwrapper.yml:
+ * aliases, permissions and messages at the root, a tree of literal subcommands and typed
+ * [placeholders], and action blocks that render the placeholders in scope. The same
+ * settings and seed always produce the same pack.
+ * <pre>
+ * java -cp ... com.VintageGaming.customCommands.headless.PackGenerator pack --commands 1000 --fan-out 3 --depth 3
+ * </pre>
+ */
+public final class PackGenerator {
+
+    private static final String[] WORDS = {"user", "group", "add", "remove", "set", "info", "list", "reset",
+            "give", "take", "home", "warp", "kit", "spawn", "tp", "mode"};
+    private static final String[] TYPES = {"online_player", "player", "integer", "double", "text", "world"};
+    private static final String[] LIST_ACTIONS = {"message", "console", "player", "broadcast"};
+
+    private final int fanOut;
+    private final int depth;
+    private final int actions;
+    private final double placeholderDensity;
+    private final int aliases;
+    private final long seed;
+
+    /**
+     * @param fanOut The number of arguments below each node.
+     * @param depth The number of argument levels below the root.
+     * @param actions The number of actions in each action block.
+     * @param placeholderDensity The share of arguments that are [placeholders] rather than literals, 0 to 1.
+     * @param aliases The number of aliases of each command.
+     * @param seed The seed of the random choices.
+     */
+    public PackGenerator(int fanOut, int depth, int actions, double placeholderDensity, int aliases, long seed) {
+        this.fanOut = fanOut;
+        this.depth = depth;
+        this.actions = actions;
+        this.placeholderDensity = placeholderDensity;
+        this.aliases = aliases;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: PackGenerator <pack folder> [--commands <count>] [--fan-out <count>] [--depth <levels>]"
+                    + " [--actions <count>] [--placeholders <0-1>] [--aliases <count>] [--seed <seed>]");
+            return;
+        }
+        Map<String, String> options = HeadlessRunner.parseOptions(args);
+        PackGenerator generator = fromOptions(options);
+        Stats stats = generator.generate(new File(new File(args[0]), "commands"), Integer.parseInt(options.getOrDefault("commands", "100")));
+        System.out.println("Wrote " + stats.commands + " commands with " + stats.nodes + " arguments and " + stats.actions + " actions.");
+    }
+
+    static PackGenerator fromOptions(Map<String, String> options) {
+        return new PackGenerator(
+                Integer.parseInt(options.getOrDefault("fan-out", "3")),
+                Integer.parseInt(options.getOrDefault("depth", "2")),
+                Integer.parseInt(options.getOrDefault("actions", "3")),
+                Double.parseDouble(options.getOrDefault("placeholders", "0.3")),
+                Integer.parseInt(options.getOrDefault("aliases", "2")),
+                Long.parseLong(options.getOrDefault("seed", "42")));
+    }
+
+    /**
+     * Replaces the command files of a folder with a generated pack.
+     * @param commandsDir The folder, created if needed.
+     * @param commands The number of commands, one file each.
+     * @return What was generated.
+     */
+    public Stats generate(File commandsDir, int commands) throws IOException {
+        Files.createDirectories(commandsDir.toPath());
+        File[] existing = commandsDir.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (existing != null) {
+            for (File file : existing) {
+                Files.delete(file.toPath());
+            }
+        }
+
+        Random random = new Random(seed);
+        Stats stats = new Stats();
+        for (int i = 0; i < commands; i++) {
+            String name = String.format("gen%05d", i);
+            String yaml = writeCommand(name, random, stats);
+            Files.write(new File(commandsDir, name + ".yml").toPath(), yaml.getBytes(StandardCharsets.UTF_8));
+            stats.commands++;
+        }
+        return stats;
+    }
+
+    private String writeCommand(String name, Random random, Stats stats) {
+        StringBuilder yaml = new StringBuilder();
+        if (aliases > 0) {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < aliases; i++) {
+                names.add(name + "a" + i);
+            }
+            yaml.append("aliases: [").append(String.join(", ", names)).append("]\n");
+            stats.aliases += aliases;
+        }
+        yaml.append("permission: 'generated.").append(name).append(".use'\n");
+        yaml.append("permission-message: \"&cYou don't have permission to use this command.\"\n");
+        if (random.nextInt(5) == 0) {
+            yaml.append("cooldown: '").append(5 + random.nextInt(55)).append(" second'\n");
+        }
+        yaml.append("usage-message: '&eUsage: /").append(name).append(" <arguments>'\n");
+
+        List<String> scope = new ArrayList<>();
+        if (depth == 0) {
+            writeActions(yaml, "", scope, random, stats);
+        } else {
+            writeArguments(yaml, "", name, 1, scope, random, stats);
+        }
+        return yaml.toString();
+    }
+
+    private void writeArguments(StringBuilder yaml, String indent, String path, int level, List<String> scope, Random random, Stats stats) {
+        yaml.append(indent).append("arguments:\n");
+        String childIndent = indent + "  ";
+        boolean placeholderTaken = false;
+        for (int i = 0; i < fanOut; i++) {
+            stats.nodes++;
+            // Like the bundled packs, a level holds at most one placeholder next to its literals.
+            boolean placeholder = !placeholderTaken && random.nextDouble() < placeholderDensity;
+            List<String> childScope = scope;
+            if (placeholder) {
+                placeholderTaken = true;
+                String placeholderName = "arg" + level;
+                String type = TYPES[random.nextInt(TYPES.length)];
+                yaml.append(childIndent).append("'[").append(placeholderName).append("]':\n");
+                yaml.append(childIndent).append("  type: '").append(type).append("'\n");
+                yaml.append(childIndent).append("  type-error: '&c%input% is not a valid ").append(type).append("'\n");
+                childScope = new ArrayList<>(scope);
+                childScope.add(placeholderName);
+            } else {
+                String literal = WORDS[random.nextInt(WORDS.length)] + i;
+                yaml.append(childIndent).append(literal).append(":\n");
+                if (random.nextBoolean()) {
+                    yaml.append(childIndent).append("  permission: '").append("generated.").append(path).append('.').append(literal).append("'\n");
+                }
+            }
+
+            String nodeIndent = childIndent + "  ";
+            if (level < depth) {
+                // Inner nodes sometimes have actions of their own, like [player_to_move] in example.yml.
+                if (random.nextInt(4) == 0) {
+                    writeActions(yaml, nodeIndent, childScope, random, stats);
+                }
+                writeArguments(yaml, nodeIndent, path + "." + i, level + 1, childScope, random, stats);
+            } else {
+                writeActions(yaml, nodeIndent, childScope, random, stats);
+            }
+        }
+    }
+
+    private void writeActions(StringBuilder yaml, String indent, List<String> scope, Random random, Stats stats) {
+        yaml.append(indent).append("actions:\n");
+        String actionIndent = indent + "  ";
+        List<String> written = new ArrayList<>();
+        for (int i = 0; i < actions; i++) {
+            String type = i == actions - 1 && actions > 1 ? "small_text" : LIST_ACTIONS[random.nextInt(LIST_ACTIONS.length)];
+            // Every action type can only appear once in a block.
+            if (written.contains(type)) continue;
+            written.add(type);
+            stats.actions++;
+            if (type.equals("small_text")) {
+                yaml.append(actionIndent).append("small_text: '").append(text(scope, random)).append("'\n");
+                continue;
+            }
+            yaml.append(actionIndent).append(type).append(":\n");
+            String line = type.equals("console") ? "lp user " + (scope.isEmpty() ? "{sender}" : "[" + scope.get(0) + "]") + " parent add default"
+                    : type.equals("player") ? "/help" : text(scope, random);
+            yaml.append(actionIndent).append("  - '").append(line).append("'\n");
+        }
+        if (random.nextInt(20) == 0) {
+            yaml.append(indent).append("delay:\n");
+            yaml.append(actionIndent).append("length: '3 second'\n");
+            yaml.append(actionIndent).append("per_second-actions:\n");
+            yaml.append(actionIndent).append("  message:\n");
+            yaml.append(actionIndent).append("    - '&e{seconds_remaining} seconds remaining'\n");
+        }
+    }
+
+    /**
+     * @return A message using some of the placeholders in scope.
+     */
+    private String text(List<String> scope, Random random) {
+        StringBuilder text = new StringBuilder("&aDone");
+        for (String placeholder : scope) {
+            if (random.nextDouble() < 0.5 + placeholderDensity / 2) {
+                text.append(" [").append(placeholder).append(']');
+            }
+        }
+        if (random.nextBoolean()) {
+            text.append(" for {sender}");
+        }
+        return text.toString();
+    }
+
+    /**
+     * The size of a generated pack.
+     */
+    public static final class Stats {
+        int commands;
+        int nodes;
+        int aliases;
+        int actions;
+
+        public int getCommands() {
+            return commands;
+        }
+
+        public int getNodes() {
+            return nodes;
+        }
+
+        public int getAliases() {
+            return aliases;
+        }
+
+        public int getActions() {
+            return actions;
+        }
+    }
+}
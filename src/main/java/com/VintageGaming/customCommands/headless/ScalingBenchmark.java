@@ -0,0 +1,184 @@
+package com.VintageGaming.customCommands.headless;
+
+import com.VintageGaming.customCommands.CommandEngine;
+import com.VintageGaming.customCommands.command.DynamicCommand;
+import com.VintageGaming.customCommands.management.CommandRegistry;
+import com.VintageGaming.customCommands.management.RegistrySnapshot;
+import com.VintageGaming.customCommands.model.CustomCommandData;
+import com.VintageGaming.customCommands.parser.ActionCompiler;
+import com.VintageGaming.customCommands.parser.CommandPackLoader;
+import com.VintageGaming.customCommands.placeholder.PlaceholderService;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures how loading scales with the size of the command pack. For every size a pack is
+ * generated with the {@link PackGenerator}, then the benchmark records:
+ * <ul>
+ *     <li>load: reading and compiling every command file,</li>
+ *     <li>registration: publishing the snapshot and creating and registering the commands,</li>
+ *     <li>reload: loading the pack again and bringing the registered commands in line, the median of several runs,</li>
+ *     <li>retained heap: what the loaded pack keeps alive after a full GC.</li>
+ * </ul>
+ * Results are appended to a CSV file, one row per size, so runs of different versions end up in one table.
+ * Run it with a fixed heap (-Xms equal to -Xmx) to keep the heap numbers comparable.
+ * <pre>
+ * java -Xms2g -Xmx2g -cp ... com.VintageGaming.customCommands.headless.ScalingBenchmark work --sizes 10,100,1000,10000
+ * </pre>
+ */
+public final class ScalingBenchmark {
+
+    private static final String HEADER = "version,date,loader,commands,arguments,aliases,actions,fan_out,depth,placeholder_density,"
+            + "load_ms,registration_ms,reload_ms,retained_heap_kb";
+
+    private final File workFolder;
+    private final Map<String, String> options;
+    private final PackGenerator generator;
+    private final boolean streaming;
+    private final int reloads;
+
+    private ScalingBenchmark(File workFolder, Map<String, String> options) {
+        this.workFolder = workFolder;
+        this.options = options;
+        this.generator = PackGenerator.fromOptions(options);
+        this.streaming = !"bukkit".equalsIgnoreCase(options.getOrDefault("loader", "streaming"));
+        this.reloads = Math.max(1, Integer.parseInt(options.getOrDefault("reloads", "5")));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.out.println("Usage: ScalingBenchmark <work folder> [--sizes <n,n,...>] [--reloads <count>] [--csv <file>]"
+                    + " [--loader streaming|bukkit] [PackGenerator options]");
+            return;
+        }
+        Map<String, String> options = HeadlessRunner.parseOptions(args);
+        ScalingBenchmark benchmark = new ScalingBenchmark(new File(args[0]), options);
+        int[] sizes = Arrays.stream(options.getOrDefault("sizes", "10,100,1000,10000").split(","))
+                .mapToInt(size -> Integer.parseInt(size.trim())).toArray();
+        File csv = new File(options.getOrDefault("csv", "scaling.csv"));
+
+        // Loaded once without recording, so class loading and the first JIT passes aren't billed to the smallest pack.
+        benchmark.measure(sizes.length > 0 ? sizes[0] : 10);
+
+        boolean header = !csv.exists() || csv.length() == 0;
+        try (PrintWriter out = new PrintWriter(new FileWriter(csv, StandardCharsets.UTF_8, true))) {
+            if (header) {
+                out.println(HEADER);
+            }
+            for (int size : sizes) {
+                String row = benchmark.measure(size);
+                System.out.println(row);
+                out.println(row);
+                out.flush();
+            }
+        }
+        System.out.println("Results appended to " + csv.getPath());
+    }
+
+    /**
+     * Generates a pack of the given size and measures it.
+     * @return The CSV row of the results.
+     */
+    private String measure(int size) throws IOException, InterruptedException {
+        File packFolder = new File(workFolder, "pack-" + size);
+        File commandsDir = new File(packFolder, "commands");
+        PackGenerator.Stats stats = generator.generate(commandsDir, size);
+
+        Logger logger = Logger.getLogger("CustomCommands-Benchmark");
+        logger.setLevel(Level.WARNING);
+        HeadlessPlatform platform = new HeadlessPlatform(packFolder, logger);
+        CommandEngine engine = new CommandEngine(platform);
+        PlaceholderService placeholderService = new PlaceholderService(engine, null);
+        CommandPackLoader loader = new CommandPackLoader(new ActionCompiler(placeholderService, engine.getMessageCatalog(), logger), logger);
+        CommandRegistry registry = new CommandRegistry();
+        Map<String, DynamicCommand> registered = new HashMap<>();
+
+        long heapBefore = usedHeapAfterGc();
+
+        long start = System.nanoTime();
+        Map<String, CustomCommandData> definitions = loader.load(commandsDir, streaming);
+        long loadNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        sync(registry.publish(definitions), registered, registry, engine, platform);
+        long registrationNanos = System.nanoTime() - start;
+
+        long retained = usedHeapAfterGc() - heapBefore;
+
+        long[] reloadNanos = new long[reloads];
+        for (int i = 0; i < reloads; i++) {
+            start = System.nanoTime();
+            sync(registry.publish(loader.load(commandsDir, streaming)), registered, registry, engine, platform);
+            reloadNanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(reloadNanos);
+
+        return String.join(",", version(), LocalDate.now().toString(), streaming ? "streaming" : "bukkit",
+                String.valueOf(stats.getCommands()), String.valueOf(stats.getNodes()), String.valueOf(stats.getAliases()),
+                String.valueOf(stats.getActions()), options.getOrDefault("fan-out", "3"), options.getOrDefault("depth", "2"),
+                options.getOrDefault("placeholders", "0.3"),
+                millis(loadNanos), millis(registrationNanos), millis(reloadNanos[reloads / 2]),
+                String.valueOf(Math.max(0, retained) / 1024));
+    }
+
+    /**
+     * Registers the commands new in the snapshot and updates the properties of the rest,
+     * like the CommandManager does with the server's command map.
+     */
+    private static void sync(RegistrySnapshot snapshot, Map<String, DynamicCommand> registered, CommandRegistry registry,
+                             CommandEngine engine, HeadlessPlatform platform) {
+        for (CustomCommandData commandData : snapshot.getCommands().values()) {
+            DynamicCommand command = registered.get(commandData.getName());
+            if (command != null) {
+                command.applyProperties(commandData);
+                continue;
+            }
+            command = new DynamicCommand(commandData.getName(), registry, engine);
+            command.applyProperties(commandData);
+            platform.register(command);
+            registered.put(commandData.getName(), command);
+        }
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        // One collection may leave objects that are only reachable from finalizable or soft references.
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * @return The version in the plugin.yml on the class path, "unknown" if there is none.
+     */
+    private static String version() {
+        try (InputStream in = ScalingBenchmark.class.getResourceAsStream("/plugin.yml")) {
+            if (in == null) return "unknown";
+            YamlConfiguration pluginYml = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+            return pluginYml.getString("version", "unknown");
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+}
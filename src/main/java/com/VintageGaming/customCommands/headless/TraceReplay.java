@@ -0,0 +1,243 @@
+package com.VintageGaming.customCommands.headless;
+
+import com.VintageGaming.customCommands.trace.TraceEntry;
+import com.VintageGaming.customCommands.trace.TraceReader;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Replays a trace recorded with '/customcommands trace start' against a command pack on the
+ * {@link HeadlessRunner}'s mock server and reports the latency and allocation of every invocation.
+ * The clock of the mock server follows the trace, one tick per 50 ms of recorded time, so cooldowns,
+ * countdowns and rate limits see the traffic like the server did.
+ * <pre>
+ * java -cp CustomCommands.jar:spigot-api.jar:... com.VintageGaming.customCommands.headless.TraceReplay pack \
+ *     traces/trace-2024-06-01_20-00-00.cctrace --speed max --warmup 1
+ * </pre>
+ * A speed of 1 replays at the recorded pace, 10 ten times faster, "max" without waiting at all.
+ */
+public final class TraceReplay {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final HeadlessRunner runner;
+    private final List<TraceEntry> entries;
+    private final Player[] players;
+    private final com.sun.management.ThreadMXBean threads;
+
+    /**
+     * @param runner The runner with the command pack loaded.
+     * @param entries The entries of the trace.
+     * @param tracePlayers The number of players the trace refers to, -1 if the trace doesn't say.
+     *                     It is then taken from the senders and the player&lt;number&gt; arguments of the entries.
+     */
+    public TraceReplay(HeadlessRunner runner, List<TraceEntry> entries, int tracePlayers) {
+        this.runner = runner;
+        this.entries = entries;
+        int playerCount = tracePlayers >= 0 ? tracePlayers : countPlayers(entries);
+        // The recorder names players in arguments player<number>, like the runner names its players.
+        runner.addPlayers(playerCount);
+        this.players = new Player[playerCount + 1];
+        for (int i = 1; i <= playerCount; i++) {
+            players[i] = runner.getPlatform().getPlayerExact("player" + i);
+        }
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threads = bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: TraceReplay <pack folder> <trace file> [--speed <factor>|max] [--warmup <passes>]");
+            return;
+        }
+        Map<String, String> options = HeadlessRunner.parseOptions(Arrays.copyOfRange(args, 2, args.length));
+        String speedOption = options.getOrDefault("speed", "1");
+        double speed = speedOption.equalsIgnoreCase("max") ? 0 : Double.parseDouble(speedOption);
+
+        HeadlessRunner runner = new HeadlessRunner(new File(args[0]), HeadlessRunner.createLogger());
+        runner.load();
+        List<TraceEntry> entries = new ArrayList<>();
+        int players;
+        try (TraceReader reader = new TraceReader(new File(args[1]))) {
+            TraceEntry entry;
+            while ((entry = reader.next()) != null) {
+                entries.add(entry);
+            }
+            players = reader.getPlayers();
+        }
+        TraceReplay replay = new TraceReplay(runner, entries, players);
+        long span = entries.isEmpty() ? 0 : entries.get(entries.size() - 1).getTime();
+        System.out.printf("Replaying %d invocations of %d players recorded over %.1f s.%n",
+                entries.size(), replay.players.length - 1, span / 1_000_000_000.0);
+
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1"));
+        for (int i = 0; i < warmup; i++) {
+            replay.replay(0);
+        }
+        Report report = replay.replay(speed);
+        report.print();
+        runner.getEngine().close();
+    }
+
+    private static int countPlayers(List<TraceEntry> entries) {
+        int count = 0;
+        for (TraceEntry entry : entries) {
+            count = Math.max(count, entry.getSender());
+            for (String arg : entry.getArgs()) {
+                if (arg.length() > 6 && arg.length() < 16 && arg.startsWith("player") && arg.chars().skip(6).allMatch(c -> c >= '0' && c <= '9')) {
+                    count = Math.max(count, Integer.parseInt(arg.substring(6)));
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Replays the whole trace once.
+     * @param speed How many times faster than recorded, 0 or less doesn't wait between invocations.
+     */
+    public Report replay(double speed) {
+        HeadlessPlatform platform = runner.getPlatform();
+        HeadlessScheduler scheduler = platform.getTaskScheduler();
+        Report report = new Report(threads != null);
+        long firstTick = scheduler.getCurrentTick();
+        long start = System.nanoTime();
+        for (TraceEntry entry : entries) {
+            if (speed > 0) {
+                long due = start + (long) (entry.getTime() / speed);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            long tick = firstTick + entry.getTime() / TICK_NANOS;
+            while (scheduler.getCurrentTick() < tick) {
+                long tickStart = System.nanoTime();
+                scheduler.tick();
+                report.tickNanos += System.nanoTime() - tickStart;
+                report.ticks++;
+            }
+
+            Command command = platform.getCommand(entry.getLabel().toLowerCase(Locale.ENGLISH));
+            if (command == null) {
+                report.unknown++;
+                continue;
+            }
+            CommandSender sender = entry.getSender() == TraceEntry.CONSOLE ? platform.getConsoleSender() : players[entry.getSender()];
+            long allocated = threads != null ? threads.getCurrentThreadAllocatedBytes() : 0;
+            long invocationStart = System.nanoTime();
+            try {
+                if (entry.isTabComplete()) {
+                    command.tabComplete(sender, entry.getLabel(), entry.getArgs());
+                } else {
+                    command.execute(sender, entry.getLabel(), entry.getArgs());
+                }
+            } catch (RuntimeException e) {
+                report.errors++;
+                platform.getLogger().log(Level.WARNING, "'" + entry.getLabel() + "' failed: " + e, e);
+            }
+            long elapsed = System.nanoTime() - invocationStart;
+            long bytes = threads != null ? threads.getCurrentThreadAllocatedBytes() - allocated : 0;
+            report.record(entry, elapsed, bytes);
+        }
+        report.wallNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    /**
+     * The latencies and allocations of one replay.
+     */
+    public static final class Report {
+        private final boolean allocations;
+        private final Distribution executions = new Distribution();
+        private final Distribution tabCompletions = new Distribution();
+        private final Map<String, Distribution> byLabel = new HashMap<>();
+        private long executionBytes;
+        private long tabCompletionBytes;
+        private long unknown;
+        private long errors;
+        private long ticks;
+        private long tickNanos;
+        private long wallNanos;
+
+        private Report(boolean allocations) {
+            this.allocations = allocations;
+        }
+
+        private void record(TraceEntry entry, long nanos, long bytes) {
+            if (entry.isTabComplete()) {
+                tabCompletions.add(nanos);
+                tabCompletionBytes += bytes;
+            } else {
+                executions.add(nanos);
+                executionBytes += bytes;
+                byLabel.computeIfAbsent(entry.getLabel().toLowerCase(Locale.ENGLISH), label -> new Distribution()).add(nanos);
+            }
+        }
+
+        public void print() {
+            System.out.printf("Replayed in %.1f ms, %d ticks took %.1f ms, %d unknown commands, %d errors%n",
+                    wallNanos / 1_000_000.0, ticks, tickNanos / 1_000_000.0, unknown, errors);
+            System.out.println("kind          count    mean_us   p50_us   p90_us   p99_us  p999_us   max_us  bytes/op");
+            print("execute", executions, executionBytes);
+            print("tab-complete", tabCompletions, tabCompletionBytes);
+
+            List<Map.Entry<String, Distribution>> labels = new ArrayList<>(byLabel.entrySet());
+            labels.sort((a, b) -> Long.compare(b.getValue().total, a.getValue().total));
+            System.out.println("Commands taking the most time in total:");
+            for (Map.Entry<String, Distribution> label : labels.subList(0, Math.min(10, labels.size()))) {
+                print("/" + label.getKey(), label.getValue(), -1);
+            }
+        }
+
+        private void print(String name, Distribution distribution, long bytes) {
+            int count = distribution.size;
+            if (count == 0) return;
+            String perOp = bytes < 0 ? "" : allocations ? String.valueOf(bytes / count) : "n/a";
+            System.out.printf("%-12s %6d %10.2f %8.2f %8.2f %8.2f %8.2f %8.2f  %s%n", name, count,
+                    distribution.total / 1000.0 / count, distribution.percentile(0.5) / 1000.0, distribution.percentile(0.9) / 1000.0,
+                    distribution.percentile(0.99) / 1000.0, distribution.percentile(0.999) / 1000.0,
+                    distribution.percentile(1) / 1000.0, perOp);
+        }
+    }
+
+    private static final class Distribution {
+        private long[] values = new long[256];
+        private int size;
+        private long total;
+        private boolean sorted;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            total += value;
+            sorted = false;
+        }
+
+        private long percentile(double fraction) {
+            if (!sorted) {
+                Arrays.sort(values, 0, size);
+                sorted = true;
+            }
+            int index = (int) Math.ceil(fraction * size) - 1;
+            return values[Math.max(0, Math.min(size - 1, index))];
+        }
+    }
+}
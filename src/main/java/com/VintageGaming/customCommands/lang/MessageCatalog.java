@@ -0,0 +1,174 @@
+package com.VintageGaming.customCommands.lang;
+
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * The translated messages of the "lang" folder, one file per locale such as de_de.yml.
+ * Messages are referenced from command files as {lang:key}. Every string using them is
+ * expanded once per locale when the commands are loaded, so sending a message only has to
+ * pick the variant of the sender's locale index. Index 0 is always the default locale,
+ * which also provides keys a locale doesn't translate.
+ */
+public class MessageCatalog {
+
+    public static final String PREFIX = "{lang:";
+
+    private final Logger logger;
+    private volatile State state = new State(new String[]{"en_us"}, Collections.singletonList(Collections.emptyMap()));
+
+    public MessageCatalog(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Reads every locale file of a folder. Messages are colorized while loading.
+     * @param folder The "lang" folder.
+     * @param defaultLocale The locale used for senders without a translation, e.g. "en_us".
+     */
+    public void load(File folder, String defaultLocale) {
+        String fallback = normalize(defaultLocale);
+        Map<String, Map<String, String>> byLocale = new LinkedHashMap<>();
+        byLocale.put(fallback, new HashMap<>());
+
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files != null) {
+            for (File file : files) {
+                String locale = normalize(file.getName().substring(0, file.getName().length() - 4));
+                YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+                Map<String, String> messages = byLocale.computeIfAbsent(locale, key -> new HashMap<>());
+                for (String key : config.getKeys(true)) {
+                    if (!config.isConfigurationSection(key)) {
+                        messages.put(key, ChatColor.translateAlternateColorCodes('&', config.getString(key, "")));
+                    }
+                }
+            }
+        }
+
+        List<Map<String, String>> messages = new ArrayList<>(byLocale.values());
+        state = new State(byLocale.keySet().toArray(new String[0]), messages);
+        logger.info("Loaded " + messages.get(0).size() + " messages in " + messages.size() + " locale(s).");
+    }
+
+    /**
+     * @return The number of locales, every localized string has this many variants.
+     */
+    public int getLocaleCount() {
+        return state.locales.length;
+    }
+
+    /**
+     * @param locale A client locale such as "de_DE", may be null.
+     * @return The index of the locale, of another one of the same language, or 0 for the default locale.
+     */
+    public int indexOf(String locale) {
+        if (locale == null) return 0;
+        State current = state;
+        String normalized = normalize(locale);
+        Integer index = current.indices.get(normalized);
+        if (index == null) {
+            int separator = normalized.indexOf('_');
+            index = current.indices.get(separator > 0 ? normalized.substring(0, separator) : normalized);
+        }
+        return index != null ? index : 0;
+    }
+
+    /**
+     * @param raw A string from a command file.
+     * @return True if the string references catalog messages.
+     */
+    public boolean isLocalized(String raw) {
+        return raw != null && raw.contains(PREFIX);
+    }
+
+    /**
+     * Replaces the {lang:key} references of a string with the messages of one locale.
+     * Keys no locale has are left as they are.
+     * @param raw The string.
+     * @param locale The locale index.
+     * @return The string in the given locale.
+     */
+    public String localize(String raw, int locale) {
+        State current = state;
+        StringBuilder builder = new StringBuilder(raw.length() + 32);
+        int from = 0;
+        int start;
+        while ((start = raw.indexOf(PREFIX, from)) >= 0) {
+            int end = raw.indexOf('}', start);
+            if (end < 0) break;
+            String key = raw.substring(start + PREFIX.length(), end);
+            String message = current.message(key, locale);
+            if (message == null && current.missing.add(key)) {
+                logger.warning("Unknown message key '" + key + "', add it to lang/" + current.locales[0] + ".yml.");
+            }
+            builder.append(raw, from, start).append(message != null ? message : raw.substring(start, end + 1));
+            from = end + 1;
+        }
+        return builder.append(raw, from, raw.length()).toString();
+    }
+
+    /**
+     * Localizes and colorizes a message that is sent as it is, like a permission message.
+     * Each distinct message is expanded once and then served from a cache.
+     * @param raw The message, may be null.
+     * @param locale The locale index.
+     * @return The message in the given locale, or null if raw is null.
+     */
+    public String text(String raw, int locale) {
+        if (raw == null) return null;
+        State current = state;
+        String[] variants = current.texts.get(raw);
+        if (variants == null) {
+            variants = new String[current.locales.length];
+            for (int i = 0; i < variants.length; i++) {
+                variants[i] = ChatColor.translateAlternateColorCodes('&', isLocalized(raw) ? localize(raw, i) : raw);
+            }
+            current.texts.put(raw, variants);
+        }
+        return variants[locale < variants.length ? locale : 0];
+    }
+
+    private static String normalize(String locale) {
+        return locale.trim().replace('-', '_').toLowerCase(Locale.ROOT);
+    }
+
+    private static final class State {
+        private final String[] locales;
+        private final List<Map<String, String>> messages;
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final Map<String, String[]> texts = new ConcurrentHashMap<>();
+        private final Set<String> missing = ConcurrentHashMap.newKeySet();
+
+        private State(String[] locales, List<Map<String, String>> messages) {
+            this.locales = locales;
+            this.messages = messages;
+            // A bare language like "de" finds the first locale of that language, exact names win over that.
+            for (int i = locales.length - 1; i >= 0; i--) {
+                int separator = locales[i].indexOf('_');
+                if (separator > 0) {
+                    indices.put(locales[i].substring(0, separator), i);
+                }
+            }
+            for (int i = locales.length - 1; i >= 0; i--) {
+                indices.put(locales[i], i);
+            }
+        }
+
+        private String message(String key, int locale) {
+            String message = messages.get(locale).get(key);
+            return message != null ? message : messages.get(0).get(key);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.VintageGaming.customCommands.lang;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLocaleChangeEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the MessageCatalog locale index of every online player. It is resolved when
+ * the player joins and again whenever the client reports a different locale.
+ */
+public class PlayerLocales implements Listener {
+
+    private final MessageCatalog catalog;
+    private final Map<UUID, Integer> locales = new ConcurrentHashMap<>();
+
+    public PlayerLocales(MessageCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * @param sender A command sender.
+     * @return The locale index of the sender, 0 (the default locale) for anyone but players.
+     */
+    public int of(CommandSender sender) {
+        if (!(sender instanceof Player)) return 0;
+        Player player = (Player) sender;
+        Integer locale = locales.get(player.getUniqueId());
+        if (locale == null) {
+            locale = catalog.indexOf(player.getLocale());
+            locales.put(player.getUniqueId(), locale);
+        }
+        return locale;
+    }
+
+    /**
+     * Forgets every cached locale, to be called after the catalog was reloaded.
+     */
+    public void clear() {
+        locales.clear();
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        locales.put(player.getUniqueId(), catalog.indexOf(player.getLocale()));
+    }
+
+    @EventHandler
+    public void onLocaleChange(PlayerLocaleChangeEvent event) {
+        locales.put(event.getPlayer().getUniqueId(), catalog.indexOf(event.getLocale()));
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        locales.remove(event.getPlayer().getUniqueId());
+    }
+}
@@ -0,0 +1,468 @@
+package com.VintageGaming.customCommands.lint;
+
+import com.VintageGaming.customCommands.model.ActionType;
+import com.VintageGaming.customCommands.model.ArgumentType;
+import com.VintageGaming.customCommands.parser.EffectCompiler;
+import org.bukkit.Sound;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks command files for designs that fail or are slow at runtime, before anyone runs them:
+ * unknown actions and values of the wrong shape, invalid sound names, [placeholders] that can
+ * never be reached, siblings that all need a player lookup, and more. It also estimates what
+ * every command path costs in the worst case, following how the ArgumentDispatcher matches
+ * arguments: the name map first, then the {static} names, then every [placeholder] in file order.
+ * <p>
+ * Works on the YAML node graph of the files, so every finding has a line number. Only reads
+ * files, so it runs off the main thread.
+ */
+public class CommandLinter {
+
+    private static final Set<String> COMMAND_KEYS = new HashSet<>(Arrays.asList(
+            "permission", "permission-message", "usage-message", "aliases", "cost", "cooldown", "actions", "delay", "arguments"));
+    private static final Set<String> NODE_KEYS = new HashSet<>(Arrays.asList(
+            "permission", "permission-message", "type", "type-error", "actions", "delay", "arguments"));
+    private static final Set<String> DELAY_KEYS = new HashSet<>(Arrays.asList(
+            "length", "per_second-actions", "cancel-on-move", "cancel-on-damage"));
+
+    private final int maxLookups;
+
+    /**
+     * @param maxLookups Command paths needing more player or world lookups than this are reported.
+     */
+    public CommandLinter(int maxLookups) {
+        this.maxLookups = maxLookups;
+    }
+
+    /**
+     * Checks every command file of a folder.
+     * @param commandsDir The folder holding the command files.
+     * @return What was found.
+     */
+    public LintReport lint(File commandsDir) {
+        LintReport report = new LintReport();
+        File[] commandFiles = commandsDir.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (commandFiles != null) {
+            Arrays.sort(commandFiles);
+            for (File file : commandFiles) {
+                lint(file.getName().replace(".yml", ""), file, report);
+            }
+        }
+        report.sort();
+        return report;
+    }
+
+    /**
+     * Checks one command file.
+     * @param name The name of the command.
+     * @param file The command file.
+     * @param report Where the findings are added.
+     */
+    public void lint(String name, File file, LintReport report) {
+        report.countFile();
+        String source = file.getName();
+        Node root;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            root = new Yaml(new LoaderOptions()).compose(reader);
+        } catch (IOException | YAMLException e) {
+            // The loader reports files it can't read or parse with their position.
+            report.add(new LintFinding(source, 0, 0, LintFinding.Severity.WARNING, "Could not be checked: " + e.getMessage()));
+            return;
+        }
+        if (!(root instanceof MappingNode)) return;
+
+        Map<String, NodeTuple> fields = fields((MappingNode) root);
+        checkKeys(source, fields, COMMAND_KEYS, "command", report);
+        Cost rootCost = new Cost(0, 0);
+        lintBlock(source, name, root, fields, rootCost, report);
+        NodeTuple arguments = fields.get("arguments");
+        if (arguments != null) {
+            lintArguments(source, name, arguments.getValueNode(), rootCost, report);
+        } else if (!fields.containsKey("actions") && !fields.containsKey("delay")) {
+            report.add(finding(source, root, LintFinding.Severity.INFO, "/" + name + " has neither actions nor arguments, it does nothing."));
+        }
+    }
+
+    private void lintArguments(String source, String parentPath, Node node, Cost parentCost, LintReport report) {
+        if (!(node instanceof MappingNode)) return;
+
+        List<NodeTuple> statics = new ArrayList<>();
+        List<NodeTuple> placeholders = new ArrayList<>();
+        for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+            String name = key(tuple);
+            if (name == null || !(tuple.getValueNode() instanceof MappingNode)) continue;
+            if (name.startsWith("{") && name.endsWith("}")) {
+                statics.add(tuple);
+            } else if (name.startsWith("[") && name.endsWith("]")) {
+                placeholders.add(tuple);
+            }
+        }
+
+        checkStatics(source, statics, report);
+        ArgumentType[] types = checkPlaceholders(source, node, placeholders, report);
+
+        for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+            String name = key(tuple);
+            if (name == null || !(tuple.getValueNode() instanceof MappingNode)) continue;
+            MappingNode childNode = (MappingNode) tuple.getValueNode();
+            Map<String, NodeTuple> fields = fields(childNode);
+            String path = parentPath + " " + name;
+            checkKeys(source, fields, NODE_KEYS, "argument", report);
+
+            // Every argument is first looked up by name.
+            Cost cost;
+            int index = placeholders.indexOf(tuple);
+            if (index >= 0) {
+                int lookups = 0;
+                for (int i = 0; i <= index; i++) {
+                    if (needsLookup(types[i])) lookups++;
+                }
+                cost = parentCost.add(lookups, 1 + (statics.isEmpty() ? 0 : 1) + index + 1);
+            } else if (statics.contains(tuple)) {
+                cost = parentCost.add(0, 2);
+            } else {
+                cost = parentCost.add(0, 1);
+                if (fields.containsKey("type")) {
+                    report.add(finding(source, fields.get("type").getKeyNode(), LintFinding.Severity.INFO,
+                            "'type' only applies to [placeholders], '" + name + "' only matches itself."));
+                }
+            }
+
+            lintBlock(source, path, tuple.getKeyNode(), fields, cost, report);
+            NodeTuple arguments = fields.get("arguments");
+            if (arguments != null) {
+                lintArguments(source, path, arguments.getValueNode(), cost, report);
+            } else if (!fields.containsKey("actions") && !fields.containsKey("delay")) {
+                report.add(finding(source, tuple.getKeyNode(), LintFinding.Severity.INFO,
+                        "/" + path + " has neither actions nor arguments, it does nothing."));
+            }
+        }
+    }
+
+    /**
+     * {static} names are matched ignoring case, the first of several equal names wins.
+     */
+    private void checkStatics(String source, List<NodeTuple> statics, LintReport report) {
+        Map<String, String> seen = new HashMap<>();
+        for (NodeTuple tuple : statics) {
+            String name = key(tuple);
+            String first = seen.putIfAbsent(name.toLowerCase(Locale.ROOT), name);
+            if (first != null) {
+                report.add(finding(source, tuple.getKeyNode(), LintFinding.Severity.WARNING,
+                        name + " can never be reached, " + first + " matches the same argument first."));
+            }
+        }
+    }
+
+    /**
+     * [placeholders] are tried in file order and the first one whose type accepts the argument wins.
+     * @return The types of the placeholders.
+     */
+    private ArgumentType[] checkPlaceholders(String source, Node parent, List<NodeTuple> placeholders, LintReport report) {
+        ArgumentType[] types = new ArgumentType[placeholders.size()];
+        String catchAll = null;
+        List<String> lookups = new ArrayList<>();
+        for (int i = 0; i < types.length; i++) {
+            NodeTuple tuple = placeholders.get(i);
+            NodeTuple typeField = fields((MappingNode) tuple.getValueNode()).get("type");
+            String type = typeField != null ? scalar(typeField.getValueNode()) : null;
+            types[i] = ArgumentType.of(type);
+            if (type != null && ArgumentType.find(type) == null) {
+                List<String> known = new ArrayList<>();
+                for (ArgumentType argumentType : ArgumentType.values()) {
+                    known.add(argumentType.getKey());
+                }
+                report.add(finding(source, typeField.getValueNode(), LintFinding.Severity.WARNING,
+                        "Unknown type '" + type + "', " + key(tuple) + " accepts any argument like 'text'. Known types: " + String.join(", ", known) + "."));
+            }
+
+            if (catchAll != null) {
+                report.add(finding(source, tuple.getKeyNode(), LintFinding.Severity.WARNING,
+                        key(tuple) + " can never be reached, " + catchAll + " before it accepts any argument. Move it further down."));
+            } else if (types[i] == ArgumentType.TEXT) {
+                catchAll = key(tuple);
+            }
+            if (needsLookup(types[i])) {
+                lookups.add(key(tuple));
+            }
+        }
+        if (lookups.size() > 1) {
+            report.add(finding(source, parent, LintFinding.Severity.WARNING, "The sibling placeholders " + String.join(", ", lookups)
+                    + " all need a player or world lookup, an argument matching none of them costs " + lookups.size()
+                    + " lookups. Tell them apart with a literal argument in front instead."));
+        }
+        return types;
+    }
+
+    private static boolean needsLookup(ArgumentType type) {
+        return type == ArgumentType.ONLINE_PLAYER || type == ArgumentType.PLAYER || type == ArgumentType.WORLD;
+    }
+
+    /**
+     * Checks the actions and delay of a command path and records its cost if it runs anything.
+     */
+    private void lintBlock(String source, String path, Node pathNode, Map<String, NodeTuple> fields, Cost cost, LintReport report) {
+        NodeTuple actions = fields.get("actions");
+        NodeTuple delay = fields.get("delay");
+        if (actions == null && delay == null) return;
+
+        int count = actions != null ? lintActions(source, actions.getValueNode(), report) : 0;
+        if (delay != null) {
+            count += lintDelay(source, delay.getValueNode(), report);
+        }
+        PathCost pathCost = new PathCost(source, line(pathNode), path, cost.lookups, cost.checks, count);
+        report.add(pathCost);
+        if (cost.lookups > maxLookups) {
+            report.add(finding(source, pathNode, LintFinding.Severity.WARNING, "Reaching /" + path + " can take " + cost.lookups
+                    + " player or world lookups (lint.max-lookups is " + maxLookups + ")."));
+        }
+    }
+
+    /**
+     * @return The number of actions and action lines that run in the worst case.
+     */
+    private int lintActions(String source, Node node, LintReport report) {
+        if (!(node instanceof MappingNode)) {
+            if (!isNull(node)) {
+                report.add(finding(source, node, LintFinding.Severity.WARNING, "'actions' must be a mapping of action types, it is ignored."));
+            }
+            return 0;
+        }
+        int count = 0;
+        for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+            String key = key(tuple);
+            if (key == null) continue;
+            ActionType type = ActionType.of(key);
+            if (type == null) {
+                List<String> known = new ArrayList<>();
+                for (ActionType actionType : ActionType.values()) {
+                    known.add(actionType.getKey());
+                }
+                report.add(finding(source, tuple.getKeyNode(), LintFinding.Severity.WARNING, "Unknown action '" + key
+                        + "', it is skipped with a warning every time the command runs. Known actions: " + String.join(", ", known) + "."));
+                continue;
+            }
+            count += lintAction(source, type, tuple.getValueNode(), report);
+        }
+        return count;
+    }
+
+    private int lintAction(String source, ActionType type, Node value, LintReport report) {
+        switch (type.getValue()) {
+            case LIST:
+                if (!(value instanceof SequenceNode)) {
+                    report.add(finding(source, value, LintFinding.Severity.WARNING, "'" + type.getKey()
+                            + "' expects a list of lines, it is skipped with a warning every time the command runs."));
+                    return 0;
+                }
+                List<Node> lines = ((SequenceNode) value).getValue();
+                if (type == ActionType.SOUND) {
+                    for (Node line : lines) {
+                        checkSound(source, line, report);
+                    }
+                }
+                return lines.size();
+            case TEXT:
+                if (!(value instanceof ScalarNode)) {
+                    report.add(finding(source, value, LintFinding.Severity.WARNING, "'" + type.getKey()
+                            + "' expects a single text, it is skipped with a warning every time the command runs."));
+                    return 0;
+                }
+                return 1;
+            case FIELDS:
+                if (!(value instanceof MappingNode)) {
+                    report.add(finding(source, value, LintFinding.Severity.WARNING, "'" + type.getKey()
+                            + "' expects the fields " + String.join(", ", type.getFields()) + "."));
+                    return 0;
+                }
+                Map<String, NodeTuple> fields = fields((MappingNode) value);
+                for (NodeTuple field : fields.values()) {
+                    if (!type.getFields().contains(key(field))) {
+                        report.add(finding(source, field.getKeyNode(), LintFinding.Severity.WARNING, "'" + type.getKey()
+                                + "' has no field '" + key(field) + "', it is ignored. Fields: " + String.join(", ", type.getFields()) + "."));
+                    }
+                }
+                if (type == ActionType.TELEPORT && !fields.containsKey("who")) {
+                    report.add(finding(source, value, LintFinding.Severity.WARNING, "'teleport' needs a 'who' field, it does nothing without one."));
+                }
+                if (type == ActionType.AREA_SOUND || type == ActionType.PARTICLE) {
+                    checkEffect(source, type, value, fields, report);
+                }
+                return 1;
+            case BRANCHES:
+                return lintBranches(source, value, report);
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * @return The condition checks plus the longer side of every branch.
+     */
+    private int lintBranches(String source, Node value, LintReport report) {
+        List<Node> branches = value instanceof SequenceNode ? ((SequenceNode) value).getValue() : Collections.singletonList(value);
+        int count = 0;
+        for (Node branch : branches) {
+            if (!(branch instanceof MappingNode)) {
+                report.add(finding(source, branch, LintFinding.Severity.WARNING, "An 'if' action needs a 'condition' and 'then' actions, it is ignored."));
+                continue;
+            }
+            Map<String, NodeTuple> fields = fields((MappingNode) branch);
+            if (!fields.containsKey("condition")) {
+                report.add(finding(source, branch, LintFinding.Severity.WARNING, "An 'if' action is missing its 'condition', only its 'else' actions will run."));
+            }
+            int then = fields.containsKey("then") ? lintActions(source, fields.get("then").getValueNode(), report) : 0;
+            int otherwise = fields.containsKey("else") ? lintActions(source, fields.get("else").getValueNode(), report) : 0;
+            count += 1 + Math.max(then, otherwise);
+        }
+        return count;
+    }
+
+    private int lintDelay(String source, Node node, LintReport report) {
+        if (!(node instanceof MappingNode)) return 0;
+        Map<String, NodeTuple> fields = fields((MappingNode) node);
+        checkKeys(source, fields, DELAY_KEYS, "delay", report);
+        NodeTuple length = fields.get("length");
+        String text = length != null ? scalar(length.getValueNode()) : null;
+        if (text == null || !isDelayLength(text)) {
+            report.add(finding(source, length != null ? length.getValueNode() : node, LintFinding.Severity.WARNING,
+                    "The delay needs a 'length' like '5 second', '2 minute' or '1 hour', without one the actions run right away."));
+        }
+        NodeTuple perSecond = fields.get("per_second-actions");
+        return perSecond != null ? lintActions(source, perSecond.getValueNode(), report) : 0;
+    }
+
+    /**
+     * Accepts what the ActionCompiler can turn into ticks.
+     */
+    private static boolean isDelayLength(String text) {
+        String[] parts = text.split(" ");
+        if (parts.length != 2) return false;
+        try {
+            Long.parseLong(parts[0]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        String unit = parts[1].toLowerCase(Locale.ROOT);
+        return unit.startsWith("second") || unit.startsWith("minute") || unit.startsWith("hour");
+    }
+
+    private void checkSound(String source, Node line, LintReport report) {
+        String name = scalar(line);
+        // Sounds chosen through placeholders are only known when the command runs.
+        if (name == null || name.indexOf('[') >= 0 || name.indexOf('{') >= 0) return;
+        Sound sound;
+        try {
+            sound = Sound.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            sound = null;
+        }
+        if (sound == null) {
+            report.add(finding(source, line, LintFinding.Severity.WARNING, "Unknown sound '" + name + "', nothing is played."));
+        }
+    }
+
+    /**
+     * Resolves the effect the way loading the command does, so its problems show up here first.
+     */
+    private void checkEffect(String source, ActionType type, Node value, Map<String, NodeTuple> fields, LintReport report) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Map.Entry<String, NodeTuple> field : fields.entrySet()) {
+            String text = scalar(field.getValue().getValueNode());
+            if (text != null) {
+                values.put(field.getKey(), text);
+            }
+        }
+        try {
+            EffectCompiler.compile(type, values);
+        } catch (IllegalArgumentException e) {
+            report.add(finding(source, value, LintFinding.Severity.WARNING, e.getMessage() + ", the action is skipped."));
+        }
+    }
+
+    private void checkKeys(String source, Map<String, NodeTuple> fields, Set<String> known, String what, LintReport report) {
+        for (Map.Entry<String, NodeTuple> field : fields.entrySet()) {
+            if (!known.contains(field.getKey())) {
+                report.add(finding(source, field.getValue().getKeyNode(), LintFinding.Severity.INFO,
+                        "Unknown " + what + " key '" + field.getKey() + "', it is ignored."));
+            }
+        }
+    }
+
+    private static Map<String, NodeTuple> fields(MappingNode node) {
+        Map<String, NodeTuple> fields = new LinkedHashMap<>();
+        for (NodeTuple tuple : node.getValue()) {
+            String key = key(tuple);
+            if (key != null) {
+                fields.put(key, tuple);
+            }
+        }
+        return fields;
+    }
+
+    private static String key(NodeTuple tuple) {
+        return tuple.getKeyNode() instanceof ScalarNode ? ((ScalarNode) tuple.getKeyNode()).getValue() : null;
+    }
+
+    private static String scalar(Node node) {
+        return node instanceof ScalarNode && !isNull(node) ? ((ScalarNode) node).getValue() : null;
+    }
+
+    private static boolean isNull(Node node) {
+        return Tag.NULL.equals(node.getTag());
+    }
+
+    private static int line(Node node) {
+        Mark mark = node.getStartMark();
+        return mark != null ? mark.getLine() + 1 : 0;
+    }
+
+    private static LintFinding finding(String source, Node node, LintFinding.Severity severity, String message) {
+        Mark mark = node.getStartMark();
+        return mark != null ? new LintFinding(source, mark.getLine() + 1, mark.getColumn() + 1, severity, message)
+                : new LintFinding(source, 0, 0, severity, message);
+    }
+
+    /**
+     * What matching the arguments of a path costs so far.
+     */
+    private static final class Cost {
+        private final int lookups;
+        private final int checks;
+
+        private Cost(int lookups, int checks) {
+            this.lookups = lookups;
+            this.checks = checks;
+        }
+
+        private Cost add(int lookups, int checks) {
+            return new Cost(this.lookups + lookups, this.checks + checks);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.VintageGaming.customCommands.lint;
+
+/**
+ * A problem the {@link CommandLinter} found in a command file.
+ */
+public final class LintFinding {
+
+    public enum Severity {
+        /** Something that fails or misbehaves when the command runs, or slows it down noticeably. */
+        WARNING,
+        /** Something that works but is probably not what the author meant. */
+        INFO
+    }
+
+    private final String file;
+    private final int line;
+    private final int column;
+    private final Severity severity;
+    private final String message;
+
+    /**
+     * @param file The name of the command file.
+     * @param line The 1-based line, or 0 if unknown.
+     * @param column The 1-based column, or 0 if unknown.
+     */
+    public LintFinding(String file, int line, int column, Severity severity, String message) {
+        this.file = file;
+        this.line = line;
+        this.column = column;
+        this.severity = severity;
+        this.message = message;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return (line > 0 ? file + ":" + line + ":" + column : file) + ": " + message;
+    }
+}
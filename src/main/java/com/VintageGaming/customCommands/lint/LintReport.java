@@ -0,0 +1,71 @@
+package com.VintageGaming.customCommands.lint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The findings and path costs of one lint run.
+ */
+public final class LintReport {
+
+    private final List<LintFinding> findings = new ArrayList<>();
+    private final List<PathCost> costs = new ArrayList<>();
+    private int files;
+
+    void add(LintFinding finding) {
+        findings.add(finding);
+    }
+
+    void add(PathCost cost) {
+        costs.add(cost);
+    }
+
+    void countFile() {
+        files++;
+    }
+
+    /**
+     * @return The number of command files checked.
+     */
+    public int getFiles() {
+        return files;
+    }
+
+    /**
+     * @return The findings, by file and line.
+     */
+    public List<LintFinding> getFindings() {
+        return Collections.unmodifiableList(findings);
+    }
+
+    public int count(LintFinding.Severity severity) {
+        int count = 0;
+        for (LintFinding finding : findings) {
+            if (finding.getSeverity() == severity) count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return The cost of every command path that runs actions, in file order.
+     */
+    public List<PathCost> getCosts() {
+        return Collections.unmodifiableList(costs);
+    }
+
+    /**
+     * @param limit The most paths to return.
+     * @return The most expensive paths, most expensive first.
+     */
+    public List<PathCost> getMostExpensive(int limit) {
+        List<PathCost> sorted = new ArrayList<>(costs);
+        sorted.sort(PathCost::compareCost);
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    void sort() {
+        findings.sort(Comparator.comparing(LintFinding::getFile).thenComparingInt(LintFinding::getLine).thenComparingInt(LintFinding::getColumn));
+    }
+}
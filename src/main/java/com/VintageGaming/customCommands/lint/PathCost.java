@@ -0,0 +1,70 @@
+package com.VintageGaming.customCommands.lint;
+
+/**
+ * The estimated worst-case cost of running one command path: what matching its arguments
+ * takes when every earlier sibling is tried first, and how many actions it runs.
+ */
+public final class PathCost {
+
+    private final String file;
+    private final int line;
+    private final String path;
+    private final int lookups;
+    private final int checks;
+    private final int actions;
+
+    /**
+     * @param file The name of the command file.
+     * @param line The 1-based line of the path's node.
+     * @param path The command path, e.g. "example tp [player_to_move]".
+     * @param lookups Player and world lookups made to match the arguments.
+     * @param checks Map lookups and type validations made to match the arguments, including the lookups.
+     * @param actions Actions and action lines run, counting the longer side of every 'if'.
+     */
+    public PathCost(String file, int line, String path, int lookups, int checks, int actions) {
+        this.file = file;
+        this.line = line;
+        this.path = path;
+        this.lookups = lookups;
+        this.checks = checks;
+        this.actions = actions;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getLookups() {
+        return lookups;
+    }
+
+    public int getChecks() {
+        return checks;
+    }
+
+    public int getActions() {
+        return actions;
+    }
+
+    /**
+     * Orders the most expensive paths first: by lookups, which reach into the server, then actions, then checks.
+     */
+    public int compareCost(PathCost other) {
+        if (lookups != other.lookups) return Integer.compare(other.lookups, lookups);
+        if (actions != other.actions) return Integer.compare(other.actions, actions);
+        return Integer.compare(other.checks, checks);
+    }
+
+    @Override
+    public String toString() {
+        return "/" + path + " - lookups: " + lookups + ", checks: " + checks + ", actions: " + actions + " (" + file + ":" + line + ")";
+    }
+}
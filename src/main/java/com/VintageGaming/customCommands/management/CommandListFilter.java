@@ -0,0 +1,109 @@
+package com.VintageGaming.customCommands.management;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Removes the custom commands a player lacks the root permission for from the
+ * command list sent to their client.
+ * <p>
+ * Players are grouped by permission profile: which of the distinct root permissions
+ * of the loaded commands they have. The labels to hide are computed once per profile,
+ * so sending the list costs one permission check per distinct permission, no matter
+ * how many commands and aliases there are. The profile is read every time the list is
+ * sent, so permission changes apply the next time the server resends it
+ * (permission plugins do so through {@link Player#updateCommands()}).
+ */
+public class CommandListFilter implements Listener {
+
+    // Every profile maps to a subset of the labels, this only guards against pathological setups.
+    private static final int MAX_PROFILES = 1024;
+
+    private volatile Index index = Index.EMPTY;
+    private volatile boolean enabled = true;
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Replaces the labels to filter, dropping every cached profile.
+     * @param labelPermissions The labels of the registered custom commands, including their aliases
+     *                         and plugin prefixed forms, mapped to the root permission they need.
+     */
+    public void update(Map<String, String> labelPermissions) {
+        index = labelPermissions.isEmpty() ? Index.EMPTY : new Index(labelPermissions);
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onCommandSend(PlayerCommandSendEvent event) {
+        Index current = index;
+        if (!enabled || current.permissions.length == 0) return;
+
+        Player player = event.getPlayer();
+        BitSet profile = new BitSet(current.permissions.length);
+        for (int i = 0; i < current.permissions.length; i++) {
+            if (!player.hasPermission(current.permissions[i])) {
+                profile.set(i);
+            }
+        }
+        if (profile.isEmpty()) return;
+
+        Set<String> hidden = current.hiddenLabels(profile);
+        if (!hidden.isEmpty()) {
+            event.getCommands().removeAll(hidden);
+        }
+    }
+
+    private static final class Index {
+
+        private static final Index EMPTY = new Index(Collections.emptyMap());
+
+        private final String[] permissions;
+        // The labels guarded by each permission, indexed like permissions.
+        private final List<List<String>> labels = new ArrayList<>();
+        private final Map<BitSet, Set<String>> profiles = new ConcurrentHashMap<>();
+
+        private Index(Map<String, String> labelPermissions) {
+            Map<String, List<String>> byPermission = new LinkedHashMap<>();
+            for (Map.Entry<String, String> entry : labelPermissions.entrySet()) {
+                byPermission.computeIfAbsent(entry.getValue(), permission -> new ArrayList<>()).add(entry.getKey());
+            }
+            this.permissions = byPermission.keySet().toArray(new String[0]);
+            this.labels.addAll(byPermission.values());
+        }
+
+        /**
+         * @param missing The permissions the player lacks, by index.
+         * @return The labels the player can't use.
+         */
+        private Set<String> hiddenLabels(BitSet missing) {
+            Set<String> hidden = profiles.get(missing);
+            if (hidden != null) return hidden;
+
+            Set<String> computed = new HashSet<>();
+            for (int i = missing.nextSetBit(0); i >= 0; i = missing.nextSetBit(i + 1)) {
+                computed.addAll(labels.get(i));
+            }
+            hidden = Collections.unmodifiableSet(computed);
+            if (profiles.size() >= MAX_PROFILES) {
+                profiles.clear();
+            }
+            profiles.put(missing, hidden);
+            return hidden;
+        }
+    }
+}
@@ -3,20 +3,25 @@ package com.VintageGaming.customCommands.management;
 import com.VintageGaming.customCommands.CustomCommands;
 import com.VintageGaming.customCommands.command.DynamicCommand;
 import com.VintageGaming.customCommands.execution.ActionExecutor;
-import com.VintageGaming.customCommands.model.ArgumentNode;
+import com.VintageGaming.customCommands.lint.CommandLinter;
+import com.VintageGaming.customCommands.lint.LintFinding;
+import com.VintageGaming.customCommands.lint.LintReport;
 import com.VintageGaming.customCommands.model.CustomCommandData;
-import org.bukkit.Bukkit;
+import com.VintageGaming.customCommands.parser.ActionCompiler;
+import com.VintageGaming.customCommands.parser.CommandPackLoader;
+import com.VintageGaming.customCommands.placeholder.PlaceholderService;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandMap;
 import org.bukkit.command.SimpleCommandMap;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
 
 import java.io.File;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -24,16 +29,24 @@ public class CommandManager {
 
     private final CustomCommands plugin;
     private final ActionExecutor actionExecutor;
+    private final CommandPackLoader packLoader;
+    private final CommandRegistry registry = new CommandRegistry();
+    private final CommandListFilter commandListFilter = new CommandListFilter();
     private CommandMap commandMap;
     private Map<String, Command> knownCommands;
 
+    // The DynamicCommands currently in the command map, only touched on the main thread.
+    private final Map<String, DynamicCommand> registeredCommands = new HashMap<>();
+
     public CommandManager(CustomCommands plugin, ActionExecutor actionExecutor) {
         this.plugin = plugin;
         this.actionExecutor = actionExecutor;
+        ActionCompiler actionCompiler = new ActionCompiler(plugin.getPlaceholderService(), plugin.getMessageCatalog(), plugin.getLogger());
+        this.packLoader = new CommandPackLoader(actionCompiler, plugin.getLogger());
         try {
-            Field commandMapField = Bukkit.getServer().getClass().getDeclaredField("commandMap");
+            Field commandMapField = plugin.getServer().getClass().getDeclaredField("commandMap");
             commandMapField.setAccessible(true);
-            this.commandMap = (CommandMap) commandMapField.get(Bukkit.getServer());
+            this.commandMap = (CommandMap) commandMapField.get(plugin.getServer());
 
             Field knownCommandsField = SimpleCommandMap.class.getDeclaredField("knownCommands");
             knownCommandsField.setAccessible(true);
@@ -44,91 +57,171 @@ public class CommandManager {
         }
     }
 
-    public void loadCommands() {
-        File commandsDir = new File(plugin.getDataFolder(), "commands");
-        if (!commandsDir.exists()) {
-            commandsDir.mkdirs();
-        }
+    public CommandRegistry getRegistry() {
+        return registry;
+    }
 
-        File[] commandFiles = commandsDir.listFiles((dir, name) -> name.endsWith(".yml"));
-        if (commandFiles == null) return;
+    /**
+     * @return The server's command map, or null if it couldn't be accessed.
+     */
+    public CommandMap getCommandMap() {
+        return commandMap;
+    }
 
-        for (File file : commandFiles) {
-            String commandName = file.getName().replace(".yml", "");
-            FileConfiguration config = YamlConfiguration.loadConfiguration(file);
-            CustomCommandData commandData = loadCommandData(commandName, config);
-            registerCommand(commandData);
+    /**
+     * Must run on the main thread.
+     * @param label The lower case command label.
+     * @return True if the command map holds exactly this command for the label.
+     */
+    public boolean isKnown(String label, Command command) {
+        if (knownCommands != null) {
+            return knownCommands.get(label) == command;
         }
+        return commandMap != null && commandMap.getCommand(label) == command;
     }
 
-    private CustomCommandData loadCommandData(String name, FileConfiguration config) {
-        String permission = config.getString("permission");
-        String permissionMessage = config.getString("permission-message");
-        String usageMessage = config.getString("usage-message");
-        List<String> aliases = config.getStringList("aliases");
-        double cost = config.getDouble("cost", 0);
-        String cooldown = config.getString("cooldown");
-
-        Map<String, Object> rootActions = null;
-        if (config.isConfigurationSection("actions")) {
-            rootActions = config.getConfigurationSection("actions").getValues(false);
+    /**
+     * @param label The name or an alias of a custom command.
+     * @return The registered command, null if there is no custom command with that label. Only call on the main thread.
+     */
+    public DynamicCommand getCommand(String label) {
+        DynamicCommand command = registeredCommands.get(label);
+        if (command == null && commandMap != null) {
+            Command known = commandMap.getCommand(label);
+            command = known instanceof DynamicCommand ? (DynamicCommand) known : null;
         }
+        return command;
+    }
 
-        Map<String, Object> rootDelay = null;
-        if (config.isConfigurationSection("delay")) {
-            rootDelay = config.getConfigurationSection("delay").getValues(false);
-        }
+    public CommandListFilter getCommandListFilter() {
+        return commandListFilter;
+    }
 
-        Map<String, ArgumentNode> arguments = new HashMap<>();
-        if (config.isConfigurationSection("arguments")) {
-            arguments = loadArgumentNodes(config.getConfigurationSection("arguments"));
+    /**
+     * Loads every command file, publishes the result as the new registry snapshot
+     * and brings the server's command map in line with it. Must run on the main thread.
+     */
+    public void loadCommands() {
+        PlaceholderService placeholders = plugin.getPlaceholderService();
+        long load = placeholders.beginLoad();
+        RegistrySnapshot snapshot = registry.publish(loadDefinitions());
+        // The previous snapshot's placeholders that aren't used anymore stop being cached and refreshed.
+        placeholders.prune(load);
+        syncRegistrations(snapshot);
+        actionExecutor.getCommandTargets().invalidate();
+        updateCommandList(snapshot);
+        if (plugin.getConfig().getBoolean("lint.on-load", true)) {
+            plugin.getTaskScheduler().runAsync(this::logLintWarnings);
         }
+    }
 
-        return new CustomCommandData(name, permission, permissionMessage, usageMessage, aliases, cost, cooldown, rootActions, rootDelay, arguments);
+    /**
+     * Checks every command file with the {@link CommandLinter}. Only reads files, so it is safe to call off the main thread.
+     * @return What was found.
+     */
+    public LintReport lint() {
+        CommandLinter linter = new CommandLinter(plugin.getConfig().getInt("lint.max-lookups", 2));
+        return linter.lint(new File(plugin.getDataFolder(), "commands"));
     }
 
-    private Map<String, ArgumentNode> loadArgumentNodes(ConfigurationSection section) {
-        Map<String, ArgumentNode> nodes = new HashMap<>();
-        for (String key : section.getKeys(false)) {
-            ConfigurationSection argSection = section.getConfigurationSection(key);
-            if (argSection != null) {
-                nodes.put(key, loadArgumentNode(key, argSection));
-            }
+    private void logLintWarnings() {
+        LintReport report = lint();
+        int warnings = report.count(LintFinding.Severity.WARNING);
+        if (warnings == 0) return;
+        int logged = 0;
+        for (LintFinding finding : report.getFindings()) {
+            if (finding.getSeverity() != LintFinding.Severity.WARNING) continue;
+            if (logged++ == 20) break;
+            plugin.getLogger().warning(finding.toString());
         }
-        return nodes;
+        plugin.getLogger().warning(warnings + " problem(s) found in the command files"
+                + (warnings > 20 ? ", run '/customcommands lint' to see all of them." : "."));
     }
 
-    private ArgumentNode loadArgumentNode(String name, ConfigurationSection config) {
-        String permission = config.getString("permission");
-        String permissionMessage = config.getString("permission-message");
-        String type = config.getString("type");
-        String typeError = config.getString("type-error");
-
-        Map<String, Object> actions = null;
-        if (config.isConfigurationSection("actions")) {
-            actions = config.getConfigurationSection("actions").getValues(false);
+    /**
+     * Reads and compiles every command file without touching any server state,
+     * so it is safe to call off the main thread.
+     * @return The loaded command definitions, keyed by command name.
+     */
+    public Map<String, CustomCommandData> loadDefinitions() {
+        File commandsDir = new File(plugin.getDataFolder(), "commands");
+        if (!commandsDir.exists()) {
+            commandsDir.mkdirs();
         }
 
-        Map<String, Object> delay = null;
-        if (config.isConfigurationSection("delay")) {
-            delay = config.getConfigurationSection("delay").getValues(false);
-        }
+        // "bukkit" keeps the old MemorySection based loader around for compatibility.
+        boolean streaming = !"bukkit".equalsIgnoreCase(plugin.getConfig().getString("loader", "streaming"));
+        return packLoader.load(commandsDir, streaming);
+    }
 
-        Map<String, ArgumentNode> children = new HashMap<>();
-        if (config.isConfigurationSection("arguments")) {
-            children = loadArgumentNodes(config.getConfigurationSection("arguments"));
+    /**
+     * Registers commands that are new in the snapshot, drops the ones that are gone and
+     * updates the Bukkit properties of the rest in place. Commands only need to be
+     * re-registered when their aliases change, everything else is read from the snapshot.
+     * @param snapshot The freshly published snapshot.
+     */
+    private void syncRegistrations(RegistrySnapshot snapshot) {
+        if (commandMap == null) return;
+
+        Iterator<Map.Entry<String, DynamicCommand>> iterator = registeredCommands.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, DynamicCommand> entry = iterator.next();
+            CustomCommandData commandData = snapshot.get(entry.getKey());
+            if (commandData == null || !entry.getValue().getAliases().equals(commandData.getAliases())) {
+                unregisterCommand(entry.getKey());
+                iterator.remove();
+            }
         }
 
-        return new ArgumentNode(name, permission, permissionMessage, type, typeError, actions, delay, children);
+        for (CustomCommandData commandData : snapshot.getCommands().values()) {
+            DynamicCommand command = registeredCommands.get(commandData.getName());
+            if (command != null) {
+                command.applyProperties(commandData);
+                continue;
+            }
+
+            unregisterCommand(commandData.getName());
+            command = new DynamicCommand(commandData.getName(), registry, plugin.getEngine());
+            command.applyProperties(commandData);
+            commandMap.register(plugin.getName(), command);
+            registeredCommands.put(commandData.getName(), command);
+        }
     }
 
-    private void registerCommand(CustomCommandData commandData) {
-        if (commandMap == null) return;
+    /**
+     * Points the command list filter at the labels the snapshot's commands actually hold
+     * in the command map and resends the command list to everyone online.
+     * @param snapshot The freshly published snapshot.
+     */
+    private void updateCommandList(RegistrySnapshot snapshot) {
+        commandListFilter.setEnabled(plugin.getConfig().getBoolean("hide-unpermitted-commands", true));
+
+        Map<String, String> labelPermissions = new HashMap<>();
+        if (knownCommands != null) {
+            String prefix = plugin.getName().toLowerCase(Locale.ENGLISH) + ":";
+            for (DynamicCommand command : registeredCommands.values()) {
+                CustomCommandData commandData = snapshot.get(command.getName());
+                if (commandData == null || commandData.getPermission() == null) continue;
 
-        unregisterCommand(commandData.getName());
+                List<String> labels = new ArrayList<>();
+                labels.add(command.getName());
+                labels.addAll(command.getAliases());
+                for (String label : labels) {
+                    label = label.toLowerCase(Locale.ENGLISH);
+                    // Labels taken by another plugin's command stay theirs.
+                    for (String candidate : new String[]{label, prefix + label}) {
+                        if (knownCommands.get(candidate) == command) {
+                            labelPermissions.put(candidate, commandData.getPermission());
+                        }
+                    }
+                }
+            }
+        }
+        commandListFilter.update(labelPermissions);
 
-        DynamicCommand command = new DynamicCommand(commandData, actionExecutor, plugin);
-        commandMap.register(plugin.getName(), command);
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            plugin.getTaskScheduler().runForEntity(player, player::updateCommands);
+        }
     }
 
     private void unregisterCommand(String commandName) {
@@ -153,11 +246,11 @@ public class CommandManager {
                 unregisterCommand(cmdName);
             }
         }
+        registeredCommands.clear();
     }
 
     public void reloadCommands() {
         plugin.getLogger().info("Reloading all custom commands...");
-        unregisterAllCommands();
         loadCommands();
         plugin.getLogger().info("All custom commands have been reloaded.");
     }
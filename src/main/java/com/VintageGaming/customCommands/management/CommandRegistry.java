@@ -0,0 +1,30 @@
+package com.VintageGaming.customCommands.management;
+
+import com.VintageGaming.customCommands.model.CustomCommandData;
+
+import java.util.Map;
+
+/**
+ * Holds the current RegistrySnapshot behind a single volatile reference.
+ * Each load publishes a complete new snapshot, old ones become collectable
+ * once nothing references them anymore.
+ */
+public class CommandRegistry {
+
+    private volatile RegistrySnapshot current = RegistrySnapshot.EMPTY;
+
+    public RegistrySnapshot current() {
+        return current;
+    }
+
+    /**
+     * Atomically replaces the current snapshot.
+     * @param commands The command definitions of the new load, keyed by name.
+     * @return The published snapshot.
+     */
+    public synchronized RegistrySnapshot publish(Map<String, CustomCommandData> commands) {
+        RegistrySnapshot snapshot = new RegistrySnapshot(current.getEpoch() + 1, commands);
+        current = snapshot;
+        return snapshot;
+    }
+}
@@ -0,0 +1,44 @@
+package com.VintageGaming.customCommands.management;
+
+import com.VintageGaming.customCommands.model.CustomCommandData;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable view of every command definition produced by one load.
+ * Executions and tab completions read a snapshot without locking, and anything
+ * that outlives the call (such as a delay countdown) keeps the data it started with.
+ */
+public final class RegistrySnapshot {
+
+    public static final RegistrySnapshot EMPTY = new RegistrySnapshot(0, Collections.emptyMap());
+
+    private final long epoch;
+    private final Map<String, CustomCommandData> commands;
+
+    RegistrySnapshot(long epoch, Map<String, CustomCommandData> commands) {
+        this.epoch = epoch;
+        this.commands = Collections.unmodifiableMap(new LinkedHashMap<>(commands));
+    }
+
+    /**
+     * @return The load generation of this snapshot, increasing with every reload.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @param name The command name.
+     * @return The definition of the command, or null if it isn't part of this snapshot.
+     */
+    public CustomCommandData get(String name) {
+        return commands.get(name);
+    }
+
+    public Map<String, CustomCommandData> getCommands() {
+        return commands;
+    }
+}
@@ -0,0 +1,47 @@
+package com.VintageGaming.customCommands.model;
+
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
+
+import java.util.List;
+
+/**
+ * Everything that runs when a command path is matched: its compiled actions,
+ * its optional delay and the placeholder layout both were compiled against.
+ */
+public class ActionBlock {
+
+    private final PlaceholderLayout layout;
+    private final List<CompiledAction> actions;
+    private final CompiledDelay delay;
+
+    public ActionBlock(PlaceholderLayout layout, List<CompiledAction> actions, CompiledDelay delay) {
+        this.layout = layout;
+        this.actions = actions;
+        this.delay = delay;
+    }
+
+    // --- Getters ---
+
+    public PlaceholderLayout getLayout() {
+        return layout;
+    }
+
+    public List<CompiledAction> getActions() {
+        return actions;
+    }
+
+    public CompiledDelay getDelay() {
+        return delay;
+    }
+
+    public boolean hasDelay() {
+        return delay != null;
+    }
+
+    /**
+     * @return The number of slots an invocation of this block needs.
+     */
+    public int getSlotCount() {
+        return delay != null ? delay.getSecondsSlot() + 1 : layout.size();
+    }
+}
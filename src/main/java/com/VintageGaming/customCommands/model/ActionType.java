@@ -0,0 +1,91 @@
+package com.VintageGaming.customCommands.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The action types the {@code ActionExecutor} runs, with the shape of value each one expects.
+ * Compiling, running and linting command files all go by this list, a new action starts here.
+ */
+public enum ActionType {
+
+    CONSOLE("console", Value.LIST, false),
+    PLAYER("player", Value.LIST, true),
+    BROADCAST("broadcast", Value.LIST, false),
+    MESSAGE("message", Value.LIST, false),
+    SOUND("sound", Value.LIST, true),
+    IF("if", Value.BRANCHES, false),
+    TELEPORT("teleport", Value.FIELDS, false, "who", "toPlayer", "world", "x", "y", "z"),
+    BIG_TEXT("big_text", Value.FIELDS, true, "title", "subtitle"),
+    SMALL_TEXT("small_text", Value.TEXT, true),
+    AREA_SOUND("area_sound", Value.FIELDS, false, "sound", "volume", "pitch", "radius", "at", "world", "x", "y", "z"),
+    PARTICLE("particle", Value.FIELDS, false, "particle", "pattern", "radius", "points", "count", "offset", "speed",
+            "color", "size", "material", "view-radius", "at", "world", "x", "y", "z");
+
+    /**
+     * The shape of the value of an action in the command file.
+     */
+    public enum Value {
+        /** A list of lines, each run on its own. */
+        LIST,
+        /** A single string. */
+        TEXT,
+        /** A mapping of named fields. */
+        FIELDS,
+        /** One branch with a condition, or a list of them. */
+        BRANCHES
+    }
+
+    private final String key;
+    private final Value value;
+    private final boolean playerOnly;
+    private final List<String> fields;
+
+    ActionType(String key, Value value, boolean playerOnly, String... fields) {
+        this.key = key;
+        this.value = value;
+        this.playerOnly = playerOnly;
+        this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    /**
+     * @return The key of the action in command files.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public Value getValue() {
+        return value;
+    }
+
+    /**
+     * @return True if the action does nothing, or refuses to run, for senders that aren't players.
+     */
+    public boolean isPlayerOnly() {
+        return playerOnly;
+    }
+
+    /**
+     * @return The fields a {@link Value#FIELDS} action reads, empty for the other shapes.
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * @param key The key of an action in a command file.
+     * @return The action type, null if there is no such action.
+     */
+    public static ActionType of(String key) {
+        String lowerCase = key.toLowerCase(Locale.ROOT);
+        for (ActionType type : values()) {
+            if (type.key.equals(lowerCase)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,90 @@
+package com.VintageGaming.customCommands.model;
+
+import com.VintageGaming.customCommands.platform.PlayerLookup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The children of one node in a command tree, precompiled for matching arguments.
+ * Matches exactly like the interpreted {@code ArgumentMatcher.findMatchingNode}, but the
+ * {static} names are looked up in a map instead of being compared one by one, and the
+ * [placeholder] types are resolved up front. Every node shares this one class, which keeps the
+ * places matching arguments monomorphic; a hidden class generated per node is slower as soon as
+ * a few commands take turns there (HiddenClassDispatcherBenchmark in the tests).
+ */
+public final class ArgumentDispatcher {
+
+    public static final ArgumentDispatcher EMPTY = new ArgumentDispatcher(Collections.emptyMap());
+
+    private final Map<String, ArgumentNode> literals;
+    private final Map<String, ArgumentNode> statics;
+    private final ArgumentNode[] placeholders;
+    private final ArgumentType[] types;
+    private final ArgumentNode singlePlaceholder;
+
+    private ArgumentDispatcher(Map<String, ArgumentNode> children) {
+        this.literals = children;
+        Map<String, ArgumentNode> statics = new HashMap<>();
+        List<ArgumentNode> placeholders = new ArrayList<>();
+        for (ArgumentNode node : children.values()) {
+            if (node.isStaticPlaceholder()) {
+                String staticName = node.getName().substring(1, node.getName().length() - 1);
+                // The first one wins, like the linear search.
+                statics.putIfAbsent(staticName.toLowerCase(Locale.ROOT), node);
+            } else if (node.isPlaceholder()) {
+                placeholders.add(node);
+            }
+        }
+        this.statics = statics.isEmpty() ? Collections.emptyMap() : statics;
+        this.placeholders = placeholders.toArray(new ArgumentNode[0]);
+        this.types = new ArgumentType[this.placeholders.length];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = ArgumentType.of(this.placeholders[i].getType());
+        }
+        this.singlePlaceholder = this.placeholders.length == 1 ? this.placeholders[0] : null;
+    }
+
+    /**
+     * @param children The child nodes, keyed by name.
+     * @return The dispatcher of the children.
+     */
+    public static ArgumentDispatcher of(Map<String, ArgumentNode> children) {
+        return children.isEmpty() ? EMPTY : new ArgumentDispatcher(children);
+    }
+
+    /**
+     * @param arg The command argument string.
+     * @param players Where player and world arguments are looked up.
+     * @return The matched ArgumentNode, or null if no match is found.
+     */
+    public ArgumentNode match(String arg, PlayerLookup players) {
+        ArgumentNode node = literals.get(arg);
+        if (node != null) {
+            return node;
+        }
+        if (!statics.isEmpty()) {
+            node = statics.get(arg.toLowerCase(Locale.ROOT));
+            if (node != null) {
+                return node;
+            }
+        }
+        for (int i = 0; i < placeholders.length; i++) {
+            if (types[i].matches(arg, players)) {
+                return placeholders[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The only [placeholder] child, or null if there are none or several.
+     */
+    public ArgumentNode getSinglePlaceholder() {
+        return singlePlaceholder;
+    }
+}
@@ -5,23 +5,34 @@ import java.util.Map;
 public class ArgumentNode {
 
     private final String name;
+    private final String path;
     private final String permission;
     private final String permissionMessage;
     private final String type;
     private final String typeError;
-    private final Map<String, Object> actions;
-    private final Map<String, Object> delay;
+    private final boolean actions;
+    private final boolean delay;
     private final Map<String, ArgumentNode> children;
-
-    public ArgumentNode(String name, String permission, String permissionMessage, String type, String typeError, Map<String, Object> actions, Map<String, Object> delay, Map<String, ArgumentNode> children) {
+    private final ArgumentDispatcher dispatcher;
+    private final int slot;
+    private final ActionBlock actionBlock;
+
+    /**
+     * The raw 'actions' and 'delay' maps are only checked for content, what runs is the compiled action block.
+     */
+    public ArgumentNode(String name, String path, String permission, String permissionMessage, String type, String typeError, Map<String, Object> actions, Map<String, Object> delay, Map<String, ArgumentNode> children, int slot, ActionBlock actionBlock) {
         this.name = name;
+        this.path = path;
         this.permission = permission;
         this.permissionMessage = permissionMessage;
         this.type = type;
         this.typeError = typeError;
-        this.actions = actions;
-        this.delay = delay;
+        this.actions = actions != null && !actions.isEmpty();
+        this.delay = delay != null && !delay.isEmpty();
         this.children = children;
+        this.dispatcher = ArgumentDispatcher.of(children);
+        this.slot = slot;
+        this.actionBlock = actionBlock;
     }
 
     // --- Getters ---
@@ -30,6 +41,13 @@ public class ArgumentNode {
         return name;
     }
 
+    /**
+     * @return The full command path leading to this node, e.g. "example tp [player_to_move]".
+     */
+    public String getPath() {
+        return path;
+    }
+
     public String getPermission() {
         return permission;
     }
@@ -46,24 +64,34 @@ public class ArgumentNode {
         return typeError;
     }
 
-    public Map<String, Object> getActions() {
-        return actions;
+    public Map<String, ArgumentNode> getChildren() {
+        return children;
     }
 
-    public Map<String, Object> getDelay() {
-        return delay;
+    /**
+     * @return The child nodes, precompiled for matching arguments.
+     */
+    public ArgumentDispatcher getDispatcher() {
+        return dispatcher;
     }
 
-    public Map<String, ArgumentNode> getChildren() {
-        return children;
+    /**
+     * @return The placeholder slot the argument value is bound to, or -1 if this node is not a [placeholder].
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    public ActionBlock getActionBlock() {
+        return actionBlock;
     }
 
     public boolean hasActions() {
-        return actions != null && !actions.isEmpty();
+        return actions;
     }
 
     public boolean hasDelay() {
-        return delay != null && !delay.isEmpty();
+        return delay;
     }
 
     public boolean isPlaceholder() {
@@ -0,0 +1,103 @@
+package com.VintageGaming.customCommands.model;
+
+import com.VintageGaming.customCommands.platform.PlayerLookup;
+
+import java.util.Locale;
+
+/**
+ * The types a [placeholder] argument can be declared with. Resolved once when the
+ * command is loaded, so matching an argument doesn't have to look at the type name.
+ */
+public enum ArgumentType {
+
+    TEXT {
+        @Override
+        public boolean matches(String input, PlayerLookup players) {
+            return true;
+        }
+    },
+    ONLINE_PLAYER {
+        @Override
+        public boolean matches(String input, PlayerLookup players) {
+            return players.getPlayerExact(input) != null;
+        }
+    },
+    INTEGER {
+        @Override
+        public boolean matches(String input, PlayerLookup players) {
+            // Rule out anything that isn't digits first, a NumberFormatException is far more expensive.
+            int start = input.length() > 1 && (input.charAt(0) == '-' || input.charAt(0) == '+') ? 1 : 0;
+            if (start == input.length()) return false;
+            for (int i = start; i < input.length(); i++) {
+                if (!Character.isDigit(input.charAt(i))) return false;
+            }
+            try {
+                Integer.parseInt(input);
+                return true;
+            } catch (NumberFormatException e) {
+                return false; // Out of range.
+            }
+        }
+    },
+    DOUBLE {
+        @Override
+        public boolean matches(String input, PlayerLookup players) {
+            try {
+                Double.parseDouble(input);
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    },
+    PLAYER {
+        @Override
+        public boolean matches(String input, PlayerLookup players) {
+            return players.hasPlayedBefore(input);
+        }
+    },
+    WORLD {
+        @Override
+        public boolean matches(String input, PlayerLookup players) {
+            return players.getWorld(input) != null;
+        }
+    };
+
+    /**
+     * @param input The user's input.
+     * @param players Where player and world arguments are looked up.
+     * @return True if the input is valid for this type.
+     */
+    public abstract boolean matches(String input, PlayerLookup players);
+
+    private final String key = name().toLowerCase(Locale.ROOT);
+
+    /**
+     * @return The name of the type in command files, e.g. "online_player".
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @param type The type name from the command file, may be null.
+     * @return The type, "text" or any unrecognized type accepts any input.
+     */
+    public static ArgumentType of(String type) {
+        ArgumentType known = type != null ? find(type) : null;
+        return known != null ? known : TEXT;
+    }
+
+    /**
+     * @param type A type name from a command file.
+     * @return The type of that name ignoring case, null if there is none.
+     */
+    public static ArgumentType find(String type) {
+        for (ArgumentType argumentType : values()) {
+            if (argumentType.key.equalsIgnoreCase(type)) {
+                return argumentType;
+            }
+        }
+        return null;
+    }
+}
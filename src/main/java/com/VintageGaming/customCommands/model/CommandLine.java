@@ -0,0 +1,112 @@
+package com.VintageGaming.customCommands.model;
+
+import com.VintageGaming.customCommands.placeholder.PlaceholderService;
+import com.VintageGaming.customCommands.template.BoundContext;
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
+import com.VintageGaming.customCommands.template.Template;
+import org.bukkit.ChatColor;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * A line of a 'console' or 'player' action, split into its command label and
+ * argument templates when the command is loaded, so running it doesn't have to
+ * split the rendered line again.
+ */
+public class CommandLine {
+
+    // The same split the command map applies to a command line.
+    private static final Pattern SPACE = Pattern.compile(" ");
+    private static final String[] NO_ARGS = new String[0];
+
+    private final Template line;
+    private final boolean command;
+    private final Template label;
+    private final String constantLabel;
+    private final Template[] args;
+
+    private CommandLine(Template line, boolean command, Template label, Template[] args) {
+        this.line = line;
+        this.command = command;
+        this.label = label;
+        this.constantLabel = label != null && label.isConstant() ? normalizeLabel(label.getSource()) : null;
+        this.args = args;
+    }
+
+    /**
+     * @param raw The line as written in the command file, its '&' color codes are translated here.
+     * @param playerLine True for 'player' lines, which only run a command when they start with a '/'.
+     * @param layout The placeholder layout of the command path.
+     * @param placeholders The service dynamic placeholders are bound through, may be null.
+     * @return The compiled line.
+     */
+    public static CommandLine compile(String raw, boolean playerLine, PlaceholderLayout layout, PlaceholderService placeholders) {
+        String colored = ChatColor.translateAlternateColorCodes('&', raw);
+        Template line = Template.compile(colored, layout, placeholders);
+        String commandLine = colored;
+        if (playerLine) {
+            if (!colored.startsWith("/")) {
+                // Said in chat.
+                return new CommandLine(line, false, null, null);
+            }
+            commandLine = colored.substring(1);
+        }
+
+        String[] parts = SPACE.split(commandLine);
+        // A console line starting with '/' or an empty one is left to the server as written.
+        if (parts.length == 0 || parts[0].isEmpty() || parts[0].startsWith("/")) {
+            return new CommandLine(line, false, null, null);
+        }
+        Template[] args = new Template[parts.length - 1];
+        for (int i = 1; i < parts.length; i++) {
+            args[i - 1] = Template.compile(parts[i], layout, placeholders);
+        }
+        return new CommandLine(line, true, Template.compile(parts[0], layout, placeholders), args);
+    }
+
+    /**
+     * @return False for lines that aren't a command, like player chat messages.
+     */
+    public boolean isCommand() {
+        return command;
+    }
+
+    /**
+     * @return The whole line, with the leading '/' of player commands.
+     */
+    public Template getLine() {
+        return line;
+    }
+
+    /**
+     * @param context The bound placeholders of the invocation.
+     * @return The command label, lower case like the command map expects it.
+     */
+    public String renderLabel(BoundContext context) {
+        return constantLabel != null ? constantLabel : normalizeLabel(label.render(context));
+    }
+
+    /**
+     * @param context The bound placeholders of the invocation.
+     * @return The arguments, split exactly like the rendered line would be.
+     */
+    public String[] renderArgs(BoundContext context) {
+        if (args.length == 0) return NO_ARGS;
+        String[] rendered = new String[args.length];
+        boolean resplit = false;
+        for (int i = 0; i < args.length; i++) {
+            rendered[i] = args[i].render(context);
+            resplit |= rendered[i].indexOf(' ') >= 0;
+        }
+        // A value with spaces becomes several arguments, and trailing empty ones are dropped.
+        if (resplit || rendered[rendered.length - 1].isEmpty()) {
+            return SPACE.split(String.join(" ", rendered));
+        }
+        return rendered;
+    }
+
+    private static String normalizeLabel(String label) {
+        return label.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,146 @@
+package com.VintageGaming.customCommands.model;
+
+import com.VintageGaming.customCommands.template.Template;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single action of a command path with its values compiled into templates.
+ * Depending on the action type only one of lines, text, fields or branches is set.
+ * 'console' and 'player' actions also carry their lines split into commands,
+ * 'area_sound' and 'particle' actions their effect resolved next to the fields.
+ */
+public class CompiledAction {
+
+    private final String type;
+    private final ActionType actionType;
+    private final List<Template> lines;
+    private final Template text;
+    private final Map<String, Template> fields;
+    private final List<CompiledBranch> branches;
+    private final List<CommandLine> commandLines;
+    private final CompiledEffect effect;
+
+    private CompiledAction(Builder builder) {
+        this.type = builder.type;
+        this.actionType = ActionType.of(builder.type);
+        this.lines = builder.lines;
+        this.text = builder.text;
+        this.fields = builder.fields;
+        this.branches = builder.branches;
+        this.commandLines = builder.commandLines;
+        this.effect = builder.effect;
+    }
+
+    /**
+     * @param type The action name as written in the command file, lower case.
+     * @return A builder for an action of that type with nothing set.
+     */
+    public static Builder builder(String type) {
+        return new Builder(type);
+    }
+
+    // --- Getters ---
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return The type of the action, null if there is no action of that name.
+     */
+    public ActionType getActionType() {
+        return actionType;
+    }
+
+    public List<Template> getLines() {
+        return lines;
+    }
+
+    public Template getText() {
+        return text;
+    }
+
+    public Map<String, Template> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return The branches of an 'if' action, in the order they are evaluated.
+     */
+    public List<CompiledBranch> getBranches() {
+        return branches;
+    }
+
+    /**
+     * @return The lines of a 'console' or 'player' action split into command label and arguments,
+     *         in the same order as the lines.
+     */
+    public List<CommandLine> getCommandLines() {
+        return commandLines;
+    }
+
+    /**
+     * @return The sound or particle of an 'area_sound' or 'particle' action, null if it was invalid.
+     */
+    public CompiledEffect getEffect() {
+        return effect;
+    }
+
+    public Template getField(String key) {
+        return fields != null ? fields.get(key) : null;
+    }
+
+    /**
+     * Collects the parts of an action, only the ones its value compiled to need to be set.
+     */
+    public static final class Builder {
+
+        private final String type;
+        private List<Template> lines;
+        private Template text;
+        private Map<String, Template> fields;
+        private List<CompiledBranch> branches;
+        private List<CommandLine> commandLines;
+        private CompiledEffect effect;
+
+        private Builder(String type) {
+            this.type = type;
+        }
+
+        public Builder lines(List<Template> lines) {
+            this.lines = lines;
+            return this;
+        }
+
+        public Builder text(Template text) {
+            this.text = text;
+            return this;
+        }
+
+        public Builder fields(Map<String, Template> fields) {
+            this.fields = fields;
+            return this;
+        }
+
+        public Builder branches(List<CompiledBranch> branches) {
+            this.branches = branches;
+            return this;
+        }
+
+        public Builder commandLines(List<CommandLine> commandLines) {
+            this.commandLines = commandLines;
+            return this;
+        }
+
+        public Builder effect(CompiledEffect effect) {
+            this.effect = effect;
+            return this;
+        }
+
+        public CompiledAction build() {
+            return new CompiledAction(this);
+        }
+    }
+}
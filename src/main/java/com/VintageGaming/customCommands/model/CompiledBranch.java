@@ -0,0 +1,54 @@
+package com.VintageGaming.customCommands.model;
+
+import com.VintageGaming.customCommands.condition.Condition;
+import com.VintageGaming.customCommands.template.BoundContext;
+
+import java.util.List;
+
+/**
+ * One branch of an 'if' action: the compiled condition and the actions
+ * to run when it holds or doesn't.
+ */
+public class CompiledBranch {
+
+    private final String source;
+    private final Condition condition;
+    private final List<CompiledAction> thenActions;
+    private final List<CompiledAction> elseActions;
+
+    public CompiledBranch(String source, Condition condition, List<CompiledAction> thenActions, List<CompiledAction> elseActions) {
+        this.source = source;
+        this.condition = condition;
+        this.thenActions = thenActions;
+        this.elseActions = elseActions;
+    }
+
+    /**
+     * @param context The bound placeholders of the invocation.
+     * @return The actions to run for the given invocation.
+     */
+    public List<CompiledAction> select(BoundContext context) {
+        return condition.test(context) ? thenActions : elseActions;
+    }
+
+    // --- Getters ---
+
+    /**
+     * @return The condition as written in the command file.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public Condition getCondition() {
+        return condition;
+    }
+
+    public List<CompiledAction> getThenActions() {
+        return thenActions;
+    }
+
+    public List<CompiledAction> getElseActions() {
+        return elseActions;
+    }
+}
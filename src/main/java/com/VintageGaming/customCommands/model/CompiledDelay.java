@@ -0,0 +1,59 @@
+package com.VintageGaming.customCommands.model;
+
+import java.util.List;
+
+/**
+ * The compiled 'delay' block of a command path.
+ */
+public class CompiledDelay {
+
+    private final long ticks;
+    private final List<CompiledAction> perSecondActions;
+    private final int secondsSlot;
+    private final double cancelDistance;
+    private final Boolean cancelOnDamage;
+
+    public CompiledDelay(long ticks, List<CompiledAction> perSecondActions, int secondsSlot) {
+        this(ticks, perSecondActions, secondsSlot, -1, null);
+    }
+
+    public CompiledDelay(long ticks, List<CompiledAction> perSecondActions, int secondsSlot, double cancelDistance, Boolean cancelOnDamage) {
+        this.ticks = ticks;
+        this.perSecondActions = perSecondActions;
+        this.secondsSlot = secondsSlot;
+        this.cancelDistance = cancelDistance;
+        this.cancelOnDamage = cancelOnDamage;
+    }
+
+    // --- Getters ---
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public List<CompiledAction> getPerSecondActions() {
+        return perSecondActions;
+    }
+
+    /**
+     * @return The slot {seconds_remaining} is bound to while counting down.
+     */
+    public int getSecondsSlot() {
+        return secondsSlot;
+    }
+
+    /**
+     * @return How far (in blocks) the player may move before the countdown is cancelled,
+     *         0 to never cancel it, or -1 to use the default from the config.
+     */
+    public double getCancelDistance() {
+        return cancelDistance;
+    }
+
+    /**
+     * @return Whether taking damage cancels the countdown, or null to use the default from the config.
+     */
+    public Boolean getCancelOnDamage() {
+        return cancelOnDamage;
+    }
+}
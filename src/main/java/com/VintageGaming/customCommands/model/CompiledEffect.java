@@ -0,0 +1,135 @@
+package com.VintageGaming.customCommands.model;
+
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+
+/**
+ * The fixed part of an 'area_sound' or 'particle' action, resolved when the command is loaded:
+ * the sound or particle with its data, and for particles the offsets of every point of the pattern.
+ * Only the center is bound when the action runs.
+ */
+public final class CompiledEffect {
+
+    private final double radius;
+    private final Sound sound;
+    private final float volume;
+    private final float pitch;
+    private final Particle particle;
+    private final Object data;
+    private final int count;
+    private final double offsetX;
+    private final double offsetY;
+    private final double offsetZ;
+    private final double speed;
+    private final double[] points;
+
+    private CompiledEffect(double radius, Sound sound, float volume, float pitch, Particle particle, Object data,
+                           int count, double offsetX, double offsetY, double offsetZ, double speed, double[] points) {
+        this.radius = radius;
+        this.sound = sound;
+        this.volume = volume;
+        this.pitch = pitch;
+        this.particle = particle;
+        this.data = data;
+        this.count = count;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.offsetZ = offsetZ;
+        this.speed = speed;
+        this.points = points;
+    }
+
+    /**
+     * @param radius Players within this many blocks of the center hear the sound.
+     */
+    public static CompiledEffect sound(double radius, Sound sound, float volume, float pitch) {
+        return new CompiledEffect(radius, sound, volume, pitch, null, null, 0, 0, 0, 0, 0, null);
+    }
+
+    /**
+     * @param radius Players within this many blocks of the center see the particles.
+     * @param data The particle's data matching {@link Particle#getDataType()}, null for particles without data.
+     * @param count The particles spawned at every point.
+     * @param points The offsets of the points from the center as x, y, z triples.
+     */
+    public static CompiledEffect particle(double radius, Particle particle, Object data, int count,
+                                          double offsetX, double offsetY, double offsetZ, double speed, double[] points) {
+        return new CompiledEffect(radius, null, 0, 0, particle, data, count, offsetX, offsetY, offsetZ, speed, points);
+    }
+
+    /**
+     * @return How far from the center players get the effect, in blocks.
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * @return The sound, null for particles.
+     */
+    public Sound getSound() {
+        return sound;
+    }
+
+    public float getVolume() {
+        return volume;
+    }
+
+    public float getPitch() {
+        return pitch;
+    }
+
+    /**
+     * @return How far from where it plays the client still hears the sound, in blocks.
+     */
+    public double getAudibleRange() {
+        return 16 * Math.max(1, volume);
+    }
+
+    /**
+     * @return The particle, null for sounds.
+     */
+    public Particle getParticle() {
+        return particle;
+    }
+
+    public Object getData() {
+        return data;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getOffsetX() {
+        return offsetX;
+    }
+
+    public double getOffsetY() {
+        return offsetY;
+    }
+
+    public double getOffsetZ() {
+        return offsetZ;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * @return The number of points of the pattern.
+     */
+    public int getPointCount() {
+        return points != null ? points.length / 3 : 0;
+    }
+
+    /**
+     * @param point The index of a point of the pattern.
+     * @param axis 0 for x, 1 for y, 2 for z.
+     * @return The offset of the point from the center along the axis.
+     */
+    public double getPointOffset(int point, int axis) {
+        return points[point * 3 + axis];
+    }
+}
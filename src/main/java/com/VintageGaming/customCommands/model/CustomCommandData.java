@@ -12,11 +12,17 @@ public class CustomCommandData {
     private final List<String> aliases;
     private final double cost;
     private final String cooldown;
-    private final Map<String, Object> rootActions;
-    private final Map<String, Object> rootDelay;
+    private final boolean rootActions;
+    private final boolean rootDelay;
     private final Map<String, ArgumentNode> arguments;
-
-    public CustomCommandData(String name, String permission, String permissionMessage, String usageMessage, List<String> aliases, double cost, String cooldown, Map<String, Object> rootActions, Map<String, Object> rootDelay, Map<String, ArgumentNode> arguments) {
+    private final ArgumentDispatcher dispatcher;
+    private final ActionBlock rootBlock;
+    private final int slotCount;
+
+    /**
+     * The raw 'actions' and 'delay' maps are only checked for content, what runs is the compiled root block.
+     */
+    public CustomCommandData(String name, String permission, String permissionMessage, String usageMessage, List<String> aliases, double cost, String cooldown, Map<String, Object> rootActions, Map<String, Object> rootDelay, Map<String, ArgumentNode> arguments, ActionBlock rootBlock, int slotCount) {
         this.name = name;
         this.permission = permission;
         this.permissionMessage = permissionMessage;
@@ -24,9 +30,12 @@ public class CustomCommandData {
         this.aliases = aliases;
         this.cost = cost;
         this.cooldown = cooldown;
-        this.rootActions = rootActions;
-        this.rootDelay = rootDelay;
+        this.rootActions = rootActions != null && !rootActions.isEmpty();
+        this.rootDelay = rootDelay != null && !rootDelay.isEmpty();
         this.arguments = arguments;
+        this.dispatcher = ArgumentDispatcher.of(arguments);
+        this.rootBlock = rootBlock;
+        this.slotCount = slotCount;
     }
 
     // --- Getters ---
@@ -59,23 +68,33 @@ public class CustomCommandData {
         return cooldown;
     }
 
-    public Map<String, Object> getRootActions() {
-        return rootActions;
+    public Map<String, ArgumentNode> getArguments() {
+        return arguments;
     }
 
-    public Map<String, Object> getRootDelay() {
-        return rootDelay;
+    /**
+     * @return The top-level argument nodes, precompiled for matching arguments.
+     */
+    public ArgumentDispatcher getDispatcher() {
+        return dispatcher;
     }
 
-    public Map<String, ArgumentNode> getArguments() {
-        return arguments;
+    public ActionBlock getRootBlock() {
+        return rootBlock;
+    }
+
+    /**
+     * @return The size of the placeholder array needed by the deepest path of this command.
+     */
+    public int getSlotCount() {
+        return slotCount;
     }
 
     public boolean hasRootActions() {
-        return rootActions != null && !rootActions.isEmpty();
+        return rootActions;
     }
 
     public boolean hasRootDelay() {
-        return rootDelay != null && !rootDelay.isEmpty();
+        return rootDelay;
     }
 }
@@ -0,0 +1,65 @@
+package com.VintageGaming.customCommands.model;
+
+import java.util.Locale;
+
+/**
+ * The shape a 'particle' action draws around its center.
+ */
+public enum EffectPattern {
+
+    /** Everything at the center. */
+    POINT,
+    /** Points spread evenly on a flat ring. */
+    CIRCLE,
+    /** Points spread evenly over the surface of a ball. */
+    SPHERE;
+
+    private static final double GOLDEN_ANGLE = Math.PI * (3 - Math.sqrt(5));
+
+    /**
+     * Computes where the particles go, relative to the center.
+     * @param radius The radius of the shape in blocks.
+     * @param points How many points to spread over the shape, a point pattern always has one.
+     * @return The offsets as x, y, z triples.
+     */
+    public double[] offsets(double radius, int points) {
+        if (this == POINT) {
+            return new double[3];
+        }
+        double[] offsets = new double[points * 3];
+        for (int i = 0; i < points; i++) {
+            double x;
+            double y;
+            double z;
+            if (this == CIRCLE) {
+                double angle = 2 * Math.PI * i / points;
+                x = Math.cos(angle);
+                y = 0;
+                z = Math.sin(angle);
+            } else {
+                // A Fibonacci lattice, evenly spread without clustering at the poles.
+                y = 1 - 2 * (i + 0.5) / points;
+                double ring = Math.sqrt(1 - y * y);
+                double angle = GOLDEN_ANGLE * i;
+                x = ring * Math.cos(angle);
+                z = ring * Math.sin(angle);
+            }
+            offsets[i * 3] = x * radius;
+            offsets[i * 3 + 1] = y * radius;
+            offsets[i * 3 + 2] = z * radius;
+        }
+        return offsets;
+    }
+
+    /**
+     * @param name The name of a pattern in a command file, e.g. "circle".
+     * @return The pattern, null if there is no such pattern.
+     */
+    public static EffectPattern of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.VintageGaming.customCommands.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event covering a single action run by the ActionExecutor.
+ */
+@Name("customcommands.ActionExecution")
+@Label("Custom Command Action")
+@Category({"CustomCommands"})
+@Description("A single action (console, message, teleport, ...) of a custom command.")
+@Enabled(false)
+@StackTrace(false)
+public class ActionExecutionEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Action Type")
+    public String actionType;
+
+    @Label("Target")
+    public String target;
+}
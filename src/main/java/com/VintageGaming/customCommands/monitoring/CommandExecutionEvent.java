@@ -0,0 +1,35 @@
+package com.VintageGaming.customCommands.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event covering one call to DynamicCommand#execute.
+ * Disabled by default, enable it in a JFR settings file with
+ * "customcommands.CommandExecution#enabled=true".
+ */
+@Name("customcommands.CommandExecution")
+@Label("Custom Command Execution")
+@Category({"CustomCommands"})
+@Description("A custom command dispatched by a player or the console.")
+@Enabled(false)
+@StackTrace(false)
+public class CommandExecutionEvent extends Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Sender Type")
+    public String senderType;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,34 @@
+package com.VintageGaming.customCommands.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event covering one firing of a delay countdown,
+ * either a per-second step or the final run of the main actions.
+ */
+@Name("customcommands.DelayedAction")
+@Label("Custom Command Delay Step")
+@Category({"CustomCommands"})
+@Description("A countdown step or the final firing of a delayed custom command.")
+@Enabled(false)
+@StackTrace(false)
+public class DelayedActionEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Target")
+    public String target;
+
+    @Label("Seconds Remaining")
+    public long secondsRemaining;
+
+    @Label("Final")
+    public boolean finalStep;
+}
@@ -0,0 +1,118 @@
+package com.VintageGaming.customCommands.monitoring;
+
+import com.VintageGaming.customCommands.CommandEngine;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Writes commands and actions that take longer than the configured threshold
+ * to a rotating log file in the plugin's "logs" folder.
+ */
+public class SlowActionLog {
+
+    private final CommandEngine engine;
+    private final Logger logger;
+    private FileHandler handler;
+    private long thresholdNanos;
+
+    public SlowActionLog(CommandEngine engine) {
+        this.engine = engine;
+        this.logger = Logger.getLogger("CustomCommands-SlowActions");
+        this.logger.setUseParentHandlers(false);
+    }
+
+    /**
+     * (Re)applies the "monitoring" section of the config.
+     * A threshold of 0 or less disables the log entirely.
+     * @param config The monitoring section, may be null.
+     */
+    public void configure(ConfigurationSection config) {
+        close();
+        long thresholdMillis = config != null ? config.getLong("slow-action-threshold-ms", 0) : 0;
+        if (thresholdMillis <= 0) {
+            return;
+        }
+
+        int maxSizeKb = config.getInt("slow-log.max-size-kb", 1024);
+        int files = config.getInt("slow-log.files", 5);
+
+        File logsDir = new File(engine.getDataFolder(), "logs");
+        if (!logsDir.exists()) {
+            logsDir.mkdirs();
+        }
+
+        try {
+            String pattern = new File(logsDir, "slow-actions.%g.log").getPath();
+            handler = new FileHandler(pattern, Math.max(1, maxSizeKb) * 1024, Math.max(1, files), true);
+            handler.setFormatter(new LineFormatter());
+            logger.addHandler(handler);
+            thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        } catch (IOException e) {
+            engine.getLogger().warning("Could not open slow action log: " + e.getMessage());
+            handler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return thresholdNanos > 0;
+    }
+
+    /**
+     * Logs a whole command execution if it exceeded the threshold.
+     * @param path The matched command path.
+     * @param sender The name of the sender.
+     * @param outcome The outcome of the execution.
+     * @param nanos The time spent in nanoseconds.
+     */
+    public void recordCommand(String path, String sender, String outcome, long nanos) {
+        if (thresholdNanos > 0 && nanos >= thresholdNanos) {
+            logger.info("command /" + path + " by " + sender + " (" + outcome + ") took " + formatMillis(nanos) + "ms");
+        }
+    }
+
+    /**
+     * Logs a single action if it exceeded the threshold.
+     * @param path The command path the action belongs to.
+     * @param actionType The action type (e.g. "console").
+     * @param sender The name of the sender.
+     * @param nanos The time spent in nanoseconds.
+     */
+    public void recordAction(String path, String actionType, String sender, long nanos) {
+        if (thresholdNanos > 0 && nanos >= thresholdNanos) {
+            logger.info("action '" + actionType + "' in /" + path + " for " + sender + " took " + formatMillis(nanos) + "ms");
+        }
+    }
+
+    public void close() {
+        thresholdNanos = 0;
+        if (handler != null) {
+            logger.removeHandler(handler);
+            handler.close();
+            handler = null;
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+
+    private static class LineFormatter extends Formatter {
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+
+        @Override
+        public synchronized String format(LogRecord record) {
+            String prefix = record.getLevel() == Level.INFO ? "" : record.getLevel().getName() + " ";
+            return "[" + dateFormat.format(new Date(record.getMillis())) + "] " + prefix + record.getMessage() + System.lineSeparator();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.VintageGaming.customCommands.parser;
+
+import com.VintageGaming.customCommands.condition.Condition;
+import com.VintageGaming.customCommands.condition.ConditionParseException;
+import com.VintageGaming.customCommands.condition.ConditionParser;
+import com.VintageGaming.customCommands.condition.Conditions;
+import com.VintageGaming.customCommands.lang.MessageCatalog;
+import com.VintageGaming.customCommands.model.ActionBlock;
+import com.VintageGaming.customCommands.model.ActionType;
+import com.VintageGaming.customCommands.model.ArgumentNode;
+import com.VintageGaming.customCommands.model.CommandLine;
+import com.VintageGaming.customCommands.model.CompiledAction;
+import com.VintageGaming.customCommands.model.CompiledBranch;
+import com.VintageGaming.customCommands.model.CompiledDelay;
+import com.VintageGaming.customCommands.placeholder.PlaceholderService;
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
+import com.VintageGaming.customCommands.template.Template;
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Compiles the raw 'actions' and 'delay' maps of a command path into an ActionBlock,
+ * so nothing has to be copied or searched again when the command is executed.
+ */
+public class ActionCompiler {
+
+    private final PlaceholderService placeholders;
+    private final MessageCatalog messages;
+    private final Logger logger;
+
+    public ActionCompiler() {
+        this(null, null, null);
+    }
+
+    /**
+     * @param placeholders The service dynamic placeholders like {balance} are bound through, may be null.
+     * @param messages The catalog {lang:key} messages are looked up in, may be null.
+     * @param logger The logger problems with conditions are reported to, may be null.
+     */
+    public ActionCompiler(PlaceholderService placeholders, MessageCatalog messages, Logger logger) {
+        this.placeholders = placeholders;
+        this.messages = messages;
+        this.logger = logger != null ? logger : Logger.getLogger(ActionCompiler.class.getName());
+    }
+
+    /**
+     * @param actions The raw 'actions' map, may be null.
+     * @param delay The raw 'delay' map, may be null.
+     * @param layout The placeholder layout of the command path.
+     * @return The compiled block.
+     */
+    public ActionBlock compile(Map<String, Object> actions, Map<String, Object> delay, PlaceholderLayout layout) {
+        List<CompiledAction> compiledActions = compileActions(actions, layout);
+
+        CompiledDelay compiledDelay = null;
+        if (delay != null && !delay.isEmpty()) {
+            PlaceholderLayout delayLayout = layout.extend(PlaceholderLayout.SECONDS_REMAINING);
+            long ticks = parseTicks(delay.get("length") instanceof String ? (String) delay.get("length") : null);
+            List<CompiledAction> perSecondActions = compileActions(asMap(delay.get("per_second-actions")), delayLayout);
+            compiledDelay = new CompiledDelay(ticks, perSecondActions, delayLayout.size() - 1,
+                    parseCancelDistance(delay.get("cancel-on-move")),
+                    parseCancelOnDamage(delay.get("cancel-on-damage")));
+        }
+
+        return new ActionBlock(layout, compiledActions, compiledDelay);
+    }
+
+    /**
+     * @param name The name of an argument node.
+     * @param parentLayout The layout of its parent.
+     * @return The layout of the node, [placeholder] nodes bind their value to the next free slot of the path.
+     */
+    public PlaceholderLayout layoutOf(String name, PlaceholderLayout parentLayout) {
+        if (name.startsWith("[") && name.endsWith("]")) {
+            return parentLayout.extend(name);
+        }
+        return parentLayout;
+    }
+
+    /**
+     * @param rootBlock The compiled root actions of a command.
+     * @param arguments The argument tree of the command.
+     * @return The size of the placeholder array needed by the deepest path of the command.
+     */
+    public int countSlots(ActionBlock rootBlock, Map<String, ArgumentNode> arguments) {
+        return Math.max(rootBlock.getSlotCount(), countSlots(arguments));
+    }
+
+    private int countSlots(Map<String, ArgumentNode> nodes) {
+        int slots = 0;
+        for (ArgumentNode node : nodes.values()) {
+            slots = Math.max(slots, Math.max(node.getActionBlock().getSlotCount(), countSlots(node.getChildren())));
+        }
+        return slots;
+    }
+
+    private List<CompiledAction> compileActions(Map<String, Object> actions, PlaceholderLayout layout) {
+        if (actions == null || actions.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<CompiledAction> compiled = new ArrayList<>(actions.size());
+        for (Map.Entry<String, Object> entry : actions.entrySet()) {
+            compiled.add(compileAction(entry.getKey().toLowerCase(), entry.getValue(), layout));
+        }
+        return Collections.unmodifiableList(compiled);
+    }
+
+    private CompiledAction compileAction(String type, Object value, PlaceholderLayout layout) {
+        ActionType actionType = ActionType.of(type);
+        CompiledAction.Builder action = CompiledAction.builder(type);
+        if (actionType == ActionType.IF) {
+            return action.branches(compileBranches(value, layout)).build();
+        }
+
+        if (value instanceof List && (actionType == ActionType.CONSOLE || actionType == ActionType.PLAYER)) {
+            List<Template> lines = new ArrayList<>();
+            List<CommandLine> commandLines = new ArrayList<>();
+            for (Object line : (List<?>) value) {
+                CommandLine commandLine = CommandLine.compile(String.valueOf(line), actionType == ActionType.PLAYER, layout, placeholders);
+                lines.add(commandLine.getLine());
+                commandLines.add(commandLine);
+            }
+            action.lines(Collections.unmodifiableList(lines)).commandLines(Collections.unmodifiableList(commandLines));
+        } else if (value instanceof List) {
+            List<Template> lines = new ArrayList<>();
+            for (Object line : (List<?>) value) {
+                lines.add(template(String.valueOf(line), layout));
+            }
+            action.lines(Collections.unmodifiableList(lines));
+        } else if (value instanceof Map || value instanceof ConfigurationSection) {
+            Map<String, Template> fields = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> field : asMap(value).entrySet()) {
+                if (field.getValue() != null) {
+                    fields.put(field.getKey(), template(String.valueOf(field.getValue()), layout));
+                }
+            }
+            action.fields(Collections.unmodifiableMap(fields));
+            if (actionType == ActionType.AREA_SOUND || actionType == ActionType.PARTICLE) {
+                try {
+                    action.effect(EffectCompiler.compile(actionType, asMap(value)));
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Invalid '" + type + "' action: " + e.getMessage() + ". It is skipped.");
+                }
+            }
+        } else if (value instanceof String) {
+            action.text(template((String) value, layout));
+        }
+
+        return action.build();
+    }
+
+    /**
+     * Compiles a string of an action with its '&' color codes already translated, so sending it
+     * doesn't have to scan the rendered text again. Values filled in at run time are not colorized.
+     * Strings using {lang:key} messages are compiled once per locale, so rendering them only picks
+     * the variant of the sender's locale.
+     */
+    private Template template(String raw, PlaceholderLayout layout) {
+        if (messages == null || !messages.isLocalized(raw)) {
+            return Template.compile(ChatColor.translateAlternateColorCodes('&', raw), layout, placeholders);
+        }
+        Template[] variants = new Template[messages.getLocaleCount()];
+        for (int i = 0; i < variants.length; i++) {
+            variants[i] = Template.compile(ChatColor.translateAlternateColorCodes('&', messages.localize(raw, i)), layout, placeholders);
+        }
+        return Template.localized(raw, variants);
+    }
+
+    /**
+     * Compiles an 'if' action. Its value is either a single branch or a list of them:
+     * <pre>
+     * if:
+     *   condition: "[amount] > 100"
+     *   then:
+     *     message: [...]
+     *   else:
+     *     message: [...]
+     * </pre>
+     */
+    private List<CompiledBranch> compileBranches(Object value, PlaceholderLayout layout) {
+        List<Object> rawBranches = new ArrayList<>();
+        if (value instanceof List) {
+            rawBranches.addAll((List<?>) value);
+        } else if (value != null) {
+            rawBranches.add(value);
+        }
+
+        List<CompiledBranch> branches = new ArrayList<>(rawBranches.size());
+        for (Object rawBranch : rawBranches) {
+            Map<String, Object> branch = asMap(rawBranch);
+            if (branch.isEmpty()) {
+                logger.warning("An 'if' action needs a 'condition' and 'then' actions, ignoring it.");
+                continue;
+            }
+            String source = branch.get("condition") != null ? String.valueOf(branch.get("condition")) : "";
+            branches.add(new CompiledBranch(source, compileCondition(source, layout),
+                    compileActions(asMap(branch.get("then")), layout),
+                    compileActions(asMap(branch.get("else")), layout)));
+        }
+        return Collections.unmodifiableList(branches);
+    }
+
+    private Condition compileCondition(String source, PlaceholderLayout layout) {
+        if (source.trim().isEmpty()) {
+            logger.warning("An 'if' action is missing its 'condition', only its 'else' actions will run.");
+            return Conditions.FALSE;
+        }
+        try {
+            return new ConditionParser(source, layout, placeholders).parse();
+        } catch (ConditionParseException e) {
+            logger.warning("Invalid condition '" + source + "': " + e.getMessage() + ". Only its 'else' actions will run.");
+            return Conditions.FALSE;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> asMap(Object value) {
+        if (value instanceof Map) {
+            return (Map<String, Object>) value;
+        } else if (value instanceof ConfigurationSection) {
+            return ((ConfigurationSection) value).getValues(false);
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Parses the 'cancel-on-move' setting of a delay: a distance in blocks, true (or yes, on) for one block or false.
+     * @param value The raw value, may be null.
+     * @return The distance, 0 to never cancel, or -1 to use the default from the config.
+     */
+    private double parseCancelDistance(Object value) {
+        if (value == null) return -1;
+        String text = String.valueOf(value).trim();
+        Boolean flag = parseFlag(text);
+        if (flag != null) return flag ? 1 : 0;
+        try {
+            return Math.max(0, Double.parseDouble(text));
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid 'cancel-on-move' value '" + text + "', expected a distance in blocks, true or false.");
+            return -1;
+        }
+    }
+
+    /**
+     * Parses the 'cancel-on-damage' setting of a delay.
+     * @param value The raw value, may be null.
+     * @return Whether damage cancels the countdown, or null to use the default from the config.
+     */
+    private Boolean parseCancelOnDamage(Object value) {
+        if (value == null) return null;
+        String text = String.valueOf(value).trim();
+        Boolean flag = parseFlag(text);
+        if (flag == null) {
+            logger.warning("Invalid 'cancel-on-damage' value '" + text + "', expected true or false.");
+        }
+        return flag;
+    }
+
+    /**
+     * Reads the words YAML takes as a boolean the way the Bukkit loader does, so a quoted 'yes' means the same as yes.
+     * @param text The trimmed value.
+     * @return The flag, or null if the text is not a boolean.
+     */
+    private static Boolean parseFlag(String text) {
+        switch (text.toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "yes":
+            case "on":
+                return Boolean.TRUE;
+            case "false":
+            case "no":
+            case "off":
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Parses a delay length (e.g. "5 second") into ticks.
+     * @param timeString The string to parse.
+     * @return The length in ticks, or 0 if parsing fails.
+     */
+    private long parseTicks(String timeString) {
+        if (timeString == null || timeString.isEmpty()) return 0;
+        String[] parts = timeString.split(" ");
+        if (parts.length != 2) return 0;
+        try {
+            long amount = Long.parseLong(parts[0]);
+            String unit = parts[1].toLowerCase();
+            if (unit.startsWith("second")) return amount * 20;
+            if (unit.startsWith("minute")) return amount * 1200;
+            if (unit.startsWith("hour")) return amount * 72000;
+            return 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
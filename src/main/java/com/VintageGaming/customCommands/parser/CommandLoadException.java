@@ -0,0 +1,36 @@
+package com.VintageGaming.customCommands.parser;
+
+/**
+ * Thrown when a command file can't be turned into a command, with the position of the problem.
+ */
+public class CommandLoadException extends Exception {
+
+    private final String file;
+    private final int line;
+    private final int column;
+
+    /**
+     * @param file The name of the command file.
+     * @param line The 1-based line of the problem, or 0 if unknown.
+     * @param column The 1-based column of the problem, or 0 if unknown.
+     * @param problem A description of the problem.
+     */
+    public CommandLoadException(String file, int line, int column, String problem) {
+        super(line > 0 ? file + ":" + line + ":" + column + ": " + problem : file + ": " + problem);
+        this.file = file;
+        this.line = line;
+        this.column = column;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+}
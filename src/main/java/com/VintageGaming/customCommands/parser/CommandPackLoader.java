@@ -0,0 +1,132 @@
+package com.VintageGaming.customCommands.parser;
+
+import com.VintageGaming.customCommands.model.ActionBlock;
+import com.VintageGaming.customCommands.model.ArgumentNode;
+import com.VintageGaming.customCommands.model.CustomCommandData;
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Loads every command file of a folder. Only reads files, so it runs off the main thread
+ * and without a server.
+ */
+public class CommandPackLoader {
+
+    private final ActionCompiler actionCompiler;
+    private final YamlCommandLoader yamlLoader;
+    private final Logger logger;
+
+    public CommandPackLoader(ActionCompiler actionCompiler, Logger logger) {
+        this.actionCompiler = actionCompiler;
+        this.yamlLoader = new YamlCommandLoader(actionCompiler, logger);
+        this.logger = logger;
+    }
+
+    /**
+     * @param commandsDir The folder holding the command files.
+     * @param streaming True to load the files with the {@link YamlCommandLoader},
+     *                  false to go through Bukkit's YamlConfiguration like older versions did.
+     * @return The loaded command definitions, keyed by command name.
+     */
+    public Map<String, CustomCommandData> load(File commandsDir, boolean streaming) {
+        Map<String, CustomCommandData> definitions = new LinkedHashMap<>();
+        File[] commandFiles = commandsDir.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (commandFiles == null) return definitions;
+        // listFiles has no order, sorted so commands and their conflicts come out the same on every load.
+        Arrays.sort(commandFiles);
+
+        for (File file : commandFiles) {
+            String commandName = file.getName().replace(".yml", "");
+            if (!streaming) {
+                FileConfiguration config = YamlConfiguration.loadConfiguration(file);
+                definitions.put(commandName, loadCommandData(commandName, config));
+                continue;
+            }
+            try {
+                definitions.put(commandName, yamlLoader.load(commandName, file));
+            } catch (CommandLoadException e) {
+                logger.severe("Could not load command '" + commandName + "': " + e.getMessage());
+            }
+        }
+        return definitions;
+    }
+
+    private CustomCommandData loadCommandData(String name, FileConfiguration config) {
+        String permission = config.getString("permission");
+        String permissionMessage = config.getString("permission-message");
+        String usageMessage = config.getString("usage-message");
+        List<String> aliases = Collections.unmodifiableList(config.getStringList("aliases"));
+        double cost = config.getDouble("cost", 0);
+        String cooldown = config.getString("cooldown");
+
+        Map<String, Object> rootActions = null;
+        if (config.isConfigurationSection("actions")) {
+            rootActions = config.getConfigurationSection("actions").getValues(false);
+        }
+
+        Map<String, Object> rootDelay = null;
+        if (config.isConfigurationSection("delay")) {
+            rootDelay = config.getConfigurationSection("delay").getValues(false);
+        }
+
+        Map<String, ArgumentNode> arguments = Collections.emptyMap();
+        if (config.isConfigurationSection("arguments")) {
+            arguments = loadArgumentNodes(name, PlaceholderLayout.ROOT, config.getConfigurationSection("arguments"));
+        }
+
+        ActionBlock rootBlock = actionCompiler.compile(rootActions, rootDelay, PlaceholderLayout.ROOT);
+        int slotCount = actionCompiler.countSlots(rootBlock, arguments);
+
+        return new CustomCommandData(name, permission, permissionMessage, usageMessage, aliases, cost, cooldown, rootActions, rootDelay, arguments, rootBlock, slotCount);
+    }
+
+    private Map<String, ArgumentNode> loadArgumentNodes(String parentPath, PlaceholderLayout parentLayout, ConfigurationSection section) {
+        // In file order, sibling [placeholders] are tried in the order they are written.
+        Map<String, ArgumentNode> nodes = new LinkedHashMap<>();
+        for (String key : section.getKeys(false)) {
+            ConfigurationSection argSection = section.getConfigurationSection(key);
+            if (argSection != null) {
+                nodes.put(key, loadArgumentNode(key, parentPath + " " + key, parentLayout, argSection));
+            }
+        }
+        return Collections.unmodifiableMap(nodes);
+    }
+
+    private ArgumentNode loadArgumentNode(String name, String path, PlaceholderLayout parentLayout, ConfigurationSection config) {
+        String permission = config.getString("permission");
+        String permissionMessage = config.getString("permission-message");
+        String type = config.getString("type");
+        String typeError = config.getString("type-error");
+
+        Map<String, Object> actions = null;
+        if (config.isConfigurationSection("actions")) {
+            actions = config.getConfigurationSection("actions").getValues(false);
+        }
+
+        Map<String, Object> delay = null;
+        if (config.isConfigurationSection("delay")) {
+            delay = config.getConfigurationSection("delay").getValues(false);
+        }
+
+        PlaceholderLayout layout = actionCompiler.layoutOf(name, parentLayout);
+        int slot = layout != parentLayout ? layout.size() - 1 : -1;
+
+        Map<String, ArgumentNode> children = Collections.emptyMap();
+        if (config.isConfigurationSection("arguments")) {
+            children = loadArgumentNodes(path, layout, config.getConfigurationSection("arguments"));
+        }
+
+        ActionBlock actionBlock = actionCompiler.compile(actions, delay, layout);
+        return new ArgumentNode(name, path, permission, permissionMessage, type, typeError, actions, delay, children, slot, actionBlock);
+    }
+}
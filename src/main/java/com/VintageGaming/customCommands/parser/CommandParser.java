@@ -1,30 +1,34 @@
 package com.VintageGaming.customCommands.parser;
 
 import com.VintageGaming.customCommands.model.ArgumentNode;
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
 import org.bukkit.configuration.ConfigurationSection;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class CommandParser {
 
-    private Map<String, ArgumentNode> parseArguments(ConfigurationSection section) {
+    private final ActionCompiler actionCompiler = new ActionCompiler();
+
+    private Map<String, ArgumentNode> parseArguments(String parentPath, PlaceholderLayout parentLayout, ConfigurationSection section) {
         if (section == null) {
             return Collections.emptyMap();
         }
 
-        Map<String, ArgumentNode> nodes = new HashMap<>();
+        Map<String, ArgumentNode> nodes = new LinkedHashMap<>();
         for (String key : section.getKeys(false)) {
             ConfigurationSection subSection = section.getConfigurationSection(key);
             if (subSection != null) {
-                nodes.put(key, parseNode(key, subSection));
+                nodes.put(key, parseNode(key, parentPath + " " + key, parentLayout, subSection));
             }
         }
-        return nodes;
+        return Collections.unmodifiableMap(nodes);
     }
 
-    private ArgumentNode parseNode(String key, ConfigurationSection section) {
+    private ArgumentNode parseNode(String key, String path, PlaceholderLayout parentLayout, ConfigurationSection section) {
         String permission = section.getString("permission");
         String permissionMessage = section.getString("permission-message");
         String type = section.getString("type");
@@ -40,8 +44,11 @@ public class CommandParser {
             delay = section.getConfigurationSection("delay").getValues(true);
         }
 
-        Map<String, ArgumentNode> children = parseArguments(section.getConfigurationSection("arguments"));
+        PlaceholderLayout layout = actionCompiler.layoutOf(key, parentLayout);
+        int slot = layout != parentLayout ? layout.size() - 1 : -1;
+
+        Map<String, ArgumentNode> children = parseArguments(path, layout, section.getConfigurationSection("arguments"));
 
-        return new ArgumentNode(key, permission, permissionMessage, type, typeError, actions, delay, children);
+        return new ArgumentNode(key, path, permission, permissionMessage, type, typeError, actions, delay, children, slot, actionCompiler.compile(actions, delay, layout));
     }
 }
@@ -0,0 +1,201 @@
+package com.VintageGaming.customCommands.parser;
+
+import com.VintageGaming.customCommands.model.ActionType;
+import com.VintageGaming.customCommands.model.CompiledEffect;
+import com.VintageGaming.customCommands.model.EffectPattern;
+import org.bukkit.Color;
+import org.bukkit.Material;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resolves the fixed fields of 'area_sound' and 'particle' actions when a command is loaded,
+ * so running them doesn't look up enums or parse numbers. Only the center, the 'at', 'world',
+ * 'x', 'y' and 'z' fields, may use placeholders.
+ * <pre>
+ * particle:
+ *   particle: DUST
+ *   color: "255,0,0"
+ *   pattern: circle
+ *   radius: 1.5
+ *   points: 40
+ * </pre>
+ */
+public final class EffectCompiler {
+
+    public static final double DEFAULT_SOUND_RADIUS = 16;
+    public static final double DEFAULT_VIEW_RADIUS = 32;
+    // Clients don't show particles further away than this unless they are forced.
+    public static final double MAX_VIEW_RADIUS = 32;
+    public static final int MAX_POINTS = 1000;
+
+    private EffectCompiler() {
+    }
+
+    /**
+     * @param type {@link ActionType#AREA_SOUND} or {@link ActionType#PARTICLE}.
+     * @param fields The raw fields of the action.
+     * @return The resolved effect.
+     * @throws IllegalArgumentException If a field is missing or invalid, with a description of the problem.
+     */
+    public static CompiledEffect compile(ActionType type, Map<String, ?> fields) {
+        if (type == ActionType.AREA_SOUND) {
+            return compileSound(fields);
+        }
+        return compileParticle(fields);
+    }
+
+    private static CompiledEffect compileSound(Map<String, ?> fields) {
+        String name = fixed(fields, "sound");
+        if (name == null) {
+            throw new IllegalArgumentException("'area_sound' needs a 'sound'");
+        }
+        Sound sound;
+        try {
+            sound = Sound.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            sound = null;
+        }
+        if (sound == null) {
+            throw new IllegalArgumentException("Unknown sound '" + name + "'");
+        }
+        return CompiledEffect.sound(positive(fields, "radius", DEFAULT_SOUND_RADIUS), sound,
+                (float) positive(fields, "volume", 1), (float) positive(fields, "pitch", 1));
+    }
+
+    private static CompiledEffect compileParticle(Map<String, ?> fields) {
+        String name = fixed(fields, "particle");
+        if (name == null) {
+            throw new IllegalArgumentException("'particle' needs a 'particle'");
+        }
+        Particle particle;
+        try {
+            particle = Particle.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown particle '" + name + "'");
+        }
+
+        String patternName = fixed(fields, "pattern");
+        EffectPattern pattern = patternName != null ? EffectPattern.of(patternName) : EffectPattern.POINT;
+        if (pattern == null) {
+            throw new IllegalArgumentException("Unknown pattern '" + patternName + "', use point, circle or sphere");
+        }
+        double points = positive(fields, "points", 20);
+        if (points < 1 || points > MAX_POINTS || points != Math.floor(points)) {
+            throw new IllegalArgumentException("'points' must be a whole number from 1 to " + MAX_POINTS);
+        }
+        double count = positive(fields, "count", 1);
+        if (count < 1 || count != Math.floor(count)) {
+            throw new IllegalArgumentException("'count' must be a whole number of at least 1");
+        }
+
+        double[] offset = {0, 0, 0};
+        String rawOffset = fixed(fields, "offset");
+        if (rawOffset != null) {
+            String[] parts = rawOffset.split(",");
+            if (parts.length != 1 && parts.length != 3) {
+                throw new IllegalArgumentException("'offset' must be one number or three separated by commas");
+            }
+            for (int i = 0; i < 3; i++) {
+                offset[i] = number("offset", parts[parts.length == 1 ? 0 : i]);
+            }
+        }
+
+        return CompiledEffect.particle(Math.min(MAX_VIEW_RADIUS, positive(fields, "view-radius", DEFAULT_VIEW_RADIUS)), particle, particleData(particle, fields),
+                (int) count, offset[0], offset[1], offset[2], positive(fields, "speed", 0),
+                pattern.offsets(positive(fields, "radius", 1), (int) points));
+    }
+
+    /**
+     * Builds the data the particle type needs from the 'color', 'size' and 'material' fields.
+     */
+    private static Object particleData(Particle particle, Map<String, ?> fields) {
+        Class<?> dataType = particle.getDataType();
+        if (dataType == Void.class) {
+            return null;
+        }
+        if (dataType == Particle.DustOptions.class) {
+            return new Particle.DustOptions(color(fields), (float) positive(fields, "size", 1));
+        }
+        if (dataType == Color.class) {
+            return color(fields);
+        }
+        if (dataType == BlockData.class || dataType == ItemStack.class) {
+            String name = fixed(fields, "material");
+            Material material = name != null ? Material.matchMaterial(name) : null;
+            if (material == null) {
+                throw new IllegalArgumentException("Particle " + particle + " needs a valid 'material'" + (name != null ? ", not '" + name + "'" : ""));
+            }
+            if (dataType == BlockData.class) {
+                if (!material.isBlock()) {
+                    throw new IllegalArgumentException("Particle " + particle + " needs a block as 'material', " + name + " isn't one");
+                }
+                return material.createBlockData();
+            }
+            return new ItemStack(material);
+        }
+        throw new IllegalArgumentException("Particle " + particle + " needs data of a kind actions can't set, pick another particle");
+    }
+
+    /**
+     * Reads the 'color' field: "r,g,b" or a hex color like "#ff8800". White if missing.
+     */
+    private static Color color(Map<String, ?> fields) {
+        String raw = fixed(fields, "color");
+        if (raw == null) {
+            return Color.fromRGB(255, 255, 255);
+        }
+        try {
+            if (raw.startsWith("#")) {
+                return Color.fromRGB(Integer.parseInt(raw.substring(1), 16) & 0xFFFFFF);
+            }
+            String[] parts = raw.split(",");
+            if (parts.length == 3) {
+                return Color.fromRGB(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()), Integer.parseInt(parts[2].trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            // Reported below, like any other malformed color.
+        }
+        throw new IllegalArgumentException("'color' must be \"r,g,b\" with values from 0 to 255, or a hex color like \"#ff8800\", not '" + raw + "'");
+    }
+
+    /**
+     * @return The value of a field that is resolved at load, null if missing.
+     */
+    private static String fixed(Map<String, ?> fields, String key) {
+        Object value = fields.get(key);
+        if (value == null) {
+            return null;
+        }
+        String text = String.valueOf(value).trim();
+        if (text.indexOf('{') >= 0 || text.indexOf('[') >= 0) {
+            throw new IllegalArgumentException("'" + key + "' can't use placeholders, it is resolved when the command is loaded");
+        }
+        return text;
+    }
+
+    private static double positive(Map<String, ?> fields, String key, double defaultValue) {
+        String text = fixed(fields, key);
+        if (text == null) {
+            return defaultValue;
+        }
+        double value = number(key, text);
+        if (value < 0) {
+            throw new IllegalArgumentException("'" + key + "' can't be negative");
+        }
+        return value;
+    }
+
+    private static double number(String key, String text) {
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + key + "' must be a number, not '" + text.trim() + "'");
+        }
+    }
+}
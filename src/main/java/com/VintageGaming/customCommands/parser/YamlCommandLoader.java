@@ -0,0 +1,277 @@
+package com.VintageGaming.customCommands.parser;
+
+import com.VintageGaming.customCommands.model.ActionBlock;
+import com.VintageGaming.customCommands.model.ArgumentNode;
+import com.VintageGaming.customCommands.model.CustomCommandData;
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Construct;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.MarkedYAMLException;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Loads a command file straight from the SnakeYAML node graph into the command model,
+ * without building a Bukkit MemorySection tree first. Problems are reported with the
+ * line and column they were found at.
+ * <p>
+ * Values come out the same as through Bukkit's YamlConfiguration: scalars are typed by
+ * SnakeYAML's rules, so 'yes' is true and 1.0 a number, and mappings keep the order of the file.
+ * Keys are taken as written, unlike YamlConfiguration, which splits a key like 'v1.2' into
+ * nested sections and turns keys like 'on' or 'yes' into "true".
+ */
+public class YamlCommandLoader {
+
+    private final ActionCompiler actionCompiler;
+    private final Logger logger;
+    private final ScalarConstructor scalars = new ScalarConstructor();
+
+    public YamlCommandLoader(ActionCompiler actionCompiler, Logger logger) {
+        this.actionCompiler = actionCompiler;
+        this.logger = logger;
+    }
+
+    /**
+     * @param name The name of the command.
+     * @param file The command file.
+     * @return The loaded command.
+     * @throws CommandLoadException If the file can't be read or isn't a valid command definition.
+     */
+    public CustomCommandData load(String name, File file) throws CommandLoadException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return load(name, file.getName(), reader);
+        } catch (IOException e) {
+            throw new CommandLoadException(file.getName(), 0, 0, "Could not read file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param name The name of the command.
+     * @param source The name of the source, used in messages.
+     * @param reader The YAML text of the command.
+     * @return The loaded command.
+     * @throws CommandLoadException If the text isn't a valid command definition.
+     */
+    public CustomCommandData load(String name, String source, Reader reader) throws CommandLoadException {
+        Node root;
+        try {
+            root = new Yaml(new LoaderOptions()).compose(reader);
+        } catch (MarkedYAMLException e) {
+            Mark mark = e.getProblemMark() != null ? e.getProblemMark() : e.getContextMark();
+            throw error(source, mark, e.getProblem() != null ? e.getProblem() : e.getMessage());
+        } catch (YAMLException e) {
+            throw new CommandLoadException(source, 0, 0, e.getMessage());
+        }
+
+        Map<String, Node> fields = Collections.emptyMap();
+        if (root != null) {
+            if (!(root instanceof MappingNode)) {
+                throw error(source, root.getStartMark(), "A command file must be a mapping of keys to values.");
+            }
+            fields = fields(source, (MappingNode) root);
+        }
+
+        String permission = string(fields.get("permission"));
+        String permissionMessage = string(fields.get("permission-message"));
+        String usageMessage = string(fields.get("usage-message"));
+        List<String> aliases = stringList(source, fields.get("aliases"));
+        double cost = number(source, fields.get("cost"));
+        String cooldown = string(fields.get("cooldown"));
+        Map<String, Object> rootActions = section(source, fields.get("actions"));
+        Map<String, Object> rootDelay = section(source, fields.get("delay"));
+
+        Map<String, ArgumentNode> arguments = Collections.emptyMap();
+        if (fields.get("arguments") != null) {
+            arguments = argumentNodes(source, name, PlaceholderLayout.ROOT, fields.get("arguments"));
+        }
+
+        ActionBlock rootBlock = actionCompiler.compile(rootActions, rootDelay, PlaceholderLayout.ROOT);
+        int slotCount = actionCompiler.countSlots(rootBlock, arguments);
+
+        return new CustomCommandData(name, permission, permissionMessage, usageMessage, aliases, cost, cooldown, rootActions, rootDelay, arguments, rootBlock, slotCount);
+    }
+
+    private Map<String, ArgumentNode> argumentNodes(String source, String parentPath, PlaceholderLayout parentLayout, Node node) {
+        if (!(node instanceof MappingNode)) {
+            warn(source, node, "'arguments' must be a mapping of argument names, ignoring it.");
+            return Collections.emptyMap();
+        }
+
+        Map<String, ArgumentNode> nodes = new LinkedHashMap<>();
+        for (Map.Entry<String, Node> entry : fields(source, (MappingNode) node).entrySet()) {
+            if (!(entry.getValue() instanceof MappingNode)) {
+                warn(source, entry.getValue(), "Argument '" + entry.getKey() + "' must be a mapping, ignoring it.");
+                continue;
+            }
+            String key = entry.getKey();
+            nodes.put(key, argumentNode(source, key, parentPath + " " + key, parentLayout, (MappingNode) entry.getValue()));
+        }
+        return Collections.unmodifiableMap(nodes);
+    }
+
+    private ArgumentNode argumentNode(String source, String name, String path, PlaceholderLayout parentLayout, MappingNode node) {
+        Map<String, Node> fields = fields(source, node);
+
+        String permission = string(fields.get("permission"));
+        String permissionMessage = string(fields.get("permission-message"));
+        String type = string(fields.get("type"));
+        String typeError = string(fields.get("type-error"));
+        Map<String, Object> actions = section(source, fields.get("actions"));
+        Map<String, Object> delay = section(source, fields.get("delay"));
+
+        PlaceholderLayout layout = actionCompiler.layoutOf(name, parentLayout);
+        int slot = layout != parentLayout ? layout.size() - 1 : -1;
+
+        Map<String, ArgumentNode> children = Collections.emptyMap();
+        if (fields.get("arguments") != null) {
+            children = argumentNodes(source, path, layout, fields.get("arguments"));
+        }
+
+        ActionBlock actionBlock = actionCompiler.compile(actions, delay, layout);
+        return new ArgumentNode(name, path, permission, permissionMessage, type, typeError, actions, delay, children, slot, actionBlock);
+    }
+
+    private Map<String, Node> fields(String source, MappingNode node) {
+        Map<String, Node> fields = new LinkedHashMap<>();
+        for (NodeTuple tuple : node.getValue()) {
+            if (!(tuple.getKeyNode() instanceof ScalarNode)) {
+                warn(source, tuple.getKeyNode(), "Keys must be plain values, ignoring this entry.");
+                continue;
+            }
+            String key = ((ScalarNode) tuple.getKeyNode()).getValue();
+            if (fields.put(key, tuple.getValueNode()) != null) {
+                warn(source, tuple.getKeyNode(), "Duplicate key '" + key + "', the last one wins.");
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Converts a section like 'actions' or 'delay' into plain maps, lists and strings.
+     * @return The section as a map, or null if it is missing or not a mapping.
+     */
+    private Map<String, Object> section(String source, Node node) {
+        if (node == null || isNull(node)) {
+            return null;
+        }
+        if (!(node instanceof MappingNode)) {
+            warn(source, node, "Expected a mapping here, ignoring it.");
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map = (Map<String, Object>) toObject(source, node);
+        return map;
+    }
+
+    private Object toObject(String source, Node node) {
+        if (node instanceof MappingNode) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<String, Node> entry : fields(source, (MappingNode) node).entrySet()) {
+                map.put(entry.getKey(), toObject(source, entry.getValue()));
+            }
+            return map;
+        }
+        if (node instanceof SequenceNode) {
+            List<Object> list = new ArrayList<>();
+            for (Node item : ((SequenceNode) node).getValue()) {
+                list.add(toObject(source, item));
+            }
+            return list;
+        }
+        return node instanceof ScalarNode && !isNull(node) ? scalars.construct((ScalarNode) node) : null;
+    }
+
+    private String string(Node node) {
+        if (!(node instanceof ScalarNode) || isNull(node)) {
+            return null;
+        }
+        return String.valueOf(scalars.construct((ScalarNode) node));
+    }
+
+    private List<String> stringList(String source, Node node) {
+        if (node == null || isNull(node)) {
+            return Collections.emptyList();
+        }
+        if (!(node instanceof SequenceNode)) {
+            warn(source, node, "Expected a list here, e.g. [alias1, alias2].");
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>();
+        for (Node item : ((SequenceNode) node).getValue()) {
+            if (item instanceof ScalarNode && !isNull(item)) {
+                values.add(String.valueOf(scalars.construct((ScalarNode) item)));
+            }
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    private double number(String source, Node node) {
+        if (!(node instanceof ScalarNode) || isNull(node)) {
+            return 0;
+        }
+        Object constructed = scalars.construct((ScalarNode) node);
+        if (constructed instanceof Number) {
+            return ((Number) constructed).doubleValue();
+        }
+        String value = String.valueOf(constructed);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            warn(source, node, "'" + value + "' is not a number, using 0.");
+            return 0;
+        }
+    }
+
+    private boolean isNull(Node node) {
+        return Tag.NULL.equals(node.getTag());
+    }
+
+    private void warn(String source, Node node, String problem) {
+        Mark mark = node.getStartMark();
+        logger.warning(mark != null ? source + ":" + (mark.getLine() + 1) + ":" + (mark.getColumn() + 1) + ": " + problem : source + ": " + problem);
+    }
+
+    /**
+     * Builds scalars with SnakeYAML's standard constructors, like Bukkit's YamlConfiguration.
+     */
+    private static final class ScalarConstructor extends SafeConstructor {
+
+        private ScalarConstructor() {
+            super(new LoaderOptions());
+        }
+
+        // The timestamp constructor keeps state between calls, and a reload may overlap a load.
+        private synchronized Object construct(ScalarNode node) {
+            Construct construct = yamlConstructors.get(node.getTag());
+            return construct != null ? construct.construct(node) : node.getValue();
+        }
+    }
+
+    private CommandLoadException error(String source, Mark mark, String problem) {
+        if (mark == null) {
+            return new CommandLoadException(source, 0, 0, problem);
+        }
+        return new CommandLoadException(source, mark.getLine() + 1, mark.getColumn() + 1, problem);
+    }
+}
@@ -0,0 +1,131 @@
+package com.VintageGaming.customCommands.placeholder;
+
+import com.VintageGaming.customCommands.CustomCommands;
+import com.VintageGaming.customCommands.platform.PlayerLookup;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.ServicePriority;
+import org.bukkit.plugin.ServicesManager;
+
+/**
+ * The placeholders shipped with the plugin: {balance}, {balance_formatted}, {world}, {ping} and {online}.
+ * They are registered at the lowest priority so other plugins can replace them.
+ */
+public final class BuiltinPlaceholders {
+
+    public static final String BALANCE = "balance";
+    public static final String BALANCE_FORMATTED = "balance_formatted";
+
+    private BuiltinPlaceholders() {
+    }
+
+    /**
+     * Registers the built-in providers, replacing the ones a previous call registered,
+     * so a reload picks up changes to the "placeholders" section.
+     * @param plugin The plugin instance.
+     * @param config The "placeholders" section of the config, may be null.
+     */
+    public static void register(CustomCommands plugin, ConfigurationSection config) {
+        ServicesManager services = plugin.getServer().getServicesManager();
+        for (RegisteredServiceProvider<PlaceholderProvider> registration : services.getRegistrations(PlaceholderProvider.class)) {
+            if (registration.getPlugin() == plugin && registration.getProvider().getClass().getEnclosingClass() == BuiltinPlaceholders.class) {
+                services.unregister(registration.getProvider());
+            }
+        }
+
+        long balanceRefresh = config != null ? config.getLong("balance.refresh-ticks", 0) : 0;
+        boolean balanceAsync = config != null && config.getBoolean("balance.async", false);
+
+        services.register(PlaceholderProvider.class, new BalanceProvider(plugin, BALANCE, false, balanceRefresh, balanceAsync), plugin, ServicePriority.Lowest);
+        services.register(PlaceholderProvider.class, new BalanceProvider(plugin, BALANCE_FORMATTED, true, balanceRefresh, balanceAsync), plugin, ServicePriority.Lowest);
+        services.register(PlaceholderProvider.class, new WorldProvider(), plugin, ServicePriority.Lowest);
+        services.register(PlaceholderProvider.class, new PingProvider(), plugin, ServicePriority.Lowest);
+        services.register(PlaceholderProvider.class, new OnlineProvider(plugin.getEngine().getPlayers()), plugin, ServicePriority.Lowest);
+    }
+
+    private static final class BalanceProvider implements PlaceholderProvider {
+        private final CustomCommands plugin;
+        private final String name;
+        private final boolean formatted;
+        private final long refreshTicks;
+        private final boolean asyncSafe;
+
+        private BalanceProvider(CustomCommands plugin, String name, boolean formatted, long refreshTicks, boolean asyncSafe) {
+            this.plugin = plugin;
+            this.name = name;
+            this.formatted = formatted;
+            this.refreshTicks = refreshTicks;
+            this.asyncSafe = asyncSafe;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String resolve(CommandSender sender) {
+            Economy economy = plugin.getEconomy();
+            if (economy == null || !(sender instanceof Player)) {
+                return null;
+            }
+            double balance = economy.getBalance((Player) sender);
+            return formatted ? economy.format(balance) : String.valueOf(balance);
+        }
+
+        @Override
+        public boolean isAsyncSafe() {
+            return asyncSafe;
+        }
+
+        @Override
+        public long getRefreshTicks() {
+            return refreshTicks;
+        }
+    }
+
+    private static final class WorldProvider implements PlaceholderProvider {
+        @Override
+        public String getName() {
+            return "world";
+        }
+
+        @Override
+        public String resolve(CommandSender sender) {
+            return sender instanceof Player ? ((Player) sender).getWorld().getName() : null;
+        }
+    }
+
+    private static final class PingProvider implements PlaceholderProvider {
+        @Override
+        public String getName() {
+            return "ping";
+        }
+
+        @Override
+        public String resolve(CommandSender sender) {
+            return sender instanceof Player ? String.valueOf(((Player) sender).getPing()) : null;
+        }
+    }
+
+    private static final class OnlineProvider implements PlaceholderProvider {
+        private final PlayerLookup players;
+
+        private OnlineProvider(PlayerLookup players) {
+            this.players = players;
+        }
+
+        @Override
+        public String getName() {
+            return "online";
+        }
+
+        @Override
+        public String resolve(CommandSender sender) {
+            return String.valueOf(players.getOnlinePlayers().size());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.VintageGaming.customCommands.placeholder;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A named dynamic placeholder as referenced by compiled templates. The handle is resolved
+ * once at load, the provider behind it is rebound whenever providers are (un)registered.
+ */
+public final class PlaceholderHandle {
+
+    private final String name;
+    private final PlaceholderService service;
+    private volatile PlaceholderProvider provider;
+    // The last load of the command files that compiled a template using the handle.
+    private volatile long generation;
+    private volatile boolean retired;
+
+    // Cached values per sender (UUID for players, name otherwise).
+    private final Map<Object, CachedValue> values = new ConcurrentHashMap<>();
+
+    PlaceholderHandle(String name, PlaceholderService service) {
+        this.name = name;
+        this.service = service;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isBound() {
+        return provider != null;
+    }
+
+    void bind(PlaceholderProvider provider) {
+        this.provider = provider;
+        values.clear();
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
+    /**
+     * Called once the service dropped the handle. Templates of the previous snapshot may still
+     * render it, they get their values straight from the provider.
+     */
+    void retire() {
+        retired = true;
+        values.clear();
+    }
+
+    /**
+     * Drops the cached value of a sender, the next render asks the provider again.
+     */
+    void invalidate(CommandSender sender) {
+        values.remove(key(sender));
+    }
+
+    /**
+     * @param sender The sender to render for.
+     * @return The value for the sender, "" if the provider has none,
+     * or the placeholder itself if no provider is registered.
+     */
+    public String resolve(CommandSender sender) {
+        PlaceholderProvider current = provider;
+        if (current == null) {
+            return "{" + name + "}";
+        }
+
+        if (retired) {
+            return safeResolve(current, sender);
+        }
+
+        long tick = service.getCurrentTick();
+        Object key = key(sender);
+        CachedValue cached = values.get(key);
+        long refreshTicks = Math.max(0, current.getRefreshTicks());
+
+        if (cached != null && cached.provider == current) {
+            long age = tick - cached.tick;
+            if (age == 0 || age < refreshTicks) {
+                return cached.value;
+            }
+            if (refreshTicks > 0 && current.isAsyncSafe()) {
+                // Serve the stale value and refresh it in the background.
+                if (!cached.refreshing) {
+                    cached.refreshing = true;
+                    // Only replaces the stale value, an invalidation or a rebind in the meantime wins.
+                    service.runAsync(() -> values.replace(key, cached, new CachedValue(current, service.getCurrentTick(), safeResolve(current, sender))));
+                }
+                return cached.value;
+            }
+        }
+
+        String value = safeResolve(current, sender);
+        values.put(key, new CachedValue(current, tick, value));
+        return value;
+    }
+
+    /**
+     * Drops cached values of senders that are gone, called periodically by the service.
+     */
+    void evict(long tick) {
+        values.values().removeIf(cached -> tick - cached.tick > Math.max(20, cached.provider.getRefreshTicks() * 2));
+    }
+
+    private static Object key(CommandSender sender) {
+        return sender instanceof Player ? ((Player) sender).getUniqueId() : sender.getName();
+    }
+
+    private String safeResolve(PlaceholderProvider current, CommandSender sender) {
+        try {
+            String value = current.resolve(sender);
+            return value != null ? value : "";
+        } catch (RuntimeException e) {
+            service.getLogger().warning("Placeholder provider for {" + name + "} failed: " + e.getMessage());
+            return "";
+        }
+    }
+
+    private static final class CachedValue {
+        private final PlaceholderProvider provider;
+        private final long tick;
+        private final String value;
+        private volatile boolean refreshing;
+
+        private CachedValue(PlaceholderProvider provider, long tick, String value) {
+            this.provider = provider;
+            this.tick = tick;
+            this.value = value;
+        }
+    }
+}
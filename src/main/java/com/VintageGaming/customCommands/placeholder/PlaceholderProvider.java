@@ -0,0 +1,44 @@
+package com.VintageGaming.customCommands.placeholder;
+
+import org.bukkit.command.CommandSender;
+
+/**
+ * Supplies the value of a dynamic placeholder such as {balance}.
+ * Providers are registered through the Bukkit ServicesManager:
+ * <pre>
+ * getServer().getServicesManager().register(PlaceholderProvider.class, provider, plugin, ServicePriority.Normal);
+ * </pre>
+ * When several providers share a name, the one with the highest priority wins.
+ * Values are memoized per sender for the current tick, so a provider is called at most
+ * once per tick and sender no matter how many lines reference its placeholder.
+ */
+public interface PlaceholderProvider {
+
+    /**
+     * @return The placeholder name without braces, e.g. "balance" for {balance}.
+     */
+    String getName();
+
+    /**
+     * @param sender The sender the placeholder is rendered for.
+     * @return The value, or null if the placeholder doesn't apply to this sender.
+     */
+    String resolve(CommandSender sender);
+
+    /**
+     * @return True if {@link #resolve(CommandSender)} may be called off the main thread.
+     */
+    default boolean isAsyncSafe() {
+        return false;
+    }
+
+    /**
+     * Expensive providers can return a positive interval here. Their last value is then
+     * served for up to this many ticks, and once it gets older it is refreshed in the
+     * background (if async-safe) while the old value keeps being served.
+     * @return The number of ticks a value stays fresh, 0 to resolve once per tick.
+     */
+    default long getRefreshTicks() {
+        return 0;
+    }
+}
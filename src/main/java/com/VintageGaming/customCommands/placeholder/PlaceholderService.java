@@ -0,0 +1,171 @@
+package com.VintageGaming.customCommands.placeholder;
+
+import com.VintageGaming.customCommands.CommandEngine;
+import com.VintageGaming.customCommands.scheduler.ScheduledTask;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.ServiceEvent;
+import org.bukkit.event.server.ServiceRegisterEvent;
+import org.bukkit.event.server.ServiceUnregisterEvent;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.ServicesManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Binds dynamic placeholders such as {balance} to the PlaceholderProviders registered in
+ * the Bukkit ServicesManager and keeps the tick counter their memoized values are keyed on.
+ */
+public class PlaceholderService implements Listener {
+
+    private static final long EVICT_INTERVAL_TICKS = 1200;
+
+    private final CommandEngine engine;
+    private final ServicesManager services;
+    private final Map<String, PlaceholderHandle> handles = new ConcurrentHashMap<>();
+    private volatile long currentTick;
+    // Counts the loads of the command files, handles remember the last one that used them.
+    private volatile long generation;
+    private ScheduledTask tickTask;
+
+    /**
+     * @param engine The engine the placeholders are rendered for.
+     * @param services Where the providers are registered, null if only unbound handles are needed.
+     */
+    public PlaceholderService(CommandEngine engine, ServicesManager services) {
+        this.engine = engine;
+        this.services = services;
+    }
+
+    public void start() {
+        refreshProviders();
+        tickTask = engine.getTaskScheduler().runGlobalTimer(() -> {
+            long tick = ++currentTick;
+            if (tick % EVICT_INTERVAL_TICKS == 0) {
+                for (PlaceholderHandle handle : handles.values()) {
+                    handle.evict(tick);
+                }
+            }
+        }, 1L, 1L);
+    }
+
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+
+    /**
+     * Returns the handle for a placeholder name, creating it if needed.
+     * Templates keep the handle, so rendering never looks the name up again.
+     * @param name The placeholder name without braces.
+     * @return The handle, bound to a provider if one is registered for the name.
+     */
+    public PlaceholderHandle handle(String name) {
+        PlaceholderHandle handle = handles.computeIfAbsent(name, key -> {
+            PlaceholderHandle created = new PlaceholderHandle(key, this);
+            created.bind(findProviders().get(key));
+            return created;
+        });
+        handle.setGeneration(generation);
+        return handle;
+    }
+
+    /**
+     * Starts a load of the command files. Must run on the thread that publishes the snapshots.
+     * @return The load to pass to {@link #prune(long)} once its snapshot is published.
+     */
+    public long beginLoad() {
+        return ++generation;
+    }
+
+    /**
+     * Drops the handles no template of the given load asked for, after its snapshot replaced
+     * the previous one. Their cached values are dropped and no longer refreshed.
+     * @param load The load returned by {@link #beginLoad()}.
+     */
+    public void prune(long load) {
+        handles.values().removeIf(handle -> {
+            if (handle.getGeneration() >= load) return false;
+            handle.retire();
+            return true;
+        });
+    }
+
+    /**
+     * Drops the cached value of a placeholder for one sender, for when the value is known to
+     * have changed, like the balance after a cost was charged.
+     * @param name The placeholder name without braces.
+     * @param sender The sender whose value changed.
+     */
+    public void invalidate(String name, CommandSender sender) {
+        PlaceholderHandle handle = handles.get(name);
+        if (handle != null) {
+            handle.invalidate(sender);
+        }
+    }
+
+    /**
+     * Rebinds every handle to the highest priority provider registered for its name.
+     */
+    public void refreshProviders() {
+        Map<String, PlaceholderProvider> providers = findProviders();
+        for (PlaceholderHandle handle : handles.values()) {
+            handle.bind(providers.get(handle.getName()));
+        }
+    }
+
+    private Map<String, PlaceholderProvider> findProviders() {
+        if (services == null) return new HashMap<>();
+        Map<String, RegisteredServiceProvider<PlaceholderProvider>> best = new HashMap<>();
+        for (RegisteredServiceProvider<PlaceholderProvider> registration : services.getRegistrations(PlaceholderProvider.class)) {
+            String name = registration.getProvider().getName();
+            RegisteredServiceProvider<PlaceholderProvider> current = best.get(name);
+            if (current == null || registration.getPriority().ordinal() > current.getPriority().ordinal()) {
+                best.put(name, registration);
+            }
+        }
+
+        Map<String, PlaceholderProvider> providers = new HashMap<>();
+        for (Map.Entry<String, RegisteredServiceProvider<PlaceholderProvider>> entry : best.entrySet()) {
+            providers.put(entry.getKey(), entry.getValue().getProvider());
+        }
+        return providers;
+    }
+
+    @EventHandler
+    public void onServiceRegister(ServiceRegisterEvent event) {
+        onServiceChange(event);
+    }
+
+    @EventHandler
+    public void onServiceUnregister(ServiceUnregisterEvent event) {
+        onServiceChange(event);
+    }
+
+    private void onServiceChange(ServiceEvent event) {
+        if (event.getProvider().getService() == PlaceholderProvider.class) {
+            refreshProviders();
+        }
+    }
+
+    /**
+     * @return The number of ticks since the service was started.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    void runAsync(Runnable task) {
+        engine.getTaskScheduler().runAsync(task);
+    }
+
+    Logger getLogger() {
+        return engine.getLogger();
+    }
+}
@@ -0,0 +1,137 @@
+package com.VintageGaming.customCommands.platform;
+
+import com.VintageGaming.customCommands.CustomCommands;
+import com.VintageGaming.customCommands.management.CommandManager;
+import com.VintageGaming.customCommands.scheduler.TaskScheduler;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandMap;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * The platform of the running Bukkit, Paper or Folia server.
+ */
+public class BukkitPlatform implements Platform, PlayerLookup, CommandSink {
+
+    private final CustomCommands plugin;
+    private final Server server;
+    private final TaskScheduler taskScheduler;
+
+    public BukkitPlatform(CustomCommands plugin, TaskScheduler taskScheduler) {
+        this.plugin = plugin;
+        this.server = plugin.getServer();
+        this.taskScheduler = taskScheduler;
+    }
+
+    @Override
+    public Logger getLogger() {
+        return plugin.getLogger();
+    }
+
+    @Override
+    public File getDataFolder() {
+        return plugin.getDataFolder();
+    }
+
+    @Override
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+
+    @Override
+    public PlayerLookup getPlayers() {
+        return this;
+    }
+
+    @Override
+    public CommandSink getCommandSink() {
+        return this;
+    }
+
+    @Override
+    public Economy getEconomy() {
+        return plugin.getEconomy();
+    }
+
+    @Override
+    public Player getPlayerExact(String name) {
+        return server.getPlayerExact(name);
+    }
+
+    @Override
+    public Player getPlayer(String name) {
+        return server.getPlayer(name);
+    }
+
+    @Override
+    public Collection<? extends Player> getOnlinePlayers() {
+        return server.getOnlinePlayers();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean hasPlayedBefore(String name) {
+        OfflinePlayer player = server.getOfflinePlayer(name);
+        return player.hasPlayedBefore();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public UUID getUniqueId(String name) {
+        Player online = server.getPlayerExact(name);
+        if (online != null) return online.getUniqueId();
+        OfflinePlayer player = server.getOfflinePlayer(name);
+        return player.hasPlayedBefore() ? player.getUniqueId() : null;
+    }
+
+    @Override
+    public World getWorld(String name) {
+        return server.getWorld(name);
+    }
+
+    @Override
+    public List<World> getWorlds() {
+        return server.getWorlds();
+    }
+
+    @Override
+    public CommandSender getConsoleSender() {
+        return server.getConsoleSender();
+    }
+
+    @Override
+    public Command getCommand(String label) {
+        CommandManager commandManager = plugin.getCommandManager();
+        CommandMap commandMap = commandManager != null ? commandManager.getCommandMap() : null;
+        return commandMap != null ? commandMap.getCommand(label) : null;
+    }
+
+    @Override
+    public boolean isCurrent(String label, Command command) {
+        CommandManager commandManager = plugin.getCommandManager();
+        return commandManager != null && commandManager.isKnown(label, command);
+    }
+
+    @Override
+    public boolean dispatch(CommandSender sender, String commandLine) {
+        if (sender instanceof Player) {
+            return ((Player) sender).performCommand(commandLine);
+        }
+        return server.dispatchCommand(sender, commandLine);
+    }
+
+    @Override
+    public void broadcast(String message) {
+        server.broadcastMessage(message);
+    }
+}
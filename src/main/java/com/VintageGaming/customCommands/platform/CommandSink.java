@@ -0,0 +1,42 @@
+package com.VintageGaming.customCommands.platform;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Where the commands and broadcasts of actions go.
+ */
+public interface CommandSink {
+
+    CommandSender getConsoleSender();
+
+    /**
+     * Must be called on a thread that may read the command map.
+     * @param label The lower case command label.
+     * @return The command registered for the label, or null if there is none.
+     */
+    Command getCommand(String label);
+
+    /**
+     * Must be called on a thread that may read the command map.
+     * @param label The lower case command label.
+     * @param command A command the label resolved to earlier.
+     * @return True if the label still resolves to that same command.
+     */
+    default boolean isCurrent(String label, Command command) {
+        return getCommand(label) == command;
+    }
+
+    /**
+     * Runs a command line like the server would, including its reply to unknown commands.
+     * @param sender The sender running the command.
+     * @param commandLine The command line, without the leading slash.
+     * @return False if the command wasn't found.
+     */
+    boolean dispatch(CommandSender sender, String commandLine);
+
+    /**
+     * Sends a message to every player and the console.
+     */
+    void broadcast(String message);
+}
@@ -0,0 +1,36 @@
+package com.VintageGaming.customCommands.platform;
+
+import com.VintageGaming.customCommands.scheduler.TaskScheduler;
+import net.milkbowl.vault.economy.Economy;
+
+import java.io.File;
+import java.util.logging.Logger;
+
+/**
+ * Everything the command engine needs from the server it runs on. Senders and players are
+ * the Bukkit API interfaces, the engine never calls into the running server statically.
+ * {@link BukkitPlatform} is the plugin's own, the headless runner brings an in-memory one.
+ * <p>
+ * The engine stays in the plugin's module and needs the Bukkit API jar. These interfaces are
+ * for testing and profiling it without a server, running it on a proxy is out of scope.
+ */
+public interface Platform {
+
+    Logger getLogger();
+
+    /**
+     * @return The folder logs and audit files are written to.
+     */
+    File getDataFolder();
+
+    TaskScheduler getTaskScheduler();
+
+    PlayerLookup getPlayers();
+
+    CommandSink getCommandSink();
+
+    /**
+     * @return The economy costs are charged through, or null if there is none.
+     */
+    Economy getEconomy();
+}
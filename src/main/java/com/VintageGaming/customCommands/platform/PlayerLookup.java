@@ -0,0 +1,47 @@
+package com.VintageGaming.customCommands.platform;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Looks up the players and worlds of the server commands run on.
+ */
+public interface PlayerLookup {
+
+    /**
+     * @return The online player with exactly this name, ignoring case, or null.
+     */
+    Player getPlayerExact(String name);
+
+    /**
+     * @return The online player with this name or, failing that, the one whose name starts with it, or null.
+     */
+    Player getPlayer(String name);
+
+    Collection<? extends Player> getOnlinePlayers();
+
+    /**
+     * @return True if a player with this name has ever joined.
+     */
+    boolean hasPlayedBefore(String name);
+
+    /**
+     * @return The UUID of the online player with exactly this name or, where the server keeps them,
+     * of the player with this name who joined before, or null.
+     */
+    default UUID getUniqueId(String name) {
+        Player player = getPlayerExact(name);
+        return player != null ? player.getUniqueId() : null;
+    }
+
+    /**
+     * @return The world with this name, or null.
+     */
+    World getWorld(String name);
+
+    List<World> getWorlds();
+}
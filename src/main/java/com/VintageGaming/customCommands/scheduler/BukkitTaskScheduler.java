@@ -0,0 +1,173 @@
+package com.VintageGaming.customCommands.scheduler;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The TaskScheduler of servers with a single main thread.
+ */
+public class BukkitTaskScheduler implements TaskScheduler {
+
+    private final Plugin plugin;
+    private final BukkitScheduler scheduler;
+
+    public BukkitTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        this.scheduler = plugin.getServer().getScheduler();
+    }
+
+    @Override
+    public boolean isFolia() {
+        return false;
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        if (plugin.getServer().isPrimaryThread()) {
+            task.run();
+        } else {
+            scheduler.runTask(plugin, task);
+        }
+    }
+
+    @Override
+    public ScheduledTask runGlobalLater(Runnable task, long delayTicks) {
+        return wrap(scheduler.runTaskLater(plugin, task, delayTicks));
+    }
+
+    @Override
+    public ScheduledTask runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return wrap(scheduler.runTaskTimer(plugin, task, delayTicks, periodTicks));
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task) {
+        if (plugin.getServer().isPrimaryThread()) {
+            task.run();
+        } else {
+            scheduler.runTask(plugin, () -> {
+                if (!isRemoved(entity)) task.run();
+            });
+        }
+    }
+
+    @Override
+    public void runForEntityLater(Entity entity, Runnable task, long delayTicks) {
+        scheduler.runTaskLater(plugin, () -> {
+            if (!isRemoved(entity)) task.run();
+        }, delayTicks);
+    }
+
+    @Override
+    public ScheduledTask runEntityTimer(Entity entity, Runnable task, Runnable retired, long delayTicks, long periodTicks) {
+        EntityTimer timer = new EntityTimer(entity, task, retired);
+        if (isRemoved(entity)) {
+            // Like Folia, a timer for an entity that is already gone never runs.
+            timer.retire();
+            return timer;
+        }
+        timer.task = scheduler.runTaskTimer(plugin, timer, delayTicks, periodTicks);
+        if (timer.cancelled) {
+            // Cancelled from another thread before the task was known.
+            timer.task.cancel();
+        }
+        return timer;
+    }
+
+    @Override
+    public void runAtLocation(Location location, Runnable task) {
+        runGlobal(task);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        scheduler.runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> teleport(Entity entity, Location location) {
+        if (plugin.getServer().isPrimaryThread()) {
+            return CompletableFuture.completedFuture(entity.teleport(location));
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        scheduler.runTask(plugin, () -> result.complete(entity.teleport(location)));
+        return result;
+    }
+
+    @Override
+    public void cancelAll() {
+        scheduler.cancelTasks(plugin);
+    }
+
+    /**
+     * @return True if the entity is gone the way Folia retires its scheduler: players once they
+     * left, other entities once they died or were removed. A dead player keeps its tasks.
+     */
+    private static boolean isRemoved(Entity entity) {
+        return entity instanceof Player ? !((Player) entity).isOnline() : !entity.isValid();
+    }
+
+    /**
+     * Repeats a task until it is cancelled or the entity is removed, then runs the retired task once.
+     */
+    private static final class EntityTimer implements Runnable, ScheduledTask {
+        private final Entity entity;
+        private final Runnable action;
+        private final Runnable retired;
+        private volatile BukkitTask task;
+        private volatile boolean cancelled;
+
+        private EntityTimer(Entity entity, Runnable action, Runnable retired) {
+            this.entity = entity;
+            this.action = action;
+            this.retired = retired;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) return;
+            if (isRemoved(entity)) {
+                retire();
+                return;
+            }
+            action.run();
+        }
+
+        private void retire() {
+            cancel();
+            if (retired != null) retired.run();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            BukkitTask current = task;
+            if (current != null) current.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static ScheduledTask wrap(BukkitTask task) {
+        return new ScheduledTask() {
+            @Override
+            public void cancel() {
+                task.cancel();
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return task.isCancelled();
+            }
+        };
+    }
+}
@@ -0,0 +1,199 @@
+package com.VintageGaming.customCommands.scheduler;
+
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * The TaskScheduler of Folia servers. The plugin is compiled against the Spigot API,
+ * so Folia's region, entity and async schedulers are looked up reflectively once,
+ * when the scheduler is created.
+ */
+public class FoliaTaskScheduler implements TaskScheduler {
+
+    private static final String SCHEDULER_PACKAGE = "io.papermc.paper.threadedregions.scheduler.";
+
+    private final Plugin plugin;
+    private final Server server;
+
+    private final Object globalScheduler;
+    private final Object regionScheduler;
+    private final Object asyncScheduler;
+
+    private final Method isGlobalTickThread;
+    private final Method isOwnedByEntity;
+    private final Method isOwnedByLocation;
+    private final Method globalExecute;
+    private final Method globalRunDelayed;
+    private final Method globalRunAtFixedRate;
+    private final Method globalCancelTasks;
+    private final Method regionExecute;
+    private final Method asyncRunNow;
+    private final Method asyncCancelTasks;
+    private final Method entityGetScheduler;
+    private final Method entityExecute;
+    private final Method entityRunAtFixedRate;
+    private final Method entityTeleportAsync;
+    private final Method taskCancel;
+    private final Method taskIsCancelled;
+
+    /**
+     * @throws ReflectiveOperationException If the server doesn't provide Folia's scheduler API.
+     */
+    public FoliaTaskScheduler(Plugin plugin) throws ReflectiveOperationException {
+        this.plugin = plugin;
+        this.server = plugin.getServer();
+
+        Class<?> globalClass = Class.forName(SCHEDULER_PACKAGE + "GlobalRegionScheduler");
+        Class<?> regionClass = Class.forName(SCHEDULER_PACKAGE + "RegionScheduler");
+        Class<?> asyncClass = Class.forName(SCHEDULER_PACKAGE + "AsyncScheduler");
+        Class<?> entityClass = Class.forName(SCHEDULER_PACKAGE + "EntityScheduler");
+        Class<?> taskClass = Class.forName(SCHEDULER_PACKAGE + "ScheduledTask");
+
+        this.globalScheduler = Server.class.getMethod("getGlobalRegionScheduler").invoke(server);
+        this.regionScheduler = Server.class.getMethod("getRegionScheduler").invoke(server);
+        this.asyncScheduler = Server.class.getMethod("getAsyncScheduler").invoke(server);
+
+        this.isGlobalTickThread = Server.class.getMethod("isGlobalTickThread");
+        this.isOwnedByEntity = Server.class.getMethod("isOwnedByCurrentRegion", Entity.class);
+        this.isOwnedByLocation = Server.class.getMethod("isOwnedByCurrentRegion", Location.class);
+        this.globalExecute = globalClass.getMethod("execute", Plugin.class, Runnable.class);
+        this.globalRunDelayed = globalClass.getMethod("runDelayed", Plugin.class, Consumer.class, long.class);
+        this.globalRunAtFixedRate = globalClass.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+        this.globalCancelTasks = globalClass.getMethod("cancelTasks", Plugin.class);
+        this.regionExecute = regionClass.getMethod("execute", Plugin.class, Location.class, Runnable.class);
+        this.asyncRunNow = asyncClass.getMethod("runNow", Plugin.class, Consumer.class);
+        this.asyncCancelTasks = asyncClass.getMethod("cancelTasks", Plugin.class);
+        this.entityGetScheduler = Entity.class.getMethod("getScheduler");
+        this.entityExecute = entityClass.getMethod("execute", Plugin.class, Runnable.class, Runnable.class, long.class);
+        this.entityRunAtFixedRate = entityClass.getMethod("runAtFixedRate", Plugin.class, Consumer.class, Runnable.class, long.class, long.class);
+        this.entityTeleportAsync = Entity.class.getMethod("teleportAsync", Location.class);
+        this.taskCancel = taskClass.getMethod("cancel");
+        this.taskIsCancelled = taskClass.getMethod("isCancelled");
+    }
+
+    @Override
+    public boolean isFolia() {
+        return true;
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        if ((Boolean) invoke(isGlobalTickThread, server)) {
+            task.run();
+        } else {
+            invoke(globalExecute, globalScheduler, plugin, task);
+        }
+    }
+
+    @Override
+    public ScheduledTask runGlobalLater(Runnable task, long delayTicks) {
+        // Folia doesn't accept delays below one tick.
+        return wrap(invoke(globalRunDelayed, globalScheduler, plugin, consumer(task), Math.max(1, delayTicks)));
+    }
+
+    @Override
+    public ScheduledTask runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return wrap(invoke(globalRunAtFixedRate, globalScheduler, plugin, consumer(task), Math.max(1, delayTicks), Math.max(1, periodTicks)));
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task) {
+        if ((Boolean) invoke(isOwnedByEntity, server, entity)) {
+            task.run();
+        } else {
+            invoke(entityExecute, invoke(entityGetScheduler, entity), plugin, task, null, 1L);
+        }
+    }
+
+    @Override
+    public void runForEntityLater(Entity entity, Runnable task, long delayTicks) {
+        invoke(entityExecute, invoke(entityGetScheduler, entity), plugin, task, null, Math.max(1, delayTicks));
+    }
+
+    @Override
+    public ScheduledTask runEntityTimer(Entity entity, Runnable task, Runnable retired, long delayTicks, long periodTicks) {
+        Object scheduled = invoke(entityRunAtFixedRate, invoke(entityGetScheduler, entity), plugin, consumer(task), retired,
+                Math.max(1, delayTicks), Math.max(1, periodTicks));
+        if (scheduled == null) {
+            // The entity was already removed, nothing will ever run.
+            if (retired != null) retired.run();
+            return CANCELLED;
+        }
+        return wrap(scheduled);
+    }
+
+    @Override
+    public void runAtLocation(Location location, Runnable task) {
+        if ((Boolean) invoke(isOwnedByLocation, server, location)) {
+            task.run();
+        } else {
+            invoke(regionExecute, regionScheduler, plugin, location, task);
+        }
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        invoke(asyncRunNow, asyncScheduler, plugin, consumer(task));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Boolean> teleport(Entity entity, Location location) {
+        return (CompletableFuture<Boolean>) invoke(entityTeleportAsync, entity, location);
+    }
+
+    @Override
+    public void cancelAll() {
+        invoke(globalCancelTasks, globalScheduler, plugin);
+        invoke(asyncCancelTasks, asyncScheduler, plugin);
+    }
+
+    private static Consumer<Object> consumer(Runnable task) {
+        return scheduledTask -> task.run();
+    }
+
+    private ScheduledTask wrap(Object foliaTask) {
+        return new ScheduledTask() {
+            @Override
+            public void cancel() {
+                invoke(taskCancel, foliaTask);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return (Boolean) invoke(taskIsCancelled, foliaTask);
+            }
+        };
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Could not call " + method.getName(), e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Could not call " + method.getName(), cause);
+        }
+    }
+
+    private static final ScheduledTask CANCELLED = new ScheduledTask() {
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return true;
+        }
+    };
+}
@@ -0,0 +1,11 @@
+package com.VintageGaming.customCommands.scheduler;
+
+/**
+ * A task scheduled through a TaskScheduler, independent of the server implementation.
+ */
+public interface ScheduledTask {
+
+    void cancel();
+
+    boolean isCancelled();
+}
@@ -0,0 +1,78 @@
+package com.VintageGaming.customCommands.scheduler;
+
+import org.bukkit.Location;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Schedules work on the thread that owns the state it touches. On Bukkit and Paper that
+ * is always the main thread. On Folia every entity and region is ticked by its own thread
+ * and anything global runs on the global region thread.
+ * Use {@link TaskSchedulers#create(org.bukkit.plugin.Plugin)} to get the right one for the server.
+ */
+public interface TaskScheduler {
+
+    /**
+     * @return True if the server is running Folia's regionized threading.
+     */
+    boolean isFolia();
+
+    /**
+     * Runs a task on the thread owning global state, right away if that is the current thread.
+     */
+    void runGlobal(Runnable task);
+
+    ScheduledTask runGlobalLater(Runnable task, long delayTicks);
+
+    ScheduledTask runGlobalTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Runs a task on the thread owning the entity, right away if that is the current thread.
+     * The task is dropped if the entity is removed before it could run.
+     */
+    void runForEntity(Entity entity, Runnable task);
+
+    /**
+     * Runs a task on the thread owning the entity after a delay.
+     * The task is dropped if the entity is removed before it could run.
+     */
+    void runForEntityLater(Entity entity, Runnable task, long delayTicks);
+
+    /**
+     * Repeats a task on the thread owning the entity, following it across regions.
+     * @param retired Run instead if the entity is removed while the timer is scheduled, may be null.
+     */
+    ScheduledTask runEntityTimer(Entity entity, Runnable task, Runnable retired, long delayTicks, long periodTicks);
+
+    /**
+     * Runs a task on the thread owning the region of the location, right away if that is the current thread.
+     */
+    void runAtLocation(Location location, Runnable task);
+
+    void runAsync(Runnable task);
+
+    /**
+     * Teleports an entity from any thread.
+     * @return Completed with true once the entity has been teleported.
+     */
+    CompletableFuture<Boolean> teleport(Entity entity, Location location);
+
+    /**
+     * Cancels every task of the plugin.
+     */
+    void cancelAll();
+
+    /**
+     * Runs a task for a command sender: on the entity's thread for players and other
+     * entities, on the global thread for the console and command blocks.
+     */
+    default void runFor(CommandSender sender, Runnable task) {
+        if (sender instanceof Entity) {
+            runForEntity((Entity) sender, task);
+        } else {
+            runGlobal(task);
+        }
+    }
+}
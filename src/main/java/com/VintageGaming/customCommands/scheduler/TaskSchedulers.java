@@ -0,0 +1,35 @@
+package com.VintageGaming.customCommands.scheduler;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Picks the TaskScheduler matching the server the plugin runs on.
+ */
+public final class TaskSchedulers {
+
+    private TaskSchedulers() {
+    }
+
+    /**
+     * @return A Folia scheduler on Folia servers, otherwise one built on the Bukkit scheduler.
+     */
+    public static TaskScheduler create(Plugin plugin) {
+        if (isFolia()) {
+            try {
+                return new FoliaTaskScheduler(plugin);
+            } catch (ReflectiveOperationException e) {
+                plugin.getLogger().severe("Running on Folia, but its scheduler API could not be found: " + e);
+            }
+        }
+        return new BukkitTaskScheduler(plugin);
+    }
+
+    public static boolean isFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.VintageGaming.customCommands.template;
+
+import org.bukkit.command.CommandSender;
+
+/**
+ * The placeholder values bound for one invocation of a command path.
+ * The value array follows the PlaceholderLayout of the path it was bound for
+ * and is shared by every action of the invocation, including delayed ones.
+ */
+public final class BoundContext {
+
+    private final CommandSender sender;
+    private final String[] values;
+    private final String path;
+    private final int locale;
+    private final RenderCache renderCache;
+
+    public BoundContext(CommandSender sender, String[] values, String path) {
+        this(sender, values, path, 0);
+    }
+
+    /**
+     * @param locale The MessageCatalog locale index of the sender.
+     */
+    public BoundContext(CommandSender sender, String[] values, String path, int locale) {
+        this(sender, values, path, locale, null);
+    }
+
+    /**
+     * @param locale The MessageCatalog locale index of the sender.
+     * @param renderCache Renders shared with other invocations of the same path and values, may be null.
+     */
+    public BoundContext(CommandSender sender, String[] values, String path, int locale, RenderCache renderCache) {
+        this.sender = sender;
+        this.values = values;
+        this.path = path;
+        this.locale = locale;
+        this.renderCache = renderCache;
+    }
+
+    public CommandSender getSender() {
+        return sender;
+    }
+
+    public String[] getValues() {
+        return values;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return The MessageCatalog locale index localized templates are rendered in.
+     */
+    public int getLocale() {
+        return locale;
+    }
+
+    /**
+     * @return The renders shared with other invocations, null if nothing is shared.
+     */
+    public RenderCache getRenderCache() {
+        return renderCache;
+    }
+
+    public void bind(int slot, String value) {
+        values[slot] = value;
+    }
+}
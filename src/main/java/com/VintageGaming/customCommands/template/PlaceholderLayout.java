@@ -0,0 +1,55 @@
+package com.VintageGaming.customCommands.template;
+
+import java.util.Arrays;
+
+/**
+ * The fixed slot layout of the placeholders visible along one command path.
+ * Slot 0 is always {sender}, every [placeholder] argument on the way down the
+ * tree gets the next slot, and delayed actions append {seconds_remaining}.
+ */
+public final class PlaceholderLayout {
+
+    public static final String SENDER = "{sender}";
+    public static final String SECONDS_REMAINING = "{seconds_remaining}";
+    public static final int SENDER_SLOT = 0;
+
+    public static final PlaceholderLayout ROOT = new PlaceholderLayout(new String[]{SENDER});
+
+    private final String[] names;
+
+    private PlaceholderLayout(String[] names) {
+        this.names = names;
+    }
+
+    /**
+     * @param name The placeholder name including its brackets, e.g. "[player_to_move]".
+     * @return A new layout with the name bound to the next free slot.
+     */
+    public PlaceholderLayout extend(String name) {
+        String[] extended = Arrays.copyOf(names, names.length + 1);
+        extended[names.length] = name;
+        return new PlaceholderLayout(extended);
+    }
+
+    /**
+     * @param name The placeholder name including its brackets.
+     * @return The slot of the name, or -1 if it is not part of this layout.
+     * If a name appears twice along a path, the deepest one wins.
+     */
+    public int slotOf(String name) {
+        for (int i = names.length - 1; i >= 0; i--) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String nameOf(int slot) {
+        return names[slot];
+    }
+
+    public int size() {
+        return names.length;
+    }
+}
@@ -0,0 +1,30 @@
+package com.VintageGaming.customCommands.template;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders shared by invocations that bind the same values to every slot but {sender},
+ * like the targets of a bulk run. Templates that render neither {sender} nor a dynamic
+ * placeholder are rendered once and the string is reused for every invocation.
+ * Contexts whose slots change later, like those of countdowns, must not use one.
+ */
+public final class RenderCache {
+
+    private final Map<Template, String> rendered = new ConcurrentHashMap<>();
+
+    String get(Template template) {
+        return rendered.get(template);
+    }
+
+    void put(Template template, String value) {
+        rendered.put(template, value);
+    }
+
+    /**
+     * @return The number of templates rendered once and shared.
+     */
+    public int size() {
+        return rendered.size();
+    }
+}
@@ -0,0 +1,253 @@
+package com.VintageGaming.customCommands.template;
+
+import com.VintageGaming.customCommands.placeholder.PlaceholderHandle;
+import com.VintageGaming.customCommands.placeholder.PlaceholderService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A string from a command file, split at load time into literal parts and
+ * references to placeholder slots or dynamic placeholders. Rendering is a single
+ * pass over the parts and never searches the text again.
+ */
+public final class Template {
+
+    private final String source;
+    private final String[] literals;
+    private final int[] slots;
+    private final String[] slotNames;
+    private final PlaceholderHandle[] handles;
+    // True if the whole template is a single placeholder, which renders without copying.
+    private final boolean bare;
+    // One template per MessageCatalog locale if the string uses {lang:key} messages, otherwise null.
+    private final Template[] variants;
+    // True if the template renders the same for every sender, so a RenderCache may share it.
+    private final boolean shareable;
+
+    private Template(String source, String[] literals, int[] slots, String[] slotNames, PlaceholderHandle[] handles, Template[] variants) {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+        this.slotNames = slotNames;
+        this.handles = handles;
+        this.bare = slots.length == 1 && literals[0].isEmpty() && literals[1].isEmpty();
+        this.variants = variants;
+        boolean shareable = variants == null;
+        for (int slot : slots) {
+            if (slot < 0 || slot == PlaceholderLayout.SENDER_SLOT) {
+                shareable = false;
+            }
+        }
+        this.shareable = shareable;
+    }
+
+    /**
+     * Compiles a raw string against the placeholders known along its command path.
+     * Text that looks like a placeholder but isn't in the layout is kept as-is.
+     * @param raw The raw string from the command file.
+     * @param layout The layout of the command path the string belongs to.
+     * @return The compiled template.
+     */
+    public static Template compile(String raw, PlaceholderLayout layout) {
+        return compile(raw, layout, null);
+    }
+
+    /**
+     * Compiles a raw string, binding every {name} that isn't part of the layout
+     * to the dynamic placeholder handle of the same name.
+     * @param raw The raw string from the command file.
+     * @param layout The layout of the command path the string belongs to.
+     * @param placeholders The service dynamic placeholders are resolved through, may be null.
+     * @return The compiled template.
+     */
+    public static Template compile(String raw, PlaceholderLayout layout, PlaceholderService placeholders) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        List<PlaceholderHandle> handles = new ArrayList<>();
+
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < raw.length()) {
+            int slot = -1;
+            int matchLength = 0;
+            char c = raw.charAt(i);
+            if (c == '[' || c == '{') {
+                // Longest placeholder name starting here, deepest slot on ties.
+                for (int s = layout.size() - 1; s >= 0; s--) {
+                    String name = layout.nameOf(s);
+                    if (name.length() > matchLength && raw.startsWith(name, i)) {
+                        slot = s;
+                        matchLength = name.length();
+                    }
+                }
+            }
+            int dynamicEnd = slot < 0 && c == '{' && placeholders != null ? dynamicPlaceholderEnd(raw, i) : -1;
+            if (slot >= 0) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                slots.add(slot);
+                handles.add(null);
+                i += matchLength;
+            } else if (dynamicEnd > 0) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                slots.add(-1);
+                handles.add(placeholders.handle(raw.substring(i + 1, dynamicEnd)));
+                i = dynamicEnd + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+
+        int[] slotArray = new int[slots.size()];
+        String[] slotNames = new String[slots.size()];
+        for (int s = 0; s < slotArray.length; s++) {
+            slotArray[s] = slots.get(s);
+            slotNames[s] = slotArray[s] >= 0 ? layout.nameOf(slotArray[s]) : "{" + handles.get(s).getName() + "}";
+        }
+        return new Template(raw, literals.toArray(new String[0]), slotArray, slotNames, handles.toArray(new PlaceholderHandle[0]), null);
+    }
+
+    /**
+     * @return The index of the closing brace if a {name} placeholder starts at the given index, otherwise -1.
+     */
+    private static int dynamicPlaceholderEnd(String raw, int start) {
+        int i = start + 1;
+        while (i < raw.length()) {
+            char c = raw.charAt(i);
+            if (c == '}') {
+                return i > start + 1 ? i : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.' && c != ':') {
+                return -1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * @param text A string without placeholders.
+     * @return A template that always renders to the given text.
+     */
+    public static Template constant(String text) {
+        return new Template(text, new String[]{text}, new int[0], new String[0], new PlaceholderHandle[0], null);
+    }
+
+    /**
+     * @param raw The raw string from the command file.
+     * @param variants The string compiled once per locale, indexed like the locales of the MessageCatalog.
+     * @return A template rendering the variant of the context's locale.
+     */
+    public static Template localized(String raw, Template[] variants) {
+        return new Template(raw, new String[]{raw}, new int[0], new String[0], new PlaceholderHandle[0], variants);
+    }
+
+    /**
+     * Renders the template with the values bound in the given context.
+     * Unbound slots render as their placeholder name. If the context has a {@link RenderCache},
+     * templates that render the same for every sender are only rendered once.
+     * @param context The bound placeholder values.
+     * @return The rendered string.
+     */
+    public String render(BoundContext context) {
+        if (variants != null) {
+            int locale = context.getLocale();
+            // Contexts bound before a reload may know more locales than the template.
+            return variants[locale < variants.length ? locale : 0].render(context);
+        }
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        RenderCache cache = context.getRenderCache();
+        if (cache != null && shareable) {
+            String shared = cache.get(this);
+            if (shared == null) {
+                shared = renderParts(context);
+                cache.put(this, shared);
+            }
+            return shared;
+        }
+        return renderParts(context);
+    }
+
+    private String renderParts(BoundContext context) {
+        String[] values = context.getValues();
+        if (bare) {
+            String value = slots[0] < 0 ? handles[0].resolve(context.getSender()) : values[slots[0]];
+            return value != null ? value : slotNames[0];
+        }
+        StringBuilder builder = new StringBuilder(source.length() + 16);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            if (slots[i] < 0) {
+                builder.append(handles[i].resolve(context.getSender()));
+                continue;
+            }
+            String value = values[slots[i]];
+            builder.append(value != null ? value : slotNames[i]);
+        }
+        builder.append(literals[slots.length]);
+        return builder.toString();
+    }
+
+    /**
+     * @return The slot if the whole template is one [argument] or {sender} placeholder, otherwise -1.
+     * Its value can then be read from the bound context without rendering.
+     */
+    public int getBareSlot() {
+        return bare && slots[0] >= 0 ? slots[0] : -1;
+    }
+
+    public boolean isConstant() {
+        return slots.length == 0 && variants == null;
+    }
+
+    /**
+     * @return True if the template contains dynamic placeholders such as {balance}.
+     */
+    public boolean hasDynamicPlaceholders() {
+        if (variants != null) {
+            for (Template variant : variants) {
+                if (variant.hasDynamicPlaceholders()) return true;
+            }
+            return false;
+        }
+        for (int slot : slots) {
+            if (slot < 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param slot A slot index.
+     * @return True if the template renders the value of the given slot.
+     */
+    public boolean references(int slot) {
+        if (variants != null) {
+            for (Template variant : variants) {
+                if (variant.references(slot)) return true;
+            }
+            return false;
+        }
+        for (int s : slots) {
+            if (s == slot) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The raw string this template was compiled from.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
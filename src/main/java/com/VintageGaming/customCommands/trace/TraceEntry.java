@@ -0,0 +1,53 @@
+package com.VintageGaming.customCommands.trace;
+
+/**
+ * One recorded invocation of a custom command.
+ */
+public final class TraceEntry {
+
+    /**
+     * The sender id of the console and other senders that aren't players.
+     */
+    public static final int CONSOLE = 0;
+
+    private final long time;
+    private final int sender;
+    private final boolean tabComplete;
+    private final String label;
+    private final String[] args;
+
+    /**
+     * @param time Nanoseconds since the recording started.
+     * @param sender The anonymized sender, {@link #CONSOLE} or the number of the player in the trace, starting at 1.
+     * @param tabComplete True for a tab completion, false for an execution.
+     * @param label The label the command was run with, its name or an alias.
+     * @param args The arguments.
+     */
+    public TraceEntry(long time, int sender, boolean tabComplete, String label, String[] args) {
+        this.time = time;
+        this.sender = sender;
+        this.tabComplete = tabComplete;
+        this.label = label;
+        this.args = args;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public int getSender() {
+        return sender;
+    }
+
+    public boolean isTabComplete() {
+        return tabComplete;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String[] getArgs() {
+        return args;
+    }
+}
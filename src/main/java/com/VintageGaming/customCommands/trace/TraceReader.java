@@ -0,0 +1,129 @@
+package com.VintageGaming.customCommands.trace;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a trace written by the {@link TraceRecorder}, see {@link TraceWriter} for the format.
+ */
+public final class TraceReader implements AutoCloseable {
+
+    private final DataInputStream in;
+    private final long startMillis;
+    private final List<String> strings = new ArrayList<>();
+    private long time;
+    private int players = -1;
+
+    public TraceReader(File file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        byte[] magic = new byte[TraceWriter.MAGIC.length];
+        try {
+            in.readFully(magic);
+            if (!Arrays.equals(magic, TraceWriter.MAGIC)) {
+                throw new IOException(file.getName() + " is not a command trace.");
+            }
+            int version = in.readUnsignedByte();
+            // Version 1 is the same without the closing player count.
+            if (version < 1 || version > TraceWriter.VERSION) {
+                throw new IOException(file.getName() + " has the unsupported trace version " + version + ".");
+            }
+            this.startMillis = in.readLong();
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a whole trace.
+     */
+    public static List<TraceEntry> readAll(File file) throws IOException {
+        List<TraceEntry> entries = new ArrayList<>();
+        try (TraceReader reader = new TraceReader(file)) {
+            TraceEntry entry;
+            while ((entry = reader.next()) != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return The epoch millis the recording started at.
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * @return The number of players the trace refers to, known once {@link #next()} returned null.
+     * -1 if the trace was cut off while being written or is from an older version.
+     */
+    public int getPlayers() {
+        return players;
+    }
+
+    /**
+     * @return The next entry, null at the end of the trace. A trace cut off while being written ends at its last whole entry.
+     */
+    public TraceEntry next() throws IOException {
+        int kind = in.read();
+        if (kind < 0) return null;
+        if (kind == TraceWriter.PLAYERS) {
+            try {
+                players = (int) readVarLong();
+            } catch (EOFException e) {
+                // Cut off in the middle of the count.
+            }
+            return null;
+        }
+        if (kind != TraceWriter.EXECUTE && kind != TraceWriter.TAB_COMPLETE) {
+            throw new IOException("Unknown trace entry kind " + kind + ".");
+        }
+        try {
+            time += readVarLong();
+            int sender = (int) readVarLong();
+            String label = readString();
+            String[] args = new String[(int) readVarLong()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = readString();
+            }
+            return new TraceEntry(time, sender, kind == TraceWriter.TAB_COMPLETE, label, args);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readString() throws IOException {
+        long reference = readVarLong();
+        if (reference > 0) {
+            return strings.get((int) reference - 1);
+        }
+        String value = in.readUTF();
+        if (strings.size() < TraceWriter.MAX_STRINGS) {
+            strings.add(value);
+        }
+        return value;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+}
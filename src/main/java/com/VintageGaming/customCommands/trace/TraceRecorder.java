@@ -0,0 +1,255 @@
+package com.VintageGaming.customCommands.trace;
+
+import com.VintageGaming.customCommands.CommandEngine;
+import com.VintageGaming.customCommands.scheduler.ScheduledTask;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records the custom commands players run and tab-complete to a compact binary trace in the
+ * "traces" folder, so real traffic can be replayed against another build with the TraceReplay tool.
+ * Recording is off until it is started with '/customcommands trace start'.
+ * <p>
+ * Players are anonymized: a player is recorded as a number, counted from 1 in the order they
+ * appear in the trace, and arguments naming an online player become "player&lt;number&gt;",
+ * the names the replay gives its players. Other arguments are recorded as typed.
+ * Like the audit log, the calling thread only queues the entry, a background thread writes it.
+ */
+public class TraceRecorder {
+
+    private static final DateTimeFormatter FILE_NAME = DateTimeFormatter.ofPattern("'trace-'yyyy-MM-dd_HH-mm-ss'.cctrace'");
+
+    private final CommandEngine engine;
+    private final AtomicReference<Recording> recording = new AtomicReference<>();
+
+    private volatile int bufferSize = 65536;
+    private volatile long maxBytes = 256L * 1024 * 1024;
+
+    public TraceRecorder(CommandEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Applies the "trace" section of the config to the next recording.
+     * @param config The section, may be null.
+     */
+    public void configure(ConfigurationSection config) {
+        if (config == null) return;
+        bufferSize = Math.max(64, config.getInt("buffer-size", 65536));
+        // Kept below what DataOutputStream can count.
+        maxBytes = Math.min(Integer.MAX_VALUE / 2, Math.max(1, config.getLong("max-size-mb", 256)) * 1024 * 1024);
+    }
+
+    /**
+     * Starts a new recording.
+     * @param minutes Stop on its own after this many minutes, 0 records until stopped or the size limit is reached.
+     * @return The recording.
+     * @throws IllegalStateException If a recording is already running.
+     */
+    public synchronized Recording start(int minutes) throws IOException {
+        if (recording.get() != null) {
+            throw new IllegalStateException("A trace is already being recorded.");
+        }
+        File folder = new File(engine.getDataFolder(), "traces");
+        Files.createDirectories(folder.toPath());
+        File file = new File(folder, LocalDateTime.now().format(FILE_NAME));
+        TraceWriter writer = new TraceWriter(file, System.currentTimeMillis());
+
+        Recording started = new Recording(file, bufferSize);
+        started.thread = new Thread(() -> writeLoop(started, writer), "CustomCommands-Trace");
+        started.thread.setDaemon(true);
+        started.thread.start();
+        if (minutes > 0) {
+            started.timeout = engine.getTaskScheduler().runGlobalLater(() -> {
+                // Only this recording, it may have ended on its size limit and another one started since.
+                if (recording.compareAndSet(started, null)) {
+                    started.finish();
+                    engine.getLogger().info("Recorded " + started.getRecorded() + " invocations to " + file.getName() + ".");
+                }
+            }, TimeUnit.MINUTES.toSeconds(minutes) * 20);
+        }
+        recording.set(started);
+        return started;
+    }
+
+    /**
+     * Stops the running recording after everything queued has been written.
+     * @return The recording, null if none was running.
+     */
+    public synchronized Recording stop() {
+        Recording stopped = recording.getAndSet(null);
+        if (stopped == null) return null;
+        stopped.finish();
+        return stopped;
+    }
+
+    /**
+     * @return The running recording, null if there is none.
+     */
+    public Recording getRecording() {
+        return recording.get();
+    }
+
+    /**
+     * Queues an invocation for the running recording, if there is one. Never blocks.
+     * @param sender The sender of the command.
+     * @param label The label the command was run with.
+     * @param args The arguments as given, they are copied if they name a player.
+     * @param tabComplete True for a tab completion, false for an execution.
+     */
+    public void record(CommandSender sender, String label, String[] args, boolean tabComplete) {
+        Recording current = recording.get();
+        if (current == null) return;
+        long time = System.nanoTime() - current.startNanos;
+        int senderId = sender instanceof Player ? current.idOf((Player) sender) : TraceEntry.CONSOLE;
+        String[] recorded = args;
+        for (int i = 0; i < args.length; i++) {
+            String name = current.anonymize(args[i], engine);
+            if (name == null) continue;
+            if (recorded == args) {
+                recorded = args.clone();
+            }
+            recorded[i] = name;
+        }
+        if (!current.queue.offer(new TraceEntry(time, senderId, tabComplete, label, recorded))) {
+            current.dropped.incrementAndGet();
+        }
+    }
+
+    private void writeLoop(Recording current, TraceWriter writer) {
+        List<TraceEntry> batch = new ArrayList<>(1024);
+        try (writer) {
+            while (true) {
+                // Read the flag before draining, so nothing queued before the stop is left behind.
+                boolean stopping = !current.running;
+                current.queue.drainTo(batch, 1024);
+                for (TraceEntry entry : batch) {
+                    writer.write(entry);
+                }
+                current.recorded.addAndGet(batch.size());
+                if (writer.size() >= maxBytes) {
+                    engine.getLogger().warning("The trace " + current.file.getName() + " reached trace.max-size-mb and was stopped.");
+                    recording.compareAndSet(current, null);
+                    current.running = false;
+                    break;
+                }
+                if (!batch.isEmpty()) {
+                    batch.clear();
+                    continue;
+                }
+                writer.flush();
+                if (stopping) break;
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            // Players only named in arguments never send anything, the replay still has to create them.
+            writer.writePlayers(current.nextId.get() - 1);
+        } catch (IOException e) {
+            engine.getLogger().warning("Could not write the trace " + current.file.getName() + ", recording stopped: " + e.getMessage());
+            recording.compareAndSet(current, null);
+            current.running = false;
+        }
+    }
+
+    /**
+     * A running or finished recording.
+     */
+    public static final class Recording {
+        private final File file;
+        private final long startNanos = System.nanoTime();
+        private final BlockingQueue<TraceEntry> queue;
+        private final Map<UUID, Integer> players = new ConcurrentHashMap<>();
+        // Lower case names of the players in the trace, so arguments naming them are found without a lookup.
+        private final Map<String, Integer> names = new ConcurrentHashMap<>();
+        private final AtomicInteger nextId = new AtomicInteger(1);
+        private final AtomicLong recorded = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean running = true;
+        private Thread thread;
+        private ScheduledTask timeout;
+
+        private Recording(File file, int bufferSize) {
+            this.file = file;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * @return The number of entries written so far.
+         */
+        public long getRecorded() {
+            return recorded.get();
+        }
+
+        /**
+         * @return The number of entries dropped because the writer fell behind.
+         */
+        public long getDropped() {
+            return dropped.get();
+        }
+
+        /**
+         * @return The number of distinct players in the trace.
+         */
+        public int getPlayers() {
+            return players.size();
+        }
+
+        private int idOf(Player player) {
+            return players.computeIfAbsent(player.getUniqueId(), uuid -> {
+                int id = nextId.getAndIncrement();
+                names.put(player.getName().toLowerCase(Locale.ROOT), id);
+                return id;
+            });
+        }
+
+        /**
+         * @return The anonymized name if the argument names an online player, otherwise null.
+         */
+        private String anonymize(String arg, CommandEngine engine) {
+            if (arg.isEmpty()) return null;
+            Integer id = names.get(arg.toLowerCase(Locale.ROOT));
+            if (id == null) {
+                Player player = engine.getPlayers().getPlayerExact(arg);
+                if (player == null) return null;
+                id = idOf(player);
+            }
+            return "player" + id;
+        }
+
+        private void finish() {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
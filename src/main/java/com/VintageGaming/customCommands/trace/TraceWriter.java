@@ -0,0 +1,106 @@
+package com.VintageGaming.customCommands.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes a trace file. Only used from the trace writer thread.
+ * <p>
+ * A trace starts with the magic "CCTRACE", a version byte and the long epoch millis the
+ * recording started at, followed by entries of: byte kind (1 execute, 2 tab complete),
+ * varint nanoseconds since the previous entry, varint sender, string label, varint argument
+ * count and string arguments. A string is a varint reference: 0 is followed by the UTF string,
+ * which also gets the next number of the string table while it has fewer than
+ * {@link #MAX_STRINGS} entries, any other value is that number plus 1. Labels and arguments
+ * repeat a lot, so most of them take one or two bytes.
+ * <p>
+ * A finished recording ends with byte 3 and the varint number of players in the trace,
+ * including those only named in arguments. A trace cut off while being written lacks it.
+ */
+final class TraceWriter implements AutoCloseable {
+
+    static final byte[] MAGIC = "CCTRACE".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 2;
+    static final int EXECUTE = 1;
+    static final int TAB_COMPLETE = 2;
+    static final int PLAYERS = 3;
+    static final int MAX_STRINGS = 1 << 16;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private long lastTime;
+
+    TraceWriter(File file, long startMillis) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(startMillis);
+    }
+
+    void write(TraceEntry entry) throws IOException {
+        out.writeByte(entry.isTabComplete() ? TAB_COMPLETE : EXECUTE);
+        // Entries of several region threads can arrive slightly out of order.
+        long time = Math.max(lastTime, entry.getTime());
+        writeVarLong(time - lastTime);
+        lastTime = time;
+        writeVarLong(entry.getSender());
+        writeString(entry.getLabel());
+        writeVarLong(entry.getArgs().length);
+        for (String arg : entry.getArgs()) {
+            writeString(arg);
+        }
+    }
+
+    /**
+     * Ends the trace, nothing may be written after this.
+     * @param players The number of players the trace refers to.
+     */
+    void writePlayers(int players) throws IOException {
+        out.writeByte(PLAYERS);
+        writeVarLong(players);
+    }
+
+    /**
+     * @return The number of bytes written so far.
+     */
+    long size() {
+        // DataOutputStream stops counting at Integer.MAX_VALUE, recordings are capped well below.
+        return out.size();
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeString(String value) throws IOException {
+        Integer id = strings.get(value);
+        if (id != null) {
+            writeVarLong(id + 1);
+            return;
+        }
+        writeVarLong(0);
+        out.writeUTF(value);
+        if (strings.size() < MAX_STRINGS) {
+            strings.put(value, strings.size());
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
@@ -0,0 +1,51 @@
+package com.VintageGaming.customCommands;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Times an operation for the benchmarks next to the tests: warms it up, then reports the
+ * mean time and the bytes allocated per operation on the calling thread.
+ * The benchmarks are plain main classes, run them after 'mvn test-compile' with the test
+ * class path, e.g. {@code java -cp target/test-classes:target/classes:... <benchmark class>}.
+ */
+public final class Benchmarks {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private Benchmarks() {
+    }
+
+    /**
+     * @param name What is measured, printed with the result.
+     * @param operations How many operations one call of the task performs.
+     * @param rounds How many times the task is called after warming up.
+     * @return The mean nanoseconds per operation.
+     */
+    public static double measure(String name, int operations, int rounds, Runnable task) {
+        for (int i = 0; i < Math.max(1, rounds / 5); i++) {
+            task.run();
+        }
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = allocatedBytes() - allocated;
+
+        double total = (double) operations * rounds;
+        double nanos = elapsed / total;
+        System.out.printf("%-48s %12.1f ns/op %12.1f B/op%n", name, nanos, THREADS != null ? bytes / total : Double.NaN);
+        return nanos;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.VintageGaming.customCommands.audit;
+
+import com.VintageGaming.customCommands.Benchmarks;
+import com.VintageGaming.customCommands.CommandEngine;
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import com.VintageGaming.customCommands.headless.HeadlessPlatform;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures what {@link AuditLog#record} costs the thread running the command while the writer
+ * thread drains to a file. Bursts of records are spaced out so the writer keeps up, like on a
+ * server, and only the bursts are timed. A second run records back to back until the buffer
+ * overflows, where most records take the cheaper dropping path.
+ */
+public final class AuditLogBenchmark {
+
+    private static final int BURST = 1000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        Path folder = Files.createTempDirectory("audit-benchmark");
+        Logger logger = Logger.getLogger("AuditLogBenchmark");
+        logger.setLevel(Level.OFF);
+        HeadlessPlatform platform = new HeadlessPlatform(folder.toFile(), logger);
+        Player player = platform.addPlayer("Steve", null);
+        CommandEngine engine = new CommandEngine(platform);
+        String[] arguments = {"give", "Steve", "diamond", "64"};
+
+        for (String format : new String[]{"json", "binary"}) {
+            engine.configure(YamlConfiguration.loadConfiguration(new StringReader(
+                    "audit:\n  enabled: true\n  format: " + format + "\n  buffer-size: 8192\n  flush-interval-ms: 10\n")));
+            AuditLog log = engine.getAuditLog();
+            Runnable burst = () -> {
+                for (int i = 0; i < BURST; i++) {
+                    log.record(player, "kit", "kit [player] [item] [amount]", arguments, ExecutionOutcome.EXECUTED, 0);
+                }
+            };
+
+            long elapsed = 0;
+            for (int round = -rounds / 5; round < rounds; round++) {
+                long start = System.nanoTime();
+                burst.run();
+                if (round >= 0) {
+                    elapsed += System.nanoTime() - start;
+                }
+                // Let the writer drain the burst before the next one.
+                Thread.sleep(15);
+            }
+            System.out.printf("%-48s %12.1f ns/op, %d dropped%n", "record, " + format + " writer keeping up",
+                    (double) elapsed / ((long) BURST * rounds), log.getDropped());
+
+            Benchmarks.measure("record, " + format + " writer, buffer overflowing", BURST, rounds * 10, burst);
+            log.close();
+        }
+        engine.close();
+    }
+}
@@ -0,0 +1,38 @@
+package com.VintageGaming.customCommands.condition;
+
+import com.VintageGaming.customCommands.Benchmarks;
+import com.VintageGaming.customCommands.template.BoundContext;
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
+
+/**
+ * Measures evaluating compiled conditions. Sides that are a single [argument] are read
+ * from the bound values and allocate nothing, sides with text around a placeholder are
+ * rendered on every evaluation.
+ */
+public final class ConditionBenchmark {
+
+    private static final int OPERATIONS = 1000;
+
+    public static void main(String[] args) throws ConditionParseException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        PlaceholderLayout layout = PlaceholderLayout.ROOT.extend("[amount]").extend("[target]");
+        BoundContext context = new BoundContext(null, new String[]{"console", "25", "Steve"}, "benchmark");
+
+        measure("argument against a number", new ConditionParser("[amount] >= 10", layout, null).parse(), context, rounds);
+        measure("argument against text", new ConditionParser("[target] == steve", layout, null).parse(), context, rounds);
+        measure("argument against argument", new ConditionParser("[amount] < [target]", layout, null).parse(), context, rounds);
+        measure("two comparisons", new ConditionParser("[amount] >= 10 && [target] != alex", layout, null).parse(), context, rounds);
+        measure("rendered operands", new ConditionParser("'x[amount]' == 'x[target]'", layout, null).parse(), context, rounds);
+    }
+
+    private static void measure(String name, Condition condition, BoundContext context, int rounds) {
+        boolean[] sink = new boolean[1];
+        Benchmarks.measure(name, OPERATIONS, rounds, () -> {
+            boolean result = false;
+            for (int i = 0; i < OPERATIONS; i++) {
+                result ^= condition.test(context);
+            }
+            sink[0] ^= result;
+        });
+    }
+}
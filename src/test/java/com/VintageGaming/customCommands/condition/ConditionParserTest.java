@@ -0,0 +1,115 @@
+package com.VintageGaming.customCommands.condition;
+
+import com.VintageGaming.customCommands.template.BoundContext;
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Parses conditions against a path with the arguments [amount] and [target] and evaluates
+ * them against bound values.
+ */
+class ConditionParserTest {
+
+    private static final PlaceholderLayout LAYOUT = PlaceholderLayout.ROOT.extend("[amount]").extend("[target]");
+
+    @Test
+    void numbersCompareAsNumbers() throws ConditionParseException {
+        assertTrue(test("[amount] >= 10", "10", "x"));
+        assertTrue(test("[amount] > 9.5", "10", "x"));
+        assertFalse(test("[amount] < 10", "10", "x"));
+        assertTrue(test("[amount] == 10", "10.0", "x"));
+        assertTrue(test("10 <= [amount]", "12", "x"));
+        assertFalse(test("10 > [amount]", "12", "x"));
+        assertTrue(test("[amount] < [target]", "9", "10"));
+        assertTrue(test("[amount] == -3", "-3", "x"));
+    }
+
+    @Test
+    void textComparesIgnoringCaseAndIsNeverLessOrGreater() throws ConditionParseException {
+        assertTrue(test("[target] == steve", "1", "Steve"));
+        assertTrue(test("'Steve' == [target]", "1", "STEVE"));
+        assertTrue(test("[target] != alex", "1", "Steve"));
+        assertTrue(test("[amount] == [target]", "abc", "ABC"));
+        assertTrue(test("'a b' == 'A B'", "1", "x"));
+        assertFalse(test("[target] < zebra", "1", "apple"));
+        assertFalse(test("[target] > 5", "1", "apple"));
+        assertTrue(test("[target] != 5", "1", "apple"));
+        assertFalse(test("[amount] == [target]", "10", "ten"));
+
+        assertTrue(Conditions.isConstant(parse("[target] >= zebra")));
+    }
+
+    @Test
+    void unboundArgumentsCompareAsTheirName() throws ConditionParseException {
+        assertTrue(test("[target] == '[target]'", "1", null));
+        assertTrue(test("[amount] != 5", null, "x"));
+    }
+
+    @Test
+    void andBindsTighterThanOr() throws ConditionParseException {
+        assertTrue(test("[amount] > 100 || [amount] > 1 && [target] == steve", "5", "steve"));
+        assertFalse(test("([amount] > 100 || [amount] > 1) && [target] == steve", "5", "alex"));
+        assertTrue(test("not [amount] > 100 and ![target] == alex", "5", "steve"));
+        assertFalse(test("!([amount] > 1 or false)", "5", "x"));
+    }
+
+    @Test
+    void constantPartsAreFoldedAtLoad() throws ConditionParseException {
+        assertTrue(Conditions.isConstant(parse("1 > 2 || 'a' == 'A'")));
+        assertTrue(test("1 > 2 || 'a' == 'A'", "1", "x"));
+        assertTrue(Conditions.isConstant(parse("false && [amount] > 1")));
+        assertFalse(Conditions.isConstant(parse("true && [amount] > 1")));
+    }
+
+    @Test
+    void functionsAskTheSender() throws ConditionParseException {
+        CommandSender vip = sender(Set.of("shop.vip"), false);
+        Condition condition = parse("has_permission('shop.vip') && !is_op() && !is_player()");
+        assertTrue(condition.test(new BoundContext(vip, new String[]{"vip", "1", "x"}, "test")));
+        assertFalse(condition.test(new BoundContext(sender(Set.of(), false), new String[]{"other", "1", "x"}, "test")));
+        assertTrue(parse("is_op()").test(new BoundContext(sender(Set.of(), true), new String[3], "test")));
+        assertTrue(parse("has_permission('kit.[target]')").test(new BoundContext(sender(Set.of("kit.gold"), false), new String[]{"p", "1", "gold"}, "test")));
+    }
+
+    @Test
+    void invalidConditionsReportWhere() {
+        assertEquals(10, assertThrows(ConditionParseException.class, () -> parse("[amount] >")).getPosition());
+        assertEquals(9, assertThrows(ConditionParseException.class, () -> parse("[amount] 5")).getPosition());
+        assertEquals(8, assertThrows(ConditionParseException.class, () -> parse("(1 == 1 x")).getPosition());
+        assertEquals(5, assertThrows(ConditionParseException.class, () -> parse("a == 'b")).getPosition());
+        assertThrows(ConditionParseException.class, () -> parse("is_op("));
+    }
+
+    private static Condition parse(String source) throws ConditionParseException {
+        return new ConditionParser(source, LAYOUT, null).parse();
+    }
+
+    private static boolean test(String source, String amount, String target) throws ConditionParseException {
+        return parse(source).test(new BoundContext(null, new String[]{"console", amount, target}, "test"));
+    }
+
+    private static CommandSender sender(Set<String> permissions, boolean op) {
+        return (CommandSender) Proxy.newProxyInstance(ConditionParserTest.class.getClassLoader(), new Class<?>[]{CommandSender.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hasPermission":
+                            return permissions.contains(String.valueOf(args[0]));
+                        case "isOp":
+                            return op;
+                        case "getName":
+                            return "sender";
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,132 @@
+package com.VintageGaming.customCommands.execution;
+
+import com.VintageGaming.customCommands.headless.HeadlessScheduler;
+import com.VintageGaming.customCommands.platform.CommandSink;
+import com.VintageGaming.customCommands.template.BoundContext;
+import com.VintageGaming.customCommands.template.PlaceholderLayout;
+import com.VintageGaming.customCommands.template.Template;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Sends broadcasts of several senders through a coalescer on the headless scheduler
+ * and checks the merged lines.
+ */
+class BroadcastCoalescerTest {
+
+    private static final Template JOINED = Template.compile("{sender} joined!", PlaceholderLayout.ROOT);
+
+    private final HeadlessScheduler scheduler = new HeadlessScheduler();
+    private final List<String> sent = new ArrayList<>();
+    private final BroadcastCoalescer coalescer = new BroadcastCoalescer(scheduler, new CommandSink() {
+        @Override
+        public CommandSender getConsoleSender() {
+            return null;
+        }
+
+        @Override
+        public Command getCommand(String label) {
+            return null;
+        }
+
+        @Override
+        public boolean dispatch(CommandSender sender, String commandLine) {
+            return false;
+        }
+
+        @Override
+        public void broadcast(String message) {
+            sent.add(message);
+        }
+    });
+
+    @Test
+    void joinsTheNamesOfTheSendersInOrder() {
+        configure("coalesce-ticks: 2");
+        assertEquals(List.of("Alex joined!"), broadcast(JOINED, "Alex"));
+        assertEquals(List.of("Alex and Sam joined!"), broadcast(JOINED, "Alex", "Sam"));
+        assertEquals(List.of("Alex, Sam and Kim joined!"), broadcast(JOINED, "Alex", "Sam", "Kim"));
+        assertEquals(List.of("Alex, Sam, Kim and 2 others joined!"), broadcast(JOINED, "Alex", "Sam", "Kim", "Max", "Jo"));
+        assertEquals(1 + 2 + 4, coalescer.getMerged());
+    }
+
+    @Test
+    void aSenderIsNamedOnce() {
+        configure("coalesce-ticks: 1");
+        assertEquals(List.of("Alex and Sam joined!"), broadcast(JOINED, "Alex", "Sam", "Alex"));
+    }
+
+    @Test
+    void usesTheConfiguredSeparators() {
+        configure("coalesce-ticks: 1\nnames-shown: 2\nseparator: ' / '\nlast-separator: ' & '\nothers-format: '%names% (+%count%)'");
+        assertEquals(List.of("Alex & Sam joined!"), broadcast(JOINED, "Alex", "Sam"));
+        assertEquals(List.of("Alex / Sam (+1) joined!"), broadcast(JOINED, "Alex", "Sam", "Kim"));
+    }
+
+    @Test
+    void groupsByWhatTheBroadcastSaysBesidesTheSender() {
+        configure("coalesce-ticks: 1");
+        Template won = Template.compile("{sender} won [prize]!", PlaceholderLayout.ROOT.extend("[prize]"));
+        for (String[] run : new String[][]{{"Alex", "gold"}, {"Sam", "iron"}, {"Kim", "gold"}}) {
+            coalescer.broadcast(won, new BoundContext(sender(run[0]), run, "win"));
+        }
+        coalescer.broadcast(JOINED, context("Max"));
+        scheduler.tick();
+        assertEquals(List.of("Alex and Kim won gold!", "Sam won iron!", "Max joined!"), sent);
+    }
+
+    @Test
+    void broadcastsWithoutTheSenderAreSentOncePerWindow() {
+        configure("coalesce-ticks: 2");
+        assertEquals(List.of("The event starts!"), broadcast(Template.compile("The event starts!", PlaceholderLayout.ROOT), "Alex", "Sam"));
+    }
+
+    @Test
+    void theCapDropsDirectBroadcastsOverIt() {
+        configure("max-per-tick: 2");
+        broadcast(JOINED, "Alex", "Sam", "Kim");
+        assertEquals(List.of("Alex joined!", "Sam joined!"), sent);
+        assertEquals(1, coalescer.getDropped());
+    }
+
+    @Test
+    void closingSendsWhatIsStillWaiting() {
+        configure("coalesce-ticks: 5");
+        coalescer.broadcast(JOINED, context("Alex"));
+        coalescer.broadcast(JOINED, context("Sam"));
+        coalescer.close();
+        assertEquals(List.of("Alex and Sam joined!"), sent);
+    }
+
+    private List<String> broadcast(Template template, String... names) {
+        sent.clear();
+        for (String name : names) {
+            coalescer.broadcast(template, context(name));
+        }
+        scheduler.tick();
+        scheduler.tick();
+        return new ArrayList<>(sent);
+    }
+
+    private void configure(String yaml) {
+        coalescer.configure(YamlConfiguration.loadConfiguration(new StringReader(yaml)));
+    }
+
+    private static BoundContext context(String name) {
+        return new BoundContext(sender(name), new String[]{name}, "join");
+    }
+
+    private static CommandSender sender(String name) {
+        return (CommandSender) Proxy.newProxyInstance(BroadcastCoalescerTest.class.getClassLoader(), new Class<?>[]{CommandSender.class},
+                (proxy, method, args) -> method.getName().equals("getName") ? name : null);
+    }
+}
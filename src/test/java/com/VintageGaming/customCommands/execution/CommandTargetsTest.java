@@ -0,0 +1,98 @@
+package com.VintageGaming.customCommands.execution;
+
+import com.VintageGaming.customCommands.platform.CommandSink;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Resolves labels against a command map that changes behind the cache's back, without any
+ * plugin being enabled or disabled, and counts how often the map is asked.
+ */
+class CommandTargetsTest {
+
+    private final Map<String, Command> commands = new HashMap<>();
+    private int lookups;
+
+    private final CommandSink sink = new CommandSink() {
+        @Override
+        public CommandSender getConsoleSender() {
+            return null;
+        }
+
+        @Override
+        public Command getCommand(String label) {
+            lookups++;
+            return commands.get(label);
+        }
+
+        @Override
+        public boolean isCurrent(String label, Command command) {
+            return commands.get(label) == command;
+        }
+
+        @Override
+        public boolean dispatch(CommandSender sender, String commandLine) {
+            return false;
+        }
+
+        @Override
+        public void broadcast(String message) {
+        }
+    };
+
+    @Test
+    void hitsAreServedFromTheCache() {
+        Command heal = command("heal");
+        commands.put("heal", heal);
+        CommandTargets targets = new CommandTargets(sink);
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(heal, targets.resolve("heal"));
+        }
+        assertEquals(1, lookups);
+    }
+
+    @Test
+    void replacedAndRemovedCommandsAreNoticed() {
+        Command first = command("heal");
+        commands.put("heal", first);
+        CommandTargets targets = new CommandTargets(sink);
+        assertSame(first, targets.resolve("heal"));
+
+        Command second = command("heal");
+        commands.put("heal", second);
+        assertSame(second, targets.resolve("heal"));
+        assertSame(second, targets.resolve("heal"));
+
+        commands.remove("heal");
+        assertNull(targets.resolve("heal"));
+        assertEquals(3, lookups);
+    }
+
+    @Test
+    void unknownLabelsAreNotCached() {
+        CommandTargets targets = new CommandTargets(sink);
+        assertNull(targets.resolve("nope"));
+
+        Command late = command("nope");
+        commands.put("nope", late);
+        assertSame(late, targets.resolve("nope"));
+    }
+
+    private static Command command(String name) {
+        return new Command(name) {
+            @Override
+            public boolean execute(CommandSender sender, String label, String[] args) {
+                return true;
+            }
+        };
+    }
+}
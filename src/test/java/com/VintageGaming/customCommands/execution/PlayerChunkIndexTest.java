@@ -0,0 +1,182 @@
+package com.VintageGaming.customCommands.execution;
+
+import com.VintageGaming.customCommands.headless.HeadlessScheduler;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Vehicle;
+import org.bukkit.event.entity.EntityDismountEvent;
+import org.bukkit.event.vehicle.VehicleExitEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the players the index finds near a location with a check of every player's distance,
+ * while players move around, leave, ride vehicles and get off them.
+ */
+class PlayerChunkIndexTest {
+
+    private final Map<Player, Location> locations = new HashMap<>();
+    private final List<Player> online = new ArrayList<>();
+    private final HeadlessScheduler scheduler = new HeadlessScheduler();
+    private final World world = world();
+    private final World nether = world();
+    private PlayerChunkIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PlayerChunkIndex(scheduler);
+        index.configure(null);
+    }
+
+    @Test
+    void findsTheSamePlayersAsCheckingEveryOne() {
+        Random random = new Random(48);
+        for (int i = 0; i < 2000; i++) {
+            Player player = player();
+            locations.put(player, randomLocation(random, 300));
+        }
+        index.addAll(online);
+
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 200; i++) {
+                Player player = online.get(random.nextInt(online.size()));
+                Location to = random.nextInt(4) == 0 ? randomLocation(random, 300)
+                        : locations.get(player).clone().add(random.nextGaussian() * 8, 0, random.nextGaussian() * 8);
+                locations.put(player, to);
+                index.update(player, to);
+            }
+            Location center = randomLocation(random, 250);
+            double radius = 1 + random.nextDouble() * 63;
+            assertEquals(bruteForce(center, radius), new HashSet<>(index.getNearby(center, radius)));
+        }
+    }
+
+    @Test
+    void leftPlayersAreNotFound() {
+        Player stays = player();
+        Player leaves = player();
+        locations.put(stays, new Location(world, 1, 64, 1));
+        locations.put(leaves, new Location(world, 2, 64, 2));
+        index.addAll(online);
+
+        index.remove(leaves);
+        online.remove(leaves);
+        assertEquals(Set.of(stays), new HashSet<>(index.getNearby(new Location(world, 0, 64, 0), 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void passengersFollowTheirVehicle() {
+        Player rider = player();
+        Location from = new Location(world, 8, 64, 8);
+        locations.put(rider, from);
+        index.addAll(online);
+
+        Location to = new Location(world, 200, 64, 8);
+        locations.put(rider, to);
+        index.onVehicleMove(new VehicleMoveEvent(vehicle(rider), from, to));
+
+        assertTrue(index.getNearby(to, 4).contains(rider));
+        assertFalse(index.getNearby(from, 4).contains(rider));
+    }
+
+    @Test
+    void passengersAreLookedUpAgainAfterGettingOff() {
+        Player rider = player();
+        Location seat = new Location(world, 8, 64, 8);
+        locations.put(rider, seat);
+        index.addAll(online);
+
+        // The server puts the player next to the vehicle after the events.
+        Location ground = new Location(world, 40, 64, 8);
+        Vehicle boat = vehicle(rider);
+        index.onVehicleExit(new VehicleExitEvent(boat, rider));
+        index.onDismount(new EntityDismountEvent(rider, boat));
+        locations.put(rider, ground);
+        assertFalse(index.getNearby(ground, 4).contains(rider));
+
+        scheduler.tick();
+        assertTrue(index.getNearby(ground, 4).contains(rider));
+        assertEquals(1, index.size());
+    }
+
+    private Set<Player> bruteForce(Location center, double radius) {
+        Set<Player> nearby = new HashSet<>();
+        for (Player player : online) {
+            Location location = locations.get(player);
+            if (location.getWorld() == center.getWorld() && location.distanceSquared(center) <= radius * radius) {
+                nearby.add(player);
+            }
+        }
+        return nearby;
+    }
+
+    private Location randomLocation(Random random, int spread) {
+        // A few players are in another world with the same coordinates.
+        World in = random.nextInt(10) == 0 ? nether : world;
+        return new Location(in, random.nextDouble() * 2 * spread - spread, 40 + random.nextInt(60), random.nextDouble() * 2 * spread - spread);
+    }
+
+    private Player player() {
+        UUID id = UUID.randomUUID();
+        Player player = (Player) Proxy.newProxyInstance(PlayerChunkIndexTest.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getUniqueId":
+                            return id;
+                        case "getLocation":
+                            return locations.get(proxy).clone();
+                        case "getName":
+                        case "toString":
+                            return id.toString();
+                        case "hashCode":
+                            return id.hashCode();
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+        online.add(player);
+        return player;
+    }
+
+    private static Vehicle vehicle(Entity passenger) {
+        return (Vehicle) Proxy.newProxyInstance(PlayerChunkIndexTest.class.getClassLoader(), new Class<?>[]{Vehicle.class},
+                (proxy, method, args) -> method.getName().equals("getPassengers") ? List.of(passenger) : null);
+    }
+
+    private static World world() {
+        UUID id = UUID.randomUUID();
+        return (World) Proxy.newProxyInstance(PlayerChunkIndexTest.class.getClassLoader(), new Class<?>[]{World.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getUID":
+                            return id;
+                        case "hashCode":
+                            return id.hashCode();
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,128 @@
+package com.VintageGaming.customCommands.guard;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a breaker with a budget of 100ns through its states, passing the time in by hand.
+ */
+class CircuitBreakerTest {
+
+    private static final long BUDGET = 100;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final Logger LOGGER = Logger.getLogger("CircuitBreakerTest");
+
+    // Real nanoTime based, getState() compares against the clock.
+    private final long start = System.nanoTime();
+
+    @BeforeAll
+    static void silence() {
+        LOGGER.setLevel(Level.OFF);
+    }
+
+    @Test
+    void tripsOnceThePercentileIsOverBudget() {
+        CircuitBreaker breaker = breaker(20, 10, 3);
+        for (int i = 0; i < 9; i++) breaker.record(BUDGET, start);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(-1, breaker.check(start));
+
+        // The tenth run reaches min-samples, one slow run out of ten is the p95.
+        breaker.record(BUDGET + 1, start);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1, breaker.getTrips());
+        assertEquals(0, breaker.getSamples());
+        assertEquals(SECOND, breaker.check(start));
+    }
+
+    @Test
+    void slowRunsRollOutOfTheWindow() {
+        CircuitBreaker breaker = breaker(20, 20, 3);
+        breaker.record(BUDGET * 5, start);
+        for (int i = 0; i < 19; i++) breaker.record(BUDGET, start);
+        // One slow run out of twenty is above the p95.
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(BUDGET, breaker.percentile95());
+
+        // Replaces the first slow run.
+        breaker.record(BUDGET * 5, start);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(20, breaker.getSamples());
+
+        breaker.record(BUDGET * 5, start);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void fastProbesCloseItAgainOneAtATime() {
+        CircuitBreaker breaker = tripped(2);
+        long reopened = start + SECOND;
+        assertTrue(breaker.check(reopened - 1) > 0);
+        assertEquals(-1, breaker.check(reopened));
+
+        breaker.onPass(reopened);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // Only one probe at a time.
+        assertTrue(breaker.check(reopened + 1) > 0);
+
+        breaker.record(BUDGET, reopened + 2);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(-1, breaker.check(reopened + 3));
+        breaker.onPass(reopened + 3);
+        breaker.record(BUDGET, reopened + 4);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(-1, breaker.check(reopened + 5));
+    }
+
+    @Test
+    void aProbeThatNeverReportsBackExpires() {
+        CircuitBreaker breaker = tripped(2);
+        long reopened = start + SECOND;
+        breaker.onPass(reopened);
+        assertEquals(1, breaker.check(reopened + SECOND - 1));
+        assertEquals(-1, breaker.check(reopened + SECOND));
+    }
+
+    @Test
+    void slowProbesDoubleTheOpenTimeUpToTheMaximum() {
+        CircuitBreaker breaker = tripped(1);
+        long now = start + SECOND;
+
+        breaker.onPass(now);
+        breaker.record(BUDGET + 1, now);
+        assertEquals(2 * SECOND, breaker.check(now));
+
+        now += 2 * SECOND;
+        breaker.onPass(now);
+        breaker.record(BUDGET + 1, now);
+        assertEquals(3 * SECOND, breaker.check(now));
+        assertEquals(3, breaker.getTrips());
+
+        now += 3 * SECOND;
+        breaker.onPass(now);
+        breaker.record(BUDGET, now);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // Closing again starts over at the configured open time.
+        for (int i = 0; i < 10; i++) breaker.record(BUDGET + 1, now);
+        assertEquals(SECOND, breaker.check(now));
+    }
+
+    private CircuitBreaker tripped(int probes) {
+        CircuitBreaker breaker = breaker(20, 10, probes);
+        for (int i = 0; i < 10; i++) breaker.record(BUDGET + 1, start);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+
+    private static CircuitBreaker breaker(int window, int minSamples, int probes) {
+        return new CircuitBreaker("test", new CircuitBreaker.Settings(BUDGET, window, minSamples, SECOND, 3 * SECOND, probes), LOGGER);
+    }
+}
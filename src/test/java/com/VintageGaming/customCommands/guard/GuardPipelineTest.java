@@ -0,0 +1,115 @@
+package com.VintageGaming.customCommands.guard;
+
+import com.VintageGaming.customCommands.command.ExecutionOutcome;
+import com.VintageGaming.customCommands.headless.HeadlessRunner;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs a one-command pack on the headless platform with guards added around the built-in ones.
+ */
+class GuardPipelineTest {
+
+    @TempDir
+    Path pack;
+
+    private HeadlessRunner runner;
+    private Player player;
+
+    @BeforeEach
+    void loadPack() throws IOException {
+        Files.createDirectories(pack.resolve("commands"));
+        Files.write(pack.resolve("commands/ping.yml"), List.of("actions:", "  message:", "    - 'pong'"), StandardCharsets.UTF_8);
+        Files.write(pack.resolve("config.yml"), List.of("guards:", "  rate-limit:", "    max-commands: 2", "    window-ms: 60000"), StandardCharsets.UTF_8);
+
+        Logger logger = Logger.getLogger("GuardPipelineTest");
+        logger.setLevel(Level.OFF);
+        runner = new HeadlessRunner(pack.toFile(), logger);
+        runner.load();
+        player = runner.getPlatform().addPlayer("Steve", null);
+    }
+
+    @Test
+    void aFailingOnPassDoesNotKeepTheOthersFromRunning() {
+        CountingGuard before = new CountingGuard(CommandGuard.ROOT_PERMISSION);
+        CountingGuard after = new CountingGuard(CommandGuard.COST);
+        runner.getEngine().getGuardPipeline().register(null, before);
+        runner.getEngine().getGuardPipeline().register(null, after);
+        runner.getEngine().getGuardPipeline().register(null, new CountingGuard(CommandGuard.ARGUMENTS) {
+            @Override
+            public void onPass(GuardContext context) {
+                throw new IllegalStateException("broken guard");
+            }
+        });
+
+        runner.getPlatform().dispatch(player, "ping");
+
+        assertEquals(1, before.passed);
+        assertEquals(1, after.passed);
+        assertEquals(1, runner.getPlatform().getMessages());
+    }
+
+    @Test
+    void onlyInvocationsThatRunCountTowardsTheRateLimit() {
+        CountingGuard rejecting = new CountingGuard(CommandGuard.COOLDOWN);
+        CountingGuard last = new CountingGuard(CommandGuard.COST);
+        runner.getEngine().getGuardPipeline().register(null, rejecting);
+        runner.getEngine().getGuardPipeline().register(null, last);
+
+        rejecting.reject = true;
+        for (int i = 0; i < 5; i++) {
+            runner.getPlatform().dispatch(player, "ping");
+        }
+        assertEquals(0, last.passed);
+
+        rejecting.reject = false;
+        for (int i = 0; i < 3; i++) {
+            runner.getPlatform().dispatch(player, "ping");
+        }
+        assertEquals(2, last.passed);
+        // Two pongs and the rate limit message of the third invocation.
+        assertEquals(3, runner.getPlatform().getMessages());
+    }
+
+    private static class CountingGuard implements CommandGuard {
+        private final int order;
+        private boolean reject;
+        private int passed;
+
+        private CountingGuard(int order) {
+            this.order = order;
+        }
+
+        @Override
+        public String getName() {
+            return "counting-" + order;
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+
+        @Override
+        public ExecutionOutcome check(GuardContext context) {
+            return reject ? ExecutionOutcome.REJECTED : null;
+        }
+
+        @Override
+        public void onPass(GuardContext context) {
+            passed++;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.VintageGaming.customCommands.model;
+
+import com.VintageGaming.customCommands.command.ArgumentMatcher;
+import com.VintageGaming.customCommands.platform.PlayerLookup;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that the precompiled dispatcher picks the same child as the interpreted matcher.
+ */
+class ArgumentDispatcherTest {
+
+    private static final String[][] CHILDREN = {
+            {"reload", null}, {"Reload", null}, {"give", null},
+            {"{mode}", null}, {"{MODE}", null}, {"{give}", null}, {"{Fast}", null},
+            {"[amount]", "integer"}, {"[price]", "double"}, {"[target]", "online_player"},
+            {"[known]", "player"}, {"[world]", "world"}, {"[text]", "text"}, {"[other]", "unknown_type"},
+    };
+
+    private static final String[] INPUTS = {
+            "reload", "Reload", "RELOAD", "give", "GIVE", "mode", "Mode", "fast", "{mode}", "[amount]",
+            "12", "-5", "+7", "+", "-", "99999999999", "1.5", "1e3", "NaN", "Steve", "steve", "Alex",
+            "Notch", "world", "World", "nether", "anything", "",
+    };
+
+    private static final PlayerLookup PLAYERS = new PlayerLookup() {
+        private final Player steve = proxy(Player.class);
+        private final World world = proxy(World.class);
+
+        @Override
+        public Player getPlayerExact(String name) {
+            return name.equalsIgnoreCase("steve") ? steve : null;
+        }
+
+        @Override
+        public Player getPlayer(String name) {
+            return getPlayerExact(name);
+        }
+
+        @Override
+        public Collection<? extends Player> getOnlinePlayers() {
+            return List.of(steve);
+        }
+
+        @Override
+        public boolean hasPlayedBefore(String name) {
+            return Set.of("steve", "notch").contains(name.toLowerCase(Locale.ROOT));
+        }
+
+        @Override
+        public World getWorld(String name) {
+            return name.equals("world") ? world : null;
+        }
+
+        @Override
+        public List<World> getWorlds() {
+            return List.of(world);
+        }
+    };
+
+    @Test
+    void matchesLikeTheInterpretedMatcherForEveryMixOfChildren() {
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            List<String[]> pool = new ArrayList<>(List.of(CHILDREN));
+            Collections.shuffle(pool, random);
+            Map<String, ArgumentNode> children = new LinkedHashMap<>();
+            for (String[] child : pool.subList(0, random.nextInt(pool.size() + 1))) {
+                children.put(child[0], node(child[0], child[1], Collections.emptyMap()));
+            }
+
+            ArgumentDispatcher dispatcher = ArgumentDispatcher.of(children);
+            for (String input : INPUTS) {
+                assertSame(ArgumentMatcher.findMatchingNode(input, children, PLAYERS), dispatcher.match(input, PLAYERS),
+                        () -> "'" + input + "' against " + children.keySet());
+            }
+        }
+    }
+
+    @Test
+    void singlePlaceholderIsOnlyKnownIfThereIsExactlyOne() {
+        Map<String, ArgumentNode> children = new LinkedHashMap<>();
+        children.put("reload", node("reload", null, Collections.emptyMap()));
+        assertNull(ArgumentDispatcher.of(children).getSinglePlaceholder());
+
+        ArgumentNode amount = node("[amount]", "integer", Collections.emptyMap());
+        children.put("[amount]", amount);
+        children.put("{mode}", node("{mode}", null, Collections.emptyMap()));
+        assertSame(amount, ArgumentDispatcher.of(children).getSinglePlaceholder());
+
+        children.put("[text]", node("[text]", null, Collections.emptyMap()));
+        assertNull(ArgumentDispatcher.of(children).getSinglePlaceholder());
+    }
+
+    @Test
+    void nodesDispatchTheirChildren() {
+        ArgumentNode amount = node("[amount]", "integer", Collections.emptyMap());
+        ArgumentNode give = node("give", null, Map.of("[amount]", amount));
+        CustomCommandData command = new CustomCommandData("shop", null, null, null, Collections.emptyList(), 0, null, null, null, Map.of("give", give), null, 1);
+
+        assertSame(give, command.getDispatcher().match("give", PLAYERS));
+        assertSame(amount, give.getDispatcher().match("5", PLAYERS));
+        assertNull(give.getDispatcher().match("five", PLAYERS));
+        assertSame(ArgumentDispatcher.EMPTY, amount.getDispatcher());
+    }
+
+    static ArgumentNode node(String name, String type, Map<String, ArgumentNode> children) {
+        return new ArgumentNode(name, "test " + name, null, null, type, null, null, null, children, -1, null);
+    }
+
+    private static <T> T proxy(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+            if (method.getName().equals("equals")) return proxy == args[0];
+            return null;
+        }));
+    }
+}
@@ -0,0 +1,61 @@
+package com.VintageGaming.customCommands.model;
+
+import com.VintageGaming.customCommands.Benchmarks;
+import com.VintageGaming.customCommands.command.ArgumentMatcher;
+import com.VintageGaming.customCommands.headless.HeadlessPlatform;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Compares matching an argument through the precompiled {@link ArgumentDispatcher} with the
+ * interpreted {@link ArgumentMatcher}, on a node with 30 subcommands, 5 {static} names and
+ * an integer, an online player and a text placeholder, for inputs hitting each kind of child.
+ */
+public final class DispatcherBenchmark {
+
+    private static final String[] INPUTS = {"sub0", "sub29", "STATIC4", "42", "player7", "anything"};
+    private static final int OPERATIONS = 1000;
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        HeadlessPlatform platform = new HeadlessPlatform(new File("."), Logger.getLogger("DispatcherBenchmark"));
+        for (int i = 0; i < 20; i++) {
+            platform.addPlayer("player" + i, null);
+        }
+
+        Map<String, ArgumentNode> children = new LinkedHashMap<>();
+        for (int i = 0; i < 30; i++) {
+            add(children, "sub" + i, null);
+        }
+        for (int i = 0; i < 5; i++) {
+            add(children, "{static" + i + "}", null);
+        }
+        add(children, "[amount]", "integer");
+        add(children, "[target]", "online_player");
+        add(children, "[text]", "text");
+        ArgumentDispatcher dispatcher = ArgumentDispatcher.of(children);
+
+        Object[] sink = new Object[1];
+        for (String input : INPUTS) {
+            double interpreted = Benchmarks.measure("interpreted '" + input + "'", OPERATIONS, rounds, () -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    sink[0] = ArgumentMatcher.findMatchingNode(input, children, platform);
+                }
+            });
+            double compiled = Benchmarks.measure("dispatcher '" + input + "'", OPERATIONS, rounds, () -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    sink[0] = dispatcher.match(input, platform);
+                }
+            });
+            System.out.printf("  %.1fx%n", interpreted / compiled);
+        }
+    }
+
+    private static void add(Map<String, ArgumentNode> children, String name, String type) {
+        children.put(name, new ArgumentNode(name, "bench " + name, null, null, type, null, null, null, Collections.emptyMap(), -1, null));
+    }
+}
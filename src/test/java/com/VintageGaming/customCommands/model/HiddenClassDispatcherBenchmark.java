@@ -0,0 +1,218 @@
+package com.VintageGaming.customCommands.model;
+
+import com.VintageGaming.customCommands.Benchmarks;
+import com.VintageGaming.customCommands.headless.HeadlessPlatform;
+import com.VintageGaming.customCommands.platform.PlayerLookup;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.io.File;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Checks whether matching arguments through a hidden class generated per node, with the literal
+ * switch, the {static} comparisons and the type checks written out as bytecode, beats the shared
+ * {@link ArgumentDispatcher}. Each is measured with one node, where the call site only ever sees
+ * one class, and with eight nodes taking turns, like the commands of a server do at the one place
+ * arguments are matched. Every generated node is its own class, so that site sees eight.
+ */
+public final class HiddenClassDispatcherBenchmark {
+
+    private static final String[] INPUTS = {"sub0", "sub29", "STATIC4", "42", "player7", "anything"};
+    private static final int OPERATIONS = 1000;
+    private static final int NODES = 8;
+
+    public interface Matcher {
+        ArgumentNode match(String arg, PlayerLookup players);
+    }
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        HeadlessPlatform platform = new HeadlessPlatform(new File("."), Logger.getLogger("HiddenClassDispatcherBenchmark"));
+        for (int i = 0; i < 20; i++) {
+            platform.addPlayer("player" + i, null);
+        }
+
+        Map<String, ArgumentNode> children = new LinkedHashMap<>();
+        for (int i = 0; i < 30; i++) {
+            add(children, "sub" + i, null);
+        }
+        for (int i = 0; i < 5; i++) {
+            add(children, "{static" + i + "}", null);
+        }
+        add(children, "[amount]", "integer");
+        add(children, "[target]", "online_player");
+        add(children, "[text]", "text");
+
+        List<ArgumentDispatcher> dispatchers = new ArrayList<>();
+        List<Matcher> generated = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            dispatchers.add(ArgumentDispatcher.of(new LinkedHashMap<>(children)));
+            generated.add(generate(children));
+        }
+        ArgumentDispatcher dispatcher = dispatchers.get(0);
+        Matcher single = generated.get(0);
+
+        Object[] sink = new Object[1];
+        for (String input : INPUTS) {
+            if (single.match(input, platform) != dispatcher.match(input, platform)) {
+                throw new AssertionError("The generated class matches '" + input + "' differently");
+            }
+            Benchmarks.measure("dispatcher, one node '" + input + "'", OPERATIONS, rounds, () -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    sink[0] = dispatcher.match(input, platform);
+                }
+            });
+            Benchmarks.measure("hidden class, one node '" + input + "'", OPERATIONS, rounds, () -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    sink[0] = single.match(input, platform);
+                }
+            });
+            Benchmarks.measure("dispatcher, " + NODES + " nodes '" + input + "'", OPERATIONS, rounds, () -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    sink[0] = dispatchers.get(i % NODES).match(input, platform);
+                }
+            });
+            Benchmarks.measure("hidden class, " + NODES + " nodes '" + input + "'", OPERATIONS, rounds, () -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    sink[0] = generated.get(i % NODES).match(input, platform);
+                }
+            });
+        }
+    }
+
+    /**
+     * Type checks the generated classes call directly instead of through the enum.
+     */
+    public static boolean isInteger(String input, PlayerLookup players) {
+        return ArgumentType.INTEGER.matches(input, players);
+    }
+
+    public static boolean isOnlinePlayer(String input, PlayerLookup players) {
+        return players.getPlayerExact(input) != null;
+    }
+
+    /**
+     * Generates a hidden class matching like {@link ArgumentDispatcher#match}, for the integer,
+     * online player and text placeholders the benchmark uses. The nodes are its class data,
+     * loaded as constants.
+     */
+    private static Matcher generate(Map<String, ArgumentNode> children) throws ReflectiveOperationException {
+        List<ArgumentNode> nodes = new ArrayList<>(children.values());
+        String nodeDescriptor = Type.getDescriptor(ArgumentNode.class);
+        String checkDescriptor = "(Ljava/lang/String;" + Type.getDescriptor(PlayerLookup.class) + ")Z";
+        Handle classDataAt = new Handle(H_INVOKESTATIC, "java/lang/invoke/MethodHandles", "classDataAt",
+                "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;", false);
+
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+            @Override
+            protected String getCommonSuperClass(String first, String second) {
+                // Frames only ever merge empty stacks, this is never asked for a real answer.
+                return "java/lang/Object";
+            }
+        };
+        writer.visit(V21, ACC_PUBLIC | ACC_FINAL, Type.getInternalName(HiddenClassDispatcherBenchmark.class) + "$Generated",
+                null, "java/lang/Object", new String[]{Type.getInternalName(Matcher.class)});
+        MethodVisitor constructor = writer.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor match = writer.visitMethod(ACC_PUBLIC, "match",
+                "(Ljava/lang/String;" + Type.getDescriptor(PlayerLookup.class) + ")" + nodeDescriptor, null, null);
+        match.visitCode();
+
+        // Literals: a switch on the hash, then equals, like javac compiles a switch on strings.
+        TreeMap<Integer, List<Integer>> literals = new TreeMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            ArgumentNode node = nodes.get(i);
+            if (!node.isPlaceholder() && !node.isStaticPlaceholder()) {
+                literals.computeIfAbsent(node.getName().hashCode(), hash -> new ArrayList<>()).add(i);
+            }
+        }
+        Label statics = new Label();
+        int[] hashes = literals.keySet().stream().mapToInt(Integer::intValue).toArray();
+        Label[] cases = new Label[hashes.length];
+        for (int i = 0; i < cases.length; i++) {
+            cases[i] = new Label();
+        }
+        match.visitVarInsn(ALOAD, 1);
+        match.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+        match.visitLookupSwitchInsn(statics, hashes, cases);
+        for (int i = 0; i < hashes.length; i++) {
+            match.visitLabel(cases[i]);
+            for (int index : literals.get(hashes[i])) {
+                Label next = new Label();
+                match.visitVarInsn(ALOAD, 1);
+                match.visitLdcInsn(nodes.get(index).getName());
+                match.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
+                match.visitJumpInsn(IFEQ, next);
+                returnNode(match, nodeDescriptor, classDataAt, index);
+                match.visitLabel(next);
+            }
+            match.visitJumpInsn(GOTO, statics);
+        }
+
+        match.visitLabel(statics);
+        for (int i = 0; i < nodes.size(); i++) {
+            ArgumentNode node = nodes.get(i);
+            if (!node.isStaticPlaceholder()) continue;
+            Label next = new Label();
+            match.visitVarInsn(ALOAD, 1);
+            match.visitLdcInsn(node.getName().substring(1, node.getName().length() - 1));
+            match.visitMethodInsn(INVOKEVIRTUAL, "java/lang/String", "equalsIgnoreCase", "(Ljava/lang/String;)Z", false);
+            match.visitJumpInsn(IFEQ, next);
+            returnNode(match, nodeDescriptor, classDataAt, i);
+            match.visitLabel(next);
+        }
+
+        for (int i = 0; i < nodes.size(); i++) {
+            ArgumentNode node = nodes.get(i);
+            if (!node.isPlaceholder()) continue;
+            ArgumentType type = ArgumentType.of(node.getType());
+            Label next = new Label();
+            if (type != ArgumentType.TEXT) {
+                match.visitVarInsn(ALOAD, 1);
+                match.visitVarInsn(ALOAD, 2);
+                match.visitMethodInsn(INVOKESTATIC, Type.getInternalName(HiddenClassDispatcherBenchmark.class),
+                        type == ArgumentType.INTEGER ? "isInteger" : "isOnlinePlayer", checkDescriptor, false);
+                match.visitJumpInsn(IFEQ, next);
+            }
+            returnNode(match, nodeDescriptor, classDataAt, i);
+            match.visitLabel(next);
+        }
+        match.visitInsn(ACONST_NULL);
+        match.visitInsn(ARETURN);
+        match.visitMaxs(0, 0);
+        match.visitEnd();
+        writer.visitEnd();
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClassWithClassData(writer.toByteArray(), nodes, true);
+        return (Matcher) lookup.lookupClass().getDeclaredConstructor().newInstance();
+    }
+
+    private static void returnNode(MethodVisitor method, String nodeDescriptor, Handle classDataAt, int index) {
+        method.visitLdcInsn(new ConstantDynamic("_", nodeDescriptor, classDataAt, index));
+        method.visitInsn(ARETURN);
+    }
+
+    private static void add(Map<String, ArgumentNode> children, String name, String type) {
+        children.put(name, new ArgumentNode(name, "bench " + name, null, null, type, null, null, null, Collections.emptyMap(), -1, null));
+    }
+}
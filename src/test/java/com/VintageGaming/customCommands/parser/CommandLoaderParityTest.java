@@ -0,0 +1,219 @@
+package com.VintageGaming.customCommands.parser;
+
+import com.VintageGaming.customCommands.model.ActionBlock;
+import com.VintageGaming.customCommands.model.ArgumentNode;
+import com.VintageGaming.customCommands.model.CompiledAction;
+import com.VintageGaming.customCommands.model.CompiledBranch;
+import com.VintageGaming.customCommands.model.CompiledDelay;
+import com.VintageGaming.customCommands.model.CustomCommandData;
+import com.VintageGaming.customCommands.template.Template;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Loads command files through the streaming loader and through Bukkit's YamlConfiguration
+ * and checks that both produce the same commands.
+ */
+class CommandLoaderParityTest {
+
+    @TempDir
+    Path commandsDir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"example", "pexwrapper", "testheal"})
+    void bundledCommandsLoadTheSameThroughBothLoaders(String name) throws IOException {
+        try (InputStream in = CommandLoaderParityTest.class.getResourceAsStream("/commands/" + name + ".yml")) {
+            assertNotNull(in, "bundled " + name + ".yml");
+            Files.copy(in, commandsDir.resolve(name + ".yml"));
+        }
+
+        CustomCommandData streamed = load(true).get(name);
+        CustomCommandData bukkit = load(false).get(name);
+
+        assertNotNull(streamed);
+        assertNotNull(bukkit);
+        assertEquals(describe(bukkit), describe(streamed));
+    }
+
+    @Test
+    void scalarsAreTypedLikeYamlConfiguration() throws IOException {
+        write("typed", "permission: yes",
+                "cost: 1.50",
+                "aliases: [on, 12]",
+                "actions:",
+                "  teleport:",
+                "    who: '{sender}'",
+                "    x: 1.50",
+                "    y: 64",
+                "    z: -2.0",
+                "delay:",
+                "  length: '5 second'",
+                "  cancel-on-move: yes",
+                "  cancel-on-damage: on");
+
+        CustomCommandData streamed = load(true).get("typed");
+        CustomCommandData bukkit = load(false).get("typed");
+
+        assertEquals(describe(bukkit), describe(streamed));
+        assertEquals("true", streamed.getPermission());
+        assertEquals(1.5, streamed.getCost());
+        assertEquals(List.of("true", "12"), streamed.getAliases());
+        assertEquals("1.5", streamed.getRootBlock().getActions().get(0).getField("x").getSource());
+        CompiledDelay delay = streamed.getRootBlock().getDelay();
+        assertEquals(1, delay.getCancelDistance());
+        assertEquals(Boolean.TRUE, delay.getCancelOnDamage());
+    }
+
+    @Test
+    void quotedFlagsReadLikeUnquotedOnes() throws IOException {
+        write("quoted", "actions:",
+                "  message:",
+                "    - 'hi'",
+                "delay:",
+                "  length: '5 second'",
+                "  cancel-on-move: 'on'",
+                "  cancel-on-damage: 'yes'");
+
+        for (boolean streaming : new boolean[]{true, false}) {
+            CompiledDelay delay = load(streaming).get("quoted").getRootBlock().getDelay();
+            assertEquals(1, delay.getCancelDistance());
+            assertEquals(Boolean.TRUE, delay.getCancelOnDamage());
+        }
+    }
+
+    @Test
+    void siblingsKeepTheOrderOfTheFile() throws IOException {
+        List<String> order = List.of("[zeta]", "beta", "[alpha]", "{gamma}", "[mid]");
+        List<String> lines = new ArrayList<>();
+        lines.add("arguments:");
+        for (String key : order) {
+            lines.add("  '" + key + "':");
+            lines.add("    actions:");
+            lines.add("      message: ['" + key + "']");
+        }
+        write("ordered", lines.toArray(new String[0]));
+
+        assertEquals(order, new ArrayList<>(load(true).get("ordered").getArguments().keySet()));
+        assertEquals(order, new ArrayList<>(load(false).get("ordered").getArguments().keySet()));
+    }
+
+    @Test
+    void streamingKeepsKeysAsWritten() throws IOException {
+        // YamlConfiguration would split 'v1.2' into sections and read 'on' as "true", see YamlCommandLoader.
+        write("keys", "arguments:",
+                "  'v1.2':",
+                "    actions:",
+                "      message: ['dotted']",
+                "  'on':",
+                "    actions:",
+                "      message: ['word']");
+
+        Map<String, ArgumentNode> arguments = load(true).get("keys").getArguments();
+        assertEquals(List.of("v1.2", "on"), new ArrayList<>(arguments.keySet()));
+        assertTrue(arguments.get("v1.2").hasActions());
+    }
+
+    private Map<String, CustomCommandData> load(boolean streaming) {
+        return new CommandPackLoader(new ActionCompiler(), Logger.getLogger("test")).load(commandsDir.toFile(), streaming);
+    }
+
+    private void write(String name, String... lines) throws IOException {
+        Files.write(commandsDir.resolve(name + ".yml"), List.of(lines), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes down everything a loaded command is made of, in order, so two loads can be compared as text.
+     */
+    static String describe(CustomCommandData command) {
+        StringBuilder out = new StringBuilder();
+        out.append("command ").append(command.getName())
+                .append(" permission=").append(command.getPermission())
+                .append(" permission-message=").append(command.getPermissionMessage())
+                .append(" usage-message=").append(command.getUsageMessage())
+                .append(" aliases=").append(command.getAliases())
+                .append(" cost=").append(command.getCost())
+                .append(" cooldown=").append(command.getCooldown())
+                .append(" actions=").append(command.hasRootActions())
+                .append(" delay=").append(command.hasRootDelay())
+                .append(" slots=").append(command.getSlotCount()).append('\n');
+        describe(out, "  ", command.getRootBlock());
+        for (ArgumentNode node : command.getArguments().values()) {
+            describe(out, "  ", node);
+        }
+        return out.toString();
+    }
+
+    private static void describe(StringBuilder out, String indent, ArgumentNode node) {
+        out.append(indent).append("argument ").append(node.getName())
+                .append(" path=").append(node.getPath())
+                .append(" permission=").append(node.getPermission())
+                .append(" permission-message=").append(node.getPermissionMessage())
+                .append(" type=").append(node.getType())
+                .append(" type-error=").append(node.getTypeError())
+                .append(" slot=").append(node.getSlot())
+                .append(" actions=").append(node.hasActions())
+                .append(" delay=").append(node.hasDelay()).append('\n');
+        describe(out, indent + "  ", node.getActionBlock());
+        for (ArgumentNode child : node.getChildren().values()) {
+            describe(out, indent + "  ", child);
+        }
+    }
+
+    private static void describe(StringBuilder out, String indent, ActionBlock block) {
+        if (block == null) return;
+        out.append(indent).append("slots=").append(block.getSlotCount()).append('\n');
+        describe(out, indent, block.getActions());
+        CompiledDelay delay = block.getDelay();
+        if (delay != null) {
+            out.append(indent).append("delay ticks=").append(delay.getTicks())
+                    .append(" seconds-slot=").append(delay.getSecondsSlot())
+                    .append(" cancel-on-move=").append(delay.getCancelDistance())
+                    .append(" cancel-on-damage=").append(delay.getCancelOnDamage()).append('\n');
+            describe(out, indent + "  ", delay.getPerSecondActions());
+        }
+    }
+
+    private static void describe(StringBuilder out, String indent, List<CompiledAction> actions) {
+        for (CompiledAction action : actions) {
+            out.append(indent).append(action.getType());
+            if (action.getLines() != null) {
+                for (Template line : action.getLines()) {
+                    out.append(" [").append(line.getSource()).append(']');
+                }
+            }
+            if (action.getText() != null) {
+                out.append(" text=").append(action.getText().getSource());
+            }
+            if (action.getFields() != null) {
+                for (Map.Entry<String, Template> field : action.getFields().entrySet()) {
+                    out.append(' ').append(field.getKey()).append('=').append(field.getValue().getSource());
+                }
+            }
+            out.append('\n');
+            if (action.getBranches() != null) {
+                for (CompiledBranch branch : action.getBranches()) {
+                    out.append(indent).append("  if ").append(branch.getSource()).append('\n');
+                    describe(out, indent + "    ", branch.getThenActions());
+                    out.append(indent).append("  else\n");
+                    describe(out, indent + "    ", branch.getElseActions());
+                }
+            }
+        }
+    }
+}
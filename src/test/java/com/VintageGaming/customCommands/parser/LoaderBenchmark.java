@@ -0,0 +1,38 @@
+package com.VintageGaming.customCommands.parser;
+
+import com.VintageGaming.customCommands.Benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compares the parse time and garbage per command file of the streaming loader and the
+ * loader built on Bukkit's YamlConfiguration, over the bundled command files.
+ */
+public final class LoaderBenchmark {
+
+    private static final String[] FILES = {"example", "pexwrapper", "testheal"};
+
+    public static void main(String[] args) throws IOException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Path dir = Files.createTempDirectory("loader-benchmark");
+        for (String name : FILES) {
+            try (InputStream in = LoaderBenchmark.class.getResourceAsStream("/commands/" + name + ".yml")) {
+                Files.copy(in, dir.resolve(name + ".yml"));
+            }
+        }
+        File commandsDir = dir.toFile();
+        Logger logger = Logger.getLogger("LoaderBenchmark");
+        logger.setLevel(Level.OFF);
+        CommandPackLoader loader = new CommandPackLoader(new ActionCompiler(), logger);
+
+        double bukkit = Benchmarks.measure("bukkit loader, per file", FILES.length, rounds, () -> loader.load(commandsDir, false));
+        double streaming = Benchmarks.measure("streaming loader, per file", FILES.length, rounds, () -> loader.load(commandsDir, true));
+        System.out.printf("streaming is %.1fx faster%n", bukkit / streaming);
+    }
+}
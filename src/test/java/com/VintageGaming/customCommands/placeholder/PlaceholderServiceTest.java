@@ -0,0 +1,89 @@
+package com.VintageGaming.customCommands.placeholder;
+
+import com.VintageGaming.customCommands.CommandEngine;
+import com.VintageGaming.customCommands.headless.HeadlessPlatform;
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Counts how often a provider is asked while command files are reloaded and values are
+ * invalidated. The service has no ServicesManager, providers are bound to the handles directly.
+ */
+class PlaceholderServiceTest {
+
+    private final PlaceholderService service = new PlaceholderService(
+            new CommandEngine(new HeadlessPlatform(new File("."), Logger.getLogger("PlaceholderServiceTest"))), null);
+    private final CommandSender sender = sender("Steve");
+
+    @Test
+    void handlesTheNewSnapshotDoesNotUseArePruned() {
+        service.beginLoad();
+        PlaceholderHandle balance = service.handle("balance");
+        PlaceholderHandle world = service.handle("world");
+        AtomicInteger lookups = new AtomicInteger();
+        world.bind(provider("world", lookups));
+        world.resolve(sender);
+        world.resolve(sender);
+        assertEquals(1, lookups.get());
+
+        long load = service.beginLoad();
+        assertSame(balance, service.handle("balance"));
+        service.prune(load);
+
+        assertSame(balance, service.handle("balance"));
+        assertNotSame(world, service.handle("world"));
+        // The old snapshot's templates still render the dropped handle, without caching.
+        world.resolve(sender);
+        world.resolve(sender);
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    void invalidatedValuesAreResolvedAgain() {
+        AtomicInteger lookups = new AtomicInteger();
+        PlaceholderHandle balance = service.handle("balance");
+        balance.bind(provider("balance", lookups));
+        CommandSender other = sender("Alex");
+
+        balance.resolve(sender);
+        balance.resolve(other);
+        service.invalidate("balance", sender);
+        service.invalidate("balance_formatted", sender);
+        balance.resolve(sender);
+        balance.resolve(other);
+        assertEquals(3, lookups.get());
+    }
+
+    private static PlaceholderProvider provider(String name, AtomicInteger lookups) {
+        return new PlaceholderProvider() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String resolve(CommandSender sender) {
+                return String.valueOf(lookups.incrementAndGet());
+            }
+
+            @Override
+            public long getRefreshTicks() {
+                return 100;
+            }
+        };
+    }
+
+    private static CommandSender sender(String name) {
+        return (CommandSender) Proxy.newProxyInstance(PlaceholderServiceTest.class.getClassLoader(), new Class<?>[]{CommandSender.class},
+                (proxy, method, args) -> method.getName().equals("getName") ? name : null);
+    }
+}
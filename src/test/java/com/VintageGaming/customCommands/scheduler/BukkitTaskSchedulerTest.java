@@ -0,0 +1,244 @@
+package com.VintageGaming.customCommands.scheduler;
+
+import org.bukkit.Server;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the Bukkit backend against a scheduler stub whose ticks are advanced by hand.
+ */
+class BukkitTaskSchedulerTest {
+
+    private final List<StubTask> tasks = new ArrayList<>();
+    private boolean primaryThread;
+    private BukkitTaskScheduler scheduler;
+
+    @BeforeEach
+    void createScheduler() {
+        BukkitScheduler bukkitScheduler = proxy(BukkitScheduler.class, (name, args) -> {
+            switch (name) {
+                case "runTask":
+                    return schedule((Runnable) args[1], 0, -1);
+                case "runTaskLater":
+                    return schedule((Runnable) args[1], (Long) args[2], -1);
+                case "runTaskTimer":
+                    return schedule((Runnable) args[1], (Long) args[2], (Long) args[3]);
+                default:
+                    return null;
+            }
+        });
+        Server server = proxy(Server.class, (name, args) -> {
+            switch (name) {
+                case "getScheduler":
+                    return bukkitScheduler;
+                case "isPrimaryThread":
+                    return primaryThread;
+                default:
+                    return null;
+            }
+        });
+        Plugin plugin = proxy(Plugin.class, (name, args) -> name.equals("getServer") ? server : null);
+        scheduler = new BukkitTaskScheduler(plugin);
+    }
+
+    @Test
+    void globalTasksRunInlineOnTheMainThreadOnly() {
+        AtomicInteger runs = new AtomicInteger();
+        primaryThread = true;
+        scheduler.runGlobal(runs::incrementAndGet);
+        assertEquals(1, runs.get());
+        assertTrue(tasks.isEmpty());
+
+        primaryThread = false;
+        scheduler.runGlobal(runs::incrementAndGet);
+        assertEquals(1, runs.get());
+        tick();
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void entityTasksFromOtherThreadsAreDroppedOnceTheEntityIsGone() {
+        boolean[] online = {true};
+        Player player = player(online);
+        AtomicInteger runs = new AtomicInteger();
+
+        scheduler.runForEntity(player, runs::incrementAndGet);
+        online[0] = false;
+        tick();
+        assertEquals(0, runs.get());
+
+        primaryThread = true;
+        scheduler.runForEntity(player, runs::incrementAndGet);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void delayedEntityTasksAreDroppedOnceThePlayerLeft() {
+        boolean[] online = {true};
+        Player player = player(online);
+        AtomicInteger runs = new AtomicInteger();
+        primaryThread = true;
+        scheduler.runForEntityLater(player, runs::incrementAndGet, 1);
+        scheduler.runForEntityLater(player, runs::incrementAndGet, 3);
+        assertEquals(0, runs.get());
+
+        tick();
+        tick();
+        assertEquals(1, runs.get());
+        online[0] = false;
+        tick();
+        tick();
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void entityTimerRetiresWhenThePlayerLeaves() {
+        boolean[] online = {true};
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger retired = new AtomicInteger();
+        ScheduledTask timer = scheduler.runEntityTimer(player(online), runs::incrementAndGet, retired::incrementAndGet, 0, 1);
+
+        tick();
+        tick();
+        assertEquals(2, runs.get());
+        assertFalse(timer.isCancelled());
+
+        online[0] = false;
+        tick();
+        tick();
+        assertEquals(2, runs.get());
+        assertEquals(1, retired.get());
+        assertTrue(timer.isCancelled());
+        assertTrue(tasks.get(0).cancelled);
+    }
+
+    @Test
+    void entityTimerRetiresWhenAnEntityIsRemoved() {
+        boolean[] valid = {true};
+        Entity entity = proxy(Entity.class, (name, args) -> name.equals("isValid") ? valid[0] : null);
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger retired = new AtomicInteger();
+        scheduler.runEntityTimer(entity, runs::incrementAndGet, retired::incrementAndGet, 0, 1);
+
+        tick();
+        valid[0] = false;
+        tick();
+        assertEquals(1, runs.get());
+        assertEquals(1, retired.get());
+    }
+
+    @Test
+    void entityTimerForAGoneEntityRetiresAtOnce() {
+        AtomicInteger retired = new AtomicInteger();
+        ScheduledTask timer = scheduler.runEntityTimer(player(new boolean[]{false}), () -> {
+            throw new AssertionError("ran for a player who left");
+        }, retired::incrementAndGet, 0, 1);
+
+        assertEquals(1, retired.get());
+        assertTrue(timer.isCancelled());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    void cancelledEntityTimerNeitherRunsNorRetires() {
+        boolean[] online = {true};
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger retired = new AtomicInteger();
+        ScheduledTask timer = scheduler.runEntityTimer(player(online), runs::incrementAndGet, retired::incrementAndGet, 0, 1);
+
+        timer.cancel();
+        online[0] = false;
+        tick();
+        assertEquals(0, runs.get());
+        assertEquals(0, retired.get());
+        assertTrue(tasks.get(0).cancelled);
+    }
+
+    /**
+     * Runs every task that is due, in the order it was scheduled.
+     */
+    private void tick() {
+        for (StubTask task : new ArrayList<>(tasks)) {
+            if (task.cancelled) continue;
+            if (task.delay > 0) {
+                task.delay--;
+                continue;
+            }
+            task.runnable.run();
+            if (task.period < 0) {
+                task.cancelled = true;
+            } else {
+                task.delay = task.period - 1;
+            }
+        }
+    }
+
+    private BukkitTask schedule(Runnable runnable, long delay, long period) {
+        StubTask task = new StubTask(runnable, delay, period);
+        tasks.add(task);
+        return proxy(BukkitTask.class, (name, args) -> {
+            switch (name) {
+                case "cancel":
+                    task.cancelled = true;
+                    return null;
+                case "isCancelled":
+                    return task.cancelled;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static Player player(boolean[] online) {
+        // Like Bukkit, a dead or not yet spawned player isn't valid but still online.
+        return proxy(Player.class, (name, args) -> {
+            switch (name) {
+                case "isOnline":
+                    return online[0];
+                case "isValid":
+                    return false;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+            if (method.getName().equals("equals")) return proxy == args[0];
+            return handler.invoke(method.getName(), args);
+        }));
+    }
+
+    private static final class StubTask {
+        private final Runnable runnable;
+        private final long period;
+        private long delay;
+        private boolean cancelled;
+
+        private StubTask(Runnable runnable, long delay, long period) {
+            this.runnable = runnable;
+            this.delay = delay;
+            this.period = period;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.VintageGaming.customCommands.trace;
+
+import com.VintageGaming.customCommands.headless.HeadlessRunner;
+import com.VintageGaming.customCommands.headless.TraceReplay;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes traces and reads them back, through the writer directly and through a recording
+ * on the headless platform that is then replayed.
+ */
+class TraceRoundTripTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        File file = folder.resolve("written.cctrace").toFile();
+        List<TraceEntry> written = new ArrayList<>();
+        long time = 0;
+        for (int i = 0; i < 300; i++) {
+            // Repeated labels and arguments go through the string table, times through varints of every length.
+            time += i % 7 == 0 ? 1L << (i % 50) : i;
+            written.add(new TraceEntry(time, i % 5, i % 3 == 0, "label" + (i % 4), new String[]{"arg" + (i % 9), "x" + i, ""}));
+        }
+        try (TraceWriter writer = new TraceWriter(file, 1234L)) {
+            for (TraceEntry entry : written) {
+                writer.write(entry);
+            }
+            writer.writePlayers(4);
+        }
+
+        try (TraceReader reader = new TraceReader(file)) {
+            assertEquals(1234L, reader.getStartMillis());
+            for (TraceEntry expected : written) {
+                TraceEntry read = reader.next();
+                assertNotNull(read);
+                assertEquals(expected.getTime(), read.getTime());
+                assertEquals(expected.getSender(), read.getSender());
+                assertEquals(expected.isTabComplete(), read.isTabComplete());
+                assertEquals(expected.getLabel(), read.getLabel());
+                assertArrayEquals(expected.getArgs(), read.getArgs());
+            }
+            assertNull(reader.next());
+            assertEquals(4, reader.getPlayers());
+        }
+    }
+
+    @Test
+    void playersOnlyNamedInArgumentsAreReplayed() throws IOException {
+        HeadlessRunner recorded = runner("recorded");
+        Player steve = recorded.getPlatform().addPlayer("Steve", null);
+        recorded.getPlatform().addPlayer("Alex", null);
+        recorded.getPlatform().addPlayer("Kim", null);
+
+        TraceRecorder recorder = recorded.getEngine().getTraceRecorder();
+        File file = recorder.start(0).getFile();
+        recorder.record(steve, "tp", new String[]{"Alex", "here"}, false);
+        recorder.record(steve, "tp", new String[]{"kim"}, true);
+        recorder.record(recorded.getPlatform().getConsoleSender(), "ping", new String[0], false);
+        assertEquals(3, recorder.stop().getRecorded());
+
+        List<TraceEntry> entries = new ArrayList<>();
+        int players;
+        try (TraceReader reader = new TraceReader(file)) {
+            TraceEntry entry;
+            while ((entry = reader.next()) != null) {
+                entries.add(entry);
+            }
+            players = reader.getPlayers();
+        }
+        assertEquals(3, players);
+        assertEquals(1, entries.get(0).getSender());
+        assertArrayEquals(new String[]{"player2", "here"}, entries.get(0).getArgs());
+        assertArrayEquals(new String[]{"player3"}, entries.get(1).getArgs());
+        assertTrue(entries.get(1).isTabComplete());
+        assertEquals(TraceEntry.CONSOLE, entries.get(2).getSender());
+
+        HeadlessRunner replayed = runner("replayed");
+        new TraceReplay(replayed, entries, players);
+        assertNotNull(replayed.getPlatform().getPlayerExact("player3"));
+
+        // Cut off before the player count, the replay counts the players named in arguments.
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 2);
+        }
+        try (TraceReader reader = new TraceReader(file)) {
+            assertNotNull(reader.next());
+            assertNotNull(reader.next());
+            assertNotNull(reader.next());
+            assertNull(reader.next());
+            assertEquals(-1, reader.getPlayers());
+        }
+        HeadlessRunner cutOff = runner("cut-off");
+        new TraceReplay(cutOff, TraceReader.readAll(file), -1);
+        assertNotNull(cutOff.getPlatform().getPlayerExact("player3"));
+        assertNull(cutOff.getPlatform().getPlayerExact("player4"));
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        File file = folder.resolve("other.cctrace").toFile();
+        Files.write(file.toPath(), "not a trace".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> new TraceReader(file).close());
+    }
+
+    private HeadlessRunner runner(String name) throws IOException {
+        Path pack = folder.resolve(name);
+        Files.createDirectories(pack.resolve("commands"));
+        Files.write(pack.resolve("commands/ping.yml"), List.of("actions:", "  message:", "    - 'pong'"), StandardCharsets.UTF_8);
+        Logger logger = Logger.getLogger("TraceRoundTripTest");
+        logger.setLevel(Level.OFF);
+        HeadlessRunner runner = new HeadlessRunner(pack.toFile(), logger);
+        runner.load();
+        return runner;
+    }
+}